@@ -0,0 +1,187 @@
+package jsonparser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Generated documents shared by the benchmarks. Every document is built from
+ * a fixed seed, so the bytes are the same from run to run and scores can be
+ * compared against an earlier baseline.
+ */
+final class BenchmarkCorpus {
+  static final String API = "api";
+  static final String NUMBERS = "numbers";
+  static final String STRINGS = "strings";
+  static final String ESCAPES = "escapes";
+  static final String NESTED = "nested";
+  static final String NDJSON = "ndjson";
+
+  private static final String[] WORDS = {
+      "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit", "sed", "do", "eiusmod",
+      "tempor", "incididunt", "ut", "labore", "et", "dolore", "magna", "aliqua"
+  };
+
+  private BenchmarkCorpus() {
+  }
+
+  /**
+   * Returns the UTF-8 bytes of the named document. {@link #NDJSON} holds one
+   * document per line; the others hold a single document.
+   */
+  static byte[] generate(String name) {
+    Random random = new Random(42);
+    StringBuilder sb = new StringBuilder();
+    switch (name) {
+      case API:
+        apiResponse(sb, random, 0);
+        break;
+      case NUMBERS:
+        numbers(sb, random);
+        break;
+      case STRINGS:
+        strings(sb, random);
+        break;
+      case ESCAPES:
+        escapes(sb, random);
+        break;
+      case NESTED:
+        nested(sb, random);
+        break;
+      case NDJSON:
+        for (int i = 0; i < 5000; i++) {
+          event(sb, random, i);
+          sb.append('\n');
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown corpus: " + name);
+    }
+    return sb.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * A typical REST response of about a kilobyte: a user with a few nested
+   * fields and a short page of orders.
+   */
+  private static void apiResponse(StringBuilder sb, Random random, int id) {
+    sb.append("{\"id\": ").append(id + 1000).append(", \"username\": \"").append(word(random)).append('_')
+        .append(random.nextInt(1000)).append("\", \"email\": \"user").append(id).append("@example.com\",")
+        .append(" \"verified\": ").append(random.nextBoolean()).append(", \"score\": ")
+        .append(random.nextInt(10000) / 100.0).append(", \"address\": {\"street\": \"").append(random.nextInt(999))
+        .append(' ').append(word(random)).append(" St\", \"city\": \"").append(word(random))
+        .append("\", \"zip\": \"").append(10000 + random.nextInt(89999)).append("\"}, \"roles\": [\"user\"")
+        .append(random.nextBoolean() ? ", \"admin\"" : "").append("], \"orders\": [");
+    for (int i = 0; i < 5; i++) {
+      sb.append(i == 0 ? "" : ", ").append("{\"orderId\": \"ORD-").append(100000 + random.nextInt(900000))
+          .append("\", \"total\": ").append(random.nextInt(100000) / 100.0).append(", \"items\": ")
+          .append(1 + random.nextInt(9)).append(", \"shipped\": ").append(random.nextBoolean())
+          .append(", \"coupon\": null}");
+    }
+    sb.append("], \"meta\": {\"page\": 1, \"perPage\": 5, \"total\": ").append(random.nextInt(500)).append("}}");
+  }
+
+  /**
+   * Metric series as large arrays of integers and doubles, about 600 KB.
+   */
+  private static void numbers(StringBuilder sb, Random random) {
+    sb.append("{\"series\": [");
+    for (int s = 0; s < 20; s++) {
+      sb.append(s == 0 ? "" : ", ").append("{\"name\": \"metric").append(s).append("\", \"timestamps\": [");
+      long timestamp = 1_700_000_000_000L;
+      for (int i = 0; i < 1000; i++) {
+        timestamp += 1000 + random.nextInt(50);
+        sb.append(i == 0 ? "" : ",").append(timestamp);
+      }
+      sb.append("], \"values\": [");
+      for (int i = 0; i < 1000; i++) {
+        sb.append(i == 0 ? "" : ",").append(random.nextGaussian() * 100);
+      }
+      sb.append("], \"counts\": [");
+      for (int i = 0; i < 1000; i++) {
+        sb.append(i == 0 ? "" : ",").append(random.nextInt(5000));
+      }
+      sb.append("]}");
+    }
+    sb.append("]}");
+  }
+
+  /**
+   * Articles whose values are mostly long plain ASCII text, about 500 KB.
+   */
+  private static void strings(StringBuilder sb, Random random) {
+    sb.append('[');
+    for (int i = 0; i < 500; i++) {
+      sb.append(i == 0 ? "" : ", ").append("{\"title\": \"").append(sentence(random, 8))
+          .append("\", \"author\": \"").append(word(random)).append(' ').append(word(random))
+          .append("\", \"body\": \"").append(sentence(random, 150)).append("\", \"tags\": [\"")
+          .append(word(random)).append("\", \"").append(word(random)).append("\"]}");
+    }
+    sb.append(']');
+  }
+
+  /**
+   * Messages full of escape sequences and non-ASCII text, about 400 KB.
+   */
+  private static void escapes(StringBuilder sb, Random random) {
+    String[] pieces = {
+        "\\n", "\\t", "\\\"quoted\\\"", "C:\\\\path\\\\to", "\\u00e9t\\u00e9", "\\u20ac", "\\ud83d\\ude00",
+        "\\/", "café", "naïve", "Zürich", "日本語", "😀"
+    };
+    sb.append('[');
+    for (int i = 0; i < 2000; i++) {
+      sb.append(i == 0 ? "" : ", ").append("{\"from\": \"").append(word(random))
+          .append("\", \"text\": \"");
+      for (int k = 0; k < 20; k++) {
+        sb.append(word(random)).append(' ').append(pieces[random.nextInt(pieces.length)]).append(' ');
+      }
+      sb.append("\"}");
+    }
+    sb.append(']');
+  }
+
+  /**
+   * Trees nested 500 levels deep, within the default depth limit.
+   */
+  private static void nested(StringBuilder sb, Random random) {
+    sb.append('[');
+    for (int t = 0; t < 20; t++) {
+      sb.append(t == 0 ? "" : ", ");
+      // Objects and arrays alternate, each holding a number before the next level
+      for (int i = 0; i < 500; i++) {
+        if (i % 2 == 0) {
+          sb.append("{\"id\": ").append(random.nextInt(100)).append(", \"child\": ");
+        } else {
+          sb.append('[').append(random.nextInt(100)).append(", ");
+        }
+      }
+      sb.append("null");
+      for (int i = 499; i >= 0; i--) {
+        sb.append(i % 2 == 0 ? "}" : "]");
+      }
+    }
+    sb.append(']');
+  }
+
+  /**
+   * One line of an event log.
+   */
+  private static void event(StringBuilder sb, Random random, int i) {
+    sb.append("{\"seq\": ").append(i).append(", \"ts\": ").append(1_700_000_000_000L + i * 37L)
+        .append(", \"level\": \"").append(random.nextInt(10) == 0 ? "WARN" : "INFO").append("\", \"service\": \"")
+        .append(word(random)).append("\", \"message\": \"").append(sentence(random, 6))
+        .append("\", \"latencyMs\": ").append(random.nextInt(100000) / 100.0).append(", \"ok\": ")
+        .append(random.nextInt(20) != 0).append('}');
+  }
+
+  private static String sentence(Random random, int words) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < words; i++) {
+      sb.append(i == 0 ? "" : " ").append(word(random));
+    }
+    return sb.toString();
+  }
+
+  private static String word(Random random) {
+    return WORDS[random.nextInt(WORDS.length)];
+  }
+}
@@ -0,0 +1,75 @@
+package jsonparser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extracts fields from a document of a few hundred kilobytes, once by
+ * building the whole tree and navigating it, and with {@link JsonSelector}s
+ * that visit every item or skip the items array as a whole.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSelectorBenchmark {
+  private byte[] json;
+  private RecursiveJsonParser parser;
+  private JsonSelector selector;
+  private JsonSelector sparseSelector;
+
+  @Setup
+  public void setup() {
+    StringBuilder sb = new StringBuilder("{\"user\": {\"id\": 7, \"name\": \"Ann\", \"email\": \"ann@example.com\"},");
+    sb.append(" \"items\": [");
+    for (int i = 0; i < 1000; i++) {
+      sb.append(i == 0 ? "" : ", ").append("{\"sku\": \"SKU-").append(i).append("\", \"price\": ").append(i * 0.5)
+          .append(", \"description\": \"Lorem ipsum dolor sit amet, consectetur adipiscing elit\", ")
+          .append("\"attributes\": {\"color\": \"red\", \"size\": ").append(i % 7)
+          .append(", \"dimensions\": [1.5, 2.5, 3.5]}, \"history\": [")
+          .append(i).append(", ").append(i + 1).append(", ").append(i + 2).append("]}");
+    }
+    sb.append("], \"total\": 249750.0, \"audit\": {\"created\": \"2024-01-01\", \"by\": \"system\"}}");
+    json = sb.toString().getBytes(StandardCharsets.UTF_8);
+    parser = new RecursiveJsonParser();
+    selector = JsonSelector.compile("$.user.id", "$.user.name", "$.items[*].price", "$.total");
+    sparseSelector = JsonSelector.compile("$.user.id", "$.total");
+  }
+
+  @Benchmark
+  public Object fullTree() {
+    Map<?, ?> root = (Map<?, ?>) parser.parse(json);
+    Map<?, ?> user = (Map<?, ?>) root.get("user");
+    List<Object> prices = new ArrayList<>();
+    for (Object item : (List<?>) root.get("items")) {
+      prices.add(((Map<?, ?>) item).get("price"));
+    }
+    return List.of(user.get("id"), user.get("name"), prices, root.get("total"));
+  }
+
+  @Benchmark
+  public Object selector() {
+    return selector.select(json);
+  }
+
+  @Benchmark
+  public Object sparseSelector() {
+    return sparseSelector.select(json);
+  }
+}
@@ -0,0 +1,54 @@
+package jsonparser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reporting to a {@link ParserMetricsCollector} against the default
+ * {@link ParserMetrics#NONE}, per document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsBenchmark {
+
+  @Param({BenchmarkCorpus.API, BenchmarkCorpus.NESTED})
+  public String corpus;
+
+  private byte[] json;
+  private RecursiveJsonParser plain;
+  private RecursiveJsonParser measured;
+
+  @Setup
+  public void setup() {
+    json = BenchmarkCorpus.generate(corpus);
+    plain = new RecursiveJsonParser();
+    measured = new RecursiveJsonParser(ParserOptions.builder()
+        .withMetrics(ParserMetricsCollector.builder().build())
+        .build());
+  }
+
+  @Benchmark
+  public Object parse() {
+    return plain.parse(json);
+  }
+
+  @Benchmark
+  public Object parseMeasured() {
+    return measured.parse(json);
+  }
+}
@@ -0,0 +1,51 @@
+package jsonparser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link JsonParseCache} hit, which hashes and compares the input, against
+ * parsing the same document with {@link JsonParsers}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseCacheBenchmark {
+
+  @Param({BenchmarkCorpus.API, BenchmarkCorpus.STRINGS})
+  public String corpus;
+
+  private byte[] json;
+  private JsonParseCache cache;
+
+  @Setup
+  public void setup() {
+    json = BenchmarkCorpus.generate(corpus);
+    cache = JsonParseCache.builder().build();
+    cache.parse(json);
+  }
+
+  @Benchmark
+  public Object parse() {
+    return JsonParsers.shared().parse(json);
+  }
+
+  @Benchmark
+  public Object cachedParse() {
+    return cache.parse(json);
+  }
+}
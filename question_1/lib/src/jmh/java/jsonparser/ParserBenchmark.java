@@ -0,0 +1,112 @@
+package jsonparser;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline throughput of {@link RecursiveJsonParser#parse} over the
+ * {@link BenchmarkCorpus}, from a {@code String} and from UTF-8 bytes. Scores
+ * are documents per second; the {@code megabytes} counter gives the same
+ * rate in MB/s, and the GC profiler configured in the build adds the bytes
+ * allocated per document as {@code gc.alloc.rate.norm}. The NDJSON corpus
+ * parses each line as its own document and counts the whole file as one
+ * operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+  @Param({BenchmarkCorpus.API, BenchmarkCorpus.NUMBERS, BenchmarkCorpus.STRINGS, BenchmarkCorpus.ESCAPES,
+      BenchmarkCorpus.NESTED, BenchmarkCorpus.NDJSON})
+  public String corpus;
+
+  private byte[] json;
+  private String[] strings;
+  private int[] starts;
+  private int[] ends;
+  private RecursiveJsonParser parser;
+
+  /**
+   * Input consumed, reported next to the score as a rate.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Bytes {
+    public double megabytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      megabytes = 0;
+    }
+  }
+
+  @Setup
+  public void setup() {
+    json = BenchmarkCorpus.generate(corpus);
+    parser = new RecursiveJsonParser();
+
+    // Every line of the NDJSON corpus is one document
+    int documents = 1;
+    if (corpus.equals(BenchmarkCorpus.NDJSON)) {
+      documents = 0;
+      for (byte b : json) {
+        if (b == '\n') {
+          documents++;
+        }
+      }
+    }
+    starts = new int[documents];
+    ends = new int[documents];
+    strings = new String[documents];
+    int start = 0;
+    for (int d = 0; d < documents; d++) {
+      int end = documents == 1 ? json.length : indexOf(json, (byte) '\n', start);
+      starts[d] = start;
+      ends[d] = end;
+      strings[d] = new String(json, start, end - start, StandardCharsets.UTF_8);
+      start = end + 1;
+    }
+  }
+
+  @Benchmark
+  public void parseString(Bytes bytes, Blackhole blackhole) {
+    for (String document : strings) {
+      blackhole.consume(parser.parse(document));
+    }
+    bytes.megabytes += json.length / 1e6;
+  }
+
+  @Benchmark
+  public void parseBytes(Bytes bytes, Blackhole blackhole) {
+    for (int d = 0; d < starts.length; d++) {
+      blackhole.consume(parser.parse(json, starts[d], ends[d] - starts[d]));
+    }
+    bytes.megabytes += json.length / 1e6;
+  }
+
+  private static int indexOf(byte[] bytes, byte b, int from) {
+    while (bytes[from] != b) {
+      from++;
+    }
+    return from;
+  }
+}
@@ -0,0 +1,119 @@
+package jsonparser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the recursive-descent path with the two-stage path that first
+ * builds a {@link StructuralIndex}, and the vector and scalar classifiers of
+ * stage one on their own.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StructuralIndexBenchmark {
+
+  /**
+   * {@code compact} has no whitespace; {@code pretty} is indented with long
+   * string values, where skipping by index has the most to gain.
+   */
+  @Param({"compact", "pretty"})
+  public String shape;
+
+  private byte[] json;
+  private RecursiveJsonParser plain;
+  private RecursiveJsonParser indexed;
+  private JsonReader plainReader;
+  private JsonReader indexedReader;
+  private StructuralIndex vectorIndex;
+  private StructuralIndex scalarIndex;
+
+  @Setup
+  public void setup() {
+    boolean pretty = shape.equals("pretty");
+    String indent = pretty ? "\n    " : "";
+    String space = pretty ? " " : "";
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < 2000; i++) {
+      sb.append(i == 0 ? "" : ",").append(pretty ? "\n  " : "").append('{');
+      sb.append(indent).append("\"id\":").append(space).append(i).append(',');
+      sb.append(indent).append("\"name\":").append(space).append("\"user ").append(i).append("\",");
+      sb.append(indent).append("\"bio\":").append(space).append('"')
+          .append("Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(pretty ? 4 : 1))
+          .append("\\\"quoted\\\"\",");
+      sb.append(indent).append("\"score\":").append(space).append(i * 0.25).append(',');
+      sb.append(indent).append("\"active\":").append(space).append(i % 2 == 0).append(',');
+      sb.append(indent).append("\"tags\":").append(space).append("[\"a\",").append(space).append("\"b\"]");
+      sb.append(pretty ? "\n  " : "").append('}');
+    }
+    json = sb.append(pretty ? "\n]" : "]").toString().getBytes(StandardCharsets.UTF_8);
+
+    ParserOptions options = ParserOptions.builder().withStructuralIndex(true).build();
+    plain = new RecursiveJsonParser();
+    indexed = new RecursiveJsonParser(options);
+    plainReader = new JsonReader(json).withOptions(ParserOptions.defaults());
+    indexedReader = new JsonReader(json).withOptions(options);
+    vectorIndex = new StructuralIndex(StructuralIndex.defaultClassifier());
+    scalarIndex = new StructuralIndex(StructuralIndex.scalarClassifier());
+  }
+
+  @Benchmark
+  public Object treeRecursiveDescent() {
+    return plain.parse(json);
+  }
+
+  @Benchmark
+  public Object treeTwoStage() {
+    return indexed.parse(json);
+  }
+
+  @Benchmark
+  public long skipRecursiveDescent() {
+    return skip(plainReader, new ByteArrayInput(json, 0, json.length), false);
+  }
+
+  @Benchmark
+  public long skipTwoStage() {
+    return skip(indexedReader, new ByteArrayInput(json, 0, json.length), true);
+  }
+
+  @Benchmark
+  public int stageOneVector() {
+    return vectorIndex.build(json, 0, json.length).count();
+  }
+
+  @Benchmark
+  public int stageOneScalar() {
+    return scalarIndex.build(json, 0, json.length).count();
+  }
+
+  /**
+   * Walks every token without decoding strings, as a filtering consumer would.
+   */
+  private static long skip(JsonReader reader, ByteArrayInput input, boolean index) {
+    reader.reset(input);
+    if (index) {
+      input.useStructuralIndex();
+    }
+    long tokens = 0;
+    while (reader.nextToken() != null) {
+      tokens++;
+    }
+    return tokens;
+  }
+}
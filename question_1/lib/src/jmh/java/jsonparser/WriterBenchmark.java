@@ -0,0 +1,74 @@
+package jsonparser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link JsonWriter} writing the trees parsed from the
+ * {@link BenchmarkCorpus}, into a reused in-memory buffer and through the
+ * default buffer into a stream that discards its input. The {@code megabytes}
+ * counter gives the rate of JSON written in MB/s.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriterBenchmark {
+
+  @Param({BenchmarkCorpus.API, BenchmarkCorpus.NUMBERS, BenchmarkCorpus.STRINGS, BenchmarkCorpus.ESCAPES})
+  public String corpus;
+
+  private Object tree;
+  private JsonWriter writer;
+
+  @Setup
+  public void setup() {
+    tree = new RecursiveJsonParser().parse(BenchmarkCorpus.generate(corpus));
+    writer = new JsonWriter();
+  }
+
+  @Benchmark
+  public int writeBuffer(ParserBenchmark.Bytes bytes) {
+    writer.reset();
+    writer.value(tree);
+    bytes.megabytes += writer.size() / 1e6;
+    return writer.size();
+  }
+
+  @Benchmark
+  public void writeStream(ParserBenchmark.Bytes bytes) {
+    CountingStream out = new CountingStream();
+    try (JsonWriter stream = new JsonWriter(out)) {
+      stream.value(tree);
+    }
+    bytes.megabytes += out.count / 1e6;
+  }
+
+  private static final class CountingStream extends OutputStream {
+    long count;
+
+    @Override
+    public void write(int b) {
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      count += len;
+    }
+  }
+}
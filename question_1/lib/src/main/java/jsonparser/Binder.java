@@ -0,0 +1,570 @@
+package jsonparser;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads JSON values from a {@link JsonReader} straight into records, POJOs,
+ * collections and scalars, without building the {@code Map}/{@code List} tree
+ * first.
+ *
+ * <p>Each class is inspected once and its binding cached in a
+ * {@link ClassValue}. Records are built through their canonical constructor
+ * and POJOs through their no-argument constructor plus a setter or field per
+ * property, all as {@link MethodHandle}s. Primitive properties are read with
+ * {@link JsonReader#getLong()}, {@link JsonReader#getDouble()} and
+ * {@link JsonReader#getBoolean()} and passed through handles adapted to
+ * {@code long}, {@code double} and {@code boolean}, so they are never boxed.
+ * Integral properties must hold a whole number within their type's range;
+ * anything else is a type mismatch rather than a silently narrowed value.
+ * A {@code char} is bound from a one-character string, the way
+ * {@link JsonWriter} writes it.
+ *
+ * <p>Unknown keys are skipped, missing properties keep their default value,
+ * and {@code null} leaves a primitive property at its default.
+ */
+final class Binder {
+
+  /**
+   * Reads the value at the reader's current token.
+   */
+  interface ValueReader {
+    Object read(JsonReader reader, RecursiveJsonParser tree);
+  }
+
+  private static final ClassValue<ObjectBinding> OBJECTS = new ClassValue<>() {
+    @Override
+    protected ObjectBinding computeValue(Class<?> type) {
+      return type.isRecord() ? new RecordBinding(type) : new PojoBinding(type);
+    }
+  };
+
+  private static final ClassValue<ValueReader> READERS = new ClassValue<>() {
+    @Override
+    protected ValueReader computeValue(Class<?> type) {
+      return forType(type);
+    }
+  };
+
+  // Kinds of property, each with its own way of passing the value without boxing
+  private static final int BOOLEAN = 0;
+  private static final int INTEGRAL = 1;
+  private static final int FLOATING = 2;
+  private static final int CHARACTER = 3;
+  private static final int REFERENCE = 4;
+
+  private Binder() {
+  }
+
+  static ValueReader of(Class<?> type) {
+    return READERS.get(type);
+  }
+
+  /**
+   * Builds the reader for a possibly generic type such as {@code List<Item>}.
+   */
+  static ValueReader forType(Type type) {
+    ValueReader reader = create(type);
+    return (r, tree) -> r.currentToken() == JsonToken.VALUE_NULL ? null : reader.read(r, tree);
+  }
+
+  private static ValueReader create(Type type) {
+    if (type instanceof WildcardType wildcard) {
+      return create(wildcard.getUpperBounds()[0]);
+    }
+    if (type instanceof TypeVariable<?> variable) {
+      return create(variable.getBounds()[0]);
+    }
+    if (type instanceof GenericArrayType array) {
+      return arrayReader(array.getGenericComponentType());
+    }
+    Type[] arguments = type instanceof ParameterizedType parameterized
+        ? parameterized.getActualTypeArguments()
+        : new Type[0];
+    Class<?> raw = raw(type);
+
+    if (raw == Object.class) {
+      return (r, tree) -> tree.parseValue(r);
+    } else if (raw == String.class) {
+      return (r, tree) -> {
+        expect(r, JsonToken.VALUE_STRING, raw);
+        return r.getString();
+      };
+    } else if (raw == boolean.class || raw == Boolean.class) {
+      return (r, tree) -> readBoolean(r);
+    } else if (raw == int.class || raw == Integer.class) {
+      return (r, tree) -> (int) readIntegral(r, raw);
+    } else if (raw == long.class || raw == Long.class) {
+      return (r, tree) -> readIntegral(r, raw);
+    } else if (raw == double.class || raw == Double.class) {
+      return (r, tree) -> readNumber(r, raw).getDouble();
+    } else if (raw == float.class || raw == Float.class) {
+      return (r, tree) -> (float) readNumber(r, raw).getDouble();
+    } else if (raw == short.class || raw == Short.class) {
+      return (r, tree) -> (short) readIntegral(r, raw);
+    } else if (raw == byte.class || raw == Byte.class) {
+      return (r, tree) -> (byte) readIntegral(r, raw);
+    } else if (raw == char.class || raw == Character.class) {
+      return (r, tree) -> readChar(r, raw);
+    } else if (raw == Number.class) {
+      return (r, tree) -> readNumber(r, raw).getNumber();
+    } else if (raw.isEnum()) {
+      return (r, tree) -> readEnum(r, raw);
+    } else if (raw.isArray()) {
+      return arrayReader(raw.getComponentType());
+    } else if (raw.isAssignableFrom(ArrayList.class)) {
+      ValueReader element = forType(arguments.length > 0 ? arguments[0] : Object.class);
+      return (r, tree) -> readList(r, tree, element, raw);
+    } else if (raw.isAssignableFrom(HashMap.class)) {
+      ValueReader value = forType(arguments.length > 1 ? arguments[1] : Object.class);
+      return (r, tree) -> readMap(r, tree, value, raw);
+    } else if (raw.isPrimitive() || raw.isInterface() || Modifier.isAbstract(raw.getModifiers())) {
+      throw new IllegalArgumentException("Cannot bind JSON to " + raw.getTypeName());
+    }
+    // Resolved on first read so that self-referencing types do not recurse here
+    return (r, tree) -> OBJECTS.get(raw).read(r, tree);
+  }
+
+  private static ValueReader arrayReader(Type componentType) {
+    if (componentType == int.class) {
+      return (r, tree) -> {
+        expect(r, JsonToken.START_ARRAY, int[].class);
+        int[] values = new int[8];
+        int size = 0;
+        while (r.nextToken() != JsonToken.END_ARRAY) {
+          if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+          }
+          values[size++] = (int) readIntegral(r, int.class);
+        }
+        return Arrays.copyOf(values, size);
+      };
+    } else if (componentType == long.class) {
+      return (r, tree) -> {
+        expect(r, JsonToken.START_ARRAY, long[].class);
+        long[] values = new long[8];
+        int size = 0;
+        while (r.nextToken() != JsonToken.END_ARRAY) {
+          if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+          }
+          values[size++] = readIntegral(r, long.class);
+        }
+        return Arrays.copyOf(values, size);
+      };
+    } else if (componentType == double.class) {
+      return (r, tree) -> {
+        expect(r, JsonToken.START_ARRAY, double[].class);
+        double[] values = new double[8];
+        int size = 0;
+        while (r.nextToken() != JsonToken.END_ARRAY) {
+          if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+          }
+          values[size++] = readNumber(r, double.class).getDouble();
+        }
+        return Arrays.copyOf(values, size);
+      };
+    }
+    // Other arrays are collected into a list first, then copied into an array of the component type
+    Class<?> component = raw(componentType);
+    ValueReader element = forType(componentType);
+    return (r, tree) -> {
+      List<Object> list = readList(r, tree, element, List.class);
+      Object array = Array.newInstance(component, list.size());
+      for (int i = 0; i < list.size(); i++) {
+        Array.set(array, i, list.get(i));
+      }
+      return array;
+    };
+  }
+
+  private static Class<?> raw(Type type) {
+    if (type instanceof Class<?> cls) {
+      return cls;
+    } else if (type instanceof ParameterizedType parameterized) {
+      return (Class<?>) parameterized.getRawType();
+    } else if (type instanceof GenericArrayType array) {
+      return Array.newInstance(raw(array.getGenericComponentType()), 0).getClass();
+    }
+    return Object.class;
+  }
+
+  private static void expect(JsonReader reader, JsonToken expected, Class<?> type) {
+    if (reader.currentToken() != expected) {
+      throw mismatch(reader, type);
+    }
+  }
+
+  private static RuntimeException mismatch(JsonReader reader, Class<?> type) {
+    return new RuntimeException("Cannot bind " + reader.currentToken() + " to " + type.getTypeName()
+        + " at position " + reader.getPosition());
+  }
+
+  private static JsonReader readNumber(JsonReader reader, Class<?> type) {
+    expect(reader, JsonToken.VALUE_NUMBER, type);
+    return reader;
+  }
+
+  /**
+   * Reads a number bound to an integral {@code type}, which must be a whole
+   * number within the type's range. A whole number written with a fraction
+   * or exponent, such as {@code 2.0} or {@code 1e3}, is accepted. Numbers
+   * that are not plain longs are checked against their text rather than the
+   * double they round to, so no inexact or out-of-range value slips through.
+   */
+  private static long readIntegral(JsonReader reader, Class<?> type) {
+    expect(reader, JsonToken.VALUE_NUMBER, type);
+    long value;
+    if (reader.readNumber() == JsonReader.NUMBER_DOUBLE) {
+      try {
+        value = new BigDecimal(reader.numberText()).longValueExact();
+      } catch (ArithmeticException | NumberFormatException e) {
+        throw mismatch(reader, type);
+      }
+    } else {
+      value = reader.getLong();
+    }
+    if (!fits(value, type)) {
+      throw mismatch(reader, type);
+    }
+    return value;
+  }
+
+  private static boolean fits(long value, Class<?> type) {
+    if (type == int.class || type == Integer.class) {
+      return (int) value == value;
+    } else if (type == short.class || type == Short.class) {
+      return (short) value == value;
+    } else if (type == byte.class || type == Byte.class) {
+      return (byte) value == value;
+    }
+    return true;
+  }
+
+  /**
+   * Reads a {@code char}, which is written as a one-character string like
+   * {@link JsonWriter} writes it.
+   */
+  private static char readChar(JsonReader reader, Class<?> type) {
+    expect(reader, JsonToken.VALUE_STRING, type);
+    String value = reader.getString();
+    if (value.length() != 1) {
+      throw mismatch(reader, type);
+    }
+    return value.charAt(0);
+  }
+
+  private static boolean readBoolean(JsonReader reader) {
+    if (reader.currentToken() != JsonToken.VALUE_TRUE && reader.currentToken() != JsonToken.VALUE_FALSE) {
+      throw mismatch(reader, boolean.class);
+    }
+    return reader.getBoolean();
+  }
+
+  private static Object readEnum(JsonReader reader, Class<?> type) {
+    expect(reader, JsonToken.VALUE_STRING, type);
+    String name = reader.getString();
+    for (Object constant : type.getEnumConstants()) {
+      if (((Enum<?>) constant).name().equals(name)) {
+        return constant;
+      }
+    }
+    throw new RuntimeException("Unknown " + type.getTypeName() + " constant '" + name
+        + "' at position " + reader.getPosition());
+  }
+
+  private static List<Object> readList(JsonReader reader, RecursiveJsonParser tree, ValueReader element, Class<?> type) {
+    expect(reader, JsonToken.START_ARRAY, type);
+    List<Object> list = new ArrayList<>();
+    while (reader.nextToken() != JsonToken.END_ARRAY) {
+      list.add(element.read(reader, tree));
+    }
+    return list;
+  }
+
+  private static Map<String, Object> readMap(JsonReader reader, RecursiveJsonParser tree, ValueReader value, Class<?> type) {
+    expect(reader, JsonToken.START_OBJECT, type);
+    Map<String, Object> map = new HashMap<>();
+    while (reader.nextToken() == JsonToken.FIELD_NAME) {
+      String key = reader.getString();
+      reader.nextToken();
+      map.put(key, value.read(reader, tree));
+    }
+    return map;
+  }
+
+  private static int kind(Class<?> type) {
+    if (type == boolean.class) {
+      return BOOLEAN;
+    } else if (type == double.class || type == float.class) {
+      return FLOATING;
+    } else if (type == char.class) {
+      return CHARACTER;
+    } else if (type.isPrimitive()) {
+      return INTEGRAL;
+    }
+    return REFERENCE;
+  }
+
+  private static MethodHandles.Lookup lookup(Class<?> type) {
+    try {
+      return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+    } catch (IllegalAccessException e) {
+      // The type's package is not open to us; only public members can be bound
+      return MethodHandles.publicLookup();
+    }
+  }
+
+  private static RuntimeException rethrow(Throwable t) {
+    if (t instanceof RuntimeException e) {
+      return e;
+    } else if (t instanceof Error e) {
+      throw e;
+    }
+    return new RuntimeException(t);
+  }
+
+  /**
+   * A bound record or POJO property. {@code slot} indexes the primitive or the
+   * reference values of a record, depending on {@code kind}.
+   */
+  private record Property(int kind, int slot, Class<?> type, ValueReader reader, MethodHandle setter) {
+  }
+
+  private abstract static class ObjectBinding {
+    final Class<?> type;
+    final Map<String, Property> properties = new HashMap<>();
+
+    ObjectBinding(Class<?> type) {
+      this.type = type;
+    }
+
+    final Object read(JsonReader reader, RecursiveJsonParser tree) {
+      expect(reader, JsonToken.START_OBJECT, type);
+      try {
+        return readObject(reader, tree);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    abstract Object readObject(JsonReader reader, RecursiveJsonParser tree) throws Throwable;
+
+    /**
+     * Advances to the value of the next known property and returns it, skipping
+     * unknown keys and primitive nulls, or returns null at the end of the object.
+     */
+    final Property nextProperty(JsonReader reader) {
+      while (reader.nextToken() == JsonToken.FIELD_NAME) {
+        Property property = properties.get(reader.getString());
+        JsonToken value = reader.nextToken();
+        if (property == null) {
+          reader.skipChildren();
+        } else if (value != JsonToken.VALUE_NULL || property.kind() == REFERENCE) {
+          return property;
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Collects a record's components into a {@code long[]} of primitives (doubles
+   * as raw bits) and an {@code Object[]} of references, then calls the canonical
+   * constructor through a handle that unpacks both arrays.
+   */
+  private static final class RecordBinding extends ObjectBinding {
+    private static final MethodHandle LONG_ELEMENT = MethodHandles.arrayElementGetter(long[].class);
+    private static final MethodHandle OBJECT_ELEMENT = MethodHandles.arrayElementGetter(Object[].class);
+    private static final MethodHandle LONG_BITS_TO_DOUBLE;
+
+    static {
+      try {
+        LONG_BITS_TO_DOUBLE = MethodHandles.lookup().findStatic(Double.class, "longBitsToDouble",
+            MethodType.methodType(double.class, long.class));
+      } catch (ReflectiveOperationException e) {
+        throw new ExceptionInInitializerError(e);
+      }
+    }
+
+    private final MethodHandle constructor;
+    private final int primitives;
+    private final int references;
+
+    RecordBinding(Class<?> type) {
+      super(type);
+      RecordComponent[] components = type.getRecordComponents();
+      Class<?>[] types = new Class<?>[components.length];
+      MethodHandle[] filters = new MethodHandle[components.length];
+      int[] reorder = new int[components.length];
+      int primitives = 0;
+      int references = 0;
+
+      for (int i = 0; i < components.length; i++) {
+        Class<?> componentType = components[i].getType();
+        int kind = kind(componentType);
+        types[i] = componentType;
+        if (kind == REFERENCE) {
+          MethodHandle get = MethodHandles.insertArguments(OBJECT_ELEMENT, 1, references);
+          filters[i] = get.asType(MethodType.methodType(componentType, Object[].class));
+          reorder[i] = 1;
+          ValueReader reader = forType(components[i].getGenericType());
+          properties.put(components[i].getName(), new Property(kind, references++, componentType, reader, null));
+        } else {
+          MethodHandle get = MethodHandles.insertArguments(LONG_ELEMENT, 1, primitives);
+          if (kind == FLOATING) {
+            get = MethodHandles.filterReturnValue(get, LONG_BITS_TO_DOUBLE);
+          }
+          filters[i] = MethodHandles.explicitCastArguments(get, MethodType.methodType(componentType, long[].class));
+          properties.put(components[i].getName(), new Property(kind, primitives++, componentType, null, null));
+        }
+      }
+
+      try {
+        Constructor<?> canonical = type.getDeclaredConstructor(types);
+        MethodHandle handle = MethodHandles.filterArguments(lookup(type).unreflectConstructor(canonical), 0, filters);
+        handle = MethodHandles.permuteArguments(handle,
+            MethodType.methodType(type, long[].class, Object[].class), reorder);
+        this.constructor = handle.asType(MethodType.methodType(Object.class, long[].class, Object[].class));
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalArgumentException("Cannot bind JSON to " + type.getTypeName(), e);
+      }
+      this.primitives = primitives;
+      this.references = references;
+    }
+
+    @Override
+    Object readObject(JsonReader reader, RecursiveJsonParser tree) throws Throwable {
+      long[] values = new long[primitives];
+      Object[] objects = new Object[references];
+
+      Property property;
+      while ((property = nextProperty(reader)) != null) {
+        switch (property.kind()) {
+          case BOOLEAN:
+            values[property.slot()] = readBoolean(reader) ? 1 : 0;
+            break;
+          case INTEGRAL:
+            values[property.slot()] = readIntegral(reader, property.type());
+            break;
+          case FLOATING:
+            values[property.slot()] = Double.doubleToRawLongBits(readNumber(reader, property.type()).getDouble());
+            break;
+          case CHARACTER:
+            values[property.slot()] = readChar(reader, property.type());
+            break;
+          default:
+            objects[property.slot()] = property.reader().read(reader, tree);
+        }
+      }
+
+      return (Object) constructor.invokeExact(values, objects);
+    }
+  }
+
+  /**
+   * Creates the object through its no-argument constructor, then assigns each
+   * property through its {@code setX} method or, failing that, its field.
+   * Primitive setters are adapted to take a {@code boolean}, {@code long} or
+   * {@code double} so the value is passed without boxing.
+   */
+  private static final class PojoBinding extends ObjectBinding {
+    private final MethodHandle constructor;
+
+    PojoBinding(Class<?> type) {
+      super(type);
+      MethodHandles.Lookup lookup = lookup(type);
+      try {
+        this.constructor = lookup.unreflectConstructor(type.getDeclaredConstructor())
+            .asType(MethodType.methodType(Object.class));
+
+        for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+          for (Field field : c.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || properties.containsKey(field.getName())) {
+              continue;
+            }
+            MethodHandle setter = setter(lookup, c == type ? lookup : lookup(c), type, field);
+            if (setter == null) {
+              continue;
+            }
+            Class<?> fieldType = field.getType();
+            int kind = kind(fieldType);
+            Class<?> parameter = kind == BOOLEAN ? boolean.class
+                : kind == INTEGRAL || kind == CHARACTER ? long.class
+                : kind == FLOATING ? double.class
+                : Object.class;
+            setter = MethodHandles.explicitCastArguments(setter,
+                MethodType.methodType(void.class, Object.class, parameter));
+            ValueReader reader = kind == REFERENCE ? forType(field.getGenericType()) : null;
+            properties.put(field.getName(), new Property(kind, -1, fieldType, reader, setter));
+          }
+        }
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalArgumentException("Cannot bind JSON to " + type.getTypeName(), e);
+      }
+    }
+
+    private static MethodHandle setter(MethodHandles.Lookup lookup, MethodHandles.Lookup fieldLookup, Class<?> type, Field field)
+        throws IllegalAccessException {
+      String name = "set" + Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+      try {
+        Method method = type.getMethod(name, field.getType());
+        return lookup.unreflect(method).asType(MethodType.methodType(void.class, type, field.getType()));
+      } catch (NoSuchMethodException e) {
+        // No public setter, fall back to the field
+      }
+      if (Modifier.isFinal(field.getModifiers())) {
+        return null;
+      }
+      return fieldLookup.unreflectSetter(field);
+    }
+
+    @Override
+    Object readObject(JsonReader reader, RecursiveJsonParser tree) throws Throwable {
+      Object instance = (Object) constructor.invokeExact();
+
+      Property property;
+      while ((property = nextProperty(reader)) != null) {
+        MethodHandle setter = property.setter();
+        switch (property.kind()) {
+          case BOOLEAN:
+            setter.invokeExact(instance, readBoolean(reader));
+            break;
+          case INTEGRAL:
+            setter.invokeExact(instance, readIntegral(reader, property.type()));
+            break;
+          case FLOATING:
+            setter.invokeExact(instance, readNumber(reader, property.type()).getDouble());
+            break;
+          case CHARACTER:
+            setter.invokeExact(instance, (long) readChar(reader, property.type()));
+            break;
+          default:
+            setter.invokeExact(instance, property.reader().read(reader, tree));
+        }
+      }
+
+      return instance;
+    }
+  }
+}
@@ -0,0 +1,250 @@
+package jsonparser;
+
+/**
+ * {@link JsonInput} over UTF-8 bytes in a {@code byte[]}. Structural characters
+ * are matched on raw bytes, and strings are only decoded when the reader asks
+ * for them, with a bulk copy for runs that contain no escapes.
+ */
+final class ByteArrayInput extends JsonInput {
+  private byte[] buffer;
+  private int start;
+  private int end;
+  private int position;
+  private StructuralIndex index;
+  private boolean indexed;
+  private int cursor;
+
+  private static final byte[] EMPTY = new byte[0];
+
+  ByteArrayInput() {
+    this(EMPTY, 0, 0);
+  }
+
+  ByteArrayInput(byte[] buffer, int offset, int length) {
+    reset(buffer, offset, length);
+  }
+
+  ByteArrayInput reset(byte[] buffer, int offset, int length) {
+    if (offset < 0 || length < 0 || offset > buffer.length - length) {
+      throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length
+          + ") out of bounds for length " + buffer.length);
+    }
+    this.buffer = buffer;
+    this.start = offset;
+    this.end = offset + length;
+    this.position = offset;
+    this.indexed = false;
+    return this;
+  }
+
+  @Override
+  void useStructuralIndex() {
+    if (index == null) {
+      index = new StructuralIndex();
+    }
+    index.build(buffer, position, end);
+    indexed = true;
+    cursor = 0;
+  }
+
+  /**
+   * Returns the first indexed position at or after {@code from}, or the end of
+   * input. The reader only moves forward, so the cursor does too.
+   */
+  private int nextIndexed(int from) {
+    int[] positions = index.positions();
+    int count = index.count();
+    while (cursor < count && positions[cursor] < from) {
+      cursor++;
+    }
+    return cursor < count ? positions[cursor] : end;
+  }
+
+  @Override
+  int peek() {
+    return position < end ? buffer[position] & 0xFF : -1;
+  }
+
+  @Override
+  void advance() {
+    position++;
+  }
+
+  @Override
+  long position() {
+    return position - start;
+  }
+
+  @Override
+  int skipWhitespace() {
+    if (indexed && position < end) {
+      byte b = buffer[position];
+      if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+        return b & 0xFF;
+      }
+      // Past whitespace, the next byte that is not whitespace starts a token and is indexed
+      position = nextIndexed(position);
+    }
+    while (position < end) {
+      byte b = buffer[position];
+      if (b == ' ' || b == '\t' || b == '\n' || b == '\r') {
+        position++;
+      } else {
+        return b & 0xFF;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  String readString(StringBuilder sb) {
+    int runStart = position;
+    boolean ascii = true;
+    while (position < end) {
+      byte b = buffer[position];
+      if (b == '"') {
+        String s = Utf8.decode(buffer, runStart, position, ascii, start);
+        position++; // Skip the closing '"'
+        return s;
+      } else if (b == '\\') {
+        return readEscapedString(sb, runStart, ascii);
+      } else if (b < 0x20) {
+        // Either a control character or part of a multi-byte character
+        if (b >= 0) {
+          throw controlCharacter(position - start);
+        }
+        ascii = false;
+      }
+      position++;
+    }
+
+    throw new RuntimeException("Unterminated string");
+  }
+
+  private String readEscapedString(StringBuilder sb, int runStart, boolean ascii) {
+    sb.setLength(0);
+
+    while (position < end) {
+      byte b = buffer[position];
+      if (b == '"' || b == '\\') {
+        Utf8.append(sb, buffer, runStart, position, ascii, start);
+        position++;
+        if (b == '"') {
+          return sb.toString();
+        }
+        readEscape(sb);
+        runStart = position;
+        ascii = true;
+      } else {
+        if (b < 0x20) {
+          if (b >= 0) {
+            throw controlCharacter(position - start);
+          }
+          ascii = false;
+        }
+        position++;
+      }
+    }
+
+    throw new RuntimeException("Unterminated string");
+  }
+
+  @Override
+  String readKey(StringBuilder sb, SymbolTable keys) {
+    int from = position;
+    int hash = 0;
+    while (position < end) {
+      byte b = buffer[position];
+      if (b == '"') {
+        position++; // Skip the closing '"'
+        return keys.lookup(buffer, from, position - 1, hash);
+      } else if (b == '\\' || b < 0x20) {
+        // Escapes and multi-byte characters are decoded, and control characters rejected, before the lookup
+        position = from;
+        return super.readKey(sb, keys);
+      }
+      hash = 31 * hash + b;
+      position++;
+    }
+
+    throw new RuntimeException("Unterminated string");
+  }
+
+  @Override
+  int matchKey(StringBuilder sb, String[] names) {
+    int from = position;
+    while (position < end) {
+      byte b = buffer[position];
+      if (b == '"') {
+        position++; // Skip the closing '"'
+        return match(names, from, position - 1);
+      } else if (b == '\\' || b < 0x20) {
+        // Escapes and multi-byte characters are decoded, and control characters rejected, before comparing
+        position = from;
+        return super.matchKey(sb, names);
+      }
+      position++;
+    }
+
+    throw new RuntimeException("Unterminated string");
+  }
+
+  private int match(String[] names, int from, int to) {
+    for (int i = 0; i < names.length; i++) {
+      String name = names[i];
+      if (name.length() != to - from) {
+        continue;
+      }
+      int j = 0;
+      while (j < name.length() && name.charAt(j) == buffer[from + j]) {
+        j++;
+      }
+      if (j == name.length()) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  void skipContainer(Brackets brackets, boolean object, int depth, int maxDepth) {
+    brackets.reset(object, depth, maxDepth);
+    while (position < end) {
+      byte c = buffer[position++];
+      if (c == '"') {
+        skipString();
+      } else if (c == '{' || c == '[') {
+        brackets.open(c == '{', position - 1 - start);
+      } else if ((c == '}' || c == ']') && brackets.close(c == '}', position - 1 - start)) {
+        return;
+      }
+    }
+
+    throw brackets.unterminated();
+  }
+
+  @Override
+  void skipString() {
+    if (indexed) {
+      // Nothing inside a string is indexed, so the next position is its closing quote
+      int quote = nextIndexed(position);
+      if (quote == end) {
+        throw new RuntimeException("Unterminated string");
+      }
+      if (buffer[quote] == '"') {
+        position = quote + 1;
+        return;
+      }
+    }
+    while (position < end) {
+      byte b = buffer[position++];
+      if (b == '"') {
+        return;
+      } else if (b == '\\') {
+        position++;
+      }
+    }
+
+    throw new RuntimeException("Unterminated string");
+  }
+}
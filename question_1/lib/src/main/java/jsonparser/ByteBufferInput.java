@@ -0,0 +1,130 @@
+package jsonparser;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link JsonInput} over UTF-8 bytes in a {@link ByteBuffer} without an
+ * accessible backing array, such as a direct buffer. Bytes are read with
+ * absolute gets, so the buffer's position is left untouched; string runs are
+ * bulk-copied into a reusable scratch array before decoding.
+ */
+final class ByteBufferInput extends JsonInput {
+  private ByteBuffer buffer;
+  private int start;
+  private int end;
+  private int position;
+  private byte[] scratch = new byte[64];
+
+  ByteBufferInput() {
+    this(ByteBuffer.allocate(0));
+  }
+
+  ByteBufferInput(ByteBuffer buffer) {
+    reset(buffer);
+  }
+
+  ByteBufferInput reset(ByteBuffer buffer) {
+    this.buffer = buffer;
+    this.start = buffer.position();
+    this.end = buffer.limit();
+    this.position = start;
+    return this;
+  }
+
+  /**
+   * Drops the scratch array if a long string made it grow past {@code maxBytes}.
+   */
+  void trimScratch(int maxBytes) {
+    if (scratch.length > maxBytes) {
+      scratch = new byte[64];
+    }
+  }
+
+  @Override
+  int peek() {
+    return position < end ? buffer.get(position) & 0xFF : -1;
+  }
+
+  @Override
+  void advance() {
+    position++;
+  }
+
+  @Override
+  long position() {
+    return position - start;
+  }
+
+  @Override
+  int skipWhitespace() {
+    while (position < end) {
+      byte b = buffer.get(position);
+      if (b == ' ' || b == '\t' || b == '\n' || b == '\r') {
+        position++;
+      } else {
+        return b & 0xFF;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  String readString(StringBuilder sb) {
+    boolean escaped = false;
+
+    while (true) {
+      int runStart = position;
+      boolean ascii = true;
+      byte b = 0;
+      while (position < end) {
+        b = buffer.get(position);
+        if (b == '"' || b == '\\') {
+          break;
+        } else if (b < 0x20) {
+          if (b >= 0) {
+            throw controlCharacter(position - start);
+          }
+          ascii = false;
+        }
+        position++;
+      }
+      if (position == end) {
+        throw new RuntimeException("Unterminated string");
+      }
+
+      int length = position - runStart;
+      if (scratch.length < length) {
+        scratch = new byte[Math.max(length, scratch.length * 2)];
+      }
+      buffer.get(runStart, scratch, 0, length);
+      position++; // Skip the '"' or '\\'
+
+      if (b == '"' && !escaped) {
+        return Utf8.decode(scratch, 0, length, ascii, start - runStart);
+      }
+      if (!escaped) {
+        sb.setLength(0);
+        escaped = true;
+      }
+      Utf8.append(sb, scratch, 0, length, ascii, start - runStart);
+      if (b == '"') {
+        return sb.toString();
+      }
+      readEscape(sb);
+    }
+  }
+
+  @Override
+  void skipString() {
+    while (position < end) {
+      byte b = buffer.get(position++);
+      if (b == '"') {
+        return;
+      } else if (b == '\\') {
+        position++;
+      }
+    }
+
+    throw new RuntimeException("Unterminated string");
+  }
+}
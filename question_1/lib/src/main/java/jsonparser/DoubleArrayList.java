@@ -0,0 +1,51 @@
+package jsonparser;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Unmodifiable {@link java.util.List} view over a {@code double[]}, returned
+ * for arrays of doubles (optionally mixed with {@code int} values, or with
+ * {@code long} values a double holds exactly) when
+ * {@link ParserOptions.Builder#withPrimitiveArrays(boolean)} is enabled. The
+ * values are stored unboxed: {@link #get(int)} boxes one per call as a
+ * {@link Double}, including elements written as integers, while
+ * {@link #getDouble(int)} and {@link #toDoubleArray()} read them directly.
+ */
+public final class DoubleArrayList extends AbstractList<Object> implements RandomAccess {
+  private final double[] values;
+  private final int size;
+
+  DoubleArrayList(double[] values, int size) {
+    this.values = values;
+    this.size = size;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Object get(int index) {
+    return getDouble(index);
+  }
+
+  /**
+   * Returns the element at {@code index} without boxing it.
+   */
+  public double getDouble(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+    }
+    return values[index];
+  }
+
+  /**
+   * Returns a copy of the elements.
+   */
+  public double[] toDoubleArray() {
+    return Arrays.copyOf(values, size);
+  }
+}
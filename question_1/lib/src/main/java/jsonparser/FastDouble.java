@@ -0,0 +1,126 @@
+package jsonparser;
+
+import java.math.BigInteger;
+
+/**
+ * Converts a decimal significand and power of ten into the nearest double
+ * without building a String. Small cases use Clinger's fast path, where one
+ * floating-point multiplication or division is exact; the rest use the
+ * Eisel-Lemire algorithm over a table of 128-bit powers of five. The rare
+ * inputs that Eisel-Lemire cannot round with certainty (and subnormals) fall
+ * back to {@link Double#parseDouble(String)}.
+ */
+final class FastDouble {
+  private static final int MIN_EXPONENT = -342;
+  private static final int MAX_EXPONENT = 308;
+
+  private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  // High and low halves of 5^q normalized to 128 bits, for q in [MIN_EXPONENT, MAX_EXPONENT]
+  private static final long[] POWER_HI = new long[MAX_EXPONENT - MIN_EXPONENT + 1];
+  private static final long[] POWER_LO = new long[MAX_EXPONENT - MIN_EXPONENT + 1];
+
+  static {
+    BigInteger five = BigInteger.valueOf(5);
+    for (int q = MIN_EXPONENT; q <= MAX_EXPONENT; q++) {
+      BigInteger power;
+      if (q < 0) {
+        // Reciprocal rounded up, as in the reference tables
+        BigInteger divisor = five.pow(-q);
+        int bits = divisor.bitLength();
+        int shift = q >= -27 ? bits + 127 : 2 * bits + 128;
+        power = BigInteger.ONE.shiftLeft(shift).divide(divisor).add(BigInteger.ONE);
+      } else {
+        power = five.pow(q);
+      }
+      int excess = power.bitLength() - 128;
+      power = excess > 0 ? power.shiftRight(excess) : power.shiftLeft(-excess);
+      POWER_HI[q - MIN_EXPONENT] = power.shiftRight(64).longValue();
+      POWER_LO[q - MIN_EXPONENT] = power.longValue();
+    }
+  }
+
+  private FastDouble() {
+  }
+
+  /**
+   * Returns {@code (negative ? -1 : 1) * significand * 10^exponent} correctly
+   * rounded, where {@code significand} is unsigned and holds at most 19 digits.
+   * {@code text} is the number as written, parsed only by the fallback.
+   */
+  static double toDouble(boolean negative, long significand, int exponent, CharSequence text) {
+    if (Long.compareUnsigned(significand, 1L << 53) <= 0 && exponent >= -22 && exponent <= 22) {
+      double value = significand;
+      value = exponent < 0 ? value / POWERS_OF_TEN[-exponent] : value * POWERS_OF_TEN[exponent];
+      return negative ? -value : value;
+    }
+
+    long bits = eiselLemire(significand, exponent);
+    if (bits < 0) {
+      return Double.parseDouble(text.toString());
+    }
+    return Double.longBitsToDouble(negative ? bits | Long.MIN_VALUE : bits);
+  }
+
+  /**
+   * Returns the bits of the positive double nearest to
+   * {@code significand * 10^exponent}, or -1 if it cannot be decided here.
+   */
+  private static long eiselLemire(long significand, int exponent) {
+    if (significand == 0 || exponent < MIN_EXPONENT) {
+      return 0L;
+    }
+    if (exponent > MAX_EXPONENT) {
+      return Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+    }
+
+    int leadingZeros = Long.numberOfLeadingZeros(significand);
+    long mantissa = significand << leadingZeros;
+    long binaryExponent = ((217706L * exponent) >> 16) + 64 + 1023 - leadingZeros;
+
+    int index = exponent - MIN_EXPONENT;
+    long high = Math.unsignedMultiplyHigh(mantissa, POWER_HI[index]);
+    long low = mantissa * POWER_HI[index];
+
+    // The truncated product may be off by one in its low bits; widen with the lower half of the power
+    if ((high & 0x1FF) == 0x1FF && Long.compareUnsigned(low + mantissa, mantissa) < 0) {
+      long crossHigh = Math.unsignedMultiplyHigh(mantissa, POWER_LO[index]);
+      long crossLow = mantissa * POWER_LO[index];
+      long mergedHigh = high;
+      long mergedLow = low + crossHigh;
+      if (Long.compareUnsigned(mergedLow, low) < 0) {
+        mergedHigh++;
+      }
+      if ((mergedHigh & 0x1FF) == 0x1FF && mergedLow == -1L && Long.compareUnsigned(crossLow + mantissa, mantissa) < 0) {
+        return -1L;
+      }
+      high = mergedHigh;
+      low = mergedLow;
+    }
+
+    long msb = high >>> 63;
+    long result = high >>> (msb + 9);
+    binaryExponent -= 1 ^ msb;
+
+    // Exactly halfway between two doubles: leave ties to the fallback
+    if (low == 0 && (high & 0x1FF) == 0 && (result & 3) == 1) {
+      return -1L;
+    }
+
+    result += result & 1;
+    result >>>= 1;
+    if ((result >>> 53) > 0) {
+      result >>>= 1;
+      binaryExponent++;
+    }
+
+    // Subnormal, infinite or NaN exponents are left to the fallback
+    if (Long.compareUnsigned(binaryExponent - 1, 0x7FF - 1) >= 0) {
+      return -1L;
+    }
+    return binaryExponent << 52 | result & 0x000FFFFFFFFFFFFFL;
+  }
+}
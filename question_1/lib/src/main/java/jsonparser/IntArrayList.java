@@ -0,0 +1,49 @@
+package jsonparser;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Unmodifiable {@link java.util.List} view over an {@code int[]}, returned for
+ * arrays whose elements all fit in an {@code int} when
+ * {@link ParserOptions.Builder#withPrimitiveArrays(boolean)} is enabled. The
+ * values are stored unboxed: {@link #get(int)} boxes one per call, while
+ * {@link #getInt(int)} and {@link #toIntArray()} read them directly.
+ */
+public final class IntArrayList extends AbstractList<Object> implements RandomAccess {
+  private final int[] values;
+  private final int size;
+
+  IntArrayList(int[] values, int size) {
+    this.values = values;
+    this.size = size;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Object get(int index) {
+    return getInt(index);
+  }
+
+  /**
+   * Returns the element at {@code index} without boxing it.
+   */
+  public int getInt(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+    }
+    return values[index];
+  }
+
+  /**
+   * Returns a copy of the elements.
+   */
+  public int[] toIntArray() {
+    return Arrays.copyOf(values, size);
+  }
+}
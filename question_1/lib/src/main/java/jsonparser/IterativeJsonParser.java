@@ -0,0 +1,114 @@
+package jsonparser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the same trees as {@link RecursiveJsonParser} without recursing per
+ * nesting level. Open objects and arrays are kept on an explicit, growable
+ * stack, so the call depth stays constant however deeply the input nests and
+ * malicious input cannot overflow the thread's stack. Nesting is limited by
+ * {@link ParserOptions.Builder#withMaxDepth(int)}, which fails at the
+ * position of the first container too deep.
+ *
+ * <p>Every {@code parse} overload of {@link RecursiveJsonParser} is available,
+ * including binding to records and POJOs, whose {@code Object} properties are
+ * built by this engine too.
+ */
+public class IterativeJsonParser extends RecursiveJsonParser {
+
+  public IterativeJsonParser() {
+    super();
+  }
+
+  public IterativeJsonParser(ParserOptions options) {
+    super(options);
+  }
+
+  @Override
+  Object parseValue(JsonReader reader) {
+    JsonToken token = reader.currentToken();
+    if (token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY) {
+      return super.parseValue(reader);
+    }
+
+    // Open containers, and the key each open object is waiting to fill
+    Object[] containers = new Object[16];
+    String[] keys = new String[16];
+    int depth = 0;
+
+    while (true) {
+      Object value;
+      switch (token) {
+        case START_OBJECT: {
+          Map<String, Object> map = new HashMap<>();
+          token = reader.nextToken();
+          if (token == JsonToken.END_OBJECT) {
+            value = map;
+            break;
+          }
+          if (depth == containers.length) {
+            containers = Arrays.copyOf(containers, depth * 2);
+            keys = Arrays.copyOf(keys, depth * 2);
+          }
+          containers[depth] = map;
+          keys[depth++] = reader.getString();
+          token = reader.nextToken();
+          continue;
+        }
+        case START_ARRAY: {
+          token = reader.nextToken();
+          List<Object> list;
+          if (primitiveArrays && token == JsonToken.VALUE_NUMBER) {
+            list = readNumbers(reader);
+            token = reader.currentToken();
+          } else {
+            list = new ArrayList<>();
+          }
+          if (token == JsonToken.END_ARRAY) {
+            value = list;
+            break;
+          }
+          if (depth == containers.length) {
+            containers = Arrays.copyOf(containers, depth * 2);
+            keys = Arrays.copyOf(keys, depth * 2);
+          }
+          containers[depth++] = list;
+          continue;
+        }
+        case END_OBJECT:
+        case END_ARRAY:
+          value = containers[--depth];
+          containers[depth] = null;
+          break;
+        default:
+          value = super.parseValue(reader);
+          break;
+      }
+
+      if (depth == 0) {
+        return value;
+      }
+
+      // Add the finished value to the enclosing container and move on to its next entry
+      token = reader.nextToken();
+      Object parent = containers[depth - 1];
+      if (parent instanceof Map) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> map = (Map<String, Object>) parent;
+        map.put(keys[depth - 1], value);
+        if (token == JsonToken.FIELD_NAME) {
+          keys[depth - 1] = reader.getString();
+          token = reader.nextToken();
+        }
+      } else {
+        @SuppressWarnings("unchecked")
+        List<Object> list = (List<Object>) parent;
+        list.add(value);
+      }
+    }
+  }
+}
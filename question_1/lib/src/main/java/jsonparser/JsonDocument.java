@@ -0,0 +1,375 @@
+package jsonparser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A parsed document stored as one flat "tape" of {@code long}s instead of a
+ * tree of maps, lists and boxed values. Each value takes one or two words:
+ *
+ * <ul>
+ *   <li>{@code '{'} / {@code '['}: tag, child count (saturating, 24 bits) and
+ *       the index just past the matching close word</li>
+ *   <li>{@code '}'} / {@code ']'}: tag and the index of the matching open word</li>
+ *   <li>{@code '"'}: tag and the start offset of the string's content in the
+ *       source, followed by a word holding the end offset</li>
+ *   <li>{@code 'e'}: tag and an index into the strings that contained escapes,
+ *       which are decoded while the tape is built</li>
+ *   <li>{@code 'i'}: tag and an {@code int}; {@code 'l'} / {@code 'd'}: tag,
+ *       followed by a word holding the {@code long} or {@code double} bits</li>
+ *   <li>{@code 't'}, {@code 'f'}, {@code 'n'}: tag only</li>
+ * </ul>
+ *
+ * The tag sits in the top 8 bits of a word. Strings without escapes are
+ * neither copied nor decoded until they are asked for, and object keys are
+ * compared against the source directly. Values are navigated through
+ * {@link JsonValue} flyweights. A document is immutable and may be read from
+ * any number of threads.
+ */
+public final class JsonDocument {
+  static final int OBJECT = '{';
+  static final int OBJECT_END = '}';
+  static final int ARRAY = '[';
+  static final int ARRAY_END = ']';
+  static final int STRING = '"';
+  static final int ESCAPED_STRING = 'e';
+  static final int INT = 'i';
+  static final int LONG = 'l';
+  static final int DOUBLE = 'd';
+  static final int TRUE = 't';
+  static final int FALSE = 'f';
+  static final int NULL = 'n';
+
+  private static final long PAYLOAD = (1L << 56) - 1;
+  private static final int MAX_COUNT = (1 << 24) - 1;
+  private static final String[] NO_STRINGS = new String[0];
+
+  private final String json;
+  private final byte[] bytes;
+  private final int base;
+  private final long[] tape;
+  private final String[] strings;
+
+  private JsonDocument(String json, byte[] bytes, int base, Builder builder) {
+    this.json = json;
+    this.bytes = bytes;
+    this.base = base;
+    this.tape = Arrays.copyOf(builder.tape, builder.size);
+    this.strings = builder.strings.isEmpty() ? NO_STRINGS : builder.strings.toArray(NO_STRINGS);
+  }
+
+  public static JsonDocument parse(String json) {
+    StringInput input = new StringInput(json);
+    Builder builder = new Builder(json, null, input.start(), json.length(), json.length() / 4);
+    builder.build(new JsonReader(input));
+    return new JsonDocument(json, null, input.start(), builder);
+  }
+
+  /**
+   * Parses UTF-8 encoded bytes. The array is referenced, not copied, and must
+   * not be modified while the document is in use.
+   */
+  public static JsonDocument parse(byte[] json) {
+    return parse(json, 0, json.length);
+  }
+
+  /**
+   * Parses {@code length} UTF-8 encoded bytes starting at {@code offset}.
+   */
+  public static JsonDocument parse(byte[] json, int offset, int length) {
+    ByteArrayInput input = new ByteArrayInput(json, offset, length);
+    Builder builder = new Builder(null, json, offset, offset + length, length / 4);
+    builder.build(new JsonReader(input));
+    return new JsonDocument(null, json, offset, builder);
+  }
+
+  public JsonValue root() {
+    return new JsonValue(this, 0);
+  }
+
+  /**
+   * Returns the number of {@code long}s in the tape.
+   */
+  public int tapeLength() {
+    return tape.length;
+  }
+
+  int tag(int index) {
+    return (int) (tape[index] >>> 56);
+  }
+
+  /**
+   * Returns the index of the value following the one at {@code index}.
+   */
+  int next(int index) {
+    switch (tag(index)) {
+      case OBJECT:
+      case ARRAY:
+        return (int) tape[index];
+      case STRING:
+      case LONG:
+      case DOUBLE:
+        return index + 2;
+      default:
+        return index + 1;
+    }
+  }
+
+  int count(int index) {
+    int count = (int) (tape[index] >>> 32) & MAX_COUNT;
+    if (count < MAX_COUNT) {
+      return count;
+    }
+    // Count the children of a very large container by walking them
+    boolean object = tag(index) == OBJECT;
+    int end = next(index) - 1;
+    count = 0;
+    for (int i = index + 1; i < end; i = next(object ? next(i) : i)) {
+      count++;
+    }
+    return count;
+  }
+
+  int intValue(int index) {
+    return (int) tape[index];
+  }
+
+  long longValue(int index) {
+    return tape[index + 1];
+  }
+
+  double doubleValue(int index) {
+    return Double.longBitsToDouble(tape[index + 1]);
+  }
+
+  String string(int index) {
+    if (tag(index) == ESCAPED_STRING) {
+      return strings[(int) (tape[index] & PAYLOAD)];
+    }
+    int from = base + (int) (tape[index] & PAYLOAD);
+    int to = base + (int) tape[index + 1];
+    if (json != null) {
+      return json.substring(from, to);
+    }
+    // Already validated while the tape was built
+    return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Compares the string at {@code index} with {@code s} without decoding it
+   * when both are plain ASCII.
+   */
+  boolean stringEquals(int index, String s) {
+    if (tag(index) == ESCAPED_STRING) {
+      return strings[(int) (tape[index] & PAYLOAD)].equals(s);
+    }
+    int from = base + (int) (tape[index] & PAYLOAD);
+    int to = base + (int) tape[index + 1];
+    if (json != null) {
+      return to - from == s.length() && json.regionMatches(from, s, 0, to - from);
+    }
+    if (to - from != s.length()) {
+      // Non-ASCII keys may still match with a different byte length
+      return !isAscii(bytes, from, to) && string(index).equals(s);
+    }
+    for (int i = from; i < to; i++) {
+      byte b = bytes[i];
+      if (b < 0) {
+        return string(index).equals(s);
+      }
+      if (b != s.charAt(i - from)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Converts the value at {@code index} into the same tree that
+   * {@link RecursiveJsonParser} builds.
+   */
+  Object toObject(int index) {
+    switch (tag(index)) {
+      case OBJECT: {
+        Map<String, Object> map = new HashMap<>();
+        int end = next(index) - 1;
+        for (int i = index + 1; i < end; ) {
+          int value = next(i);
+          map.put(string(i), toObject(value));
+          i = next(value);
+        }
+        return map;
+      }
+      case ARRAY: {
+        List<Object> list = new ArrayList<>();
+        int end = next(index) - 1;
+        for (int i = index + 1; i < end; i = next(i)) {
+          list.add(toObject(i));
+        }
+        return list;
+      }
+      case STRING:
+      case ESCAPED_STRING:
+        return string(index);
+      case INT:
+        return intValue(index);
+      case LONG:
+        return longValue(index);
+      case DOUBLE:
+        return doubleValue(index);
+      case TRUE:
+        return Boolean.TRUE;
+      case FALSE:
+        return Boolean.FALSE;
+      default:
+        return null;
+    }
+  }
+
+  private static boolean isAscii(byte[] bytes, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (bytes[i] < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Appends tape words while walking the tokens of a {@link JsonReader}.
+   */
+  private static final class Builder {
+    private final String json;
+    private final byte[] bytes;
+    private final int base;
+    private final int limit;
+    private final List<String> strings = new ArrayList<>();
+    private long[] tape;
+    private int size;
+    private int[] open = new int[16];
+    private int[] counts = new int[16];
+
+    Builder(String json, byte[] bytes, int base, int limit, int estimate) {
+      this.json = json;
+      this.bytes = bytes;
+      this.base = base;
+      this.limit = limit;
+      this.tape = new long[Math.max(16, estimate)];
+    }
+
+    void build(JsonReader reader) {
+      int depth = 0;
+      JsonToken token = reader.nextToken();
+      while (token != null) {
+        if (size + 2 > tape.length) {
+          tape = Arrays.copyOf(tape, tape.length * 2);
+        }
+        if (depth > 0 && token != JsonToken.FIELD_NAME
+            && token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY) {
+          counts[depth - 1]++;
+        }
+        switch (token) {
+          case START_OBJECT:
+          case START_ARRAY:
+            if (depth == open.length) {
+              open = Arrays.copyOf(open, depth * 2);
+              counts = Arrays.copyOf(counts, depth * 2);
+            }
+            open[depth] = size;
+            counts[depth] = 0;
+            depth++;
+            tape[size++] = (long) (token == JsonToken.START_OBJECT ? OBJECT : ARRAY) << 56;
+            break;
+          case END_OBJECT:
+          case END_ARRAY: {
+            depth--;
+            int start = open[depth];
+            tape[size++] = (long) (token == JsonToken.END_OBJECT ? OBJECT_END : ARRAY_END) << 56 | start;
+            tape[start] |= (long) Math.min(counts[depth], MAX_COUNT) << 32 | size;
+            break;
+          }
+          case FIELD_NAME:
+          case VALUE_STRING:
+            appendString(reader);
+            break;
+          case VALUE_NUMBER:
+            switch (reader.readNumber()) {
+              case JsonReader.NUMBER_INT:
+                tape[size++] = (long) INT << 56 | (reader.getInt() & 0xFFFFFFFFL);
+                break;
+              case JsonReader.NUMBER_LONG:
+                tape[size++] = (long) LONG << 56;
+                tape[size++] = reader.getLong();
+                break;
+              default:
+                tape[size++] = (long) DOUBLE << 56;
+                tape[size++] = Double.doubleToRawLongBits(reader.getDouble());
+                break;
+            }
+            break;
+          case VALUE_TRUE:
+            tape[size++] = (long) TRUE << 56;
+            break;
+          case VALUE_FALSE:
+            tape[size++] = (long) FALSE << 56;
+            break;
+          default:
+            tape[size++] = (long) NULL << 56;
+            break;
+        }
+        token = reader.nextToken();
+      }
+    }
+
+    /**
+     * Records the offsets of a string without escapes, leaving the reader to
+     * skip it. Strings with escapes or control characters, and unterminated
+     * ones, are decoded by the reader so that errors are reported exactly as
+     * the tree parser does.
+     */
+    private void appendString(JsonReader reader) {
+      int from = (int) reader.getPosition();
+      int to = json != null ? plainStringEnd(base + from) : plainStringEnd(bytes, base + from);
+      if (to < 0) {
+        tape[size++] = (long) ESCAPED_STRING << 56 | strings.size();
+        strings.add(reader.getString());
+        return;
+      }
+      tape[size++] = (long) STRING << 56 | from;
+      tape[size++] = to - base;
+    }
+
+    private int plainStringEnd(int i) {
+      for (; i < limit; i++) {
+        char c = json.charAt(i);
+        if (c == '"') {
+          return i;
+        } else if (c == '\\' || c < 0x20) {
+          return -1;
+        }
+      }
+      return -1;
+    }
+
+    private int plainStringEnd(byte[] bytes, int from) {
+      boolean ascii = true;
+      for (int i = from; i < limit; i++) {
+        byte b = bytes[i];
+        if (b == '"') {
+          if (!ascii) {
+            Utf8.validate(bytes, from, i, base);
+          }
+          return i;
+        } else if (b == '\\' || (b >= 0 && b < 0x20)) {
+          return -1;
+        }
+        ascii &= b >= 0;
+      }
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,931 @@
+package jsonparser;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Push parser for UTF-8 JSON that arrives in chunks, such as request bodies
+ * read from a non-blocking socket. Each call to {@link #feed(ByteBuffer)}
+ * consumes the whole chunk and returns at once; the parser remembers where it
+ * stopped, including in the middle of a string, escape sequence, multi-byte
+ * character, number or literal, and continues with the next chunk. Nothing
+ * but the token being read and the open containers is kept, so the memory
+ * per connection does not depend on the size of the chunks fed so far. With
+ * {@link ParserOptions.Builder#withPrimitiveArrays(boolean)}, an open array
+ * of numbers is kept unboxed while it is read.
+ *
+ * <pre>{@code
+ * JsonFeedParser parser = new JsonFeedParser(document -> handle(document));
+ * while (channel.read(buffer) > 0) {
+ *   buffer.flip();
+ *   parser.feed(buffer);
+ *   buffer.clear();
+ * }
+ * parser.endOfInput();
+ * }</pre>
+ *
+ * <p>The input may hold any number of top-level values, optionally separated
+ * by whitespace, as on a stream of messages. Each one is handed to the sink
+ * as soon as its last byte has been fed, built as {@link RecursiveJsonParser}
+ * builds it. A number at the top level has no closing character, so it is
+ * only complete once a delimiter or {@link #endOfInput()} follows it. A
+ * parser created with {@link #forTokens(TokenListener)} reports every token
+ * as soon as it is complete instead, without building any tree.
+ *
+ * <p>Errors are reported with the same messages as {@link JsonReader}, with
+ * positions counted in bytes from the start of the first chunk. After an
+ * error, or after {@link #endOfInput()}, the parser rejects further input.
+ * Instances are not thread-safe; use one per connection.
+ */
+public final class JsonFeedParser {
+  private static final byte IN_OBJECT = 1;
+  private static final byte IN_ARRAY = 2;
+
+  // What the next structural character has to be
+  private static final int EXPECT_ROOT = 0;
+  private static final int EXPECT_FIRST_FIELD = 1;
+  private static final int EXPECT_FIELD = 2;
+  private static final int EXPECT_COLON = 3;
+  private static final int EXPECT_FIELD_VALUE = 4;
+  private static final int EXPECT_NEXT_FIELD = 5;
+  private static final int EXPECT_FIRST_ELEMENT = 6;
+  private static final int EXPECT_ELEMENT = 7;
+  private static final int EXPECT_NEXT_ELEMENT = 8;
+
+  // Token that the last chunk ended in the middle of
+  private static final int LEX_NONE = 0;
+  private static final int LEX_STRING = 1;
+  private static final int LEX_ESCAPE = 2;
+  private static final int LEX_UNICODE = 3;
+  private static final int LEX_NUMBER = 4;
+  private static final int LEX_LITERAL = 5;
+
+  // Parts of a number, in the order scanNumber() in JsonReader reads them
+  private static final int NUMBER_INTEGER = 0;
+  private static final int NUMBER_FRACTION = 1;
+  private static final int NUMBER_EXPONENT_SIGN = 2;
+  private static final int NUMBER_EXPONENT = 3;
+
+  // What an open array holds so far, with primitive arrays enabled
+  private static final byte NUMERIC_NONE = 0;
+  private static final byte NUMERIC_EMPTY = 1;
+  private static final byte NUMERIC_BUFFERED = 2;
+
+  private static final int COPY_BUFFER_SIZE = 8192;
+
+  /**
+   * Receives the tokens of the input in order. {@code value} is the
+   * {@code String} of a {@link JsonToken#FIELD_NAME} or
+   * {@link JsonToken#VALUE_STRING}, the {@code Number} of a
+   * {@link JsonToken#VALUE_NUMBER}, the {@code Boolean} of
+   * {@link JsonToken#VALUE_TRUE} and {@link JsonToken#VALUE_FALSE}, and
+   * {@code null} for every other token.
+   */
+  @FunctionalInterface
+  public interface TokenListener {
+    void onToken(JsonToken token, Object value);
+  }
+
+  private final Consumer<Object> sink;
+  private final TokenListener listener;
+  private final SymbolTable keys;
+  private final NumberMode numberMode;
+  private final boolean primitiveArrays;
+  private final int maxDepth;
+
+  private byte[] stack = new byte[16];
+  private Object[] containers;
+  private String[] names;
+  private byte[] numeric;
+  private int depth;
+  private int state = EXPECT_ROOT;
+  private int lexer = LEX_NONE;
+  private boolean done;
+
+  // Absolute position of the byte at index 0 of the chunk being read
+  private long base;
+  private long fed;
+  private byte[] copyBuffer;
+
+  // String being read: raw bytes not decoded yet, and the text decoded before the last escape
+  private boolean key;
+  private byte[] raw = new byte[64];
+  private int rawLength;
+  private int rawBits;
+  private long rawStart;
+  private boolean escaped;
+  private final StringBuilder text = new StringBuilder();
+  private int unicode;
+  private int hexLength;
+
+  // Number being read
+  private final StringBuilder number = new StringBuilder();
+  private int numberPart;
+  private boolean negative;
+  private long significand;
+  private int digits;
+  private int exponent;
+  private int exponentValue;
+  private boolean negativeExponent;
+  private boolean truncated;
+  private boolean valid;
+  private boolean exponentDigits;
+  private boolean integral;
+  private int numberKind;
+  private long longValue;
+  private double doubleValue;
+
+  // Literal being read
+  private String literal;
+  private int literalLength;
+  private long literalStart;
+
+  /**
+   * Creates a parser that hands each complete top-level value to {@code sink}.
+   */
+  public JsonFeedParser(Consumer<Object> sink) {
+    this(ParserOptions.defaults(), sink);
+  }
+
+  /**
+   * Creates a parser that builds top-level values with {@code options} and
+   * hands each one to {@code sink}.
+   */
+  public JsonFeedParser(ParserOptions options, Consumer<Object> sink) {
+    this(options, sink, null);
+    if (sink == null) {
+      throw new IllegalArgumentException("Sink must not be null");
+    }
+    this.containers = new Object[16];
+    this.names = new String[16];
+    this.numeric = new byte[16];
+  }
+
+  /**
+   * Creates a parser that reports every token to {@code listener} without
+   * building values.
+   */
+  public static JsonFeedParser forTokens(TokenListener listener) {
+    return forTokens(ParserOptions.defaults(), listener);
+  }
+
+  public static JsonFeedParser forTokens(ParserOptions options, TokenListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener must not be null");
+    }
+    return new JsonFeedParser(options, null, listener);
+  }
+
+  private JsonFeedParser(ParserOptions options, Consumer<Object> sink, TokenListener listener) {
+    if (options == null) {
+      throw new IllegalArgumentException("Options must not be null");
+    }
+    this.sink = sink;
+    this.listener = listener;
+    this.keys = options.keys();
+    this.numberMode = options.numberMode();
+    this.primitiveArrays = options.primitiveArrays();
+    this.maxDepth = options.maxDepth();
+  }
+
+  /**
+   * Consumes the bytes between the buffer's position and its limit, and moves
+   * the position to the limit. Direct buffers are copied in small pieces.
+   */
+  public void feed(ByteBuffer chunk) {
+    if (chunk.hasArray()) {
+      feed(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+      chunk.position(chunk.limit());
+      return;
+    }
+    if (copyBuffer == null) {
+      copyBuffer = new byte[COPY_BUFFER_SIZE];
+    }
+    while (chunk.hasRemaining()) {
+      int length = Math.min(chunk.remaining(), copyBuffer.length);
+      chunk.get(copyBuffer, 0, length);
+      feed(copyBuffer, 0, length);
+    }
+  }
+
+  public void feed(byte[] chunk) {
+    feed(chunk, 0, chunk.length);
+  }
+
+  /**
+   * Consumes {@code length} bytes of {@code chunk} starting at {@code offset}.
+   * The array is not referenced after this method returns.
+   */
+  public void feed(byte[] chunk, int offset, int length) {
+    if (done) {
+      throw new IllegalStateException("Parser no longer accepts input");
+    }
+    if (offset < 0 || length < 0 || offset + length > chunk.length) {
+      throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length) + ") out of bounds for length "
+          + chunk.length);
+    }
+    base = fed - offset;
+    try {
+      read(chunk, offset, offset + length);
+    } catch (RuntimeException e) {
+      done = true;
+      throw e;
+    }
+    fed += length;
+  }
+
+  /**
+   * Signals that no more input follows. Completes a trailing top-level
+   * number, and fails if the input ends inside a value.
+   */
+  public void endOfInput() {
+    if (done) {
+      throw new IllegalStateException("Parser no longer accepts input");
+    }
+    done = true;
+    base = fed;
+    if (lexer == LEX_NUMBER) {
+      endNumber();
+    }
+    if (lexer == LEX_LITERAL) {
+      throw new RuntimeException(literalError() + literalStart);
+    }
+    if (lexer != LEX_NONE) {
+      throw new RuntimeException("Unterminated string");
+    }
+    if (state != EXPECT_ROOT) {
+      structural(-1, 0);
+    }
+  }
+
+  /**
+   * Returns the number of bytes consumed so far.
+   */
+  public long getPosition() {
+    return fed;
+  }
+
+  /**
+   * Returns the number of objects and arrays that are open.
+   */
+  public int getDepth() {
+    return depth;
+  }
+
+  private void read(byte[] b, int i, int end) {
+    while (i < end) {
+      switch (lexer) {
+        case LEX_STRING:
+          i = readString(b, i, end);
+          break;
+        case LEX_ESCAPE:
+          readEscape(b[i++]);
+          break;
+        case LEX_UNICODE:
+          readUnicode(b[i++]);
+          break;
+        case LEX_NUMBER:
+          // A number ends at the first byte that cannot continue it, which is read again as structure
+          if (readNumber(b[i])) {
+            i++;
+          } else {
+            endNumber();
+          }
+          break;
+        case LEX_LITERAL:
+          readLiteral(b[i++]);
+          break;
+        default:
+          int c = b[i];
+          if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+            i++;
+          } else {
+            structural(c & 0xFF, i++);
+          }
+          break;
+      }
+    }
+  }
+
+  /**
+   * Handles a byte outside any token, or the end of input as -1, at index
+   * {@code i} of the current chunk.
+   */
+  private void structural(int c, int i) {
+    switch (state) {
+      case EXPECT_ROOT:
+      case EXPECT_FIELD_VALUE:
+        startValue(c, i);
+        return;
+
+      case EXPECT_COLON:
+        if (c != ':') {
+          throw new RuntimeException("Expected ':' at position " + (base + i));
+        }
+        state = EXPECT_FIELD_VALUE;
+        return;
+
+      case EXPECT_FIRST_FIELD:
+      case EXPECT_FIELD:
+        if (c < 0) {
+          throw new RuntimeException("Unterminated object");
+        }
+        if (c == '}') {
+          if (state == EXPECT_FIELD) {
+            throw new RuntimeException("Trailing comma not allowed at position " + (base + i - 1));
+          }
+          endContainer(JsonToken.END_OBJECT);
+          return;
+        }
+        if (c != '"') {
+          throw new RuntimeException("Expected '\"' at position " + (base + i));
+        }
+        startString(true, i);
+        return;
+
+      case EXPECT_NEXT_FIELD:
+        if (c == ',') {
+          state = EXPECT_FIELD;
+        } else if (c == '}') {
+          endContainer(JsonToken.END_OBJECT);
+        } else {
+          throw new RuntimeException("Expected ',' or '}' at position " + (base + i));
+        }
+        return;
+
+      case EXPECT_FIRST_ELEMENT:
+      case EXPECT_ELEMENT:
+        if (c < 0) {
+          throw new RuntimeException("Unterminated array");
+        }
+        if (c == ']') {
+          if (state == EXPECT_ELEMENT) {
+            throw new RuntimeException("Trailing comma not allowed at position " + (base + i - 1));
+          }
+          endContainer(JsonToken.END_ARRAY);
+          return;
+        }
+        startValue(c, i);
+        return;
+
+      case EXPECT_NEXT_ELEMENT:
+        if (c == ',') {
+          state = EXPECT_ELEMENT;
+        } else if (c == ']') {
+          endContainer(JsonToken.END_ARRAY);
+        } else {
+          throw new RuntimeException("Expected ',' or ']' at position " + (base + i));
+        }
+        return;
+
+      default:
+        throw new IllegalStateException("Unknown parser state " + state);
+    }
+  }
+
+  private void startValue(int c, int i) {
+    if (c == '{') {
+      push(IN_OBJECT, i);
+      state = EXPECT_FIRST_FIELD;
+      token(JsonToken.START_OBJECT, null);
+    } else if (c == '[') {
+      push(IN_ARRAY, i);
+      state = EXPECT_FIRST_ELEMENT;
+      token(JsonToken.START_ARRAY, null);
+    } else if (c == '"') {
+      startString(false, i);
+    } else if (c == 't' || c == 'f' || c == 'n') {
+      literal = c == 't' ? "true" : c == 'f' ? "false" : "null";
+      literalLength = 1;
+      literalStart = base + i;
+      lexer = LEX_LITERAL;
+    } else if ((c >= '0' && c <= '9') || c == '-') {
+      startNumber();
+      readNumber((byte) c);
+    } else {
+      throw new RuntimeException("Unexpected character: " + (char) Math.max(c, 0));
+    }
+  }
+
+  private void push(byte container, int i) {
+    if (depth == maxDepth) {
+      // Reported at the '{' or '[' that opens one container too many
+      throw new RuntimeException("Maximum nesting depth of " + maxDepth + " exceeded at position " + (base + i));
+    }
+    if (depth == stack.length) {
+      stack = Arrays.copyOf(stack, depth * 2);
+      if (sink != null) {
+        containers = Arrays.copyOf(containers, depth * 2);
+        names = Arrays.copyOf(names, depth * 2);
+        numeric = Arrays.copyOf(numeric, depth * 2);
+      }
+    }
+    if (sink != null) {
+      if (container == IN_OBJECT) {
+        containers[depth] = new HashMap<String, Object>();
+        numeric[depth] = NUMERIC_NONE;
+      } else {
+        containers[depth] = new ArrayList<Object>();
+        numeric[depth] = primitiveArrays ? NUMERIC_EMPTY : NUMERIC_NONE;
+      }
+    }
+    stack[depth++] = container;
+  }
+
+  private void endContainer(JsonToken end) {
+    depth--;
+    token(end, null);
+    if (sink == null) {
+      endValue();
+      return;
+    }
+    Object container = containers[depth];
+    containers[depth] = null;
+    names[depth] = null;
+    if (numeric[depth] == NUMERIC_BUFFERED) {
+      container = ((NumberBuffer) container).view();
+    }
+    value(container);
+  }
+
+  /**
+   * Hands a finished value to the enclosing container, or to the sink at the
+   * top level.
+   */
+  private void value(Object value) {
+    if (depth == 0) {
+      sink.accept(value);
+    } else if (stack[depth - 1] == IN_OBJECT) {
+      @SuppressWarnings("unchecked")
+      Map<String, Object> map = (Map<String, Object>) containers[depth - 1];
+      map.put(names[depth - 1], value);
+    } else {
+      if (numeric[depth - 1] != NUMERIC_NONE) {
+        // Numbers of such an array are buffered by endNumber(); anything else rules out a primitive view
+        endNumeric();
+      }
+      @SuppressWarnings("unchecked")
+      List<Object> list = (List<Object>) containers[depth - 1];
+      list.add(value);
+    }
+    endValue();
+  }
+
+  /**
+   * Gives up on a primitive view for the innermost array. The numbers
+   * buffered so far are boxed as the {@link Integer}, {@link Long} or
+   * {@link Double} each was read as, as {@link RecursiveJsonParser#readNumbers}
+   * returns them when it gives up.
+   */
+  private void endNumeric() {
+    if (numeric[depth - 1] == NUMERIC_BUFFERED) {
+      containers[depth - 1] = ((NumberBuffer) containers[depth - 1]).boxed();
+    }
+    numeric[depth - 1] = NUMERIC_NONE;
+  }
+
+  private void endValue() {
+    if (depth == 0) {
+      state = EXPECT_ROOT;
+    } else {
+      state = stack[depth - 1] == IN_OBJECT ? EXPECT_NEXT_FIELD : EXPECT_NEXT_ELEMENT;
+    }
+  }
+
+  private void token(JsonToken token, Object value) {
+    if (listener != null) {
+      listener.onToken(token, value);
+    }
+  }
+
+  private void startString(boolean key, int i) {
+    this.key = key;
+    rawLength = 0;
+    rawBits = 0;
+    rawStart = base + i + 1;
+    escaped = false;
+    text.setLength(0);
+    lexer = LEX_STRING;
+  }
+
+  /**
+   * Copies the run of plain bytes starting at {@code i} and handles the quote
+   * or backslash that ends it, if it is in this chunk. Returns the index of
+   * the first byte not consumed.
+   */
+  private int readString(byte[] b, int i, int end) {
+    int start = i;
+    int bits = 0;
+    while (i < end) {
+      byte c = b[i];
+      if (c == '"' || c == '\\') {
+        break;
+      } else if (c >= 0 && c < 0x20) {
+        throw JsonInput.controlCharacter(base + i);
+      }
+      bits |= c;
+      i++;
+    }
+    if (i > start) {
+      if (rawLength + (i - start) > raw.length) {
+        raw = Arrays.copyOf(raw, Math.max(raw.length * 2, rawLength + (i - start)));
+      }
+      System.arraycopy(b, start, raw, rawLength, i - start);
+      rawLength += i - start;
+      rawBits |= bits;
+    }
+    if (i == end) {
+      return i;
+    }
+
+    if (b[i] == '\\') {
+      decodeRaw();
+      escaped = true;
+      lexer = LEX_ESCAPE;
+      return i + 1;
+    }
+
+    String value;
+    if (escaped) {
+      decodeRaw();
+      value = text.toString();
+    } else {
+      value = Utf8.decode(raw, 0, rawLength, rawBits >= 0, -rawStart);
+    }
+    lexer = LEX_NONE;
+    if (key) {
+      String name = keys != null ? keys.intern(value) : value;
+      if (sink != null) {
+        names[depth - 1] = name;
+      }
+      state = EXPECT_COLON;
+      token(JsonToken.FIELD_NAME, name);
+    } else {
+      token(JsonToken.VALUE_STRING, value);
+      if (sink != null) {
+        value(value);
+      } else {
+        endValue();
+      }
+    }
+    return i + 1;
+  }
+
+  /**
+   * Appends the raw bytes read since the last escape to {@link #text}.
+   */
+  private void decodeRaw() {
+    Utf8.append(text, raw, 0, rawLength, rawBits >= 0, -rawStart);
+    rawStart += rawLength;
+    rawLength = 0;
+    rawBits = 0;
+  }
+
+  /**
+   * Decodes the character after a '\\', which sits at {@link #rawStart}.
+   */
+  private void readEscape(byte c) {
+    if (c == 'u') {
+      rawStart++;
+      unicode = 0;
+      hexLength = 0;
+      lexer = LEX_UNICODE;
+      return;
+    }
+    char decoded = JsonInput.unescape(c & 0xFF);
+    if (decoded == 0) {
+      throw JsonInput.invalidEscape(rawStart);
+    }
+    text.append(decoded);
+    rawStart += 2;
+    lexer = LEX_STRING;
+  }
+
+  private void readUnicode(byte c) {
+    int digit = JsonInput.hexDigit(c & 0xFF);
+    if (digit < 0) {
+      throw JsonInput.invalidUnicodeEscape(rawStart - 1);
+    }
+    unicode = unicode << 4 | digit;
+    if (++hexLength == 4) {
+      text.append((char) unicode);
+      rawStart += 5;
+      lexer = LEX_STRING;
+    }
+  }
+
+  private void startNumber() {
+    number.setLength(0);
+    numberPart = NUMBER_INTEGER;
+    negative = false;
+    significand = 0;
+    digits = 0;
+    exponent = 0;
+    exponentValue = 0;
+    negativeExponent = false;
+    truncated = false;
+    valid = false;
+    exponentDigits = false;
+    integral = true;
+    lexer = LEX_NUMBER;
+  }
+
+  /**
+   * Consumes {@code c} if it continues the number being read, accumulating
+   * up to 19 significant digits like {@link JsonReader} does. Returns false at
+   * the first byte that does not.
+   */
+  private boolean readNumber(byte c) {
+    boolean digit = c >= '0' && c <= '9';
+    switch (numberPart) {
+      case NUMBER_INTEGER:
+        if (digit) {
+          if (digits < 19) {
+            significand = significand * 10 + (c - '0');
+            if (significand != 0) {
+              digits++;
+            }
+          } else {
+            truncated = true;
+            exponent++;
+          }
+          valid = true;
+        } else if (c == '-' && number.length() == 0) {
+          negative = true;
+        } else if (c == '.') {
+          integral = false;
+          numberPart = NUMBER_FRACTION;
+        } else if (c == 'e' || c == 'E') {
+          integral = false;
+          numberPart = NUMBER_EXPONENT_SIGN;
+        } else {
+          return false;
+        }
+        break;
+
+      case NUMBER_FRACTION:
+        if (digit) {
+          if (digits < 19) {
+            significand = significand * 10 + (c - '0');
+            exponent--;
+            if (significand != 0) {
+              digits++;
+            }
+          } else {
+            truncated = true;
+          }
+          valid = true;
+        } else if (c == 'e' || c == 'E') {
+          numberPart = NUMBER_EXPONENT_SIGN;
+        } else {
+          return false;
+        }
+        break;
+
+      case NUMBER_EXPONENT_SIGN:
+        numberPart = NUMBER_EXPONENT;
+        if (c == '+' || c == '-') {
+          negativeExponent = c == '-';
+          break;
+        }
+        return readNumber(c);
+
+      default:
+        if (!digit) {
+          return false;
+        }
+        // Saturate; anything this large already overflows or underflows
+        if (exponentValue < 100_000) {
+          exponentValue = exponentValue * 10 + (c - '0');
+        }
+        exponentDigits = true;
+        break;
+    }
+    number.append((char) c);
+    return true;
+  }
+
+  private void endNumber() {
+    lexer = LEX_NONE;
+    if (numberPart >= NUMBER_EXPONENT_SIGN) {
+      valid &= exponentDigits;
+      exponent += negativeExponent ? -exponentValue : exponentValue;
+    }
+
+    Number value;
+    byte kind = sink != null && depth > 0 ? numeric[depth - 1] : NUMERIC_NONE;
+    if (kind != NUMERIC_NONE) {
+      // Numbers of an array that may still become a primitive view are read as NumberMode.STANDARD
+      scanStandard();
+      NumberBuffer numbers = kind == NUMERIC_EMPTY ? new NumberBuffer() : (NumberBuffer) containers[depth - 1];
+      if (numbers.add(numberKind, longValue, doubleValue)) {
+        // Kept unboxed; a parser with a sink has no token listener to hand the value to
+        containers[depth - 1] = numbers;
+        numeric[depth - 1] = NUMERIC_BUFFERED;
+        endValue();
+        return;
+      }
+      endNumeric();
+      value = numberMode == NumberMode.STANDARD ? boxStandard() : exactNumber();
+    } else {
+      value = numberMode == NumberMode.STANDARD ? standardNumber() : exactNumber();
+    }
+    token(JsonToken.VALUE_NUMBER, value);
+    if (sink != null) {
+      value(value);
+    } else {
+      endValue();
+    }
+  }
+
+  /**
+   * Converts the number read to an {@link Integer}, {@link Long} or
+   * {@link Double} and records which one in {@link #numberKind}.
+   */
+  private Number standardNumber() {
+    scanStandard();
+    return boxStandard();
+  }
+
+  private Number boxStandard() {
+    switch (numberKind) {
+      case JsonReader.NUMBER_INT:
+        return (int) longValue;
+      case JsonReader.NUMBER_LONG:
+        return longValue;
+      default:
+        return doubleValue;
+    }
+  }
+
+  /**
+   * Converts the number read to an {@code int}, {@code long} or
+   * {@code double} without boxing it, records which one in
+   * {@link #numberKind}, and leaves the value in {@link #longValue} or
+   * {@link #doubleValue}.
+   */
+  private void scanStandard() {
+    if (valid && !truncated && integral && (significand >= 0 || (negative && significand == Long.MIN_VALUE))) {
+      longValue = negative ? -significand : significand;
+      numberKind = (int) longValue == longValue ? JsonReader.NUMBER_INT : JsonReader.NUMBER_LONG;
+      return;
+    }
+    numberKind = JsonReader.NUMBER_DOUBLE;
+    if (valid && !truncated && !integral) {
+      doubleValue = FastDouble.toDouble(negative, significand, exponent, number);
+      return;
+    }
+    // Malformed numbers throw the same NumberFormatException as JsonReader
+    doubleValue = Double.parseDouble(number.toString());
+  }
+
+  private Number exactNumber() {
+    if (!valid) {
+      Double.parseDouble(number.toString());
+    }
+    String value = number.toString();
+    if (numberMode == NumberMode.LAZY) {
+      return new LazyNumber(value);
+    }
+    return integral ? new BigInteger(value) : new BigDecimal(value);
+  }
+
+  private static boolean exactDouble(long value) {
+    return value >= -(1L << 53) && value <= 1L << 53;
+  }
+
+  private void readLiteral(byte c) {
+    if (c != literal.charAt(literalLength)) {
+      throw new RuntimeException(literalError() + literalStart);
+    }
+    if (++literalLength < literal.length()) {
+      return;
+    }
+    lexer = LEX_NONE;
+    if (literal.equals("null")) {
+      token(JsonToken.VALUE_NULL, null);
+      if (sink != null) {
+        value(null);
+      } else {
+        endValue();
+      }
+      return;
+    }
+    Boolean value = literal.equals("true");
+    token(value ? JsonToken.VALUE_TRUE : JsonToken.VALUE_FALSE, value);
+    if (sink != null) {
+      value(value);
+    } else {
+      endValue();
+    }
+  }
+
+  private String literalError() {
+    return literal.equals("null") ? "Invalid null value at position " : "Invalid boolean value at position ";
+  }
+
+  /**
+   * The numbers of an open array that may still become a primitive view,
+   * kept unboxed in an {@code int[]} widened to a {@code long[]} or
+   * {@code double[]} when an element needs it, as
+   * {@link RecursiveJsonParser#readNumbers} keeps them.
+   */
+  private static final class NumberBuffer {
+    private int[] ints = new int[16];
+    private long[] longs;
+    private double[] doubles;
+    // Kind each element was read as, kept once the array has widened, so a fallback can rebox it
+    private byte[] kinds;
+    private int size;
+
+    /**
+     * Adds a number of kind {@code kind}, held in {@code longValue} or
+     * {@code doubleValue}. Returns false without adding it if a long that a
+     * double cannot hold exactly would be mixed with doubles, in either order.
+     */
+    boolean add(int kind, long longValue, double doubleValue) {
+      if (doubles != null) {
+        if (kind == JsonReader.NUMBER_LONG && !exactDouble(longValue)) {
+          return false;
+        }
+        if (size == doubles.length) {
+          doubles = Arrays.copyOf(doubles, size * 2);
+          kinds = Arrays.copyOf(kinds, size * 2);
+        }
+        kinds[size] = (byte) kind;
+        doubles[size++] = kind == JsonReader.NUMBER_DOUBLE ? doubleValue : longValue;
+        return true;
+      }
+      if (longs != null) {
+        if (kind == JsonReader.NUMBER_DOUBLE) {
+          // Widen the longs buffered so far and retry this element, unless one of them would lose precision
+          for (int i = 0; i < size; i++) {
+            if (!exactDouble(longs[i])) {
+              return false;
+            }
+          }
+          doubles = new double[longs.length];
+          for (int i = 0; i < size; i++) {
+            doubles[i] = longs[i];
+          }
+          longs = null;
+          return add(kind, longValue, doubleValue);
+        }
+        if (size == longs.length) {
+          longs = Arrays.copyOf(longs, size * 2);
+          kinds = Arrays.copyOf(kinds, size * 2);
+        }
+        kinds[size] = (byte) kind;
+        longs[size++] = longValue;
+        return true;
+      }
+      if (kind == JsonReader.NUMBER_INT) {
+        if (size == ints.length) {
+          ints = Arrays.copyOf(ints, size * 2);
+        }
+        ints[size++] = (int) longValue;
+        return true;
+      }
+      // Widen the ints buffered so far and retry this element
+      kinds = new byte[ints.length];
+      if (kind == JsonReader.NUMBER_LONG) {
+        longs = new long[ints.length];
+        for (int i = 0; i < size; i++) {
+          longs[i] = ints[i];
+        }
+      } else {
+        doubles = new double[ints.length];
+        for (int i = 0; i < size; i++) {
+          doubles[i] = ints[i];
+        }
+      }
+      ints = null;
+      return add(kind, longValue, doubleValue);
+    }
+
+    List<Object> view() {
+      return doubles != null ? new DoubleArrayList(doubles, size)
+          : longs != null ? new LongArrayList(longs, size)
+          : new IntArrayList(ints, size);
+    }
+
+    /**
+     * Returns the numbers boxed in an ordinary list, each as the
+     * {@link Integer}, {@link Long} or {@link Double} it was read as.
+     */
+    List<Object> boxed() {
+      List<Object> list = new ArrayList<>(size + 8);
+      for (int i = 0; i < size; i++) {
+        list.add(kinds == null ? (Object) ints[i] : RecursiveJsonParser.rebox(kinds[i], longs, doubles, i));
+      }
+      return list;
+    }
+  }
+}
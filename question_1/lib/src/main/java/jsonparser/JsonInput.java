@@ -0,0 +1,287 @@
+package jsonparser;
+
+import java.util.Arrays;
+
+/**
+ * Character source consumed by {@link JsonReader}. Implementations only need to
+ * provide {@link #peek()}, {@link #advance()} and {@link #position()}; the
+ * remaining methods have generic implementations that can be specialized for
+ * speed.
+ */
+abstract class JsonInput {
+
+  // For each ASCII character, what a '\\' followed by it stands for, or 0 if that is not an escape
+  private static final char[] ESCAPES = new char[128];
+  // For each ASCII character, its value as a hex digit, or -1
+  private static final byte[] HEX_DIGITS = new byte[128];
+
+  static {
+    ESCAPES['"'] = '"';
+    ESCAPES['\\'] = '\\';
+    ESCAPES['/'] = '/';
+    ESCAPES['b'] = '\b';
+    ESCAPES['f'] = '\f';
+    ESCAPES['n'] = '\n';
+    ESCAPES['r'] = '\r';
+    ESCAPES['t'] = '\t';
+    Arrays.fill(HEX_DIGITS, (byte) -1);
+    for (int c = '0'; c <= '9'; c++) {
+      HEX_DIGITS[c] = (byte) (c - '0');
+    }
+    for (int c = 'a'; c <= 'f'; c++) {
+      HEX_DIGITS[c] = (byte) (c - 'a' + 10);
+      HEX_DIGITS[c - 'a' + 'A'] = (byte) (c - 'a' + 10);
+    }
+  }
+
+  /**
+   * Returns the next character without consuming it, or -1 at the end of input.
+   */
+  abstract int peek();
+
+  /**
+   * Consumes the character returned by the last {@link #peek()}.
+   */
+  abstract void advance();
+
+  /**
+   * Returns the position of the next character, used in error messages.
+   */
+  abstract long position();
+
+  int skipWhitespace() {
+    int c = peek();
+    while (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+      advance();
+      c = peek();
+    }
+    return c;
+  }
+
+  /**
+   * Reads the remainder of a string whose opening '"' has already been consumed,
+   * including the closing '"'. Control characters must be escaped.
+   */
+  String readString(StringBuilder sb) {
+    sb.setLength(0);
+
+    while (true) {
+      int c = peek();
+      if (c < 0) {
+        throw new RuntimeException("Unterminated string");
+      } else if (c < 0x20) {
+        throw controlCharacter(position());
+      }
+      advance();
+
+      if (c == '"') {
+        return sb.toString();
+      } else if (c == '\\') {
+        readEscape(sb);
+      } else {
+        sb.append((char) c);
+      }
+    }
+  }
+
+  /**
+   * Reads the remainder of an object key like {@link #readString(StringBuilder)},
+   * returning the instance canonicalized by {@code keys}. Inputs that can see
+   * the raw key override this to look it up before decoding it.
+   */
+  String readKey(StringBuilder sb, SymbolTable keys) {
+    return keys.intern(readString(sb));
+  }
+
+  /**
+   * Consumes the remainder of an object key like
+   * {@link #readString(StringBuilder)} and returns the index of the entry of
+   * {@code names} it equals, or -1. Inputs that can see the raw key override
+   * this to compare it without decoding it.
+   */
+  int matchKey(StringBuilder sb, String[] names) {
+    String key = readString(sb);
+    for (int i = 0; i < names.length; i++) {
+      if (names[i].equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Consumes the remainder of a string like {@link #readString(StringBuilder)}
+   * without decoding it.
+   */
+  void skipString() {
+    while (true) {
+      int c = peek();
+      if (c < 0) {
+        throw new RuntimeException("Unterminated string");
+      }
+      advance();
+
+      if (c == '"') {
+        return;
+      } else if (c == '\\' && peek() >= 0) {
+        advance();
+      }
+    }
+  }
+
+  /**
+   * Consumes the rest of an object or array whose opening bracket has already
+   * been consumed, up to and including its closing bracket. Only strings and
+   * brackets are looked at: strings must be terminated, brackets must match,
+   * and nesting must stay within {@code maxDepth}, counting the {@code depth}
+   * containers open so far. Anything else is passed over unchecked.
+   */
+  void skipContainer(Brackets brackets, boolean object, int depth, int maxDepth) {
+    brackets.reset(object, depth, maxDepth);
+    while (true) {
+      int c = peek();
+      if (c < 0) {
+        throw brackets.unterminated();
+      }
+      advance();
+      if (c == '"') {
+        skipString();
+      } else if (c == '{' || c == '[') {
+        brackets.open(c == '{', position() - 1);
+      } else if ((c == '}' || c == ']') && brackets.close(c == '}', position() - 1)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Decodes one escape sequence whose '\\' has already been consumed. A
+   * surrogate pair arrives as two {@code \\u} escapes and is appended as the
+   * same two chars.
+   */
+  void readEscape(StringBuilder sb) {
+    long backslash = position() - 1;
+    int c = peek();
+    if (c < 0) {
+      throw new RuntimeException("Unterminated string");
+    }
+    advance();
+    if (c != 'u') {
+      char decoded = unescape(c);
+      if (decoded == 0) {
+        throw invalidEscape(backslash);
+      }
+      sb.append(decoded);
+      return;
+    }
+    int value = 0;
+    for (int i = 0; i < 4; i++) {
+      c = peek();
+      if (c < 0) {
+        throw new RuntimeException("Unterminated string");
+      }
+      int digit = hexDigit(c);
+      if (digit < 0) {
+        throw invalidUnicodeEscape(backslash);
+      }
+      advance();
+      value = value << 4 | digit;
+    }
+    sb.append((char) value);
+  }
+
+  /**
+   * Builds a {@link StructuralIndex} of the remaining input so whitespace and
+   * strings can be skipped by jumping between indexed positions. Only inputs
+   * over in-memory bytes support it; others ignore the request.
+   */
+  void useStructuralIndex() {
+  }
+
+  /**
+   * Releases any resource held by the input. Inputs over in-memory data have
+   * nothing to release.
+   */
+  void close() {
+  }
+
+  /**
+   * Returns the character that a '\\' followed by {@code c} stands for, or 0
+   * if that is not a valid escape. {@code \\u} escapes are decoded by the
+   * caller.
+   */
+  static char unescape(int c) {
+    return c < ESCAPES.length ? ESCAPES[c] : 0;
+  }
+
+  /**
+   * Returns the value of {@code c} as a hex digit, or -1.
+   */
+  static int hexDigit(int c) {
+    return c < HEX_DIGITS.length ? HEX_DIGITS[c] : -1;
+  }
+
+  static RuntimeException invalidEscape(long position) {
+    return new RuntimeException("Invalid escape sequence at position " + position);
+  }
+
+  static RuntimeException invalidUnicodeEscape(long position) {
+    return new RuntimeException("Invalid unicode escape at position " + position);
+  }
+
+  static RuntimeException controlCharacter(long position) {
+    return new RuntimeException("Unescaped control character in string at position " + position);
+  }
+
+  /**
+   * The kinds of the containers opened while skipping, one bit per level,
+   * reused from one skip to the next.
+   */
+  static final class Brackets {
+    private long[] objects = new long[1];
+    private int depth;
+    private int outerDepth;
+    private int maxDepth;
+
+    void reset(boolean object, int outerDepth, int maxDepth) {
+      this.depth = 0;
+      this.outerDepth = outerDepth;
+      this.maxDepth = maxDepth;
+      set(object);
+    }
+
+    void open(boolean object, long position) {
+      if (outerDepth + depth == maxDepth) {
+        throw new RuntimeException("Maximum nesting depth of " + maxDepth + " exceeded at position " + position);
+      }
+      depth++;
+      if (depth >> 6 == objects.length) {
+        objects = Arrays.copyOf(objects, objects.length * 2);
+      }
+      set(object);
+    }
+
+    /**
+     * Closes the innermost container and returns true if it was the one the
+     * skip started in.
+     */
+    boolean close(boolean object, long position) {
+      if (((objects[depth >> 6] >>> depth) & 1) != (object ? 1 : 0)) {
+        throw new RuntimeException("Unexpected '" + (object ? '}' : ']') + "' at position " + position);
+      }
+      return depth-- == 0;
+    }
+
+    RuntimeException unterminated() {
+      return new RuntimeException((objects[0] & 1) != 0 ? "Unterminated object" : "Unterminated array");
+    }
+
+    private void set(boolean object) {
+      if (object) {
+        objects[depth >> 6] |= 1L << depth;
+      } else {
+        objects[depth >> 6] &= ~(1L << depth);
+      }
+    }
+  }
+}
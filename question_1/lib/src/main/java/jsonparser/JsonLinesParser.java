@@ -0,0 +1,508 @@
+package jsonparser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Parser for newline-delimited JSON (NDJSON / JSON Lines): one document per
+ * line. The input is cut into chunks of roughly {@link Builder#withChunkSize(int)}
+ * bytes at line boundaries, and chunks are parsed concurrently on the
+ * configured executor. Blank lines are ignored.
+ *
+ * <pre>{@code
+ * JsonLinesParser parser = JsonLinesParser.builder()
+ *     .withVirtualThreads()
+ *     .withOrdered(false)
+ *     .build();
+ * JsonLinesParser.Stats stats = parser.parseFile(path, document -> index(document));
+ * }</pre>
+ *
+ * <p>Documents are handed to the sink on the calling thread, so the sink does
+ * not have to be thread-safe. At most {@link Builder#withMaxPendingChunks(int)}
+ * chunks are parsed ahead of the sink, which bounds memory use for inputs of
+ * any size. Instances are immutable and can be shared between threads.
+ */
+public final class JsonLinesParser {
+  private final Executor executor;
+  private final boolean virtualThreads;
+  private final int chunkSize;
+  private final int maxPendingChunks;
+  private final boolean ordered;
+  private final RecursiveJsonParser tree;
+  private final ParseContext.Pool contexts;
+
+  private JsonLinesParser(Builder builder) {
+    this.executor = builder.executor;
+    this.virtualThreads = builder.virtualThreads;
+    this.chunkSize = builder.chunkSize;
+    this.maxPendingChunks = builder.maxPendingChunks;
+    this.ordered = builder.ordered;
+    this.tree = new IterativeJsonParser(builder.options);
+    this.contexts = new ParseContext.Pool(maxPendingChunks);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Parses every line of {@code input} and returns the documents.
+   */
+  public List<Object> parse(String input) {
+    List<Object> documents = new ArrayList<>();
+    parse(input, documents::add);
+    return documents;
+  }
+
+  /**
+   * Parses every line of the UTF-8 encoded {@code input} and returns the
+   * documents.
+   */
+  public List<Object> parse(byte[] input) {
+    List<Object> documents = new ArrayList<>();
+    parse(input, documents::add);
+    return documents;
+  }
+
+  /**
+   * Parses every line of a UTF-8 file and returns the documents.
+   */
+  public List<Object> parseFile(Path path) {
+    List<Object> documents = new ArrayList<>();
+    parseFile(path, documents::add);
+    return documents;
+  }
+
+  public Stats parse(String input, Consumer<Object> sink) {
+    return run(new StringSource(input), sink);
+  }
+
+  public Stats parse(byte[] input, Consumer<Object> sink) {
+    return run(new ByteArraySource(input), sink);
+  }
+
+  /**
+   * Parses a UTF-8 file chunk by chunk; each chunk is memory-mapped by the
+   * worker that parses it, so files of any size can be processed.
+   */
+  public Stats parseFile(Path path, Consumer<Object> sink) {
+    try (FileSource source = new FileSource(path)) {
+      return run(source, sink);
+    }
+  }
+
+  private Stats run(Source source, Consumer<Object> sink) {
+    if (!virtualThreads) {
+      return run(source, sink, executor);
+    }
+    try (ExecutorService perTask = Executors.newVirtualThreadPerTaskExecutor()) {
+      return run(source, sink, perTask);
+    }
+  }
+
+  private Stats run(Source source, Consumer<Object> sink, Executor executor) {
+    long started = System.nanoTime();
+    Map<String, WorkerStats> workers = new LinkedHashMap<>();
+    ArrayDeque<CompletableFuture<Chunk>> pending = new ArrayDeque<>();
+    BlockingQueue<CompletableFuture<Chunk>> completed = new LinkedBlockingQueue<>();
+    long lines = 0;
+    long chunkStart = 0;
+    long length = source.length();
+
+    try {
+      while (chunkStart < length || !pending.isEmpty()) {
+        // Keep the workers busy up to the in-flight limit
+        while (chunkStart < length && pending.size() < maxPendingChunks) {
+          long start = chunkStart;
+          long end = source.chunkEnd(start, chunkSize);
+          CompletableFuture<Chunk> future = CompletableFuture.supplyAsync(() -> parseChunk(source, start, end), executor);
+          if (!ordered) {
+            future.whenComplete((chunk, error) -> completed.add(future));
+          }
+          pending.add(future);
+          chunkStart = end;
+        }
+
+        CompletableFuture<Chunk> next;
+        if (ordered) {
+          next = pending.poll();
+        } else {
+          next = completed.take();
+          pending.remove(next);
+        }
+
+        Chunk chunk = next.join();
+        for (Object document : chunk.documents()) {
+          sink.accept(document);
+        }
+        lines += chunk.documents().size();
+        workers.merge(chunk.worker().worker(), chunk.worker(), WorkerStats::plus);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while parsing JSON lines", e);
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    } finally {
+      for (CompletableFuture<Chunk> future : pending) {
+        future.cancel(false);
+      }
+    }
+
+    return new Stats(lines, length, System.nanoTime() - started, Collections.unmodifiableMap(workers));
+  }
+
+  private Chunk parseChunk(Source source, long start, long end) {
+    long started = System.nanoTime();
+    List<Object> documents = new ArrayList<>();
+    ParseContext context = contexts.acquire();
+    try {
+      source.parse(start, end, tree, context, documents);
+    } finally {
+      contexts.release(context);
+    }
+
+    Thread thread = Thread.currentThread();
+    String name = thread.getName().isEmpty() ? "virtual-" + thread.threadId() : thread.getName();
+    WorkerStats worker = new WorkerStats(name, 1, documents.size(), end - start, System.nanoTime() - started);
+    return new Chunk(documents, worker);
+  }
+
+  private static RuntimeException lineError(long lineStart, RuntimeException e) {
+    return new RuntimeException("Invalid JSON in line starting at offset " + lineStart + ": " + e.getMessage(), e);
+  }
+
+  private record Chunk(List<Object> documents, WorkerStats worker) {
+  }
+
+  /**
+   * Totals for one parse call. {@code workers} is keyed by thread name; with
+   * virtual threads every chunk runs on its own thread.
+   */
+  public record Stats(long lines, long bytes, long elapsedNanos, Map<String, WorkerStats> workers) {
+
+    public double bytesPerSecond() {
+      return elapsedNanos == 0 ? 0 : bytes * 1e9 / elapsedNanos;
+    }
+
+    public double linesPerSecond() {
+      return elapsedNanos == 0 ? 0 : lines * 1e9 / elapsedNanos;
+    }
+  }
+
+  /**
+   * Work done by one worker thread. Throughput is measured against the time the
+   * worker spent parsing, not the wall-clock time of the whole call.
+   */
+  public record WorkerStats(String worker, int chunks, long lines, long bytes, long busyNanos) {
+
+    public double bytesPerSecond() {
+      return busyNanos == 0 ? 0 : bytes * 1e9 / busyNanos;
+    }
+
+    public double linesPerSecond() {
+      return busyNanos == 0 ? 0 : lines * 1e9 / busyNanos;
+    }
+
+    WorkerStats plus(WorkerStats other) {
+      return new WorkerStats(worker, chunks + other.chunks, lines + other.lines,
+          bytes + other.bytes, busyNanos + other.busyNanos);
+    }
+  }
+
+  public static final class Builder {
+    private Executor executor = ForkJoinPool.commonPool();
+    private boolean virtualThreads;
+    private int chunkSize = 1 << 20;
+    private int maxPendingChunks = 2 * Runtime.getRuntime().availableProcessors();
+    private boolean ordered = true;
+    private ParserOptions options = ParserOptions.defaults();
+
+    private Builder() {
+    }
+
+    /**
+     * Parses chunks on {@code executor}, {@link ForkJoinPool#commonPool()} by
+     * default. The executor is not shut down by the parser.
+     */
+    public Builder withExecutor(Executor executor) {
+      if (executor == null) {
+        throw new IllegalArgumentException("Executor must not be null");
+      }
+      this.executor = executor;
+      this.virtualThreads = false;
+      return this;
+    }
+
+    /**
+     * Parses every chunk on its own virtual thread.
+     */
+    public Builder withVirtualThreads() {
+      this.virtualThreads = true;
+      return this;
+    }
+
+    /**
+     * Sets the target chunk size in bytes (chars for String input). Chunks are
+     * extended to the end of the line they stop in. Defaults to 1 MiB.
+     */
+    public Builder withChunkSize(int chunkSize) {
+      if (chunkSize <= 0) {
+        throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+      }
+      this.chunkSize = chunkSize;
+      return this;
+    }
+
+    /**
+     * Sets how many chunks may be parsed ahead of the sink. Defaults to twice
+     * the number of available processors.
+     */
+    public Builder withMaxPendingChunks(int maxPendingChunks) {
+      if (maxPendingChunks <= 0) {
+        throw new IllegalArgumentException("Max pending chunks must be positive: " + maxPendingChunks);
+      }
+      this.maxPendingChunks = maxPendingChunks;
+      return this;
+    }
+
+    /**
+     * When true (the default) documents reach the sink in input order. When
+     * false each chunk is delivered as soon as it has been parsed.
+     */
+    public Builder withOrdered(boolean ordered) {
+      this.ordered = ordered;
+      return this;
+    }
+
+    /**
+     * Sets the {@link ParserOptions} every line is parsed with.
+     */
+    public Builder withOptions(ParserOptions options) {
+      this.options = options;
+      return this;
+    }
+
+    public JsonLinesParser build() {
+      return new JsonLinesParser(this);
+    }
+  }
+
+  /**
+   * Input split into chunks on the calling thread and parsed by the workers.
+   * {@link #parse} must be safe to call concurrently for disjoint ranges.
+   */
+  private interface Source {
+    long length();
+
+    /**
+     * Returns the end of the chunk starting at {@code start}: just past the first
+     * newline at or after {@code start + chunkSize}, or the end of input.
+     */
+    long chunkEnd(long start, int chunkSize);
+
+    void parse(long start, long end, RecursiveJsonParser tree, ParseContext context, List<Object> documents);
+  }
+
+  private static final class StringSource implements Source {
+    private final String input;
+
+    StringSource(String input) {
+      this.input = input;
+    }
+
+    @Override
+    public long length() {
+      return input.length();
+    }
+
+    @Override
+    public long chunkEnd(long start, int chunkSize) {
+      long from = start + chunkSize - 1;
+      if (from >= input.length()) {
+        return input.length();
+      }
+      int newline = input.indexOf('\n', (int) from);
+      return newline < 0 ? input.length() : newline + 1;
+    }
+
+    @Override
+    public void parse(long start, long end, RecursiveJsonParser tree, ParseContext context, List<Object> documents) {
+      int lineStart = (int) start;
+      while (lineStart < end) {
+        int newline = input.indexOf('\n', lineStart);
+        int lineEnd = newline < 0 || newline >= end ? (int) end : newline;
+        if (!isBlank(lineStart, lineEnd)) {
+          try {
+            documents.add(tree.parse(context.reader(input, lineStart, lineEnd)));
+          } catch (RuntimeException e) {
+            throw lineError(lineStart, e);
+          }
+        }
+        lineStart = lineEnd + 1;
+      }
+    }
+
+    private boolean isBlank(int start, int end) {
+      for (int i = start; i < end; i++) {
+        char c = input.charAt(i);
+        if (c != ' ' && c != '\t' && c != '\r') {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private static final class ByteArraySource implements Source {
+    private final byte[] input;
+
+    ByteArraySource(byte[] input) {
+      this.input = input;
+    }
+
+    @Override
+    public long length() {
+      return input.length;
+    }
+
+    @Override
+    public long chunkEnd(long start, int chunkSize) {
+      long from = start + chunkSize - 1;
+      for (int i = (int) Math.min(from, input.length); i < input.length; i++) {
+        if (input[i] == '\n') {
+          return i + 1;
+        }
+      }
+      return input.length;
+    }
+
+    @Override
+    public void parse(long start, long end, RecursiveJsonParser tree, ParseContext context, List<Object> documents) {
+      int lineStart = (int) start;
+      boolean blank = true;
+      for (int i = lineStart; i <= end; i++) {
+        if (i == end || input[i] == '\n') {
+          if (!blank) {
+            try {
+              documents.add(tree.parse(context.reader(input, lineStart, i - lineStart)));
+            } catch (RuntimeException e) {
+              throw lineError(lineStart, e);
+            }
+          }
+          lineStart = i + 1;
+          blank = true;
+        } else if (blank) {
+          byte b = input[i];
+          blank = b == ' ' || b == '\t' || b == '\r';
+        }
+      }
+    }
+  }
+
+  private static final class FileSource implements Source, AutoCloseable {
+    private final FileChannel channel;
+    private final long size;
+    private final ByteBuffer probe = ByteBuffer.allocate(8192);
+
+    FileSource(Path path) {
+      try {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public long length() {
+      return size;
+    }
+
+    @Override
+    public long chunkEnd(long start, int chunkSize) {
+      // Read small windows after the target size until a newline turns up
+      long position = start + chunkSize - 1;
+      try {
+        while (position < size) {
+          probe.clear();
+          int n = channel.read(probe, position);
+          for (int i = 0; i < n; i++) {
+            if (probe.get(i) == '\n') {
+              return position + i + 1;
+            }
+          }
+          position += Math.max(n, 0);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return size;
+    }
+
+    @Override
+    public void parse(long start, long end, RecursiveJsonParser tree, ParseContext context, List<Object> documents) {
+      if (end - start > Integer.MAX_VALUE) {
+        throw new RuntimeException("Line starting at offset " + start + " is longer than 2 GB");
+      }
+      MappedByteBuffer chunk;
+      try {
+        chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+
+      int lineStart = 0;
+      int limit = chunk.limit();
+      boolean blank = true;
+      for (int i = 0; i <= limit; i++) {
+        if (i == limit || chunk.get(i) == '\n') {
+          if (!blank) {
+            try {
+              documents.add(tree.parse(context.reader(chunk.slice(lineStart, i - lineStart))));
+            } catch (RuntimeException e) {
+              throw lineError(start + lineStart, e);
+            }
+          }
+          lineStart = i + 1;
+          blank = true;
+        } else if (blank) {
+          byte b = chunk.get(i);
+          blank = b == ' ' || b == '\t' || b == '\r';
+        }
+      }
+    }
+
+    @Override
+    public void close() {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,263 @@
+package jsonparser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of parsed trees for documents that are parsed over and over, such as
+ * configuration or feature flags fetched on every request. Documents are
+ * keyed by the xxHash64 of their UTF-8 bytes, and a hit is only returned after
+ * the bytes have been compared with the cached copy, so a hash collision is a
+ * miss rather than a wrong result.
+ *
+ * <pre>{@code
+ * JsonParseCache cache = JsonParseCache.builder()
+ *     .withMaxEntries(1000)
+ *     .withMaxBytes(64 << 20)
+ *     .build();
+ *
+ * Map<?, ?> flags = (Map<?, ?>) cache.parse(body);
+ * }</pre>
+ *
+ * <p>Every tree returned is deeply unmodifiable, so one instance is shared by
+ * all callers and threads that parse the same document. The cache holds at
+ * most {@link Builder#withMaxEntries(int)} documents and about
+ * {@link Builder#withMaxBytes(long)} bytes, counting the cached copy of the
+ * input and an estimate of the tree; the least recently used documents are
+ * evicted first. A document that alone exceeds the byte bound is parsed but
+ * not cached. Threads that miss on the same document at the same time each
+ * parse it, and the last one to finish is kept. Invalid documents are not
+ * cached and throw on every call.
+ */
+public final class JsonParseCache {
+  // Rough object sizes on a 64-bit JVM with compressed references
+  private static final int STRING_SIZE = 40;
+  private static final int BOX_SIZE = 24;
+  private static final int MAP_SIZE = 64;
+  private static final int MAP_ENTRY_SIZE = 40;
+  private static final int LIST_SIZE = 56;
+  private static final int ARRAY_SIZE = 16;
+
+  private final JsonParsers parsers;
+  private final int maxEntries;
+  private final long maxBytes;
+
+  // Access-ordered, so iteration starts at the least recently used entry
+  private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long retainedBytes;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  private JsonParseCache(Builder builder) {
+    this.parsers = JsonParsers.create(builder.options);
+    this.maxEntries = builder.maxEntries;
+    this.maxBytes = builder.maxBytes;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns the tree of {@code json}, parsing it only if it is not cached.
+   */
+  public Object parse(String json) {
+    if (json == null) {
+      throw new IllegalArgumentException("JSON string must not be null");
+    }
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    return parse(bytes, 0, bytes.length, json);
+  }
+
+  public Object parse(byte[] json) {
+    return parse(json, 0, json.length);
+  }
+
+  public Object parse(byte[] json, int offset, int length) {
+    return parse(json, offset, length, null);
+  }
+
+  /**
+   * Returns the hit, miss and eviction counts so far and the current size.
+   */
+  public Stats stats() {
+    int size;
+    long bytes;
+    synchronized (entries) {
+      size = entries.size();
+      bytes = retainedBytes;
+    }
+    return new Stats(hits.sum(), misses.sum(), evictions.sum(), size, bytes);
+  }
+
+  /**
+   * Removes every cached document. The counters are kept.
+   */
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+      retainedBytes = 0;
+    }
+  }
+
+  /**
+   * Looks up {@code bytes[offset, offset + length)} and parses it on a miss,
+   * from {@code json} if the bytes were encoded from it so that errors report
+   * positions in chars like {@link RecursiveJsonParser#parse(String)}.
+   */
+  private Object parse(byte[] bytes, int offset, int length, String json) {
+    long hash = XxHash64.hash(bytes, offset, length, 0);
+    Entry cached;
+    synchronized (entries) {
+      cached = entries.get(hash);
+    }
+    if (cached != null && Arrays.equals(cached.json(), 0, cached.json().length, bytes, offset, offset + length)) {
+      hits.increment();
+      return cached.tree();
+    }
+    misses.increment();
+
+    Object parsed = json != null ? parsers.parse(json) : parsers.parse(bytes, offset, length);
+    Freezer freezer = new Freezer();
+    Object tree = freezer.freeze(parsed);
+    long size = ARRAY_SIZE + length + freezer.bytes;
+    if (size <= maxBytes) {
+      store(hash, new Entry(Arrays.copyOfRange(bytes, offset, offset + length), tree, size));
+    }
+    return tree;
+  }
+
+  private void store(long hash, Entry entry) {
+    synchronized (entries) {
+      Entry replaced = entries.put(hash, entry);
+      if (replaced != null) {
+        retainedBytes -= replaced.size();
+      }
+      retainedBytes += entry.size();
+
+      Iterator<Entry> eldest = entries.values().iterator();
+      while (entries.size() > maxEntries || retainedBytes > maxBytes) {
+        retainedBytes -= eldest.next().size();
+        eldest.remove();
+        evictions.increment();
+      }
+    }
+  }
+
+  /**
+   * A cached document: a copy of its bytes to verify hits against, its tree,
+   * and the estimated bytes both retain.
+   */
+  private record Entry(byte[] json, Object tree, long size) {
+  }
+
+  /**
+   * Makes a freshly parsed tree unmodifiable in place and estimates its size.
+   * The maps and lists are owned by the tree, so they are wrapped rather than
+   * copied; the numeric array views are unmodifiable already.
+   */
+  private static final class Freezer {
+    long bytes;
+
+    Object freeze(Object value) {
+      if (value instanceof Map<?, ?> map) {
+        bytes += MAP_SIZE + (long) MAP_ENTRY_SIZE * map.size();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> members = (Map<String, Object>) map;
+        for (Map.Entry<String, Object> member : members.entrySet()) {
+          bytes += STRING_SIZE + member.getKey().length();
+          member.setValue(freeze(member.getValue()));
+        }
+        return Collections.unmodifiableMap(members);
+      } else if (value instanceof IntArrayList ints) {
+        bytes += LIST_SIZE + 4L * ints.size();
+        return ints;
+      } else if (value instanceof LongArrayList longs) {
+        bytes += LIST_SIZE + 8L * longs.size();
+        return longs;
+      } else if (value instanceof DoubleArrayList doubles) {
+        bytes += LIST_SIZE + 8L * doubles.size();
+        return doubles;
+      } else if (value instanceof List<?> list) {
+        bytes += LIST_SIZE + 4L * list.size();
+        @SuppressWarnings("unchecked")
+        List<Object> elements = (List<Object>) list;
+        elements.replaceAll(this::freeze);
+        return Collections.unmodifiableList(elements);
+      } else if (value instanceof String s) {
+        bytes += STRING_SIZE + s.length();
+      } else if (value != null && !(value instanceof Boolean)) {
+        bytes += value instanceof Integer || value instanceof Long || value instanceof Double
+            ? BOX_SIZE : STRING_SIZE + value.toString().length();
+      }
+      return value;
+    }
+  }
+
+  /**
+   * Counters since the cache was built, and its size when they were read.
+   * {@code retainedBytes} is an estimate.
+   */
+  public record Stats(long hits, long misses, long evictions, int entries, long retainedBytes) {
+
+    public double hitRate() {
+      long requests = hits + misses;
+      return requests == 0 ? 0 : (double) hits / requests;
+    }
+  }
+
+  public static final class Builder {
+    private int maxEntries = 1024;
+    private long maxBytes = 64L << 20;
+    private ParserOptions options = ParserOptions.defaults();
+
+    private Builder() {
+    }
+
+    /**
+     * Sets how many documents are kept. Defaults to 1024.
+     */
+    public Builder withMaxEntries(int maxEntries) {
+      if (maxEntries <= 0) {
+        throw new IllegalArgumentException("Max entries must be positive: " + maxEntries);
+      }
+      this.maxEntries = maxEntries;
+      return this;
+    }
+
+    /**
+     * Sets the estimated bytes the cached documents and trees may retain.
+     * Defaults to 64 MiB.
+     */
+    public Builder withMaxBytes(long maxBytes) {
+      if (maxBytes <= 0) {
+        throw new IllegalArgumentException("Max bytes must be positive: " + maxBytes);
+      }
+      this.maxBytes = maxBytes;
+      return this;
+    }
+
+    /**
+     * Sets the {@link ParserOptions} documents are parsed with.
+     */
+    public Builder withOptions(ParserOptions options) {
+      if (options == null) {
+        throw new IllegalArgumentException("Options must not be null");
+      }
+      this.options = options;
+      return this;
+    }
+
+    public JsonParseCache build() {
+      return new JsonParseCache(this);
+    }
+  }
+}
@@ -0,0 +1,140 @@
+package jsonparser;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * Thread-safe entry point for parsing JSON into the same tree that
+ * {@link RecursiveJsonParser} builds. The facade itself holds no per-call
+ * state: each call borrows a reader and its scratch buffers from a bounded
+ * pool and returns them when done, so once the pool is warm a call allocates
+ * nothing beyond the result objects (and, for stream input, the decoder).
+ * Trees are built by {@link IterativeJsonParser}, so deeply nested input
+ * cannot overflow a worker thread's stack.
+ *
+ * <pre>{@code
+ * Object result = JsonParsers.shared().parse(json);
+ * }</pre>
+ */
+public final class JsonParsers {
+  private static final int POOL_SIZE = 2 * Runtime.getRuntime().availableProcessors();
+  private static final JsonParsers SHARED = new JsonParsers(ParserOptions.defaults(), POOL_SIZE);
+
+  private final RecursiveJsonParser tree;
+  private final ParseContext.Pool pool;
+
+  private JsonParsers(ParserOptions options, int poolSize) {
+    this.tree = new IterativeJsonParser(options);
+    this.pool = new ParseContext.Pool(poolSize);
+  }
+
+  /**
+   * Returns the process-wide instance. It can be used from any number of
+   * platform or virtual threads concurrently.
+   */
+  public static JsonParsers shared() {
+    return SHARED;
+  }
+
+  /**
+   * Returns a new instance with its own pool that parses with {@code options}.
+   * Like {@link #shared()}, it is meant to be created once and reused.
+   */
+  public static JsonParsers create(ParserOptions options) {
+    return new JsonParsers(options, POOL_SIZE);
+  }
+
+  public Object parse(String json) {
+    ParseContext context = pool.acquire();
+    try {
+      return tree.parse(context.reader(json));
+    } finally {
+      pool.release(context);
+    }
+  }
+
+  public Object parse(byte[] json) {
+    return parse(json, 0, json.length);
+  }
+
+  public Object parse(byte[] json, int offset, int length) {
+    ParseContext context = pool.acquire();
+    try {
+      return tree.parse(context.reader(json, offset, length));
+    } finally {
+      pool.release(context);
+    }
+  }
+
+  public Object parse(ByteBuffer json) {
+    ParseContext context = pool.acquire();
+    try {
+      return tree.parse(context.reader(json));
+    } finally {
+      pool.release(context);
+    }
+  }
+
+  /**
+   * Parses a document into an instance of {@code type}, like
+   * {@link RecursiveJsonParser#parse(String, Class)}.
+   */
+  public <T> T parse(String json, Class<T> type) {
+    ParseContext context = pool.acquire();
+    try {
+      return tree.parse(context.reader(json), type);
+    } finally {
+      pool.release(context);
+    }
+  }
+
+  /**
+   * Parses UTF-8 encoded bytes into an instance of {@code type}, like
+   * {@link RecursiveJsonParser#parse(byte[], Class)}.
+   */
+  public <T> T parse(byte[] json, Class<T> type) {
+    ParseContext context = pool.acquire();
+    try {
+      return tree.parse(context.reader(json, 0, json.length), type);
+    } finally {
+      pool.release(context);
+    }
+  }
+
+  /**
+   * Parses a document read incrementally from {@code reader}, which is left open.
+   */
+  public Object parse(Reader reader) {
+    ParseContext context = pool.acquire();
+    try {
+      return tree.parse(context.reader(reader));
+    } finally {
+      pool.release(context);
+    }
+  }
+
+  /**
+   * Parses a UTF-8 document read incrementally from {@code in}, which is left open.
+   */
+  public Object parse(InputStream in) {
+    return parse(ReaderInput.utf8Reader(in));
+  }
+
+  /**
+   * Parses a UTF-8 document read incrementally from {@code channel}, which is left open.
+   */
+  public Object parse(ReadableByteChannel channel) {
+    return parse(ReaderInput.utf8Reader(channel));
+  }
+
+  /**
+   * Parses a UTF-8 file by memory-mapping it, like
+   * {@link RecursiveJsonParser#parseFile(Path)}.
+   */
+  public Object parseFile(Path path) {
+    return tree.parseFile(path);
+  }
+}
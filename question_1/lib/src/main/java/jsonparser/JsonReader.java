@@ -0,0 +1,730 @@
+package jsonparser;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Pull parser that exposes a JSON document as a sequence of {@link JsonToken}s
+ * instead of building the whole tree. It follows the same grammar and reports
+ * the same errors as {@link RecursiveJsonParser}, which is itself built on top
+ * of this reader.
+ *
+ * <pre>{@code
+ * JsonReader reader = new JsonReader(json);
+ * while (reader.nextToken() != null) {
+ *   if (reader.currentToken() == JsonToken.FIELD_NAME && reader.getString().equals("id")) {
+ *     reader.nextToken();
+ *     return reader.getNumber();
+ *   }
+ * }
+ * }</pre>
+ *
+ * <p>Strings and numbers are only decoded when {@link #getString()} or
+ * {@link #getNumber()} is called; values that are never asked for are skipped
+ * over without allocating anything. Object keys go through the default key
+ * cache of {@link ParserOptions}, so repeated keys share one instance.
+ *
+ * <p>Readers over a {@link Reader}, {@link InputStream} or
+ * {@link ReadableByteChannel} pull the document through a fixed-size buffer
+ * and never hold more than one token of it in memory. I/O failures are thrown
+ * as {@link java.io.UncheckedIOException}. Readers over a {@link Path}
+ * memory-map the file instead of copying it onto the heap.
+ */
+public class JsonReader implements Closeable {
+  private static final byte IN_OBJECT = 1;
+  private static final byte IN_ARRAY = 2;
+
+  // What the next call to nextToken() has to read
+  private static final int EXPECT_ROOT = 0;
+  private static final int EXPECT_END = 1;
+  private static final int EXPECT_FIRST_FIELD = 2;
+  private static final int EXPECT_FIELD_VALUE = 3;
+  private static final int EXPECT_NEXT_FIELD = 4;
+  private static final int EXPECT_FIRST_ELEMENT = 5;
+  private static final int EXPECT_NEXT_ELEMENT = 6;
+
+  // Value of the current token that has not been consumed from the input yet
+  private static final int PENDING_NONE = 0;
+  private static final int PENDING_STRING = 1;
+  private static final int PENDING_NUMBER = 2;
+
+  // Kinds of scanned number. Kinds above NUMBER_DOUBLE still have to be converted to a double
+  static final int NUMBER_INT = 0;
+  static final int NUMBER_LONG = 1;
+  static final int NUMBER_DOUBLE = 2;
+  private static final int NUMBER_DECIMAL = 3;
+  private static final int NUMBER_BIG_INTEGER = 4;
+  private static final int NUMBER_BIG_DECIMAL = 5;
+  private static final int NUMBER_INVALID = 6;
+
+  private JsonInput input;
+  private StringBuilder scratch = new StringBuilder();
+  private SymbolTable keys = ParserOptions.defaults().keys();
+
+  private byte[] stack = new byte[16];
+  private int depth;
+  private int maxDepth = ParserOptions.defaults().maxDepth();
+  private JsonInput.Brackets brackets;
+  private int state = EXPECT_ROOT;
+
+  private JsonToken token;
+  private int pending;
+  private String text;
+  private NumberMode numberMode = NumberMode.STANDARD;
+  private int numberType;
+  private boolean integral;
+  private boolean negative;
+  private long significand;
+  private int decimalExponent;
+  private long longValue;
+  private double doubleValue;
+
+  // Values read since the last resetCounts(), reported to ParserMetrics
+  private long strings;
+  private long numbers;
+  private long containers;
+  private int deepest;
+
+  public JsonReader(String json) {
+    this(new StringInput(json));
+  }
+
+  /**
+   * Creates a reader over UTF-8 encoded bytes.
+   */
+  public JsonReader(byte[] json) {
+    this(json, 0, json.length);
+  }
+
+  /**
+   * Creates a reader over {@code length} UTF-8 encoded bytes starting at
+   * {@code offset}. Error positions are relative to {@code offset}.
+   */
+  public JsonReader(byte[] json, int offset, int length) {
+    this(new ByteArrayInput(json, offset, length));
+  }
+
+  /**
+   * Creates a reader over the UTF-8 encoded bytes between the buffer's position
+   * and limit. The buffer's position is not modified.
+   */
+  public JsonReader(ByteBuffer json) {
+    this(json.hasArray()
+        ? new ByteArrayInput(json.array(), json.arrayOffset() + json.position(), json.remaining())
+        : new ByteBufferInput(json));
+  }
+
+  /**
+   * Creates a reader over a UTF-8 file that is memory-mapped rather than read
+   * onto the heap, so files larger than 2 GB are supported. The reader must be
+   * closed to release the file.
+   */
+  public JsonReader(Path path) {
+    this(new MappedFileInput(path));
+  }
+
+  public JsonReader(Reader reader) {
+    this(new ReaderInput(reader));
+  }
+
+  /**
+   * Creates a reader that decodes the stream as UTF-8 while reading it.
+   */
+  public JsonReader(InputStream in) {
+    this(new ReaderInput(ReaderInput.utf8Reader(in)));
+  }
+
+  /**
+   * Creates a reader that decodes the channel as UTF-8 while reading it.
+   */
+  public JsonReader(ReadableByteChannel channel) {
+    this(new ReaderInput(ReaderInput.utf8Reader(channel)));
+  }
+
+  JsonReader(JsonInput input) {
+    this.input = input;
+  }
+
+  /**
+   * Applies the key cache, number mode and depth limit of {@code options} to
+   * the tokens read from now on.
+   */
+  JsonReader withOptions(ParserOptions options) {
+    this.keys = options.keys();
+    this.numberMode = options.numberMode();
+    this.maxDepth = options.maxDepth();
+    if (options.structuralIndex()) {
+      input.useStructuralIndex();
+    }
+    return this;
+  }
+
+  /**
+   * Rewinds this reader to the start of a new document read from
+   * {@code input}, keeping its scratch buffers.
+   */
+  JsonReader reset(JsonInput input) {
+    this.input = input;
+    this.depth = 0;
+    this.state = EXPECT_ROOT;
+    this.token = null;
+    this.pending = PENDING_NONE;
+    this.text = null;
+    return this;
+  }
+
+  /**
+   * Drops the scratch buffer and container stack if a long string or deep
+   * nesting made them grow past {@code maxChars}, and forgets the last document.
+   */
+  void release(int maxChars) {
+    if (scratch.capacity() > maxChars) {
+      scratch = new StringBuilder();
+    }
+    if (stack.length > maxChars) {
+      stack = new byte[16];
+    }
+    reset(null);
+  }
+
+  void resetCounts() {
+    strings = 0;
+    numbers = 0;
+    containers = 0;
+    deepest = depth;
+  }
+
+  long stringCount() {
+    return strings;
+  }
+
+  long numberCount() {
+    return numbers;
+  }
+
+  long containerCount() {
+    return containers;
+  }
+
+  int deepestDepth() {
+    return deepest;
+  }
+
+  /**
+   * Advances to the next token and returns it, or returns {@code null} once the
+   * root value has been fully read and only whitespace remains.
+   */
+  public JsonToken nextToken() {
+    if (pending != PENDING_NONE) {
+      skipPending();
+    }
+
+    int c;
+    switch (state) {
+      case EXPECT_ROOT:
+        return readValue();
+
+      case EXPECT_FIELD_VALUE:
+        c = input.skipWhitespace();
+        if (c != ':') {
+          throw new RuntimeException("Expected ':' at position " + input.position());
+        }
+        input.advance(); // Skip the ':'
+        return readValue();
+
+      case EXPECT_END:
+        // Ensure the entire input has been consumed with no extra characters
+        if (input.skipWhitespace() >= 0) {
+          throw new RuntimeException("Unexpected content after JSON at position " + input.position());
+        }
+        return token = null;
+
+      case EXPECT_FIRST_FIELD:
+        c = input.skipWhitespace();
+        if (c < 0) {
+          throw new RuntimeException("Unterminated object");
+        }
+        if (c == '}') {
+          return endContainer(JsonToken.END_OBJECT);
+        }
+        return readFieldName(c);
+
+      case EXPECT_NEXT_FIELD:
+        c = input.skipWhitespace();
+        if (c == ',') {
+          input.advance(); // Skip the ','
+
+          // Check for trailing comma ',}' case
+          c = input.skipWhitespace();
+          if (c == '}') {
+            throw new RuntimeException("Trailing comma not allowed at position " + (input.position() - 1));
+          }
+          if (c < 0) {
+            throw new RuntimeException("Unterminated object");
+          }
+          return readFieldName(c);
+        } else if (c == '}') {
+          return endContainer(JsonToken.END_OBJECT);
+        }
+        throw new RuntimeException("Expected ',' or '}' at position " + input.position());
+
+      case EXPECT_FIRST_ELEMENT:
+        c = input.skipWhitespace();
+        if (c < 0) {
+          throw new RuntimeException("Unterminated array");
+        }
+        if (c == ']') {
+          return endContainer(JsonToken.END_ARRAY);
+        }
+        return readValue();
+
+      case EXPECT_NEXT_ELEMENT:
+        c = input.skipWhitespace();
+        if (c == ',') {
+          input.advance(); // Skip the ','
+
+          // Check for trailing comma ',]' case
+          c = input.skipWhitespace();
+          if (c == ']') {
+            throw new RuntimeException("Trailing comma not allowed at position " + (input.position() - 1));
+          }
+          if (c < 0) {
+            throw new RuntimeException("Unterminated array");
+          }
+          return readValue();
+        } else if (c == ']') {
+          return endContainer(JsonToken.END_ARRAY);
+        }
+        throw new RuntimeException("Expected ',' or ']' at position " + input.position());
+
+      default:
+        throw new IllegalStateException("Unknown reader state " + state);
+    }
+  }
+
+  /**
+   * Returns the token produced by the last call to {@link #nextToken()}.
+   */
+  public JsonToken currentToken() {
+    return token;
+  }
+
+  /**
+   * Returns the text of the current {@link JsonToken#FIELD_NAME} or
+   * {@link JsonToken#VALUE_STRING} token.
+   */
+  public String getString() {
+    if (token != JsonToken.FIELD_NAME && token != JsonToken.VALUE_STRING) {
+      throw new IllegalStateException("Current token is not a string: " + token);
+    }
+    if (pending == PENDING_STRING) {
+      text = token == JsonToken.FIELD_NAME && keys != null ? input.readKey(scratch, keys) : input.readString(scratch);
+      pending = PENDING_NONE;
+    }
+    return text;
+  }
+
+  /**
+   * Returns the index of the entry of {@code names} that the current
+   * {@link JsonToken#FIELD_NAME} equals, or -1, without decoding the name when
+   * the input allows it. The name cannot be read with {@link #getString()}
+   * afterwards.
+   */
+  int matchFieldName(String[] names) {
+    if (token != JsonToken.FIELD_NAME) {
+      throw new IllegalStateException("Current token is not a field name: " + token);
+    }
+    if (pending == PENDING_STRING) {
+      pending = PENDING_NONE;
+      text = null;
+      return input.matchKey(scratch, names);
+    }
+    for (int i = 0; i < names.length; i++) {
+      if (names[i].equals(text)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the value of the current {@link JsonToken#VALUE_NUMBER} token as an
+   * {@link Integer}, {@link Long} or {@link Double}, like
+   * {@link RecursiveJsonParser#parse(String)} does. Readers used by a parser
+   * whose {@link ParserOptions} select another {@link NumberMode} return that
+   * representation instead.
+   */
+  public Number getNumber() {
+    if (numberMode != NumberMode.STANDARD) {
+      return exactNumber();
+    }
+    switch (readNumber()) {
+      case NUMBER_INT:
+        return (int) longValue;
+      case NUMBER_LONG:
+        return longValue;
+      default:
+        return doubleValue;
+    }
+  }
+
+  /**
+   * Returns the value of the current {@link JsonToken#VALUE_NUMBER} token
+   * converted to an {@code int} like {@link Number#intValue()}, without boxing it.
+   */
+  public int getInt() {
+    return readNumber() == NUMBER_DOUBLE ? (int) doubleValue : (int) longValue;
+  }
+
+  /**
+   * Returns the value of the current {@link JsonToken#VALUE_NUMBER} token
+   * converted to a {@code long} like {@link Number#longValue()}, without boxing it.
+   */
+  public long getLong() {
+    return readNumber() == NUMBER_DOUBLE ? (long) doubleValue : longValue;
+  }
+
+  /**
+   * Returns the value of the current {@link JsonToken#VALUE_NUMBER} token
+   * converted to a {@code double} like {@link Number#doubleValue()}, without boxing it.
+   */
+  public double getDouble() {
+    return readNumber() == NUMBER_DOUBLE ? doubleValue : longValue;
+  }
+
+  /**
+   * Returns the value of the current {@link JsonToken#VALUE_TRUE} or
+   * {@link JsonToken#VALUE_FALSE} token.
+   */
+  public boolean getBoolean() {
+    if (token != JsonToken.VALUE_TRUE && token != JsonToken.VALUE_FALSE) {
+      throw new IllegalStateException("Current token is not a boolean: " + token);
+    }
+    return token == JsonToken.VALUE_TRUE;
+  }
+
+  /**
+   * If the current token starts an object or array, advances past its matching
+   * end token so that the next call to {@link #nextToken()} returns whatever
+   * follows the container. Does nothing for any other token.
+   */
+  public void skipChildren() {
+    if (token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY) {
+      return;
+    }
+    int target = depth - 1;
+    while (depth > target) {
+      nextToken();
+    }
+  }
+
+  /**
+   * Like {@link #skipChildren()}, but scans for the closing bracket instead of
+   * reading tokens, so only strings and brackets inside the container are
+   * checked. Used where a subtree is discarded unread.
+   */
+  void skipContainer() {
+    if (token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY) {
+      return;
+    }
+    if (brackets == null) {
+      brackets = new JsonInput.Brackets();
+    }
+    boolean object = token == JsonToken.START_OBJECT;
+    input.skipContainer(brackets, object, depth, maxDepth);
+    depth--;
+    endValue(object ? JsonToken.END_OBJECT : JsonToken.END_ARRAY);
+  }
+
+  /**
+   * Returns the number of objects and arrays that enclose the next token.
+   */
+  public int getDepth() {
+    return depth;
+  }
+
+  /**
+   * Returns the position of the next unread character.
+   */
+  public long getPosition() {
+    return input.position();
+  }
+
+  /**
+   * Closes the underlying {@link Reader}, stream or channel, if any.
+   */
+  @Override
+  public void close() {
+    input.close();
+  }
+
+  private JsonToken readValue() {
+    int c = input.skipWhitespace();
+
+    if (c == '{') {
+      input.advance(); // Skip the opening '{'
+      containers++;
+      push(IN_OBJECT);
+      state = EXPECT_FIRST_FIELD;
+      return token = JsonToken.START_OBJECT;
+    } else if (c == '[') {
+      input.advance(); // Skip the opening '['
+      containers++;
+      push(IN_ARRAY);
+      state = EXPECT_FIRST_ELEMENT;
+      return token = JsonToken.START_ARRAY;
+    } else if (c == '"') {
+      input.advance(); // Skip the opening '"'
+      strings++;
+      pending = PENDING_STRING;
+      return endValue(JsonToken.VALUE_STRING);
+    } else if (c == 't' || c == 'f') {
+      return endValue(readBoolean(c));
+    } else if (c == 'n') {
+      readLiteral("null", "Invalid null value at position ");
+      return endValue(JsonToken.VALUE_NULL);
+    } else if ((c >= '0' && c <= '9') || c == '-') {
+      numbers++;
+      pending = PENDING_NUMBER;
+      return endValue(JsonToken.VALUE_NUMBER);
+    }
+
+    throw new RuntimeException("Unexpected character: " + (char) Math.max(c, 0));
+  }
+
+  private JsonToken readFieldName(int c) {
+    if (c != '"') {
+      throw new RuntimeException("Expected '\"' at position " + input.position());
+    }
+    input.advance(); // Skip the opening '"'
+    pending = PENDING_STRING;
+    state = EXPECT_FIELD_VALUE;
+    return token = JsonToken.FIELD_NAME;
+  }
+
+  private JsonToken readBoolean(int c) {
+    if (c == 't') {
+      readLiteral("true", "Invalid boolean value at position ");
+      return JsonToken.VALUE_TRUE;
+    }
+    readLiteral("false", "Invalid boolean value at position ");
+    return JsonToken.VALUE_FALSE;
+  }
+
+  private void readLiteral(String literal, String error) {
+    long start = input.position();
+    for (int i = 0; i < literal.length(); i++) {
+      if (input.peek() != literal.charAt(i)) {
+        throw new RuntimeException(error + start);
+      }
+      input.advance();
+    }
+  }
+
+  private void skipPending() {
+    if (pending == PENDING_STRING) {
+      input.skipString();
+    } else {
+      scanNumber(null);
+    }
+    pending = PENDING_NONE;
+  }
+
+  /**
+   * Scans the current number token on first use and returns its kind.
+   */
+  private int scannedNumber() {
+    if (token != JsonToken.VALUE_NUMBER) {
+      throw new IllegalStateException("Current token is not a number: " + token);
+    }
+    if (pending == PENDING_NUMBER) {
+      scratch.setLength(0);
+      numberType = scanNumber(scratch);
+      pending = PENDING_NONE;
+    }
+    return numberType;
+  }
+
+  /**
+   * Decodes the current number token and returns {@link #NUMBER_INT},
+   * {@link #NUMBER_LONG} or {@link #NUMBER_DOUBLE}; the value is left in
+   * {@link #longValue} or {@link #doubleValue}.
+   */
+  int readNumber() {
+    int kind = scannedNumber();
+    if (kind > NUMBER_DOUBLE) {
+      // Malformed numbers and numbers with more than 19 digits are parsed from their text
+      doubleValue = kind == NUMBER_DECIMAL
+          ? FastDouble.toDouble(negative, significand, decimalExponent, scratch)
+          : Double.parseDouble(scratch.toString());
+      numberType = kind = NUMBER_DOUBLE;
+    }
+    return kind;
+  }
+
+  /**
+   * Returns the text of the current number token as it was scanned.
+   */
+  String numberText() {
+    scannedNumber();
+    return scratch.toString();
+  }
+
+  private Number exactNumber() {
+    if (scannedNumber() == NUMBER_INVALID) {
+      readNumber(); // Throws the same NumberFormatException as NumberMode.STANDARD
+    }
+    String text = scratch.toString();
+    if (numberMode == NumberMode.LAZY) {
+      return new LazyNumber(text);
+    }
+    return integral ? new BigInteger(text) : new BigDecimal(text);
+  }
+
+  /**
+   * Consumes a number, appending its characters to {@code sb} unless it is
+   * null. Up to 19 significant digits are accumulated into
+   * {@link #significand} as they are scanned, with the power of ten that
+   * scales them in {@link #decimalExponent}, so integers need no further
+   * parsing. Returns the kind of the number.
+   */
+  private int scanNumber(StringBuilder sb) {
+    boolean negative = false;
+    long significand = 0;
+    int digits = 0;
+    int exponent = 0;
+    boolean truncated = false;
+    boolean valid = false;
+
+    int c = input.peek();
+    if (c == '-') {
+      negative = true;
+      append(sb, c);
+      c = input.peek();
+    }
+
+    while (c >= '0' && c <= '9') {
+      if (digits < 19) {
+        significand = significand * 10 + (c - '0');
+        if (significand != 0) {
+          digits++;
+        }
+      } else {
+        truncated = true;
+        exponent++;
+      }
+      valid = true;
+      append(sb, c);
+      c = input.peek();
+    }
+
+    boolean integral = true;
+
+    if (c == '.') {
+      integral = false;
+      append(sb, c);
+      c = input.peek();
+      while (c >= '0' && c <= '9') {
+        if (digits < 19) {
+          significand = significand * 10 + (c - '0');
+          exponent--;
+          if (significand != 0) {
+            digits++;
+          }
+        } else {
+          truncated = true;
+        }
+        valid = true;
+        append(sb, c);
+        c = input.peek();
+      }
+    }
+
+    if (c == 'e' || c == 'E') {
+      integral = false;
+      append(sb, c);
+
+      c = input.peek();
+      boolean negativeExponent = c == '-';
+      if (c == '+' || c == '-') {
+        append(sb, c);
+        c = input.peek();
+      }
+
+      int value = 0;
+      boolean hasDigits = false;
+      while (c >= '0' && c <= '9') {
+        // Saturate; anything this large already overflows or underflows
+        if (value < 100_000) {
+          value = value * 10 + (c - '0');
+        }
+        hasDigits = true;
+        append(sb, c);
+        c = input.peek();
+      }
+      valid &= hasDigits;
+      exponent += negativeExponent ? -value : value;
+    }
+
+    this.negative = negative;
+    this.significand = significand;
+    this.decimalExponent = exponent;
+    this.integral = integral;
+
+    if (!valid) {
+      return NUMBER_INVALID;
+    } else if (truncated) {
+      return integral ? NUMBER_BIG_INTEGER : NUMBER_BIG_DECIMAL;
+    } else if (!integral) {
+      return NUMBER_DECIMAL;
+    } else if (significand >= 0 || (negative && significand == Long.MIN_VALUE)) {
+      longValue = negative ? -significand : significand;
+      return (int) longValue == longValue ? NUMBER_INT : NUMBER_LONG;
+    }
+    return NUMBER_BIG_INTEGER;
+  }
+
+  private void append(StringBuilder sb, int c) {
+    if (sb != null) {
+      sb.append((char) c);
+    }
+    input.advance();
+  }
+
+  private JsonToken endContainer(JsonToken end) {
+    input.advance(); // Skip the closing '}' or ']'
+    depth--;
+    return endValue(end);
+  }
+
+  private JsonToken endValue(JsonToken value) {
+    if (depth == 0) {
+      state = EXPECT_END;
+    } else {
+      state = stack[depth - 1] == IN_OBJECT ? EXPECT_NEXT_FIELD : EXPECT_NEXT_ELEMENT;
+    }
+    return token = value;
+  }
+
+  private void push(byte container) {
+    if (depth == maxDepth) {
+      // Reported at the '{' or '[' that opens one container too many
+      throw new RuntimeException("Maximum nesting depth of " + maxDepth + " exceeded at position "
+          + (input.position() - 1));
+    }
+    if (depth == stack.length) {
+      stack = Arrays.copyOf(stack, depth * 2);
+    }
+    stack[depth++] = container;
+    if (depth > deepest) {
+      deepest = depth;
+    }
+  }
+}
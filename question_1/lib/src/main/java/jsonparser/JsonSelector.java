@@ -0,0 +1,334 @@
+package jsonparser;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Extracts the values at a fixed set of paths without building the rest of
+ * the document. Paths use a subset of JSONPath:
+ *
+ * <ul>
+ *   <li>{@code $} the root</li>
+ *   <li>{@code .name} or {@code ['name']} a member of an object</li>
+ *   <li>{@code [n]} an element of an array</li>
+ *   <li>{@code .*} or {@code [*]} every member or element</li>
+ * </ul>
+ *
+ * The paths are compiled once into a tree of steps. While reading, object
+ * keys are compared against the expected names on the raw input. Objects and
+ * arrays no path leads into are skipped by scanning for their closing bracket,
+ * and other values by skipping their characters, without creating strings,
+ * numbers or containers for them. Only matched values are built, as
+ * {@link IterativeJsonParser} would build them. A skipped container is only
+ * checked for terminated strings, matching brackets and the nesting limit,
+ * so some malformed documents that {@code parse} rejects are accepted. A
+ * key that repeats matches every time it appears. Instances are immutable and
+ * can be shared between threads.
+ *
+ * <pre>{@code
+ * JsonSelector selector = JsonSelector.compile("$.user.id", "$.items[*].price");
+ * Map<String, List<Object>> values = selector.select(json);
+ * List<Object> prices = values.get("$.items[*].price");
+ * }</pre>
+ */
+public final class JsonSelector {
+  private final ParserOptions options;
+  private final RecursiveJsonParser tree;
+  private final String[] paths;
+  private final Node root;
+
+  private JsonSelector(ParserOptions options, String[] paths, Node root) {
+    this.options = options;
+    this.tree = new IterativeJsonParser(options);
+    this.paths = paths;
+    this.root = root;
+  }
+
+  public static JsonSelector compile(String... paths) {
+    return compile(ParserOptions.defaults(), paths);
+  }
+
+  /**
+   * Compiles {@code paths}; matched values are built with {@code options}.
+   * Throws {@link IllegalArgumentException} for a path outside the supported
+   * syntax.
+   */
+  public static JsonSelector compile(ParserOptions options, String... paths) {
+    if (options == null) {
+      throw new IllegalArgumentException("Options must not be null");
+    }
+    if (paths == null || paths.length == 0) {
+      throw new IllegalArgumentException("At least one path is required");
+    }
+
+    Map<String, Integer> targets = new LinkedHashMap<>();
+    Node root = new Node();
+    for (String path : paths) {
+      if (path == null) {
+        throw new IllegalArgumentException("Path must not be null");
+      }
+      if (!targets.containsKey(path)) {
+        targets.put(path, targets.size());
+        root.add(path, targets.get(path));
+      }
+    }
+    return new JsonSelector(options, targets.keySet().toArray(new String[0]), root.freeze());
+  }
+
+  /**
+   * Returns, for each compiled path in order, the values it matched in
+   * document order; a path that matched nothing maps to an empty list.
+   */
+  public Map<String, List<Object>> select(String json) {
+    return select(new JsonReader(json));
+  }
+
+  public Map<String, List<Object>> select(byte[] json) {
+    return select(new JsonReader(json));
+  }
+
+  /**
+   * Selects from a UTF-8 document read incrementally from {@code in}, which is
+   * left open.
+   */
+  public Map<String, List<Object>> select(InputStream in) {
+    return select(new JsonReader(in));
+  }
+
+  Map<String, List<Object>> select(JsonReader reader) {
+    List<List<Object>> results = new ArrayList<>(paths.length);
+    for (int i = 0; i < paths.length; i++) {
+      results.add(new ArrayList<>());
+    }
+
+    reader.withOptions(options);
+    reader.nextToken();
+    select(reader, root, results);
+
+    // Ensure the entire JSON string has been fully parsed with no extra characters
+    reader.nextToken();
+
+    Map<String, List<Object>> selected = new LinkedHashMap<>();
+    for (int i = 0; i < paths.length; i++) {
+      selected.put(paths[i], results.get(i));
+    }
+    return selected;
+  }
+
+  /**
+   * Reads the value starting at the current token, which {@code node} is
+   * positioned at, building it only if a path ends here.
+   */
+  private void select(JsonReader reader, Node node, List<List<Object>> results) {
+    if (node.targets.length > 0) {
+      found(node, tree.parseValue(reader), results);
+      return;
+    }
+
+    JsonToken token = reader.currentToken();
+    if (token == JsonToken.START_OBJECT && (node.names.length > 0 || node.any != null)) {
+      while (reader.nextToken() == JsonToken.FIELD_NAME) {
+        int match = node.names.length > 0 ? reader.matchFieldName(node.names) : -1;
+        Node child = match >= 0 ? node.named[match] : node.any;
+        reader.nextToken();
+        if (child != null) {
+          select(reader, child, results);
+        } else {
+          reader.skipContainer();
+        }
+      }
+    } else if (token == JsonToken.START_ARRAY && (node.indexes.length > 0 || node.any != null)) {
+      int index = 0;
+      while (reader.nextToken() != JsonToken.END_ARRAY) {
+        Node child = node.element(index++);
+        if (child != null) {
+          select(reader, child, results);
+        } else {
+          reader.skipContainer();
+        }
+      }
+    } else {
+      reader.skipContainer();
+    }
+  }
+
+  /**
+   * Records a built value for the paths ending at {@code node}, and follows
+   * the longer paths that continue below it through the built tree.
+   */
+  private static void found(Node node, Object value, List<List<Object>> results) {
+    for (int target : node.targets) {
+      results.get(target).add(value);
+    }
+    if (value instanceof Map) {
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        Node child = node.field((String) entry.getKey());
+        if (child != null) {
+          found(child, entry.getValue(), results);
+        }
+      }
+    } else if (value instanceof List) {
+      List<?> list = (List<?>) value;
+      for (int i = 0; i < list.size(); i++) {
+        Node child = node.element(i);
+        if (child != null) {
+          found(child, list.get(i), results);
+        }
+      }
+    }
+  }
+
+  /**
+   * One step of the compiled paths. Nodes are built mutable by {@link #add}
+   * and then frozen, which folds each wildcard into the named steps beside
+   * it, so a value only ever has to follow one node.
+   */
+  private static final class Node {
+    private final TreeSet<Integer> targetSet = new TreeSet<>();
+    private final Map<String, Node> fields = new LinkedHashMap<>();
+    private final Map<Integer, Node> elements = new TreeMap<>();
+    private Node any;
+    private boolean frozen;
+
+    private int[] targets;
+    private String[] names;
+    private Node[] named;
+    private int[] indexes;
+    private Node[] indexed;
+
+    void add(String path, int target) {
+      if (path.isEmpty() || path.charAt(0) != '$') {
+        throw invalid(path, 0);
+      }
+      Node node = this;
+      int length = path.length();
+      int i = 1;
+      while (i < length) {
+        char c = path.charAt(i);
+        if (c == '.') {
+          int start = ++i;
+          if (i < length && path.charAt(i) == '*') {
+            node = node.addAny();
+            i++;
+            continue;
+          }
+          while (i < length && path.charAt(i) != '.' && path.charAt(i) != '[') {
+            i++;
+          }
+          if (i == start) {
+            throw invalid(path, start);
+          }
+          node = node.addField(path.substring(start, i));
+        } else if (c == '[') {
+          int start = ++i;
+          char first = i < length ? path.charAt(i) : 0;
+          if (first == '*') {
+            node = node.addAny();
+            i++;
+          } else if (first == '\'' || first == '"') {
+            int close = path.indexOf(first, start + 1);
+            if (close < 0) {
+              throw invalid(path, start);
+            }
+            node = node.addField(path.substring(start + 1, close));
+            i = close + 1;
+          } else {
+            while (i < length && path.charAt(i) >= '0' && path.charAt(i) <= '9') {
+              i++;
+            }
+            if (i == start || i - start > 9) {
+              throw invalid(path, start);
+            }
+            node = node.addElement(Integer.parseInt(path.substring(start, i)));
+          }
+          if (i >= length || path.charAt(i) != ']') {
+            throw invalid(path, i);
+          }
+          i++;
+        } else {
+          throw invalid(path, i);
+        }
+      }
+      node.targetSet.add(target);
+    }
+
+    private Node addField(String name) {
+      return fields.computeIfAbsent(name, k -> new Node());
+    }
+
+    private Node addElement(int index) {
+      return elements.computeIfAbsent(index, k -> new Node());
+    }
+
+    private Node addAny() {
+      if (any == null) {
+        any = new Node();
+      }
+      return any;
+    }
+
+    Node freeze() {
+      if (frozen) {
+        return this;
+      }
+      frozen = true;
+      if (any != null) {
+        fields.replaceAll((name, child) -> merge(child, any));
+        elements.replaceAll((index, child) -> merge(child, any));
+        any.freeze();
+      }
+
+      targets = targetSet.stream().mapToInt(Integer::intValue).toArray();
+      names = fields.keySet().toArray(new String[0]);
+      named = new Node[names.length];
+      for (int i = 0; i < names.length; i++) {
+        named[i] = fields.get(names[i]).freeze();
+      }
+      indexes = elements.keySet().stream().mapToInt(Integer::intValue).toArray();
+      indexed = new Node[indexes.length];
+      for (int i = 0; i < indexes.length; i++) {
+        indexed[i] = elements.get(indexes[i]).freeze();
+      }
+      return this;
+    }
+
+    Node field(String name) {
+      for (int i = 0; i < names.length; i++) {
+        if (names[i].equals(name)) {
+          return named[i];
+        }
+      }
+      return any;
+    }
+
+    Node element(int index) {
+      for (int i = 0; i < indexes.length; i++) {
+        if (indexes[i] == index) {
+          return indexed[i];
+        }
+      }
+      return any;
+    }
+
+    private static Node merge(Node a, Node b) {
+      Node merged = new Node();
+      merged.targetSet.addAll(a.targetSet);
+      merged.targetSet.addAll(b.targetSet);
+      merged.fields.putAll(a.fields);
+      b.fields.forEach((name, child) -> merged.fields.merge(name, child, Node::merge));
+      merged.elements.putAll(a.elements);
+      b.elements.forEach((index, child) -> merged.elements.merge(index, child, Node::merge));
+      merged.any = a.any == null ? b.any : b.any == null ? a.any : merge(a.any, b.any);
+      return merged;
+    }
+
+    private static IllegalArgumentException invalid(String path, int position) {
+      return new IllegalArgumentException("Invalid path '" + path + "' at position " + position);
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package jsonparser;
+
+/**
+ * Events emitted by {@link JsonReader}, one per structural element or scalar value.
+ */
+public enum JsonToken {
+  START_OBJECT,
+  END_OBJECT,
+  START_ARRAY,
+  END_ARRAY,
+  FIELD_NAME,
+  VALUE_STRING,
+  VALUE_NUMBER,
+  VALUE_TRUE,
+  VALUE_FALSE,
+  VALUE_NULL
+}
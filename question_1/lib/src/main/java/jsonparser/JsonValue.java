@@ -0,0 +1,216 @@
+package jsonparser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A position in a {@link JsonDocument}. Values are lightweight views that hold
+ * nothing but the document and a tape index; strings and numbers are read
+ * from the tape when asked for.
+ */
+public final class JsonValue {
+  public enum Type {
+    OBJECT, ARRAY, STRING, NUMBER, BOOLEAN, NULL
+  }
+
+  private final JsonDocument document;
+  private final int index;
+
+  JsonValue(JsonDocument document, int index) {
+    this.document = document;
+    this.index = index;
+  }
+
+  public Type getType() {
+    switch (document.tag(index)) {
+      case JsonDocument.OBJECT:
+        return Type.OBJECT;
+      case JsonDocument.ARRAY:
+        return Type.ARRAY;
+      case JsonDocument.STRING:
+      case JsonDocument.ESCAPED_STRING:
+        return Type.STRING;
+      case JsonDocument.INT:
+      case JsonDocument.LONG:
+      case JsonDocument.DOUBLE:
+        return Type.NUMBER;
+      case JsonDocument.TRUE:
+      case JsonDocument.FALSE:
+        return Type.BOOLEAN;
+      default:
+        return Type.NULL;
+    }
+  }
+
+  public boolean isNull() {
+    return document.tag(index) == JsonDocument.NULL;
+  }
+
+  /**
+   * Returns the number of fields of an object or elements of an array.
+   */
+  public int size() {
+    int tag = document.tag(index);
+    if (tag != JsonDocument.OBJECT && tag != JsonDocument.ARRAY) {
+      throw new IllegalStateException("Value is not an object or array: " + getType());
+    }
+    return document.count(index);
+  }
+
+  /**
+   * Returns the value of the field named {@code key}, or null when the object
+   * has no such field. When a key repeats the last value wins, as in
+   * {@link #toObject()} and {@link RecursiveJsonParser#parse(String)}, so every
+   * field is searched.
+   */
+  public JsonValue get(String key) {
+    int end = end(JsonDocument.OBJECT, "an object");
+    int found = -1;
+    for (int i = index + 1; i < end; ) {
+      int value = document.next(i);
+      if (document.stringEquals(i, key)) {
+        found = value;
+      }
+      i = document.next(value);
+    }
+    return found < 0 ? null : new JsonValue(document, found);
+  }
+
+  /**
+   * Returns the array element at {@code position}. Elements are reached by
+   * skipping their predecessors, so walking an array this way is linear per
+   * call; use {@link #elements()} to visit all of them.
+   */
+  public JsonValue get(int position) {
+    int end = end(JsonDocument.ARRAY, "an array");
+    int i = index + 1;
+    for (int n = 0; n < position && i < end; n++) {
+      i = document.next(i);
+    }
+    if (position < 0 || i >= end) {
+      throw new IndexOutOfBoundsException("Index " + position + " out of bounds for length " + size());
+    }
+    return new JsonValue(document, i);
+  }
+
+  public boolean has(String key) {
+    return get(key) != null;
+  }
+
+  /**
+   * Returns the keys of an object in document order.
+   */
+  public List<String> keys() {
+    int end = end(JsonDocument.OBJECT, "an object");
+    List<String> keys = new ArrayList<>(document.count(index));
+    for (int i = index + 1; i < end; i = document.next(document.next(i))) {
+      keys.add(document.string(i));
+    }
+    return keys;
+  }
+
+  /**
+   * Returns the elements of an array in order.
+   */
+  public List<JsonValue> elements() {
+    int end = end(JsonDocument.ARRAY, "an array");
+    List<JsonValue> elements = new ArrayList<>(document.count(index));
+    for (int i = index + 1; i < end; i = document.next(i)) {
+      elements.add(new JsonValue(document, i));
+    }
+    return elements;
+  }
+
+  /**
+   * Decodes the string. Each call returns a new {@code String} for strings
+   * without escapes, since they are not kept decoded.
+   */
+  public String asString() {
+    int tag = document.tag(index);
+    if (tag != JsonDocument.STRING && tag != JsonDocument.ESCAPED_STRING) {
+      throw new IllegalStateException("Value is not a string: " + getType());
+    }
+    return document.string(index);
+  }
+
+  /**
+   * Returns the number as an {@code Integer}, {@code Long} or {@code Double},
+   * as {@link RecursiveJsonParser} would.
+   */
+  public Number asNumber() {
+    switch (document.tag(index)) {
+      case JsonDocument.INT:
+        return document.intValue(index);
+      case JsonDocument.LONG:
+        return document.longValue(index);
+      case JsonDocument.DOUBLE:
+        return document.doubleValue(index);
+      default:
+        throw new IllegalStateException("Value is not a number: " + getType());
+    }
+  }
+
+  /**
+   * Returns the number as an {@code int}, narrowing like a cast would.
+   */
+  public int asInt() {
+    return (int) asLong();
+  }
+
+  /**
+   * Returns the number as a {@code long}, truncating a fraction.
+   */
+  public long asLong() {
+    switch (document.tag(index)) {
+      case JsonDocument.INT:
+        return document.intValue(index);
+      case JsonDocument.LONG:
+        return document.longValue(index);
+      case JsonDocument.DOUBLE:
+        return (long) document.doubleValue(index);
+      default:
+        throw new IllegalStateException("Value is not a number: " + getType());
+    }
+  }
+
+  public double asDouble() {
+    switch (document.tag(index)) {
+      case JsonDocument.INT:
+        return document.intValue(index);
+      case JsonDocument.LONG:
+        return document.longValue(index);
+      case JsonDocument.DOUBLE:
+        return document.doubleValue(index);
+      default:
+        throw new IllegalStateException("Value is not a number: " + getType());
+    }
+  }
+
+  public boolean asBoolean() {
+    int tag = document.tag(index);
+    if (tag != JsonDocument.TRUE && tag != JsonDocument.FALSE) {
+      throw new IllegalStateException("Value is not a boolean: " + getType());
+    }
+    return tag == JsonDocument.TRUE;
+  }
+
+  /**
+   * Converts this value and everything below it into the {@code Map},
+   * {@code List} and boxed values that {@link RecursiveJsonParser} returns.
+   */
+  public Object toObject() {
+    return document.toObject(index);
+  }
+
+  @Override
+  public String toString() {
+    return String.valueOf(toObject());
+  }
+
+  private int end(int tag, String expected) {
+    if (document.tag(index) != tag) {
+      throw new IllegalStateException("Value is not " + expected + ": " + getType());
+    }
+    return document.next(index) - 1;
+  }
+}
@@ -0,0 +1,728 @@
+package jsonparser;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes JSON as UTF-8 bytes, either into a growable in-memory buffer or
+ * through a fixed-size buffer into an {@link OutputStream}.
+ *
+ * <pre>{@code
+ * String json = JsonWriter.toJson(Map.of("id", 42, "tags", List.of("a", "b")));
+ *
+ * try (JsonWriter writer = new JsonWriter(out)) {
+ *   writer.beginObject().name("items").beginArray();
+ *   for (Item item : items) {
+ *     writer.value(item);
+ *   }
+ *   writer.endArray().endObject();
+ * }
+ * }</pre>
+ *
+ * <p>{@link #value(Object)} writes the trees {@link RecursiveJsonParser}
+ * builds, so parsing the output gives an equal tree back. It also writes
+ * arrays, enums, records, and POJOs, whose properties are found like
+ * {@link RecursiveJsonParser#parse(String, Class)} binds them and are read
+ * through cached {@link MethodHandle}s. Commas and colons are inserted by the
+ * writer; calls that would produce invalid JSON throw
+ * {@link IllegalStateException}. Successive top-level values are separated by
+ * a newline, so a stream of values is written as JSON Lines.
+ *
+ * <p>Strings are escaped through a lookup table of the ASCII characters and
+ * encoded to UTF-8 directly into the buffer. Integers are formatted digit by
+ * digit into the buffer, and other doubles by the JDK's shortest round-trip
+ * algorithm into a reused builder, so no intermediate {@code String} is
+ * created. I/O failures are thrown as {@link UncheckedIOException}.
+ * Instances are not thread-safe.
+ */
+public final class JsonWriter implements Closeable, Flushable {
+  private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+  // Where the writer is, and therefore what has to precede the next value
+  private static final byte EMPTY_DOCUMENT = 0;
+  private static final byte NONEMPTY_DOCUMENT = 1;
+  private static final byte EMPTY_OBJECT = 2;
+  private static final byte OBJECT = 3;
+  private static final byte NAME = 4;
+  private static final byte EMPTY_ARRAY = 5;
+  private static final byte ARRAY = 6;
+
+  // For each ASCII character, 0 if it is written as is, otherwise the character following its '\\'
+  private static final byte[] ESCAPES = new byte[128];
+  private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+  // Longest encoding of one char: a control character escaped as \\u00XX
+  private static final int MAX_BYTES_PER_CHAR = 6;
+  private static final int STRING_SEGMENT = 1024;
+  private static final int MAX_DEPTH = ParserOptions.defaults().maxDepth();
+
+  static {
+    for (int c = 0; c < 0x20; c++) {
+      ESCAPES[c] = 'u';
+    }
+    ESCAPES['"'] = '"';
+    ESCAPES['\\'] = '\\';
+    ESCAPES['\b'] = 'b';
+    ESCAPES['\f'] = 'f';
+    ESCAPES['\n'] = 'n';
+    ESCAPES['\r'] = 'r';
+    ESCAPES['\t'] = 't';
+  }
+
+  private static final ClassValue<ObjectWriter> OBJECTS = new ClassValue<>() {
+    @Override
+    protected ObjectWriter computeValue(Class<?> type) {
+      return new ObjectWriter(type);
+    }
+  };
+
+  private final OutputStream out;
+  private byte[] buffer;
+  private int position;
+  private final StringBuilder scratch = new StringBuilder(32);
+
+  // stack[0] is the document, stack[1..depth] the open containers
+  private byte[] stack = new byte[16];
+  private int depth;
+
+  /**
+   * Creates a writer that collects the output in memory; read it with
+   * {@link #toByteArray()} or {@link #toString()}.
+   */
+  public JsonWriter() {
+    this.out = null;
+    this.buffer = new byte[256];
+  }
+
+  /**
+   * Creates a writer that passes the output to {@code out} whenever its buffer
+   * fills up, and on {@link #flush()} and {@link #close()}.
+   */
+  public JsonWriter(OutputStream out) {
+    this(out, DEFAULT_BUFFER_SIZE);
+  }
+
+  public JsonWriter(OutputStream out, int bufferSize) {
+    if (out == null) {
+      throw new IllegalArgumentException("Output stream must not be null");
+    }
+    if (bufferSize < 64) {
+      throw new IllegalArgumentException("Buffer size must be at least 64: " + bufferSize);
+    }
+    this.out = out;
+    this.buffer = new byte[bufferSize];
+  }
+
+  /**
+   * Returns {@code value} as a JSON string.
+   */
+  public static String toJson(Object value) {
+    return new JsonWriter().value(value).toString();
+  }
+
+  /**
+   * Returns {@code value} as UTF-8 encoded JSON.
+   */
+  public static byte[] toJsonBytes(Object value) {
+    return new JsonWriter().value(value).toByteArray();
+  }
+
+  public JsonWriter beginObject() {
+    beforeValue();
+    push(EMPTY_OBJECT);
+    write('{');
+    return this;
+  }
+
+  public JsonWriter endObject() {
+    byte context = stack[depth];
+    if (context == NAME) {
+      throw new IllegalStateException("Expected a value after name");
+    } else if (context != EMPTY_OBJECT && context != OBJECT) {
+      throw new IllegalStateException("Not inside an object");
+    }
+    depth--;
+    write('}');
+    return this;
+  }
+
+  public JsonWriter beginArray() {
+    beforeValue();
+    push(EMPTY_ARRAY);
+    write('[');
+    return this;
+  }
+
+  public JsonWriter endArray() {
+    if (stack[depth] != EMPTY_ARRAY && stack[depth] != ARRAY) {
+      throw new IllegalStateException("Not inside an array");
+    }
+    depth--;
+    write(']');
+    return this;
+  }
+
+  /**
+   * Writes the name of the next property of the current object.
+   */
+  public JsonWriter name(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("Name must not be null");
+    }
+    beforeName();
+    writeString(name);
+    write(':');
+    return this;
+  }
+
+  /**
+   * Writes a name already quoted, escaped and encoded by {@link #writeString}.
+   */
+  private void name(byte[] encoded) {
+    beforeName();
+    require(encoded.length + 1);
+    System.arraycopy(encoded, 0, buffer, position, encoded.length);
+    position += encoded.length;
+    buffer[position++] = ':';
+  }
+
+  public JsonWriter value(String value) {
+    if (value == null) {
+      return nullValue();
+    }
+    beforeValue();
+    writeString(value);
+    return this;
+  }
+
+  public JsonWriter value(boolean value) {
+    beforeValue();
+    writeAscii(value ? "true" : "false");
+    return this;
+  }
+
+  public JsonWriter value(long value) {
+    beforeValue();
+    writeLong(value);
+    return this;
+  }
+
+  /**
+   * Writes a finite double so that parsing it gives the same {@code Double}
+   * back: integral values keep a {@code .0}. NaN and infinities have no JSON
+   * representation and are rejected with {@link IllegalArgumentException}.
+   */
+  public JsonWriter value(double value) {
+    beforeValue();
+    writeDouble(value);
+    return this;
+  }
+
+  public JsonWriter nullValue() {
+    beforeValue();
+    writeAscii("null");
+    return this;
+  }
+
+  /**
+   * Writes any value: {@code null}, strings and other {@link CharSequence}s,
+   * numbers, booleans, maps, iterables, arrays, enums (by name), records and
+   * POJOs. Map keys are written with {@link String#valueOf(Object)}.
+   */
+  public JsonWriter value(Object value) {
+    if (value == null) {
+      return nullValue();
+    } else if (value instanceof String s) {
+      return value(s);
+    } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+        || value instanceof Byte) {
+      return value(((Number) value).longValue());
+    } else if (value instanceof Double d) {
+      return value(d.doubleValue());
+    } else if (value instanceof Boolean b) {
+      return value(b.booleanValue());
+    } else if (value instanceof Map<?, ?> map) {
+      beginObject();
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        name(String.valueOf(entry.getKey()));
+        value(entry.getValue());
+      }
+      return endObject();
+    } else if (value instanceof IntArrayList ints) {
+      beginArray();
+      for (int i = 0; i < ints.size(); i++) {
+        value(ints.getInt(i));
+      }
+      return endArray();
+    } else if (value instanceof LongArrayList longs) {
+      beginArray();
+      for (int i = 0; i < longs.size(); i++) {
+        value(longs.getLong(i));
+      }
+      return endArray();
+    } else if (value instanceof DoubleArrayList doubles) {
+      beginArray();
+      for (int i = 0; i < doubles.size(); i++) {
+        value(doubles.getDouble(i));
+      }
+      return endArray();
+    } else if (value instanceof Iterable<?> iterable) {
+      beginArray();
+      for (Object element : iterable) {
+        value(element);
+      }
+      return endArray();
+    } else if (value instanceof Float f) {
+      return number(f);
+    } else if (value instanceof Number n) {
+      // LazyNumber, BigInteger and BigDecimal print as valid JSON numbers
+      return number(n);
+    } else if (value instanceof CharSequence || value instanceof Character) {
+      return value(value.toString());
+    } else if (value instanceof Enum<?> e) {
+      return value(e.name());
+    } else if (value instanceof JsonValue v) {
+      return value(v.toObject());
+    } else if (value.getClass().isArray()) {
+      return array(value);
+    }
+    beginObject();
+    OBJECTS.get(value.getClass()).write(this, value);
+    return endObject();
+  }
+
+  /**
+   * Flushes buffered output to the stream. Does nothing for in-memory writers.
+   */
+  @Override
+  public void flush() {
+    if (out == null) {
+      return;
+    }
+    drain();
+    try {
+      out.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Flushes and closes the stream. Throws {@link IllegalStateException} if
+   * an object or array is still open.
+   */
+  @Override
+  public void close() {
+    if (out != null) {
+      flush();
+      try {
+        out.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    if (depth > 0) {
+      throw new IllegalStateException("Incomplete document");
+    }
+  }
+
+  /**
+   * Returns the number of bytes written and not yet flushed to the stream.
+   */
+  public int size() {
+    return position;
+  }
+
+  /**
+   * Returns a copy of the bytes written to an in-memory writer.
+   */
+  public byte[] toByteArray() {
+    requireInMemory();
+    return Arrays.copyOf(buffer, position);
+  }
+
+  /**
+   * Returns the JSON written to an in-memory writer.
+   */
+  @Override
+  public String toString() {
+    requireInMemory();
+    return new String(buffer, 0, position, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Discards the output and state of an in-memory writer so it can write a
+   * new document into the same buffer.
+   */
+  public void reset() {
+    requireInMemory();
+    position = 0;
+    depth = 0;
+    stack[0] = EMPTY_DOCUMENT;
+  }
+
+  private void requireInMemory() {
+    if (out != null) {
+      throw new IllegalStateException("Writer is not in memory");
+    }
+  }
+
+  private void beforeValue() {
+    switch (stack[depth]) {
+      case EMPTY_DOCUMENT:
+        stack[depth] = NONEMPTY_DOCUMENT;
+        break;
+      case NONEMPTY_DOCUMENT:
+        write('\n');
+        break;
+      case NAME:
+        stack[depth] = OBJECT;
+        break;
+      case EMPTY_ARRAY:
+        stack[depth] = ARRAY;
+        break;
+      case ARRAY:
+        write(',');
+        break;
+      default:
+        throw new IllegalStateException("Expected a name before a value in an object");
+    }
+  }
+
+  private void beforeName() {
+    byte context = stack[depth];
+    if (context == OBJECT) {
+      write(',');
+    } else if (context != EMPTY_OBJECT) {
+      throw new IllegalStateException(context == NAME ? "Expected a value after name" : "Not inside an object");
+    }
+    stack[depth] = NAME;
+  }
+
+  private void push(byte context) {
+    if (depth == MAX_DEPTH) {
+      throw new IllegalStateException("Maximum nesting depth of " + MAX_DEPTH + " exceeded; the value may be cyclic");
+    }
+    if (depth + 1 == stack.length) {
+      stack = Arrays.copyOf(stack, stack.length * 2);
+    }
+    stack[++depth] = context;
+  }
+
+  private JsonWriter number(Number value) {
+    beforeValue();
+    scratch.setLength(0);
+    if (value instanceof Float f) {
+      if (f.isNaN() || f.isInfinite()) {
+        throw new IllegalArgumentException("Numeric values must be finite, got " + f);
+      }
+      scratch.append(f.floatValue());
+    } else {
+      scratch.append(value);
+    }
+    writeScratch();
+    return this;
+  }
+
+  private JsonWriter array(Object array) {
+    beginArray();
+    if (array instanceof int[] ints) {
+      for (int value : ints) {
+        value(value);
+      }
+    } else if (array instanceof long[] longs) {
+      for (long value : longs) {
+        value(value);
+      }
+    } else if (array instanceof double[] doubles) {
+      for (double value : doubles) {
+        value(value);
+      }
+    } else if (array instanceof Object[] objects) {
+      for (Object value : objects) {
+        value(value);
+      }
+    } else {
+      for (int i = 0, length = Array.getLength(array); i < length; i++) {
+        value(Array.get(array, i));
+      }
+    }
+    return endArray();
+  }
+
+  private void write(int b) {
+    if (position == buffer.length) {
+      require(1);
+    }
+    buffer[position++] = (byte) b;
+  }
+
+  private void writeAscii(String s) {
+    require(s.length());
+    for (int i = 0; i < s.length(); i++) {
+      buffer[position++] = (byte) s.charAt(i);
+    }
+  }
+
+  private void writeScratch() {
+    require(scratch.length());
+    for (int i = 0; i < scratch.length(); i++) {
+      buffer[position++] = (byte) scratch.charAt(i);
+    }
+  }
+
+  /**
+   * Writes {@code s} quoted and escaped, encoding it to UTF-8 on the way.
+   * Unpaired surrogates cannot be encoded and are written as {@code \\u}
+   * escapes instead.
+   */
+  private void writeString(String s) {
+    write('"');
+    int length = s.length();
+    int segment = out == null ? STRING_SEGMENT : Math.min(STRING_SEGMENT, buffer.length / MAX_BYTES_PER_CHAR);
+    int i = 0;
+    while (i < length) {
+      // Room for the worst case of a whole segment, so the loop needs no bounds checks
+      int end = Math.min(length, i + segment);
+      require((end - i) * MAX_BYTES_PER_CHAR);
+      byte[] buffer = this.buffer;
+      int position = this.position;
+      for (; i < end; i++) {
+        char c = s.charAt(i);
+        if (c < 0x80) {
+          byte escape = ESCAPES[c];
+          if (escape == 0) {
+            buffer[position++] = (byte) c;
+          } else if (escape != 'u') {
+            buffer[position++] = '\\';
+            buffer[position++] = escape;
+          } else {
+            position = writeUnicodeEscape(buffer, position, c);
+          }
+        } else if (c < 0x800) {
+          buffer[position++] = (byte) (0xC0 | c >> 6);
+          buffer[position++] = (byte) (0x80 | c & 0x3F);
+        } else if (!Character.isSurrogate(c)) {
+          buffer[position++] = (byte) (0xE0 | c >> 12);
+          buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+          buffer[position++] = (byte) (0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+          int codePoint = Character.toCodePoint(c, s.charAt(++i));
+          buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+          buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+          buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+          buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+        } else {
+          position = writeUnicodeEscape(buffer, position, c);
+        }
+      }
+      this.position = position;
+    }
+    write('"');
+  }
+
+  private static int writeUnicodeEscape(byte[] buffer, int position, char c) {
+    buffer[position++] = '\\';
+    buffer[position++] = 'u';
+    buffer[position++] = HEX[c >> 12];
+    buffer[position++] = HEX[c >> 8 & 0xF];
+    buffer[position++] = HEX[c >> 4 & 0xF];
+    buffer[position++] = HEX[c & 0xF];
+    return position;
+  }
+
+  /**
+   * Writes the decimal digits of {@code value} straight into the buffer,
+   * from the last digit backwards.
+   */
+  private void writeLong(long value) {
+    if (value == Long.MIN_VALUE) {
+      writeAscii("-9223372036854775808");
+      return;
+    }
+    require(20);
+    if (value < 0) {
+      buffer[position++] = '-';
+      value = -value;
+    }
+    int digits = 1;
+    for (long limit = 10; digits < 19 && value >= limit; limit *= 10) {
+      digits++;
+    }
+    int end = position + digits;
+    int i = end;
+    do {
+      buffer[--i] = (byte) ('0' + value % 10);
+      value /= 10;
+    } while (value != 0);
+    position = end;
+  }
+
+  private void writeDouble(double value) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      throw new IllegalArgumentException("Numeric values must be finite, got " + value);
+    }
+    // Integral values below 10^15 are exact as longs; -0.0 keeps its sign through the JDK path
+    if (value == (long) value && Math.abs(value) < 1e15 && Double.doubleToRawLongBits(value) != Long.MIN_VALUE) {
+      writeLong((long) value);
+      write('.');
+      write('0');
+      return;
+    }
+    scratch.setLength(0);
+    scratch.append(value);
+    writeScratch();
+  }
+
+  /**
+   * Makes room for {@code bytes} more bytes, by passing the buffer to the
+   * stream or by growing it.
+   */
+  private void require(int bytes) {
+    if (position + bytes <= buffer.length) {
+      return;
+    }
+    if (out != null) {
+      drain();
+      if (bytes <= buffer.length) {
+        return;
+      }
+    }
+    buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+  }
+
+  private void drain() {
+    try {
+      out.write(buffer, 0, position);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    position = 0;
+  }
+
+  private static MethodHandles.Lookup lookup(Class<?> type) {
+    try {
+      return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+    } catch (IllegalAccessException e) {
+      // The type's package is not open to us; only public members can be read
+      return MethodHandles.publicLookup();
+    }
+  }
+
+  /**
+   * A property of a record or POJO with its name already encoded, and a
+   * getter adapted to return a {@code long}, {@code double} or
+   * {@code boolean} without boxing, or an {@code Object}.
+   */
+  private record Property(byte[] name, Class<?> type, MethodHandle getter) {
+  }
+
+  /**
+   * The readable properties of a class: the components of a record, or the
+   * non-static, non-transient fields of a POJO and its superclasses, each read
+   * through its public getter ({@code getX()} or {@code isX()}) if it has one
+   * and through the field otherwise.
+   */
+  private static final class ObjectWriter {
+    private final Property[] properties;
+
+    ObjectWriter(Class<?> type) {
+      List<Property> found = new ArrayList<>();
+      MethodHandles.Lookup lookup = lookup(type);
+      try {
+        if (type.isRecord()) {
+          for (RecordComponent component : type.getRecordComponents()) {
+            found.add(property(component.getName(), component.getType(), lookup.unreflect(component.getAccessor())));
+          }
+        } else {
+          Set<String> names = new HashSet<>();
+          for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+              int modifiers = field.getModifiers();
+              if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || !names.add(field.getName())) {
+                continue;
+              }
+              MethodHandle getter = getter(type, lookup, field, c == type ? lookup : lookup(c));
+              if (getter != null) {
+                found.add(property(field.getName(), field.getType(), getter));
+              }
+            }
+          }
+        }
+      } catch (IllegalAccessException e) {
+        throw new IllegalArgumentException("Cannot write " + type.getTypeName() + " as JSON", e);
+      }
+      this.properties = found.toArray(new Property[0]);
+    }
+
+    private static MethodHandle getter(Class<?> type, MethodHandles.Lookup lookup, Field field,
+        MethodHandles.Lookup fieldLookup) {
+      String suffix = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+      for (String prefix : field.getType() == boolean.class ? new String[] {"is", "get"} : new String[] {"get"}) {
+        try {
+          Method method = type.getMethod(prefix + suffix);
+          if (method.getReturnType() == field.getType()) {
+            return lookup.unreflect(method);
+          }
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+          // No public getter, fall back to the field
+        }
+      }
+      try {
+        return fieldLookup.unreflectGetter(field);
+      } catch (IllegalAccessException e) {
+        return null;
+      }
+    }
+
+    private static Property property(String name, Class<?> type, MethodHandle getter) {
+      // Floats and chars are boxed so they print as written rather than widened
+      Class<?> returned = type == boolean.class ? boolean.class
+          : type == double.class ? double.class
+          : type == long.class || type == int.class || type == short.class || type == byte.class ? long.class
+          : Object.class;
+      return new Property(toJsonBytes(name), returned, MethodHandles.explicitCastArguments(getter,
+          MethodType.methodType(returned, Object.class)));
+    }
+
+    void write(JsonWriter writer, Object instance) {
+      try {
+        for (Property property : properties) {
+          writer.name(property.name());
+          MethodHandle getter = property.getter();
+          if (property.type() == long.class) {
+            writer.value((long) getter.invokeExact(instance));
+          } else if (property.type() == double.class) {
+            writer.value((double) getter.invokeExact(instance));
+          } else if (property.type() == boolean.class) {
+            writer.value((boolean) getter.invokeExact(instance));
+          } else {
+            writer.value((Object) getter.invokeExact(instance));
+          }
+        }
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new RuntimeException(t);
+      }
+    }
+  }
+}
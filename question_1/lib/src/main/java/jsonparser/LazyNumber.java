@@ -0,0 +1,74 @@
+package jsonparser;
+
+import java.math.BigDecimal;
+
+/**
+ * A JSON number kept as its original text and converted on first use.
+ * Returned in {@link NumberMode#LAZY}, for payloads whose numbers are mostly
+ * passed through rather than read. Conversions follow
+ * {@link NumberMode#STANDARD}; two lazy numbers are equal when their text is.
+ */
+public final class LazyNumber extends Number {
+  private static final long serialVersionUID = 1L;
+
+  private final String text;
+  private transient Number value;
+
+  LazyNumber(String text) {
+    this.text = text;
+  }
+
+  private Number value() {
+    if (value == null) {
+      JsonReader reader = new JsonReader(text);
+      reader.nextToken();
+      value = reader.getNumber();
+    }
+    return value;
+  }
+
+  @Override
+  public int intValue() {
+    return value().intValue();
+  }
+
+  @Override
+  public long longValue() {
+    return value().longValue();
+  }
+
+  @Override
+  public float floatValue() {
+    return value().floatValue();
+  }
+
+  @Override
+  public double doubleValue() {
+    return value().doubleValue();
+  }
+
+  /**
+   * Returns the exact value of the number.
+   */
+  public BigDecimal bigDecimalValue() {
+    return new BigDecimal(text);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof LazyNumber other && text.equals(other.text);
+  }
+
+  @Override
+  public int hashCode() {
+    return text.hashCode();
+  }
+
+  /**
+   * Returns the number exactly as it appeared in the document.
+   */
+  @Override
+  public String toString() {
+    return text;
+  }
+}
@@ -0,0 +1,54 @@
+package jsonparser;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Unmodifiable {@link java.util.List} view over a {@code long[]}, returned for
+ * integer arrays with an element outside the {@code int} range when
+ * {@link ParserOptions.Builder#withPrimitiveArrays(boolean)} is enabled. The
+ * values are stored unboxed: {@link #get(int)} boxes one per call as an
+ * {@link Integer} or {@link Long}, exactly like an ordinary parsed list, while
+ * {@link #getLong(int)} and {@link #toLongArray()} read them directly.
+ */
+public final class LongArrayList extends AbstractList<Object> implements RandomAccess {
+  private final long[] values;
+  private final int size;
+
+  LongArrayList(long[] values, int size) {
+    this.values = values;
+    this.size = size;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Object get(int index) {
+    long value = getLong(index);
+    if ((int) value == value) {
+      return (int) value;
+    }
+    return value;
+  }
+
+  /**
+   * Returns the element at {@code index} without boxing it.
+   */
+  public long getLong(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+    }
+    return values[index];
+  }
+
+  /**
+   * Returns a copy of the elements.
+   */
+  public long[] toLongArray() {
+    return Arrays.copyOf(values, size);
+  }
+}
@@ -0,0 +1,179 @@
+package jsonparser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link JsonInput} over a UTF-8 file that is memory-mapped instead of read
+ * onto the heap. A single mapping is limited to 2 GB, so the file is walked as
+ * a sequence of segments that are mapped one at a time as the reader reaches
+ * them; segments already passed are left to the garbage collector to unmap.
+ */
+final class MappedFileInput extends JsonInput {
+  static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+  private final FileChannel channel;
+  private final long size;
+  private final int segmentSize;
+
+  private MappedByteBuffer segment;
+  private long segmentStart;
+  private int position;
+  private int limit;
+  private byte[] scratch = new byte[64];
+
+  MappedFileInput(Path path) {
+    this(path, DEFAULT_SEGMENT_SIZE);
+  }
+
+  MappedFileInput(Path path, int segmentSize) {
+    if (segmentSize <= 0) {
+      throw new IllegalArgumentException("Segment size must be positive: " + segmentSize);
+    }
+    try {
+      this.channel = FileChannel.open(path, StandardOpenOption.READ);
+      this.size = channel.size();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    this.segmentSize = segmentSize;
+  }
+
+  @Override
+  int peek() {
+    if (position < limit || nextSegment()) {
+      return segment.get(position) & 0xFF;
+    }
+    return -1;
+  }
+
+  @Override
+  void advance() {
+    position++;
+  }
+
+  @Override
+  long position() {
+    return segmentStart + position;
+  }
+
+  @Override
+  int skipWhitespace() {
+    while (position < limit || nextSegment()) {
+      byte b = segment.get(position);
+      if (b == ' ' || b == '\t' || b == '\n' || b == '\r') {
+        position++;
+      } else {
+        return b & 0xFF;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  String readString(StringBuilder sb) {
+    boolean escaped = false;
+
+    while (true) {
+      // Gather the run up to the next quote or backslash, which may span segments
+      long runStart = position();
+      int length = 0;
+      boolean ascii = true;
+      byte b = 0;
+      while (true) {
+        if (position == limit && !nextSegment()) {
+          throw new RuntimeException("Unterminated string");
+        }
+        int from = position;
+        while (position < limit) {
+          b = segment.get(position);
+          if (b == '"' || b == '\\') {
+            break;
+          } else if (b < 0x20) {
+            if (b >= 0) {
+              throw controlCharacter(position());
+            }
+            ascii = false;
+          }
+          position++;
+        }
+        length = copy(from, position - from, length);
+        if (position < limit) {
+          position++; // Skip the '"' or '\\'
+          break;
+        }
+      }
+
+      if (b == '"' && !escaped) {
+        return Utf8.decode(scratch, 0, length, ascii, -runStart);
+      }
+      if (!escaped) {
+        sb.setLength(0);
+        escaped = true;
+      }
+      Utf8.append(sb, scratch, 0, length, ascii, -runStart);
+      if (b == '"') {
+        return sb.toString();
+      }
+      readEscape(sb);
+    }
+  }
+
+  @Override
+  void skipString() {
+    while (position < limit || nextSegment()) {
+      byte b = segment.get(position++);
+      if (b == '"') {
+        return;
+      } else if (b == '\\' && (position < limit || nextSegment())) {
+        position++;
+      }
+    }
+
+    throw new RuntimeException("Unterminated string");
+  }
+
+  @Override
+  void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private int copy(int from, int count, int length) {
+    if (scratch.length < length + count) {
+      byte[] grown = new byte[Math.max(length + count, scratch.length * 2)];
+      System.arraycopy(scratch, 0, grown, 0, length);
+      scratch = grown;
+    }
+    segment.get(from, scratch, length, count);
+    return length + count;
+  }
+
+  /**
+   * Maps the segment that follows the current one once every byte in it has
+   * been consumed. Returns false at the end of the file.
+   */
+  private boolean nextSegment() {
+    long next = segmentStart + limit;
+    if (next >= size) {
+      return false;
+    }
+    try {
+      int length = (int) Math.min(segmentSize, size - next);
+      segment = channel.map(FileChannel.MapMode.READ_ONLY, next, length);
+      segmentStart = next;
+      position = 0;
+      limit = length;
+      return true;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package jsonparser;
+
+/**
+ * How {@link RecursiveJsonParser} and {@link JsonReader#getNumber()} represent
+ * JSON numbers. Set with {@link ParserOptions.Builder#withNumberMode(NumberMode)}.
+ */
+public enum NumberMode {
+  /**
+   * {@link Integer} when the value fits, otherwise {@link Long}, and
+   * {@link Double} for numbers with a fraction or exponent or that exceed a
+   * {@code long}. This is the default.
+   */
+  STANDARD,
+
+  /**
+   * {@link LazyNumber}, which keeps the number's text and only converts it
+   * when one of its accessors is called.
+   */
+  LAZY,
+
+  /**
+   * {@link java.math.BigInteger} for integers and {@link java.math.BigDecimal}
+   * for numbers with a fraction or exponent, so no precision is lost.
+   */
+  BIG_DECIMAL
+}
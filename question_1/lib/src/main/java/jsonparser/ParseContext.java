@@ -0,0 +1,109 @@
+package jsonparser;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Per-call parsing state reused across documents: a {@link JsonReader} with
+ * its scratch buffers and one input of each in-memory kind. A context is
+ * owned by one call at a time and handed out by a {@link Pool}.
+ */
+final class ParseContext {
+  // Scratch buffers that grew past this are dropped on release so the pool does not pin them
+  static final int MAX_RETAINED_SCRATCH = 1 << 16;
+
+  private static final byte[] EMPTY_BYTES = new byte[0];
+  private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
+  private final JsonReader reader = new JsonReader((JsonInput) null);
+  private final StringInput stringInput = new StringInput();
+  private final ByteArrayInput byteArrayInput = new ByteArrayInput();
+  private final ByteBufferInput byteBufferInput = new ByteBufferInput();
+  private char[] charBuffer;
+
+  JsonReader reader(String json) {
+    return reader(json, 0, json.length());
+  }
+
+  JsonReader reader(String json, int start, int end) {
+    return reader.reset(stringInput.reset(json, start, end));
+  }
+
+  JsonReader reader(byte[] json, int offset, int length) {
+    return reader.reset(byteArrayInput.reset(json, offset, length));
+  }
+
+  JsonReader reader(ByteBuffer json) {
+    if (json.hasArray()) {
+      return reader(json.array(), json.arrayOffset() + json.position(), json.remaining());
+    }
+    return reader.reset(byteBufferInput.reset(json));
+  }
+
+  JsonReader reader(Reader json) {
+    if (charBuffer == null) {
+      charBuffer = new char[ReaderInput.DEFAULT_BUFFER_SIZE];
+    }
+    return reader.reset(new ReaderInput(json, charBuffer));
+  }
+
+  /**
+   * Forgets the last document so the pool does not keep it reachable.
+   */
+  void clear() {
+    reader.release(MAX_RETAINED_SCRATCH);
+    stringInput.reset("", 0, 0);
+    byteArrayInput.reset(EMPTY_BYTES, 0, 0);
+    byteBufferInput.reset(EMPTY_BUFFER);
+    byteBufferInput.trimScratch(MAX_RETAINED_SCRATCH);
+  }
+
+  /**
+   * Bounded, lock-free pool of contexts. Contexts live in a fixed array of
+   * slots; a caller claims the slot picked by its thread id (or one of the next
+   * few) and puts the context back when done. When every probed slot is empty
+   * a new context is created, and when every probed slot is full on release the
+   * context is dropped, so memory stays bounded no matter how many threads
+   * parse. There is no {@link ThreadLocal} involved, so millions of short-lived
+   * virtual threads neither get a context each nor pin their carrier.
+   */
+  static final class Pool {
+    private static final int PROBES = 4;
+
+    private final AtomicReferenceArray<ParseContext> slots;
+    private final int mask;
+
+    Pool(int capacity) {
+      int size = Integer.highestOneBit(Math.max(capacity, 1) - 1) << 1;
+      this.slots = new AtomicReferenceArray<>(Math.max(size, 1));
+      this.mask = slots.length() - 1;
+    }
+
+    ParseContext acquire() {
+      int start = slot();
+      for (int i = 0; i < PROBES; i++) {
+        ParseContext context = slots.getAndSet((start + i) & mask, null);
+        if (context != null) {
+          return context;
+        }
+      }
+      return new ParseContext();
+    }
+
+    void release(ParseContext context) {
+      context.clear();
+      int start = slot();
+      for (int i = 0; i < PROBES; i++) {
+        if (slots.compareAndSet((start + i) & mask, null, context)) {
+          return;
+        }
+      }
+    }
+
+    private static int slot() {
+      // Spread sequential thread ids over the slots
+      return (int) ((Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+  }
+}
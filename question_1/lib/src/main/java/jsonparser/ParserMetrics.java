@@ -0,0 +1,46 @@
+package jsonparser;
+
+/**
+ * Listener told about every document a {@link RecursiveJsonParser},
+ * {@link JsonParsers} or {@link JsonLinesParser} parses, set with
+ * {@link ParserOptions.Builder#withMetrics(ParserMetrics)}.
+ *
+ * <pre>{@code
+ * ParserMetricsCollector metrics = ParserMetricsCollector.builder().build();
+ * JsonParsers parsers = JsonParsers.create(ParserOptions.builder().withMetrics(metrics).build());
+ * ...
+ * String exposition = metrics.toPrometheus();
+ * }</pre>
+ *
+ * <p>Parsers only read the clock and report when their options hold a
+ * listener other than {@link #NONE}, so the default costs one reference
+ * comparison per document. Both methods are called on the parsing thread
+ * after the document has been read, and must be thread-safe when the parser
+ * is shared. {@link ParserMetricsCollector} aggregates them into counters and
+ * a latency histogram.
+ */
+public interface ParserMetrics {
+
+  /**
+   * The default listener, which ignores everything.
+   */
+  ParserMetrics NONE = new ParserMetrics() {
+  };
+
+  /**
+   * Called once a document has been parsed. {@code length} is its size in
+   * bytes, or in chars for {@code String} and {@link java.io.Reader} input.
+   * The counts are of string and number values and of objects and arrays;
+   * object keys are not counted as strings, and values a binder skips unread
+   * are not counted at all.
+   */
+  default void documentParsed(long length, long nanos, int maxDepth, long strings, long numbers, long containers) {
+  }
+
+  /**
+   * Called when a document fails to parse, with the exception about to be
+   * thrown to the caller.
+   */
+  default void documentFailed(long nanos, RuntimeException error) {
+  }
+}
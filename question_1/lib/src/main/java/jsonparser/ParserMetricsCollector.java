@@ -0,0 +1,216 @@
+package jsonparser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * {@link ParserMetrics} that aggregates documents into counters and a parse
+ * latency histogram, and exports them in the Prometheus text exposition
+ * format. One collector can be shared by any number of parsers and threads.
+ *
+ * <pre>{@code
+ * ParserMetricsCollector metrics = ParserMetricsCollector.builder()
+ *     .withNamespace("ingest_json")
+ *     .build();
+ * ParserOptions options = ParserOptions.builder().withMetrics(metrics).build();
+ * ...
+ * metrics.writePrometheus(response.getWriter());
+ * }</pre>
+ *
+ * <p>Counters are {@link LongAdder}s, so recording a document does not
+ * contend between threads. Values read by {@link #stats()} or an export are
+ * not a single atomic snapshot while documents are being parsed.
+ */
+public final class ParserMetricsCollector implements ParserMetrics {
+  private static final Pattern NAMESPACE = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+
+  private final String namespace;
+  private final long[] bounds;
+
+  private final LongAdder documents = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder bytes = new LongAdder();
+  private final LongAdder strings = new LongAdder();
+  private final LongAdder numbers = new LongAdder();
+  private final LongAdder containers = new LongAdder();
+  private final LongAdder nanos = new LongAdder();
+  private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+  // One per bound, and a last one for slower documents
+  private final LongAdder[] buckets;
+
+  private ParserMetricsCollector(Builder builder) {
+    this.namespace = builder.namespace;
+    this.bounds = builder.bounds;
+    this.buckets = new LongAdder[bounds.length + 1];
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  @Override
+  public void documentParsed(long length, long nanos, int maxDepth, long strings, long numbers, long containers) {
+    documents.increment();
+    bytes.add(length);
+    this.strings.add(strings);
+    this.numbers.add(numbers);
+    this.containers.add(containers);
+    this.nanos.add(nanos);
+    this.maxDepth.accumulate(maxDepth);
+
+    int bucket = 0;
+    while (bucket < bounds.length && nanos > bounds[bucket]) {
+      bucket++;
+    }
+    buckets[bucket].increment();
+  }
+
+  @Override
+  public void documentFailed(long nanos, RuntimeException error) {
+    errors.increment();
+  }
+
+  /**
+   * Returns the totals recorded so far.
+   */
+  public Stats stats() {
+    return new Stats(documents.sum(), errors.sum(), bytes.sum(), strings.sum(), numbers.sum(), containers.sum(),
+        (int) maxDepth.get(), nanos.sum());
+  }
+
+  /**
+   * Returns the metrics in the Prometheus text exposition format.
+   */
+  public String toPrometheus() {
+    StringBuilder sb = new StringBuilder(2048);
+    writePrometheus(sb);
+    return sb.toString();
+  }
+
+  /**
+   * Appends the metrics in the Prometheus text exposition format to
+   * {@code out}. I/O failures are thrown as {@link UncheckedIOException}.
+   */
+  public void writePrometheus(Appendable out) {
+    try {
+      counter(out, "documents_total", "Documents parsed.", documents.sum());
+      counter(out, "errors_total", "Documents that failed to parse.", errors.sum());
+      counter(out, "input_bytes_total", "Input parsed, in bytes or in chars for String and Reader input.",
+          bytes.sum());
+
+      String values = namespace + "_values_total";
+      header(out, values, "String, number and container values parsed.", "counter");
+      out.append(values).append("{type=\"string\"} ").append(Long.toString(strings.sum())).append('\n');
+      out.append(values).append("{type=\"number\"} ").append(Long.toString(numbers.sum())).append('\n');
+      out.append(values).append("{type=\"container\"} ").append(Long.toString(containers.sum())).append('\n');
+
+      String depth = namespace + "_max_depth";
+      header(out, depth, "Deepest nesting of objects and arrays parsed.", "gauge");
+      out.append(depth).append(' ').append(Long.toString(maxDepth.get())).append('\n');
+
+      // Buckets are exported cumulatively, and the count is their total so the two always agree
+      String duration = namespace + "_parse_duration_seconds";
+      header(out, duration, "Time to parse a document.", "histogram");
+      long count = 0;
+      for (int i = 0; i < buckets.length; i++) {
+        count += buckets[i].sum();
+        String bound = i < bounds.length ? BigDecimal.valueOf(bounds[i], 9).stripTrailingZeros().toPlainString() : "+Inf";
+        out.append(duration).append("_bucket{le=\"").append(bound).append("\"} ").append(Long.toString(count))
+            .append('\n');
+      }
+      out.append(duration).append("_sum ").append(Double.toString(nanos.sum() / 1e9)).append('\n');
+      out.append(duration).append("_count ").append(Long.toString(count)).append('\n');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void counter(Appendable out, String name, String help, long value) throws IOException {
+    String metric = namespace + "_" + name;
+    header(out, metric, help, "counter");
+    out.append(metric).append(' ').append(Long.toString(value)).append('\n');
+  }
+
+  private static void header(Appendable out, String metric, String help, String type) throws IOException {
+    out.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+    out.append("# TYPE ").append(metric).append(' ').append(type).append('\n');
+  }
+
+  /**
+   * Totals since the collector was built. {@code totalNanos} is the time spent
+   * parsing the successful documents, so the rates are per second of parsing
+   * rather than of wall-clock time.
+   */
+  public record Stats(long documents, long errors, long bytes, long strings, long numbers, long containers,
+      int maxDepth, long totalNanos) {
+
+    public double bytesPerSecond() {
+      return totalNanos == 0 ? 0 : bytes * 1e9 / totalNanos;
+    }
+
+    public double documentsPerSecond() {
+      return totalNanos == 0 ? 0 : documents * 1e9 / totalNanos;
+    }
+  }
+
+  public static final class Builder {
+    private String namespace = "jsonparser";
+    private long[] bounds = {
+        10_000, 50_000, 100_000, 500_000,
+        1_000_000, 5_000_000, 10_000_000, 50_000_000,
+        100_000_000, 500_000_000, 1_000_000_000, 5_000_000_000L
+    };
+
+    private Builder() {
+    }
+
+    /**
+     * Sets the prefix of every exported metric name. Defaults to
+     * {@code jsonparser}.
+     */
+    public Builder withNamespace(String namespace) {
+      if (namespace == null) {
+        throw new IllegalArgumentException("Namespace must not be null");
+      }
+      if (!NAMESPACE.matcher(namespace).matches()) {
+        throw new IllegalArgumentException("Invalid metric namespace: " + namespace);
+      }
+      this.namespace = namespace;
+      return this;
+    }
+
+    /**
+     * Sets the upper bounds of the latency histogram buckets, in increasing
+     * order. Defaults to 10 microseconds up to 5 seconds in 1-5-10 steps.
+     */
+    public Builder withLatencyBuckets(Duration... bounds) {
+      if (bounds.length == 0) {
+        throw new IllegalArgumentException("Latency buckets must not be empty");
+      }
+      long[] nanos = new long[bounds.length];
+      for (int i = 0; i < bounds.length; i++) {
+        nanos[i] = bounds[i].toNanos();
+        if (nanos[i] <= 0) {
+          throw new IllegalArgumentException("Latency bucket must be positive: " + bounds[i]);
+        }
+        if (i > 0 && nanos[i] <= nanos[i - 1]) {
+          throw new IllegalArgumentException("Latency buckets must be increasing: " + bounds[i]);
+        }
+      }
+      this.bounds = nanos;
+      return this;
+    }
+
+    public ParserMetricsCollector build() {
+      return new ParserMetricsCollector(this);
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package jsonparser;
+
+/**
+ * Immutable settings shared by {@link RecursiveJsonParser}, {@link JsonParsers}
+ * and {@link JsonLinesParser}. Options are thread-safe and meant to be built
+ * once and reused; parsers built from the same options share their caches.
+ *
+ * <pre>{@code
+ * ParserOptions options = ParserOptions.builder()
+ *     .withKeyCache(4096, 32)
+ *     .build();
+ * RecursiveJsonParser parser = new RecursiveJsonParser(options);
+ * }</pre>
+ */
+public final class ParserOptions {
+  private static final ParserOptions DEFAULTS = builder().build();
+
+  private final SymbolTable keys;
+  private final NumberMode numberMode;
+  private final boolean primitiveArrays;
+  private final boolean structuralIndex;
+  private final int maxDepth;
+  private final ParserMetrics metrics;
+
+  private ParserOptions(Builder builder) {
+    this.keys = builder.keyCacheSize > 0 ? new SymbolTable(builder.keyCacheSize, builder.maxCachedKeyLength) : null;
+    this.numberMode = builder.numberMode;
+    this.primitiveArrays = builder.primitiveArrays;
+    this.structuralIndex = builder.structuralIndex;
+    this.maxDepth = builder.maxDepth;
+    this.metrics = builder.metrics;
+  }
+
+  /**
+   * Returns the options used when none are given: a key cache of 1024 entries
+   * for keys up to 64 characters, {@link NumberMode#STANDARD} numbers and at
+   * most 1000 levels of nesting.
+   */
+  public static ParserOptions defaults() {
+    return DEFAULTS;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  SymbolTable keys() {
+    return keys;
+  }
+
+  NumberMode numberMode() {
+    return numberMode;
+  }
+
+  boolean primitiveArrays() {
+    return primitiveArrays && numberMode == NumberMode.STANDARD;
+  }
+
+  boolean structuralIndex() {
+    return structuralIndex;
+  }
+
+  int maxDepth() {
+    return maxDepth;
+  }
+
+  ParserMetrics metrics() {
+    return metrics;
+  }
+
+  public static final class Builder {
+    private int keyCacheSize = 1024;
+    private int maxCachedKeyLength = 64;
+    private NumberMode numberMode = NumberMode.STANDARD;
+    private boolean primitiveArrays;
+    private boolean structuralIndex;
+    private int maxDepth = 1000;
+    private ParserMetrics metrics = ParserMetrics.NONE;
+
+    private Builder() {
+    }
+
+    /**
+     * Canonicalizes object keys through a fixed-size cache so repeated keys
+     * return the same {@link String} instance. {@code size} is rounded up to a
+     * power of two and may be at most 2<sup>30</sup>; keys longer than
+     * {@code maxKeyLength} are never cached.
+     */
+    public Builder withKeyCache(int size, int maxKeyLength) {
+      if (size <= 0) {
+        throw new IllegalArgumentException("Key cache size must be positive: " + size);
+      }
+      if (size > SymbolTable.MAX_CAPACITY) {
+        throw new IllegalArgumentException("Key cache size must be at most " + SymbolTable.MAX_CAPACITY + ": " + size);
+      }
+      if (maxKeyLength < 0) {
+        throw new IllegalArgumentException("Max cached key length must not be negative: " + maxKeyLength);
+      }
+      this.keyCacheSize = size;
+      this.maxCachedKeyLength = maxKeyLength;
+      return this;
+    }
+
+    /**
+     * Decodes every key into a new {@link String}.
+     */
+    public Builder withoutKeyCache() {
+      this.keyCacheSize = 0;
+      return this;
+    }
+
+    /**
+     * Selects how numbers are represented in parsed trees.
+     */
+    public Builder withNumberMode(NumberMode numberMode) {
+      if (numberMode == null) {
+        throw new IllegalArgumentException("Number mode must not be null");
+      }
+      this.numberMode = numberMode;
+      return this;
+    }
+
+    /**
+     * When enabled, arrays whose elements are all numbers are returned as
+     * {@link IntArrayList}, {@link LongArrayList} or {@link DoubleArrayList}
+     * instead of a list of boxed values. An array starts as {@code int}s and is
+     * promoted to {@code long}s or {@code double}s when an element needs it.
+     * Arrays that hold anything but numbers, or that mix {@code double}s with
+     * integers beyond 2^53, stay ordinary lists. Only applies with
+     * {@link NumberMode#STANDARD}.
+     */
+    public Builder withPrimitiveArrays(boolean primitiveArrays) {
+      this.primitiveArrays = primitiveArrays;
+      return this;
+    }
+
+    /**
+     * When enabled, {@code byte[]} input is first scanned in 64-byte blocks
+     * for the positions of its operators, quotes and literals, and the reader
+     * then jumps between those positions instead of stepping over whitespace
+     * and string contents one byte at a time. The scan uses the Vector API when
+     * {@code jdk.incubator.vector} is available. Other inputs are unaffected.
+     */
+    public Builder withStructuralIndex(boolean structuralIndex) {
+      this.structuralIndex = structuralIndex;
+      return this;
+    }
+
+    /**
+     * Limits how deeply objects and arrays may nest. A document that opens one
+     * container more fails at that container's position before anything below
+     * it is read.
+     */
+    public Builder withMaxDepth(int maxDepth) {
+      if (maxDepth <= 0) {
+        throw new IllegalArgumentException("Max depth must be positive: " + maxDepth);
+      }
+      this.maxDepth = maxDepth;
+      return this;
+    }
+
+    /**
+     * Reports every document parsed with these options to {@code metrics}.
+     * Defaults to {@link ParserMetrics#NONE}.
+     */
+    public Builder withMetrics(ParserMetrics metrics) {
+      if (metrics == null) {
+        throw new IllegalArgumentException("Metrics must not be null");
+      }
+      this.metrics = metrics;
+      return this;
+    }
+
+    public ParserOptions build() {
+      return new ParserOptions(this);
+    }
+  }
+}
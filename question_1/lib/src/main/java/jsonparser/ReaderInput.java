@@ -0,0 +1,173 @@
+package jsonparser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link JsonInput} over a {@link Reader}, refilled through a fixed-size char
+ * buffer so memory use stays constant regardless of the document size. Byte
+ * sources are decoded as UTF-8 incrementally while they are read.
+ */
+final class ReaderInput extends JsonInput {
+  static final int DEFAULT_BUFFER_SIZE = 8192;
+
+  private final Reader reader;
+  private final char[] buffer;
+  private int position;
+  private int limit;
+  private long offset; // Number of chars discarded before buffer[0]
+  private boolean eof;
+
+  ReaderInput(Reader reader) {
+    this(reader, DEFAULT_BUFFER_SIZE);
+  }
+
+  ReaderInput(Reader reader, int bufferSize) {
+    this(reader, new char[bufferSize]);
+  }
+
+  /**
+   * Creates an input that refills {@code buffer}, which the caller may reuse
+   * once this input is no longer read.
+   */
+  ReaderInput(Reader reader, char[] buffer) {
+    if (buffer.length == 0) {
+      throw new IllegalArgumentException("Buffer size must be positive: " + buffer.length);
+    }
+    this.reader = reader;
+    this.buffer = buffer;
+  }
+
+  static Reader utf8Reader(InputStream in) {
+    return new InputStreamReader(in, utf8Decoder());
+  }
+
+  static Reader utf8Reader(ReadableByteChannel channel) {
+    return Channels.newReader(channel, utf8Decoder(), -1);
+  }
+
+  private static CharsetDecoder utf8Decoder() {
+    return StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPORT)
+        .onUnmappableCharacter(CodingErrorAction.REPORT);
+  }
+
+  @Override
+  int peek() {
+    if (position < limit || fill()) {
+      return buffer[position];
+    }
+    return -1;
+  }
+
+  @Override
+  void advance() {
+    position++;
+  }
+
+  @Override
+  long position() {
+    return offset + position;
+  }
+
+  @Override
+  int skipWhitespace() {
+    while (position < limit || fill()) {
+      char c = buffer[position];
+      if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+        position++;
+      } else {
+        return c;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  String readString(StringBuilder sb) {
+    sb.setLength(0);
+
+    while (true) {
+      // Copy the run up to the next quote or backslash in one call
+      int start = position;
+      while (position < limit) {
+        char c = buffer[position];
+        if (c == '"' || c == '\\') {
+          break;
+        } else if (c < 0x20) {
+          throw controlCharacter(position());
+        }
+        position++;
+      }
+      sb.append(buffer, start, position - start);
+
+      if (position == limit) {
+        if (!fill()) {
+          throw new RuntimeException("Unterminated string");
+        }
+      } else if (buffer[position++] == '"') {
+        return sb.toString();
+      } else {
+        readEscape(sb);
+      }
+    }
+  }
+
+  @Override
+  void skipString() {
+    while (position < limit || fill()) {
+      char c = buffer[position++];
+      if (c == '"') {
+        return;
+      } else if (c == '\\' && (position < limit || fill())) {
+        position++;
+      }
+    }
+
+    throw new RuntimeException("Unterminated string");
+  }
+
+  @Override
+  void close() {
+    try {
+      reader.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Refills the buffer once every char in it has been consumed. Returns false at
+   * the end of input.
+   */
+  private boolean fill() {
+    if (eof) {
+      return false;
+    }
+    offset += limit;
+    position = 0;
+    limit = 0;
+    try {
+      int n;
+      do {
+        n = reader.read(buffer, 0, buffer.length);
+      } while (n == 0);
+      if (n < 0) {
+        eof = true;
+        return false;
+      }
+      limit = n;
+      return true;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -1,269 +1,312 @@
 package jsonparser;
 
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 public class RecursiveJsonParser {
-  private int position = 0;
-  private String json;
+  private final ParserOptions options;
+  private final ParserMetrics metrics;
+  final boolean primitiveArrays;
 
-  public Object parse(String jsonString) {
-    this.json = jsonString.trim();
-    this.position = 0;
-    Object result = parseValue();
-
-    // Ensure the entire JSON string has been fully parsed with no extra characters
-    skipWhitespace();
-    if (position < json.length()) {
-      throw new RuntimeException("Unexpected content after JSON at position " + position);
-    }
-
-    return result;
+  public RecursiveJsonParser() {
+    this(ParserOptions.defaults());
   }
 
-  private Object parseValue() {
-    char c = skipWhitespace();
-
-    if (c == '{') {
-      return parseObject();
-    } else if (c == '[') {
-      return parseArray();
-    } else if (c == '"') {
-      return parseString();
-    } else if (c == 't' || c == 'f') {
-      return parseBoolean();
-    } else if (c == 'n') {
-      return parseNull();
-    } else if ((c >= '0' && c <= '9') || c == '-') {
-      return parseNumber();
-    }
-
-    throw new RuntimeException("Unexpected character: " + c);
+  public RecursiveJsonParser(ParserOptions options) {
+    this.options = options;
+    this.metrics = options.metrics();
+    this.primitiveArrays = options.primitiveArrays();
   }
 
-  private Map<String, Object> parseObject() {
-    Map<String, Object> map = new HashMap<>();
-    position++; // Skip the opening '{'
-
-    while (position < json.length()) {
-      char c = skipWhitespace();
+  public Object parse(String jsonString) {
+    return parse(new JsonReader(jsonString));
+  }
 
-      if (c == '}') {
-        position++; // Skip the closing '}'
-        return map;
-      }
+  /**
+   * Parses UTF-8 encoded bytes without decoding them into a String first.
+   */
+  public Object parse(byte[] json) {
+    return parse(new JsonReader(json));
+  }
 
-      if (c != '"') {
-        throw new RuntimeException("Expected '\"' at position " + position);
-      }
+  /**
+   * Parses {@code length} UTF-8 encoded bytes starting at {@code offset}.
+   */
+  public Object parse(byte[] json, int offset, int length) {
+    return parse(new JsonReader(json, offset, length));
+  }
 
-      String key = parseString();
+  /**
+   * Parses the UTF-8 encoded bytes between the buffer's position and limit,
+   * leaving the position unchanged.
+   */
+  public Object parse(ByteBuffer json) {
+    return parse(new JsonReader(json));
+  }
 
-      c = skipWhitespace();
-      if (c != ':') {
-        throw new RuntimeException("Expected ':' at position " + position);
-      }
-      position++; // Skip the ':'
+  /**
+   * Parses a document read incrementally from {@code reader}, which is left open.
+   */
+  public Object parse(Reader reader) {
+    return parse(new JsonReader(reader));
+  }
 
-      Object value = parseValue();
-      map.put(key, value);
+  /**
+   * Parses a UTF-8 document read incrementally from {@code in}, which is left open.
+   */
+  public Object parse(InputStream in) {
+    return parse(new JsonReader(in));
+  }
 
-      c = skipWhitespace();
-      if (c == ',') {
-        position++; // Skip the ','
+  /**
+   * Parses a UTF-8 document read incrementally from {@code channel}, which is left open.
+   */
+  public Object parse(ReadableByteChannel channel) {
+    return parse(new JsonReader(channel));
+  }
 
-        // Check for trailing comma ',}' case
-        c = skipWhitespace();
-        if (c == '}') {
-          throw new RuntimeException("Trailing comma not allowed at position " + (position - 1));
-        }
-      } else if (c != '}') {
-        throw new RuntimeException("Expected ',' or '}' at position " + position);
-      }
+  /**
+   * Parses a UTF-8 file by memory-mapping it, so the file contents never have
+   * to fit in the heap; only the resulting tree does.
+   */
+  public Object parseFile(Path path) {
+    try (JsonReader reader = new JsonReader(path)) {
+      return parse(reader);
     }
-
-    throw new RuntimeException("Unterminated object");
   }
 
-  private List<Object> parseArray() {
-    List<Object> list = new ArrayList<>();
-    position++; // Skip the opening '['
-
-    while (position < json.length()) {
-      char c = skipWhitespace();
-
-      if (c == ']') {
-        position++; // Skip the closing ']'
-        return list;
-      }
-
-      Object value = parseValue();
-      list.add(value);
-
-      c = skipWhitespace();
-      if (c == ',') {
-        position++; // Skip the ','
+  /**
+   * Parses a document straight into an instance of {@code type} without
+   * building the intermediate {@code Map}. {@code type} may be a record, a
+   * class with a no-argument constructor, or a {@code String}, boxed
+   * primitive, enum, array, {@code List} or {@code Map}. Properties are
+   * matched to object keys by name; unknown keys are skipped and missing ones
+   * keep their default value. Accessors are built once per class.
+   *
+   * <pre>{@code
+   * record User(String name, int age, List<String> tags) {}
+   * User user = parser.parse(json, User.class);
+   * }</pre>
+   */
+  public <T> T parse(String jsonString, Class<T> type) {
+    return parse(new JsonReader(jsonString), type);
+  }
 
-        // Check for trailing comma ',]' case
-        c = skipWhitespace();
-        if (c == ']') {
-          throw new RuntimeException("Trailing comma not allowed at position " + (position - 1));
-        }
-      } else if (c != ']') {
-        throw new RuntimeException("Expected ',' or ']' at position " + position);
-      }
-    }
+  /**
+   * Parses UTF-8 encoded bytes into an instance of {@code type}, like
+   * {@link #parse(String, Class)}.
+   */
+  public <T> T parse(byte[] json, Class<T> type) {
+    return parse(new JsonReader(json), type);
+  }
 
-    throw new RuntimeException("Unterminated array");
+  @SuppressWarnings("unchecked")
+  <T> T parse(JsonReader reader, Class<T> type) {
+    return (T) (metrics == ParserMetrics.NONE ? read(reader, type) : measure(reader, type));
   }
 
-  private String parseString() {
-    StringBuilder sb = new StringBuilder();
-    position++; // Skip the opening '"'
+  Object parse(JsonReader reader) {
+    return metrics == ParserMetrics.NONE ? read(reader, null) : measure(reader, null);
+  }
 
-    boolean escaped = false;
-    while (position < json.length()) {
-      char c = json.charAt(position++);
+  /**
+   * Reads one document into a tree, or into {@code type} if it is not null.
+   */
+  private Object read(JsonReader reader, Class<?> type) {
+    reader.withOptions(options);
+    reader.nextToken();
+    Object result = type == null ? parseValue(reader) : Binder.of(type).read(reader, this);
 
-      if (escaped) {
-        switch (c) {
-          case '"':
-            sb.append('"');
-            break;
-          case '\\':
-            sb.append('\\');
-            break;
-          case '/':
-            sb.append('/');
-            break;
-          case 'b':
-            sb.append('\b');
-            break;
-          case 'f':
-            sb.append('\f');
-            break;
-          case 'n':
-            sb.append('\n');
-            break;
-          case 'r':
-            sb.append('\r');
-            break;
-          case 't':
-            sb.append('\t');
-            break;
-          case 'u':
-            if (position + 4 <= json.length()) {
-              String hex = json.substring(position, position + 4);
-              sb.append((char) Integer.parseInt(hex, 16));
-              position += 4;
-            }
-            break;
-          default:
-            sb.append(c);
-        }
-        escaped = false;
-      } else if (c == '\\') {
-        escaped = true;
-      } else if (c == '"') {
-        return sb.toString();
-      } else {
-        sb.append(c);
-      }
-    }
+    // Ensure the entire JSON string has been fully parsed with no extra characters
+    reader.nextToken();
 
-    throw new RuntimeException("Unterminated string");
+    return result;
   }
 
-  private Number parseNumber() {
-    int startPos = position;
-
-    if (json.charAt(position) == '-') {
-      position++;
+  private Object measure(JsonReader reader, Class<?> type) {
+    reader.resetCounts();
+    long start = System.nanoTime();
+    Object result;
+    try {
+      result = read(reader, type);
+    } catch (RuntimeException e) {
+      metrics.documentFailed(System.nanoTime() - start, e);
+      throw e;
     }
+    metrics.documentParsed(reader.getPosition(), System.nanoTime() - start, reader.deepestDepth(),
+        reader.stringCount(), reader.numberCount(), reader.containerCount());
+    return result;
+  }
 
-    while (position < json.length() && Character.isDigit(json.charAt(position))) {
-      position++;
+  Object parseValue(JsonReader reader) {
+    switch (reader.currentToken()) {
+      case START_OBJECT:
+        return parseObject(reader);
+      case START_ARRAY:
+        return parseArray(reader);
+      case VALUE_STRING:
+        return reader.getString();
+      case VALUE_NUMBER:
+        return reader.getNumber();
+      case VALUE_TRUE:
+        return Boolean.TRUE;
+      case VALUE_FALSE:
+        return Boolean.FALSE;
+      case VALUE_NULL:
+        return null;
+      default:
+        throw new IllegalStateException("Unexpected token " + reader.currentToken());
     }
+  }
 
-    boolean isFloat = false;
+  private Map<String, Object> parseObject(JsonReader reader) {
+    Map<String, Object> map = new HashMap<>();
 
-    if (position < json.length() && json.charAt(position) == '.') {
-      isFloat = true;
-      position++;
-      while (position < json.length() && Character.isDigit(json.charAt(position))) {
-        position++;
-      }
+    while (reader.nextToken() == JsonToken.FIELD_NAME) {
+      String key = reader.getString();
+      reader.nextToken();
+      Object value = parseValue(reader);
+      map.put(key, value);
     }
 
-    if (position < json.length() && (json.charAt(position) == 'e' || json.charAt(position) == 'E')) {
-      isFloat = true;
-      position++;
+    return map;
+  }
 
-      if (position < json.length() && (json.charAt(position) == '+' || json.charAt(position) == '-')) {
-        position++;
-      }
+  private List<Object> parseArray(JsonReader reader) {
+    JsonToken token = reader.nextToken();
+    List<Object> list;
+    if (primitiveArrays && token == JsonToken.VALUE_NUMBER) {
+      list = readNumbers(reader);
+      token = reader.currentToken();
+    } else {
+      list = new ArrayList<>();
+    }
 
-      while (position < json.length() && Character.isDigit(json.charAt(position))) {
-        position++;
-      }
+    while (token != JsonToken.END_ARRAY) {
+      Object value = parseValue(reader);
+      list.add(value);
+      token = reader.nextToken();
     }
 
-    String numStr = json.substring(startPos, position);
+    return list;
+  }
 
-    if (isFloat) {
-      return Double.parseDouble(numStr);
-    } else {
-      try {
-        return Integer.parseInt(numStr);
-      } catch (NumberFormatException e) {
-        try {
-          return Long.parseLong(numStr);
-        } catch (NumberFormatException e2) {
-          return Double.parseDouble(numStr);
+  /**
+   * Collects an array whose first element is a number into an {@code int[]},
+   * widening to {@code long[]} or {@code double[]} when an element needs it.
+   * Returns the unboxed view once the array ends. If an element is not a
+   * number, or a {@code double} meets a {@code long} that a double cannot hold
+   * exactly, the values so far are returned in an ordinary list, each boxed as
+   * the {@link Integer}, {@link Long} or {@link Double} it was written as, with
+   * that element as the current token, and the caller parses the rest of the
+   * array as usual.
+   */
+  List<Object> readNumbers(JsonReader reader) {
+    int[] ints = new int[16];
+    long[] longs = null;
+    double[] doubles = null;
+    // Kind each element was read as, kept once the array has widened, so a fallback can rebox it
+    byte[] kinds = null;
+    int size = 0;
+
+    JsonToken token = JsonToken.VALUE_NUMBER;
+    while (token == JsonToken.VALUE_NUMBER) {
+      int kind = reader.readNumber();
+      if (doubles != null) {
+        if (kind == JsonReader.NUMBER_LONG && !exactDouble(reader.getLong())) {
+          break;
+        }
+        if (size == doubles.length) {
+          doubles = Arrays.copyOf(doubles, size * 2);
+          kinds = Arrays.copyOf(kinds, size * 2);
+        }
+        kinds[size] = (byte) kind;
+        doubles[size++] = reader.getDouble();
+      } else if (longs != null) {
+        if (kind == JsonReader.NUMBER_DOUBLE) {
+          // Widen the longs read so far and retry this element, unless one of them would lose precision
+          double[] widened = new double[longs.length];
+          for (int i = 0; i < size; i++) {
+            if (!exactDouble(longs[i])) {
+              widened = null;
+              break;
+            }
+            widened[i] = longs[i];
+          }
+          if (widened == null) {
+            break;
+          }
+          doubles = widened;
+          longs = null;
+          continue;
+        }
+        if (size == longs.length) {
+          longs = Arrays.copyOf(longs, size * 2);
+          kinds = Arrays.copyOf(kinds, size * 2);
+        }
+        kinds[size] = (byte) kind;
+        longs[size++] = reader.getLong();
+      } else if (kind == JsonReader.NUMBER_INT) {
+        if (size == ints.length) {
+          ints = Arrays.copyOf(ints, size * 2);
+        }
+        ints[size++] = reader.getInt();
+      } else {
+        // Widen the ints read so far and retry this element
+        kinds = new byte[ints.length];
+        if (kind == JsonReader.NUMBER_LONG) {
+          longs = new long[ints.length];
+          for (int i = 0; i < size; i++) {
+            longs[i] = ints[i];
+          }
+        } else {
+          doubles = new double[ints.length];
+          for (int i = 0; i < size; i++) {
+            doubles[i] = ints[i];
+          }
         }
+        continue;
       }
+      token = reader.nextToken();
     }
-  }
 
-  private Boolean parseBoolean() {
-    if (json.charAt(position) == 't') {
-      if (position + 3 < json.length() &&
-          json.substring(position, position + 4).equals("true")) {
-        position += 4;
-        return Boolean.TRUE;
-      }
-    } else if (json.charAt(position) == 'f') {
-      if (position + 4 < json.length() &&
-          json.substring(position, position + 5).equals("false")) {
-        position += 5;
-        return Boolean.FALSE;
-      }
+    if (token == JsonToken.END_ARRAY) {
+      return doubles != null ? new DoubleArrayList(doubles, size)
+          : longs != null ? new LongArrayList(longs, size)
+          : new IntArrayList(ints, size);
     }
-
-    throw new RuntimeException("Invalid boolean value at position " + position);
+    List<Object> list = new ArrayList<>(size + 8);
+    for (int i = 0; i < size; i++) {
+      list.add(kinds == null ? (Object) ints[i] : rebox(kinds[i], longs, doubles, i));
+    }
+    return list;
   }
 
-  private Object parseNull() {
-    if (position + 3 < json.length() &&
-        json.substring(position, position + 4).equals("null")) {
-      position += 4;
-      return null;
+  /**
+   * Boxes element {@code i} of a widened array of numbers as the
+   * {@link Integer}, {@link Long} or {@link Double} it was read as. Ints and
+   * longs held in {@code doubles} are exact, so they convert back unchanged.
+   */
+  static Object rebox(int kind, long[] longs, double[] doubles, int i) {
+    switch (kind) {
+      case JsonReader.NUMBER_INT:
+        return doubles != null ? (int) doubles[i] : (int) longs[i];
+      case JsonReader.NUMBER_LONG:
+        return doubles != null ? (long) doubles[i] : longs[i];
+      default:
+        return doubles[i];
     }
-
-    throw new RuntimeException("Invalid null value at position " + position);
   }
 
-  private char skipWhitespace() {
-    while (position < json.length()) {
-      char c = json.charAt(position);
-      if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
-        position++;
-      } else {
-        return c;
-      }
-    }
-    return '\0';
+  private static boolean exactDouble(long value) {
+    return value >= -(1L << 53) && value <= 1L << 53;
   }
 }
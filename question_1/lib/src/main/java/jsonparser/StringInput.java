@@ -0,0 +1,195 @@
+package jsonparser;
+
+/**
+ * {@link JsonInput} over an in-memory {@link String}. Leading and trailing
+ * characters that {@link String#trim()} would drop are excluded by bounds
+ * instead of by copying, and positions are reported relative to the first
+ * retained character so they match the trimmed document.
+ */
+final class StringInput extends JsonInput {
+  private String json;
+  private int start;
+  private int end;
+  private int position;
+
+  StringInput() {
+    this("", 0, 0);
+  }
+
+  StringInput(String json) {
+    this(json, 0, json.length());
+  }
+
+  StringInput(String json, int start, int end) {
+    reset(json, start, end);
+  }
+
+  StringInput reset(String json, int start, int end) {
+    while (start < end && json.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && json.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    this.json = json;
+    this.start = start;
+    this.end = end;
+    this.position = start;
+    return this;
+  }
+
+  @Override
+  int peek() {
+    return position < end ? json.charAt(position) : -1;
+  }
+
+  @Override
+  void advance() {
+    position++;
+  }
+
+  @Override
+  long position() {
+    return position - start;
+  }
+
+  /**
+   * Returns the index in the string that position 0 refers to.
+   */
+  int start() {
+    return start;
+  }
+
+  @Override
+  int skipWhitespace() {
+    while (position < end) {
+      char c = json.charAt(position);
+      if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+        position++;
+      } else {
+        return c;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  String readString(StringBuilder sb) {
+    // Most strings have no escapes and are returned as a substring
+    int from = position;
+    while (position < end) {
+      char c = json.charAt(position);
+      if (c == '"') {
+        position++; // Skip the closing '"'
+        return json.substring(from, position - 1);
+      } else if (c == '\\') {
+        return readEscapedString(sb, from);
+      } else if (c < 0x20) {
+        throw controlCharacter(position - start);
+      }
+      position++;
+    }
+
+    throw new RuntimeException("Unterminated string");
+  }
+
+  private String readEscapedString(StringBuilder sb, int runStart) {
+    sb.setLength(0);
+
+    while (position < end) {
+      char c = json.charAt(position);
+      if (c == '"' || c == '\\') {
+        // Copy the run before the quote or escape in one call
+        sb.append(json, runStart, position);
+        position++;
+        if (c == '"') {
+          return sb.toString();
+        }
+        readEscape(sb);
+        runStart = position;
+      } else if (c < 0x20) {
+        throw controlCharacter(position - start);
+      } else {
+        position++;
+      }
+    }
+
+    throw new RuntimeException("Unterminated string");
+  }
+
+  @Override
+  String readKey(StringBuilder sb, SymbolTable keys) {
+    int from = position;
+    int hash = 0;
+    while (position < end) {
+      char c = json.charAt(position);
+      if (c == '"') {
+        position++; // Skip the closing '"'
+        return keys.lookup(json, from, position - 1, hash);
+      } else if (c == '\\' || c < 0x20) {
+        // Escapes are decoded, and control characters rejected, before the lookup
+        position = from;
+        return super.readKey(sb, keys);
+      }
+      hash = 31 * hash + c;
+      position++;
+    }
+
+    throw new RuntimeException("Unterminated string");
+  }
+
+  @Override
+  int matchKey(StringBuilder sb, String[] names) {
+    int from = position;
+    while (position < end) {
+      char c = json.charAt(position);
+      if (c == '"') {
+        position++; // Skip the closing '"'
+        int length = position - 1 - from;
+        for (int i = 0; i < names.length; i++) {
+          if (names[i].length() == length && json.regionMatches(from, names[i], 0, length)) {
+            return i;
+          }
+        }
+        return -1;
+      } else if (c == '\\' || c < 0x20) {
+        position = from;
+        return super.matchKey(sb, names);
+      }
+      position++;
+    }
+
+    throw new RuntimeException("Unterminated string");
+  }
+
+  @Override
+  void skipContainer(Brackets brackets, boolean object, int depth, int maxDepth) {
+    brackets.reset(object, depth, maxDepth);
+    while (position < end) {
+      char c = json.charAt(position++);
+      if (c == '"') {
+        skipString();
+      } else if (c == '{' || c == '[') {
+        brackets.open(c == '{', position - 1 - start);
+      } else if ((c == '}' || c == ']') && brackets.close(c == '}', position - 1 - start)) {
+        return;
+      }
+    }
+
+    throw brackets.unterminated();
+  }
+
+  @Override
+  void skipString() {
+    while (position < end) {
+      char c = json.charAt(position++);
+      if (c == '"') {
+        return;
+      } else if (c == '\\') {
+        position++;
+      }
+    }
+
+    throw new RuntimeException("Unterminated string");
+  }
+}
@@ -0,0 +1,188 @@
+package jsonparser;
+
+import java.util.Arrays;
+
+/**
+ * Stage one of a two-stage parse of UTF-8 bytes, in the spirit of simdjson.
+ * The input is classified 64 bytes at a time into bit masks of quotes,
+ * backslashes, whitespace and operators ({@code {}[]:,}). Escaped quotes are
+ * removed, string interiors are found with a prefix XOR over the quote mask,
+ * and what remains is flattened into the sorted positions the reader has to
+ * stop at: every operator and quote outside a string, and the first byte of
+ * every literal or number.
+ *
+ * <p>Only the classification step touches the bytes. It uses the incubating
+ * Vector API when the {@code jdk.incubator.vector} module is present (run with
+ * {@code --add-modules jdk.incubator.vector}) and a scalar loop with the same
+ * output otherwise; the mask arithmetic is shared.
+ */
+final class StructuralIndex {
+  static final int QUOTES = 0;
+  static final int BACKSLASHES = 1;
+  static final int WHITESPACE = 2;
+  static final int OPERATORS = 3;
+
+  private static final int BLOCK = 64;
+  private static final Classifier DEFAULT = loadClassifier();
+
+  private final Classifier classifier;
+  private final long[] masks = new long[4];
+  private final byte[] tail = new byte[BLOCK];
+  private int[] positions = new int[64];
+  private int count;
+
+  StructuralIndex() {
+    this(DEFAULT);
+  }
+
+  StructuralIndex(Classifier classifier) {
+    this.classifier = classifier;
+  }
+
+  /**
+   * Tells whether blocks are classified with the Vector API.
+   */
+  static boolean vectorized() {
+    return !(DEFAULT instanceof ScalarClassifier);
+  }
+
+  static Classifier defaultClassifier() {
+    return DEFAULT;
+  }
+
+  static Classifier scalarClassifier() {
+    return new ScalarClassifier();
+  }
+
+  /**
+   * Indexes {@code bytes[from, to)}, replacing the previous index. Positions
+   * are array indexes.
+   */
+  StructuralIndex build(byte[] bytes, int from, int to) {
+    count = 0;
+    boolean escapeCarry = false;
+    long inString = 0;
+    long boundaryCarry = 1;
+
+    for (int block = from; block < to; block += BLOCK) {
+      if (to - block >= BLOCK) {
+        classifier.classify(bytes, block, masks);
+      } else {
+        // Pad the last block with whitespace, which never adds a position
+        Arrays.fill(tail, (byte) ' ');
+        System.arraycopy(bytes, block, tail, 0, to - block);
+        classifier.classify(tail, 0, masks);
+      }
+
+      // A backslash escapes the next byte unless it is itself escaped
+      long backslashes = masks[BACKSLASHES];
+      long escaped = 0;
+      if (escapeCarry) {
+        escaped = 1;
+        backslashes &= ~1L;
+      }
+      escapeCarry = false;
+      while (backslashes != 0) {
+        int i = Long.numberOfTrailingZeros(backslashes);
+        if (i == BLOCK - 1) {
+          escapeCarry = true;
+          break;
+        }
+        escaped |= 2L << i;
+        backslashes &= ~(3L << i);
+      }
+
+      long quotes = masks[QUOTES] & ~escaped;
+      long strings = prefixXor(quotes) ^ inString;
+      inString = strings >> 63;
+
+      long boundaries = masks[WHITESPACE] | masks[OPERATORS] | quotes;
+      long scalars = ~boundaries & ~strings & (boundaries << 1 | boundaryCarry);
+      boundaryCarry = boundaries >>> 63;
+
+      long structurals = masks[OPERATORS] & ~strings | quotes | scalars;
+      if (count + Long.bitCount(structurals) > positions.length) {
+        positions = Arrays.copyOf(positions, Math.max(positions.length * 2, count + BLOCK));
+      }
+      while (structurals != 0) {
+        positions[count++] = block + Long.numberOfTrailingZeros(structurals);
+        structurals &= structurals - 1;
+      }
+    }
+    return this;
+  }
+
+  int count() {
+    return count;
+  }
+
+  int[] positions() {
+    return positions;
+  }
+
+  /**
+   * Returns a mask with bit i set when an odd number of bits at or below i
+   * are set: the bytes from an opening quote up to, not including, its
+   * closing quote.
+   */
+  private static long prefixXor(long x) {
+    x ^= x << 1;
+    x ^= x << 2;
+    x ^= x << 4;
+    x ^= x << 8;
+    x ^= x << 16;
+    x ^= x << 32;
+    return x;
+  }
+
+  private static Classifier loadClassifier() {
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+      try {
+        return (Classifier) Class.forName("jsonparser.VectorClassifier").getDeclaredConstructor().newInstance();
+      } catch (ReflectiveOperationException | LinkageError | UnsupportedOperationException e) {
+        // Fall back to the scalar loop
+      }
+    }
+    return new ScalarClassifier();
+  }
+
+  /**
+   * Classifies the 64 bytes at {@code bytes[from]} into the masks at
+   * {@link #QUOTES}, {@link #BACKSLASHES}, {@link #WHITESPACE} and
+   * {@link #OPERATORS}, bit i standing for byte i. Operators are matched
+   * after setting bit 5, which folds '[' and ']' onto '{' and '}'.
+   */
+  abstract static class Classifier {
+    abstract void classify(byte[] bytes, int from, long[] masks);
+  }
+
+  private static final class ScalarClassifier extends Classifier {
+    @Override
+    void classify(byte[] bytes, int from, long[] masks) {
+      long quotes = 0;
+      long backslashes = 0;
+      long whitespace = 0;
+      long operators = 0;
+      for (int i = 0; i < BLOCK; i++) {
+        int c = bytes[from + i];
+        long bit = 1L << i;
+        if (c == '"') {
+          quotes |= bit;
+        } else if (c == '\\') {
+          backslashes |= bit;
+        } else if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+          whitespace |= bit;
+        } else {
+          int folded = c | 0x20;
+          if (folded == '{' || folded == '}' || folded == ':' || folded == ',') {
+            operators |= bit;
+          }
+        }
+      }
+      masks[QUOTES] = quotes;
+      masks[BACKSLASHES] = backslashes;
+      masks[WHITESPACE] = whitespace;
+      masks[OPERATORS] = operators;
+    }
+  }
+}
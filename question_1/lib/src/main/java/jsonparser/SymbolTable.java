@@ -0,0 +1,98 @@
+package jsonparser;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-size cache that canonicalizes object keys, so documents with the same
+ * keys repeated many times return the same {@link String} instance for each
+ * key instead of allocating a new one per occurrence.
+ *
+ * <p>The table is direct-mapped: a key's hash selects exactly one slot, and a
+ * miss overwrites that slot. Memory is therefore bounded by the slot count and
+ * the maximum cached key length no matter what keys the input contains; random
+ * keys from hostile input only evict each other. Lookups hash and compare the
+ * raw characters or bytes, so a hit allocates nothing.
+ *
+ * <p>A table may be shared between threads. Slots hold immutable strings and
+ * every hit is verified against the input, so a racing overwrite can only turn
+ * a hit into a miss.
+ */
+final class SymbolTable {
+  /** The largest power of two an {@code int} can hold. */
+  static final int MAX_CAPACITY = 1 << 30;
+
+  private final String[] slots;
+  private final int mask;
+  private final int maxLength;
+
+  SymbolTable(int size, int maxLength) {
+    int capacity = Integer.highestOneBit(Math.max(size, 2) - 1) << 1;
+    this.slots = new String[capacity];
+    this.mask = capacity - 1;
+    this.maxLength = maxLength;
+  }
+
+  int capacity() {
+    return slots.length;
+  }
+
+  /**
+   * Returns the canonical instance for {@code json[from, to)}. {@code hash} must
+   * be computed like {@link String#hashCode()}.
+   */
+  String lookup(String json, int from, int to, int hash) {
+    int length = to - from;
+    int index = index(hash);
+    String cached = slots[index];
+    if (cached != null && cached.length() == length && cached.regionMatches(0, json, from, length)) {
+      return cached;
+    }
+    return store(index, json.substring(from, to));
+  }
+
+  /**
+   * Returns the canonical instance for the ASCII bytes {@code bytes[from, to)}.
+   * {@code hash} must be computed like {@link String#hashCode()}.
+   */
+  String lookup(byte[] bytes, int from, int to, int hash) {
+    int length = to - from;
+    int index = index(hash);
+    String cached = slots[index];
+    if (cached != null && cached.length() == length && matches(cached, bytes, from)) {
+      return cached;
+    }
+    return store(index, new String(bytes, from, length, StandardCharsets.ISO_8859_1));
+  }
+
+  /**
+   * Returns the canonical instance equal to an already decoded key.
+   */
+  String intern(String key) {
+    int index = index(key.hashCode());
+    String cached = slots[index];
+    if (key.equals(cached)) {
+      return cached;
+    }
+    return store(index, key);
+  }
+
+  private String store(int index, String key) {
+    if (key.length() <= maxLength) {
+      slots[index] = key;
+    }
+    return key;
+  }
+
+  private int index(int hash) {
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  private static boolean matches(String cached, byte[] bytes, int from) {
+    for (int i = 0; i < cached.length(); i++) {
+      if (cached.charAt(i) != bytes[from + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,110 @@
+package jsonparser;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * UTF-8 helpers for the byte-level inputs. Runs are validated before decoding
+ * so malformed input is rejected with a position instead of being replaced
+ * with U+FFFD.
+ */
+final class Utf8 {
+
+  private Utf8() {
+  }
+
+  /**
+   * Decodes {@code bytes[from, to)}. {@code ascii} tells that the run is known
+   * to hold only ASCII bytes, in which case it is copied without decoding.
+   * {@code base} is subtracted from indexes to report positions.
+   */
+  static String decode(byte[] bytes, int from, int to, boolean ascii, long base) {
+    if (ascii) {
+      return new String(bytes, from, to - from, StandardCharsets.ISO_8859_1);
+    }
+    validate(bytes, from, to, base);
+    return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+  }
+
+  static void append(StringBuilder sb, byte[] bytes, int from, int to, boolean ascii, long base) {
+    if (ascii) {
+      for (int i = from; i < to; i++) {
+        sb.append((char) bytes[i]);
+      }
+      return;
+    }
+    validate(bytes, from, to, base);
+    // Decode straight into the builder, the run being well-formed
+    int i = from;
+    while (i < to) {
+      int b = bytes[i];
+      if (b >= 0) {
+        sb.append((char) b);
+        i++;
+      } else if ((b & 0xE0) == 0xC0) {
+        sb.append((char) ((b & 0x1F) << 6 | bytes[i + 1] & 0x3F));
+        i += 2;
+      } else if ((b & 0xF0) == 0xE0) {
+        sb.append((char) ((b & 0x0F) << 12 | (bytes[i + 1] & 0x3F) << 6 | bytes[i + 2] & 0x3F));
+        i += 3;
+      } else {
+        int codePoint = (b & 0x07) << 18 | (bytes[i + 1] & 0x3F) << 12 | (bytes[i + 2] & 0x3F) << 6
+            | bytes[i + 3] & 0x3F;
+        sb.append(Character.highSurrogate(codePoint)).append(Character.lowSurrogate(codePoint));
+        i += 4;
+      }
+    }
+  }
+
+  static void validate(byte[] bytes, int from, int to, long base) {
+    int i = from;
+    while (i < to) {
+      int b = bytes[i];
+      if (b >= 0) {
+        i++;
+        continue;
+      }
+      b &= 0xFF;
+
+      int length;
+      int min = 0x80;
+      int max = 0xBF;
+      if (b >= 0xC2 && b <= 0xDF) {
+        length = 2;
+      } else if (b >= 0xE0 && b <= 0xEF) {
+        length = 3;
+        if (b == 0xE0) {
+          min = 0xA0; // Overlong encoding
+        } else if (b == 0xED) {
+          max = 0x9F; // UTF-16 surrogates
+        }
+      } else if (b >= 0xF0 && b <= 0xF4) {
+        length = 4;
+        if (b == 0xF0) {
+          min = 0x90; // Overlong encoding
+        } else if (b == 0xF4) {
+          max = 0x8F; // Above U+10FFFF
+        }
+      } else {
+        throw invalid(i, base);
+      }
+
+      if (i + length > to) {
+        throw invalid(i, base);
+      }
+      int b1 = bytes[i + 1] & 0xFF;
+      if (b1 < min || b1 > max) {
+        throw invalid(i, base);
+      }
+      for (int k = 2; k < length; k++) {
+        if ((bytes[i + k] & 0xC0) != 0x80) {
+          throw invalid(i, base);
+        }
+      }
+      i += length;
+    }
+  }
+
+  private static RuntimeException invalid(int index, long base) {
+    return new RuntimeException("Invalid UTF-8 sequence at position " + (index - base));
+  }
+}
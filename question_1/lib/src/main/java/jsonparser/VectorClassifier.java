@@ -0,0 +1,50 @@
+package jsonparser;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link StructuralIndex.Classifier} built on the incubating Vector API. Each
+ * 64-byte block is loaded as one or more vectors of the widest species the
+ * CPU supports, and every lane comparison becomes a bit of the block's masks.
+ * Only loaded reflectively, so the rest of the parser runs without the
+ * {@code jdk.incubator.vector} module.
+ */
+final class VectorClassifier extends StructuralIndex.Classifier {
+  private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+  VectorClassifier() {
+    if (SPECIES.vectorBitSize() < 128) {
+      throw new UnsupportedOperationException("No SIMD support for " + SPECIES);
+    }
+  }
+
+  @Override
+  void classify(byte[] bytes, int from, long[] masks) {
+    long quotes = 0;
+    long backslashes = 0;
+    long whitespace = 0;
+    long operators = 0;
+    for (int i = 0; i < 64; i += SPECIES.length()) {
+      ByteVector v = ByteVector.fromArray(SPECIES, bytes, from + i);
+      quotes |= v.eq((byte) '"').toLong() << i;
+      backslashes |= v.eq((byte) '\\').toLong() << i;
+      VectorMask<Byte> space = v.eq((byte) ' ')
+          .or(v.eq((byte) '\t'))
+          .or(v.eq((byte) '\n'))
+          .or(v.eq((byte) '\r'));
+      whitespace |= space.toLong() << i;
+      ByteVector folded = v.or((byte) 0x20);
+      VectorMask<Byte> operator = folded.eq((byte) '{')
+          .or(folded.eq((byte) '}'))
+          .or(folded.eq((byte) ':'))
+          .or(folded.eq((byte) ','));
+      operators |= operator.toLong() << i;
+    }
+    masks[StructuralIndex.QUOTES] = quotes;
+    masks[StructuralIndex.BACKSLASHES] = backslashes;
+    masks[StructuralIndex.WHITESPACE] = whitespace;
+    masks[StructuralIndex.OPERATORS] = operators;
+  }
+}
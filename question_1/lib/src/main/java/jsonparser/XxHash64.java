@@ -0,0 +1,86 @@
+package jsonparser;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * The 64-bit xxHash of a byte range, reading eight bytes at a time. The
+ * result matches the reference {@code XXH64} implementation, so hashes can be
+ * compared with those computed elsewhere.
+ */
+final class XxHash64 {
+  private static final long PRIME1 = 0x9E3779B185EBCA87L;
+  private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+  private static final long PRIME3 = 0x165667B19E3779F9L;
+  private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+  private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+  private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+  private static final VarHandle INTS = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+  private XxHash64() {
+  }
+
+  static long hash(byte[] bytes, int offset, int length, long seed) {
+    int end = offset + length;
+    int i = offset;
+    long hash;
+    if (length >= 32) {
+      // Four independent lanes over 32-byte stripes
+      long v1 = seed + PRIME1 + PRIME2;
+      long v2 = seed + PRIME2;
+      long v3 = seed;
+      long v4 = seed - PRIME1;
+      int limit = end - 32;
+      do {
+        v1 = round(v1, (long) LONGS.get(bytes, i));
+        v2 = round(v2, (long) LONGS.get(bytes, i + 8));
+        v3 = round(v3, (long) LONGS.get(bytes, i + 16));
+        v4 = round(v4, (long) LONGS.get(bytes, i + 24));
+        i += 32;
+      } while (i <= limit);
+      hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+      hash = merge(hash, v1);
+      hash = merge(hash, v2);
+      hash = merge(hash, v3);
+      hash = merge(hash, v4);
+    } else {
+      hash = seed + PRIME5;
+    }
+    hash += length;
+
+    // The remaining 0 to 31 bytes
+    for (; i + 8 <= end; i += 8) {
+      hash ^= round(0, (long) LONGS.get(bytes, i));
+      hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+    }
+    if (i + 4 <= end) {
+      hash ^= ((int) INTS.get(bytes, i) & 0xFFFFFFFFL) * PRIME1;
+      hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+      i += 4;
+    }
+    for (; i < end; i++) {
+      hash ^= (bytes[i] & 0xFF) * PRIME5;
+      hash = Long.rotateLeft(hash, 11) * PRIME1;
+    }
+
+    hash ^= hash >>> 33;
+    hash *= PRIME2;
+    hash ^= hash >>> 29;
+    hash *= PRIME3;
+    hash ^= hash >>> 32;
+    return hash;
+  }
+
+  private static long round(long accumulator, long input) {
+    accumulator += input * PRIME2;
+    accumulator = Long.rotateLeft(accumulator, 31);
+    return accumulator * PRIME1;
+  }
+
+  private static long merge(long hash, long lane) {
+    hash ^= round(0, lane);
+    return hash * PRIME1 + PRIME4;
+  }
+}
@@ -0,0 +1,196 @@
+package jsonparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinderTest {
+
+  enum Role { ADMIN, USER }
+
+  record Address(String city, int zip) {}
+
+  record User(String name, int age, long id, double score, float ratio, boolean active, Integer rank,
+      Role role, Address address, List<String> tags, Map<String, Integer> counts, int[] points, Object extra) {}
+
+  record Node(String name, List<Node> children) {}
+
+  static class Base {
+    private long created;
+  }
+
+  static class Account extends Base {
+    private String owner;
+    private double balance;
+    private boolean open;
+    private transient int ignored = -1;
+    private List<Address> addresses;
+    private int setterCalls;
+
+    public void setOwner(String owner) {
+      this.owner = owner;
+      setterCalls++;
+    }
+  }
+
+  record Sizes(int i, short s, byte b, char c, long l, Integer boxed) {}
+
+  record Letters(char initial, Character grade, List<Character> marks) {}
+
+  static class Signature {
+    private char separator;
+    private Character quote;
+  }
+
+  static class NoDefaultConstructor {
+    NoDefaultConstructor(int x) {
+    }
+  }
+
+  private static final String USER = "{\"name\": \"Ann\", \"age\": 31, \"id\": 9223372036854775807, \"score\": 9.5, "
+      + "\"ratio\": 0.25, \"active\": true, \"rank\": null, \"role\": \"ADMIN\", "
+      + "\"address\": {\"city\": \"Oslo\", \"zip\": 150, \"unknown\": [1, {\"a\": 2}]}, "
+      + "\"tags\": [\"a\", \"b\"], \"counts\": {\"x\": 1}, \"points\": [1, 2, 3], \"extra\": {\"k\": [true]}, "
+      + "\"ignored\": {\"deep\": [[]]}}";
+
+  private final RecursiveJsonParser parser = new RecursiveJsonParser();
+
+  @Test
+  @DisplayName("Bind a record with primitive, nested and collection components")
+  void testRecord() {
+    User user = parser.parse(USER, User.class);
+
+    assertThat(user.name()).isEqualTo("Ann");
+    assertThat(user.age()).isEqualTo(31);
+    assertThat(user.id()).isEqualTo(Long.MAX_VALUE);
+    assertThat(user.score()).isEqualTo(9.5);
+    assertThat(user.ratio()).isEqualTo(0.25f);
+    assertTrue(user.active());
+    assertNull(user.rank());
+    assertThat(user.role()).isEqualTo(Role.ADMIN);
+    assertThat(user.address()).isEqualTo(new Address("Oslo", 150));
+    assertThat(user.tags()).isEqualTo(List.of("a", "b"));
+    assertThat(user.counts()).isEqualTo(Map.of("x", 1));
+    assertArrayEquals(new int[] {1, 2, 3}, user.points());
+    assertThat(user.extra()).isEqualTo(Map.of("k", List.of(true)));
+  }
+
+  @Test
+  @DisplayName("Missing properties and nulls keep default values")
+  void testDefaults() {
+    User user = parser.parse("{\"age\": null, \"tags\": null}", User.class);
+
+    assertNull(user.name());
+    assertThat(user.age()).isEqualTo(0);
+    assertFalse(user.active());
+    assertNull(user.tags());
+    assertNull(parser.parse("null", User.class));
+  }
+
+  @Test
+  @DisplayName("Bind a POJO through setters and private fields")
+  void testPojo() {
+    Account account = parser.parse("{\"owner\": \"Bob\", \"balance\": 12, \"open\": true, \"created\": 1700000000000, "
+        + "\"ignored\": 5, \"addresses\": [{\"city\": \"Rome\", \"zip\": 1}]}", Account.class);
+
+    assertThat(account.owner).isEqualTo("Bob");
+    assertThat(account.setterCalls).isEqualTo(1);
+    assertThat(account.balance).isEqualTo(12.0);
+    assertTrue(account.open);
+    assertThat(((Base) account).created).isEqualTo(1700000000000L);
+    assertThat(account.ignored).isEqualTo(-1);
+    assertThat(account.addresses).isEqualTo(List.of(new Address("Rome", 1)));
+  }
+
+  @Test
+  @DisplayName("Self-referencing types, scalars and arrays at the root")
+  void testRootTypes() {
+    Node tree = parser.parse("{\"name\": \"root\", \"children\": [{\"name\": \"leaf\", \"children\": []}]}", Node.class);
+
+    assertThat(tree).isEqualTo(new Node("root", List.of(new Node("leaf", List.of()))));
+    assertThat(parser.parse("\"text\"", String.class)).isEqualTo("text");
+    assertThat(parser.parse("42", Integer.class)).isEqualTo(42);
+    assertArrayEquals(new long[] {1, 2}, parser.parse("[1, 2]", long[].class));
+    assertArrayEquals(new Address[] {new Address("A", 1)}, parser.parse("[{\"city\": \"A\", \"zip\": 1}]", Address[].class));
+  }
+
+  @Test
+  @DisplayName("Bytes and the shared facade bind like String input")
+  void testInputKinds() {
+    User expected = parser.parse(USER, User.class);
+    byte[] bytes = USER.getBytes(StandardCharsets.UTF_8);
+
+    assertThat(parser.parse(bytes, User.class).address()).isEqualTo(expected.address());
+    assertThat(JsonParsers.shared().parse(USER, User.class).tags()).isEqualTo(expected.tags());
+    assertThat(JsonParsers.shared().parse(bytes, User.class).id()).isEqualTo(expected.id());
+  }
+
+  @Test
+  @DisplayName("Invalid JSON - Type mismatches and malformed documents")
+  void testErrors() {
+    Exception exception = assertThrows(RuntimeException.class, () -> parser.parse("{\"age\": \"old\"}", User.class));
+    assertThat(exception.getMessage()).startsWith("Cannot bind VALUE_STRING to int at position");
+
+    exception = assertThrows(RuntimeException.class, () -> parser.parse("{\"role\": \"GUEST\"}", User.class));
+    assertThat(exception.getMessage()).startsWith("Unknown ");
+
+    exception = assertThrows(RuntimeException.class, () -> parser.parse("{\"name\": \"x\",}", User.class));
+    assertThat(exception.getMessage()).isEqualTo("Trailing comma not allowed at position 12");
+
+    exception = assertThrows(RuntimeException.class, () -> parser.parse("{} []", User.class));
+    assertThat(exception.getMessage()).isEqualTo("Unexpected content after JSON at position 3");
+
+    assertThrows(IllegalArgumentException.class, () -> parser.parse("{}", NoDefaultConstructor.class));
+  }
+
+  @Test
+  @DisplayName("Integral properties accept whole numbers within their type's range")
+  void testIntegralRanges() {
+    Sizes sizes = parser.parse("{\"i\": -2147483648, \"s\": 32767, \"b\": -128, \"c\": \"\\uffff\", "
+        + "\"l\": -9223372036854775808, \"boxed\": 2.0}", Sizes.class);
+    assertThat(sizes).isEqualTo(new Sizes(Integer.MIN_VALUE, Short.MAX_VALUE, Byte.MIN_VALUE, Character.MAX_VALUE,
+        Long.MIN_VALUE, 2));
+    assertThat(parser.parse("{\"i\": 1e3}", Sizes.class).i()).isEqualTo(1000);
+    // Checked against the text, not the double these round to
+    assertThat(parser.parse("{\"l\": 9007199254740993.0}", Sizes.class).l()).isEqualTo(9007199254740993L);
+    assertThat(parser.parse("{\"l\": 9223372036854775807.0}", Sizes.class).l()).isEqualTo(Long.MAX_VALUE);
+
+    for (String json : List.of("{\"i\": 3000000000}", "{\"i\": 1.9}", "{\"s\": 32768}", "{\"b\": 300}",
+        "{\"c\": -1}", "{\"l\": 1e30}", "{\"l\": 9223372036854775808}",
+        "{\"l\": -9223372036854775809}", "{\"boxed\": 0.5}")) {
+      Exception exception = assertThrows(RuntimeException.class, () -> parser.parse(json, Sizes.class));
+      assertThat(exception.getMessage()).startsWith("Cannot bind VALUE_NUMBER to ");
+    }
+    assertThrows(RuntimeException.class, () -> parser.parse("[1, 2.5]", int[].class));
+    assertThrows(RuntimeException.class, () -> parser.parse("1e19", Long.class));
+    assertThrows(RuntimeException.class, () -> parser.parse("{\"owner\": \"x\", \"created\": 0.1}", Account.class));
+  }
+
+  @Test
+  @DisplayName("Chars bind from the one-character strings JsonWriter writes")
+  void testCharRoundTrip() {
+    Letters letters = new Letters('A', '\u00e9', List.of('x', '"'));
+    assertThat(parser.parse(JsonWriter.toJson(letters), Letters.class)).isEqualTo(letters);
+
+    Signature signature = new Signature();
+    signature.separator = ';';
+    signature.quote = '\'';
+    Signature copy = parser.parse(JsonWriter.toJson(signature), Signature.class);
+    assertThat(copy.separator).isEqualTo(';');
+    assertThat(copy.quote).isEqualTo('\'');
+
+    assertThat(parser.parse("\"z\"", char.class)).isEqualTo('z');
+    assertThat(parser.parse("\"z\"", Character.class)).isEqualTo('z');
+    assertThat(parser.parse("{\"initial\": null}", Letters.class).initial()).isEqualTo('\0');
+    for (String json : List.of("65", "\"\"", "\"ab\"")) {
+      Exception exception = assertThrows(RuntimeException.class, () -> parser.parse(json, char.class));
+      assertThat(exception.getMessage()).startsWith("Cannot bind ");
+    }
+  }
+}
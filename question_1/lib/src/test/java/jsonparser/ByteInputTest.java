@@ -0,0 +1,132 @@
+package jsonparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ByteInputTest {
+
+  private static final String DOCUMENT = "{\n" +
+      "  \"name\": \"Test\",\n" +
+      "  \"escaped\": \"Quotes\\\"，Backslash\\\\，Tab\\t\\u4F60\\u597D\",\n" +
+      "  \"city\": \"台北 😀\",\n" +
+      "  \"scores\": [85, -90.5, 1.5e3, 9223372036854775807],\n" +
+      "  \"flags\": [true, false, null],\n" +
+      "  \"nested\": {\"a\": {\"b\": []}}\n" +
+      "}";
+
+  private final RecursiveJsonParser parser = new RecursiveJsonParser();
+
+  private static byte[] utf8(String json) {
+    return json.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static ByteBuffer direct(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes).flip();
+    return buffer;
+  }
+
+  @Test
+  @DisplayName("Byte array input matches String input")
+  void testByteArray() {
+    Object expected = parser.parse(DOCUMENT);
+
+    assertThat(parser.parse(utf8(DOCUMENT))).isEqualTo(expected);
+  }
+
+  @Test
+  @DisplayName("Byte array slice")
+  void testByteArraySlice() {
+    byte[] bytes = utf8("xx[1, \"two\"]yy");
+
+    Object result = parser.parse(bytes, 2, bytes.length - 4);
+
+    assertThat((List<Object>) result).containsExactly(1, "two");
+  }
+
+  @Test
+  @DisplayName("Heap and direct ByteBuffer input")
+  void testByteBuffer() {
+    Object expected = parser.parse(DOCUMENT);
+    byte[] bytes = utf8(DOCUMENT);
+
+    ByteBuffer heap = ByteBuffer.wrap(bytes);
+    assertThat(parser.parse(heap)).isEqualTo(expected);
+    assertThat(heap.position()).isEqualTo(0);
+
+    ByteBuffer buffer = direct(bytes);
+    assertThat(parser.parse(buffer)).isEqualTo(expected);
+    assertThat(buffer.position()).isEqualTo(0);
+  }
+
+  @Test
+  @DisplayName("Direct ByteBuffer slice")
+  void testDirectSlice() {
+    ByteBuffer buffer = direct(utf8("xx{\"k\": \"v\\n\"}yy"));
+    buffer.position(2).limit(buffer.limit() - 2);
+
+    Object result = parser.parse(buffer);
+
+    assertThat((Map<String, Object>) result).containsEntry("k", "v\n");
+  }
+
+  @Test
+  @DisplayName("Unread values are skipped without decoding")
+  void testUnreadValuesSkipped() {
+    // The first value is invalid UTF-8 but is never asked for
+    byte[] bytes = {'[', '"', (byte) 0xFF, '"', ',', '"', 'o', 'k', '"', ']'};
+    JsonReader reader = new JsonReader(bytes);
+
+    assertThat(reader.nextToken()).isEqualTo(JsonToken.START_ARRAY);
+    assertThat(reader.nextToken()).isEqualTo(JsonToken.VALUE_STRING);
+    assertThat(reader.nextToken()).isEqualTo(JsonToken.VALUE_STRING);
+    assertThat(reader.getString()).isEqualTo("ok");
+    assertThat(reader.nextToken()).isEqualTo(JsonToken.END_ARRAY);
+  }
+
+  @Test
+  @DisplayName("Invalid JSON - Errors match String input")
+  void testErrors() {
+    String[] invalid = {
+        "{\"key\": \"value\"",
+        "{key: \"value\"}",
+        "{\"key\": tru}",
+        "{\"key\": \"value\",}",
+        "{\"key\" \"value\"}",
+        "{\"key\": \"value}",
+        "{\"key\": \"value\"} extra",
+        "[1, , 3]"
+    };
+
+    for (String json : invalid) {
+      Exception expected = assertThrows(RuntimeException.class, () -> parser.parse(json));
+      Exception actual = assertThrows(RuntimeException.class, () -> parser.parse(utf8(json)));
+      assertThat(actual.getMessage()).isEqualTo(expected.getMessage());
+      actual = assertThrows(RuntimeException.class, () -> parser.parse(direct(utf8(json))));
+      assertThat(actual.getMessage()).isEqualTo(expected.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Invalid JSON - Malformed UTF-8")
+  void testMalformedUtf8() {
+    byte[] truncated = {'[', '"', 'a', (byte) 0xE4, (byte) 0xBD, '"', ']'};
+    byte[] overlong = {'[', '"', (byte) 0xC0, (byte) 0xAF, '"', ']'};
+    byte[] escaped = {'[', '"', '\\', 'n', (byte) 0xFF, '"', ']'};
+
+    Exception exception = assertThrows(RuntimeException.class, () -> parser.parse(truncated));
+    assertThat(exception.getMessage()).isEqualTo("Invalid UTF-8 sequence at position 3");
+    exception = assertThrows(RuntimeException.class, () -> parser.parse(direct(overlong)));
+    assertThat(exception.getMessage()).isEqualTo("Invalid UTF-8 sequence at position 2");
+    exception = assertThrows(RuntimeException.class, () -> parser.parse(escaped));
+    assertThat(exception.getMessage()).isEqualTo("Invalid UTF-8 sequence at position 4");
+  }
+}
@@ -0,0 +1,117 @@
+package jsonparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IterativeJsonParserTest {
+
+  private final RecursiveJsonParser recursive = new RecursiveJsonParser();
+  private final IterativeJsonParser iterative = new IterativeJsonParser();
+
+  private static String nested(int depth) {
+    return "[".repeat(depth) + "]".repeat(depth);
+  }
+
+  @Test
+  @DisplayName("Builds the same trees as RecursiveJsonParser")
+  void testSameTrees() {
+    String[] documents = {
+        "{\"name\": \"Test\", \"age\": 25, \"tags\": [\"a\", [], {}, [1, [2, {\"x\": null}]]], \"ok\": true}",
+        "[[[[[[\"Deeply nested\"]]]]], {\"a\": {\"b\": {\"c\": {\"d\": {\"e\": \"Deeply nested\"}}}}}]",
+        "{\"a\": 1, \"a\": 2}",
+        "[{}, [], {\"k\": []}, [{}]]",
+        "\"scalar\"",
+        "-1.5e3",
+        "null",
+    };
+
+    for (String json : documents) {
+      assertThat(iterative.parse(json)).isEqualTo(recursive.parse(json));
+      assertThat(iterative.parse(json.getBytes(StandardCharsets.UTF_8))).isEqualTo(recursive.parse(json));
+    }
+  }
+
+  @Test
+  @DisplayName("Reports the same errors as RecursiveJsonParser")
+  void testSameErrors() {
+    String[] invalid = {"", "[1, 2", "{\"a\": }", "{\"a\" 1}", "[1,]", "{\"a\": [}", "[[]] x", "[\"open"};
+
+    for (String json : invalid) {
+      RuntimeException expected = assertThrows(RuntimeException.class, () -> recursive.parse(json));
+      RuntimeException actual = assertThrows(RuntimeException.class, () -> iterative.parse(json));
+      assertThat(actual.getMessage()).isEqualTo(expected.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Nesting far beyond the call stack's reach parses without recursion")
+  void testDeepNesting() {
+    IterativeJsonParser unlimited = new IterativeJsonParser(
+        ParserOptions.builder().withMaxDepth(Integer.MAX_VALUE).build());
+
+    Object result = unlimited.parse("{\"a\": " + nested(200000) + "}");
+
+    Object level = ((Map<?, ?>) result).get("a");
+    for (int i = 1; i < 200000; i++) {
+      level = ((List<?>) level).get(0);
+    }
+    assertThat((List<?>) level).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Exceeding the max depth fails at the offending container")
+  void testMaxDepth() {
+    ParserOptions options = ParserOptions.builder().withMaxDepth(3).build();
+    IterativeJsonParser limited = new IterativeJsonParser(options);
+
+    assertThat(limited.parse("[[[1]]]")).isEqualTo(List.of(List.of(List.of(1))));
+    RuntimeException e = assertThrows(RuntimeException.class, () -> limited.parse("[[{\"a\": [1]}]]"));
+    assertThat(e.getMessage()).isEqualTo("Maximum nesting depth of 3 exceeded at position 8");
+    RuntimeException recursiveError = assertThrows(RuntimeException.class,
+        () -> new RecursiveJsonParser(options).parse("[[{\"a\": [1]}]]"));
+    assertThat(recursiveError.getMessage()).isEqualTo(e.getMessage());
+  }
+
+  @Test
+  @DisplayName("The default max depth is 1000")
+  void testDefaultMaxDepth() {
+    assertThat(iterative.parse(nested(1000))).isInstanceOf(List.class);
+    RuntimeException e = assertThrows(RuntimeException.class, () -> iterative.parse(nested(1001)));
+    assertThat(e.getMessage()).isEqualTo("Maximum nesting depth of 1000 exceeded at position 1000");
+    assertThrows(IllegalArgumentException.class, () -> ParserOptions.builder().withMaxDepth(0));
+  }
+
+  @Test
+  @DisplayName("Numeric arrays are specialized at any depth")
+  void testPrimitiveArrays() {
+    IterativeJsonParser parser = new IterativeJsonParser(ParserOptions.builder().withPrimitiveArrays(true).build());
+    RecursiveJsonParser reference = new RecursiveJsonParser(ParserOptions.builder().withPrimitiveArrays(true).build());
+    String json = "{\"v\": [1, 2, 3], \"m\": [[0.5, 1], [1, \"x\", [2]], [1, 3000000000]]}";
+
+    Object result = parser.parse(json);
+
+    assertThat(result).isEqualTo(reference.parse(json));
+    Map<?, ?> map = (Map<?, ?>) result;
+    assertThat(map.get("v")).isInstanceOf(IntArrayList.class);
+    assertThat(((List<?>) map.get("m")).get(0)).isInstanceOf(DoubleArrayList.class);
+    assertThat(((List<?>) map.get("m")).get(2)).isInstanceOf(LongArrayList.class);
+  }
+
+  @Test
+  @DisplayName("Object properties of bound records are built iteratively")
+  void testBinding() {
+    record Holder(String name, Object payload) {}
+
+    Holder holder = iterative.parse("{\"name\": \"n\", \"payload\": " + nested(900) + "}", Holder.class);
+
+    assertThat(holder.name()).isEqualTo("n");
+    assertThat(holder.payload()).isInstanceOf(List.class);
+  }
+}
@@ -0,0 +1,147 @@
+package jsonparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonDocumentTest {
+
+  private final RecursiveJsonParser parser = new RecursiveJsonParser();
+
+  private static final String SAMPLE = "  {\"name\": \"Test\", \"age\": 25, \"big\": 3000000000, \"pi\": 3.14,"
+      + " \"ok\": true, \"no\": false, \"none\": null, \"tags\": [\"a\", [], {}, -1],"
+      + " \"nested\": {\"deep\": {\"x\": [1, 2, 3]}}}  ";
+
+  @Test
+  @DisplayName("Navigates objects and arrays by key and index")
+  void testNavigation() {
+    JsonValue root = JsonDocument.parse(SAMPLE).root();
+
+    assertThat(root.getType()).isEqualTo(JsonValue.Type.OBJECT);
+    assertThat(root.size()).isEqualTo(9);
+    assertThat(root.get("name").asString()).isEqualTo("Test");
+    assertThat(root.get("age").asInt()).isEqualTo(25);
+    assertThat(root.get("big").asLong()).isEqualTo(3000000000L);
+    assertThat(root.get("pi").asDouble()).isEqualTo(3.14);
+    assertTrue(root.get("ok").asBoolean());
+    assertFalse(root.get("no").asBoolean());
+    assertTrue(root.get("none").isNull());
+    assertNull(root.get("missing"));
+    assertFalse(root.has("missing"));
+    assertThat(root.get("tags").size()).isEqualTo(4);
+    assertThat(root.get("tags").get(0).asString()).isEqualTo("a");
+    assertThat(root.get("tags").get(1).size()).isEqualTo(0);
+    assertThat(root.get("tags").get(3).asLong()).isEqualTo(-1L);
+    assertThat(root.get("nested").get("deep").get("x").get(2).asInt()).isEqualTo(3);
+    assertThat(root.keys()).containsExactly("name", "age", "big", "pi", "ok", "no", "none", "tags", "nested");
+  }
+
+  @Test
+  @DisplayName("toObject() builds the same tree as RecursiveJsonParser")
+  void testToObject() {
+    String[] documents = {
+        SAMPLE,
+        "[]",
+        "\"plain\"",
+        "-12.5e3",
+        "[1, 2147483648, -9223372036854775808, 1e400, 0.1]",
+        "{\"a\\nb\": \"c\\u0041\\\"\", \"é\": [\"€\"]}",
+    };
+
+    for (String json : documents) {
+      Object expected = parser.parse(json);
+      assertThat(JsonDocument.parse(json).root().toObject()).isEqualTo(expected);
+      assertThat(JsonDocument.parse(json.getBytes(StandardCharsets.UTF_8)).root().toObject()).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  @DisplayName("Keys and strings with escapes or non-ASCII characters are matched and decoded")
+  void testEscapedAndUnicodeStrings() {
+    String json = "{\"a\\\"b\": 1, \"café\": \"über\", \"tab\": \"x\\ty\"}";
+
+    for (JsonDocument document : List.of(JsonDocument.parse(json),
+        JsonDocument.parse(json.getBytes(StandardCharsets.UTF_8)))) {
+      JsonValue root = document.root();
+      assertThat(root.get("a\"b").asInt()).isEqualTo(1);
+      assertThat(root.get("café").asString()).isEqualTo("über");
+      assertThat(root.get("tab").asString()).isEqualTo("x\ty");
+      assertNull(root.get("a\\\"b"));
+      assertNull(root.get("cafe"));
+    }
+  }
+
+  @Test
+  @DisplayName("Repeated keys resolve to the last value, like toObject()")
+  void testDuplicateKeys() {
+    String json = "{\"a\": 1, \"b\": true, \"a\": 2}";
+    JsonValue root = JsonDocument.parse(json).root();
+
+    assertThat(root.get("a").asInt()).isEqualTo(2);
+    assertThat(((Map<?, ?>) root.toObject()).get("a")).isEqualTo(2);
+    assertThat(root.toObject()).isEqualTo(parser.parse(json));
+  }
+
+  @Test
+  @DisplayName("Byte ranges are parsed in place")
+  void testByteRange() {
+    byte[] bytes = "xx{\"k\": \"v\"}yy".getBytes(StandardCharsets.UTF_8);
+
+    JsonValue root = JsonDocument.parse(bytes, 2, 10).root();
+
+    assertThat(root.get("k").asString()).isEqualTo("v");
+  }
+
+  @Test
+  @DisplayName("The tape takes one or two words per value")
+  void testTapeLength() {
+    JsonDocument document = JsonDocument.parse("{\"a\": [1, 3000000000, 2.5, \"s\", true, null]}");
+
+    // { key [ 1 long(2) double(2) string(2) true null ] }
+    assertThat(document.tapeLength()).isEqualTo(15);
+  }
+
+  @Test
+  @DisplayName("Elements are listed in order and out-of-range indexes are rejected")
+  void testElements() {
+    JsonValue array = JsonDocument.parse("[10, [20], {\"x\": 30}]").root();
+
+    assertThat(array.elements()).hasSize(3);
+    assertThat(array.elements().get(2).get("x").asInt()).isEqualTo(30);
+    assertThrows(IndexOutOfBoundsException.class, () -> array.get(3));
+    assertThrows(IndexOutOfBoundsException.class, () -> array.get(-1));
+  }
+
+  @Test
+  @DisplayName("Accessors reject values of another type")
+  void testTypeMismatch() {
+    JsonValue root = JsonDocument.parse("{\"s\": \"text\", \"n\": 1}").root();
+
+    assertThrows(IllegalStateException.class, () -> root.get(0));
+    assertThrows(IllegalStateException.class, () -> root.get("s").asLong());
+    assertThrows(IllegalStateException.class, () -> root.get("n").asString());
+    assertThrows(IllegalStateException.class, () -> root.get("n").get("x"));
+    assertThrows(IllegalStateException.class, () -> root.get("s").size());
+  }
+
+  @Test
+  @DisplayName("Invalid documents fail with the same errors as the tree parser")
+  void testInvalidDocuments() {
+    String[] invalid = {"", "{\"a\": }", "[1, 2", "{\"a\" 1}", "\"open", "[1] 2", "{\"a\\u00"};
+
+    for (String json : invalid) {
+      RuntimeException expected = assertThrows(RuntimeException.class, () -> parser.parse(json));
+      RuntimeException actual = assertThrows(RuntimeException.class, () -> JsonDocument.parse(json));
+      assertThat(actual.getMessage()).isEqualTo(expected.getMessage());
+    }
+    RuntimeException badUtf8 = assertThrows(RuntimeException.class,
+        () -> JsonDocument.parse(new byte[] {'[', '"', (byte) 0xC3, '"', ']'}));
+    assertThat(badUtf8.getMessage()).contains("position 2");
+  }
+}
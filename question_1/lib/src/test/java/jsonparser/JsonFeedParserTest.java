@@ -0,0 +1,201 @@
+package jsonparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonFeedParserTest {
+
+  private static final String[] DOCUMENTS = {
+      "{\"name\": \"Test\", \"age\": 25, \"tags\": [\"a\", [], {}, [1, [2, {\"x\": null}]]], \"ok\": true, \"no\": false}",
+      "{\"text\": \"tab\\tquote\\\" slash\\/ \\u00e9\\u20AC end\", \"caf\\u00e9\": \"naïve € 😀\"}",
+      "[0, -0, 12, -7, 2147483648, -9223372036854775808, 12345678901234567890, 1.5, -2.5e-3, 1E+2, 6.02e23]",
+      "[\"\", \"\\\\\", \"\\n\\r\\b\\f\", {\"\": \"\"}]",
+      "  {\n  \"a\" :\t[ 1 , { \"b\" : [ ] } ]\r\n}  ",
+      "\"scalar\"",
+      "true",
+  };
+
+  private static List<Object> feed(byte[] json, int... splits) {
+    List<Object> values = new ArrayList<>();
+    JsonFeedParser parser = new JsonFeedParser(values::add);
+    int from = 0;
+    for (int split : splits) {
+      parser.feed(json, from, split - from);
+      from = split;
+    }
+    parser.feed(json, from, json.length - from);
+    parser.endOfInput();
+    return values;
+  }
+
+  private static RuntimeException feedError(ParserOptions options, byte[] json) {
+    JsonFeedParser parser = new JsonFeedParser(options, value -> { });
+    return assertThrows(RuntimeException.class, () -> {
+      for (byte b : json) {
+        parser.feed(new byte[] {b});
+      }
+      parser.endOfInput();
+    });
+  }
+
+  @Test
+  @DisplayName("Builds the same values as RecursiveJsonParser wherever the input is split")
+  void testSplits() {
+    RecursiveJsonParser parser = new RecursiveJsonParser();
+
+    for (String document : DOCUMENTS) {
+      byte[] json = document.getBytes(StandardCharsets.UTF_8);
+      Object expected = parser.parse(json);
+      for (int split = 0; split <= json.length; split++) {
+        assertThat(feed(json, split)).containsExactly(expected);
+      }
+      int[] everyByte = new int[json.length];
+      for (int i = 0; i < json.length; i++) {
+        everyByte[i] = i;
+      }
+      assertThat(feed(json, everyByte)).containsExactly(expected);
+    }
+  }
+
+  @Test
+  @DisplayName("Hands over each top-level value as soon as it is complete")
+  void testValueStream() {
+    List<Object> values = new ArrayList<>();
+    JsonFeedParser parser = new JsonFeedParser(values::add);
+
+    parser.feed("{\"id\": 1}{\"id\"".getBytes(StandardCharsets.UTF_8));
+    assertThat(values).containsExactly(Map.of("id", 1));
+    parser.feed(": 2}\n[true] 4".getBytes(StandardCharsets.UTF_8));
+    assertThat(values).containsExactly(Map.of("id", 1), Map.of("id", 2), List.of(true));
+    parser.feed("2 \"x".getBytes(StandardCharsets.UTF_8));
+    assertThat(values).hasSize(4);
+    assertThat(values.get(3)).isEqualTo(42);
+    parser.feed("\" 7".getBytes(StandardCharsets.UTF_8));
+    assertThat(values).hasSize(5);
+    parser.endOfInput();
+
+    assertThat(values).containsExactly(Map.of("id", 1), Map.of("id", 2), List.of(true), 42, "x", 7);
+    assertThat(parser.getPosition()).isEqualTo(34L);
+  }
+
+  @Test
+  @DisplayName("Reports tokens with their values without building a tree")
+  void testTokens() {
+    List<String> tokens = new ArrayList<>();
+    JsonFeedParser parser = JsonFeedParser.forTokens((token, value) -> tokens.add(token + "=" + value));
+
+    parser.feed(ByteBuffer.wrap("{\"a\": [1, \"b\", null], \"c\": tr".getBytes(StandardCharsets.UTF_8)));
+    assertThat(parser.getDepth()).isEqualTo(1);
+    ByteBuffer direct = ByteBuffer.allocateDirect(16);
+    direct.put("ue}".getBytes(StandardCharsets.UTF_8)).flip();
+    parser.feed(direct);
+    parser.endOfInput();
+
+    assertThat(direct.hasRemaining()).isFalse();
+    assertThat(tokens).containsExactly("START_OBJECT=null", "FIELD_NAME=a", "START_ARRAY=null", "VALUE_NUMBER=1",
+        "VALUE_STRING=b", "VALUE_NULL=null", "END_ARRAY=null", "FIELD_NAME=c", "VALUE_TRUE=true", "END_OBJECT=null");
+  }
+
+  @Test
+  @DisplayName("Reports the same errors as RecursiveJsonParser")
+  void testSameErrors() {
+    String[] invalid = {"[1, 2", "{\"a\": }", "{\"a\" 1}", "[1,]", "{\"a\": 1,}", "{\"a\": [}", "[\"open", "[tru]",
+        "{\"a\": nul", "{1: 2}", "[1 2]", "{\"a\": \"\\u12", "[-]", "[1.5e]", "{",
+        "[\"\\x\"]", "[\"\\u12G4\"]", "{\"a\tb\": 1}", "[\"ok\", \"\n\"]"};
+    RecursiveJsonParser parser = new RecursiveJsonParser();
+
+    for (String json : invalid) {
+      byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+      RuntimeException expected = assertThrows(RuntimeException.class, () -> parser.parse(bytes));
+      RuntimeException actual = feedError(ParserOptions.defaults(), bytes);
+      assertThat(actual.getClass()).isEqualTo(expected.getClass());
+      assertThat(actual.getMessage()).isEqualTo(expected.getMessage());
+    }
+
+    byte[] malformed = {'[', '"', 'a', (byte) 0xC3, '"', ']'};
+    assertThat(feedError(ParserOptions.defaults(), malformed).getMessage())
+        .isEqualTo("Invalid UTF-8 sequence at position 3");
+    RuntimeException depth = feedError(ParserOptions.builder().withMaxDepth(2).build(),
+        "[[[1]]]".getBytes(StandardCharsets.UTF_8));
+    assertThat(depth.getMessage()).isEqualTo("Maximum nesting depth of 2 exceeded at position 2");
+  }
+
+  @Test
+  @DisplayName("Rejects input after an error or the end of input")
+  void testDone() {
+    JsonFeedParser parser = new JsonFeedParser(value -> { });
+    assertThrows(RuntimeException.class, () -> parser.feed("[1,]".getBytes(StandardCharsets.UTF_8)));
+    assertThrows(IllegalStateException.class, () -> parser.feed(new byte[] {'1'}));
+
+    JsonFeedParser ended = new JsonFeedParser(value -> { });
+    ended.feed("[]".getBytes(StandardCharsets.UTF_8));
+    ended.endOfInput();
+    assertThrows(IllegalStateException.class, () -> ended.feed(new byte[] {' '}));
+    assertThrows(IllegalArgumentException.class, () -> JsonFeedParser.forTokens(null));
+  }
+
+  @Test
+  @DisplayName("Number modes and primitive arrays match the tree parser")
+  void testOptions() {
+    String json = "{\"v\": [1, 2, 3], \"m\": [[0.5, 1], [1, \"x\", [2]], [1, 3000000000], [1, 3000000000, 0.5],"
+        + " [9007199254740993, 0.5], []], \"n\": 1.10}";
+    ParserOptions[] options = {
+        ParserOptions.builder().withPrimitiveArrays(true).build(),
+        ParserOptions.builder().withNumberMode(NumberMode.BIG_DECIMAL).build(),
+        ParserOptions.builder().withNumberMode(NumberMode.LAZY).withPrimitiveArrays(true).build(),
+    };
+
+    for (ParserOptions option : options) {
+      Object expected = new RecursiveJsonParser(option).parse(json);
+      List<Object> values = new ArrayList<>();
+      JsonFeedParser parser = new JsonFeedParser(option, values::add);
+      for (byte b : json.getBytes(StandardCharsets.UTF_8)) {
+        parser.feed(new byte[] {b});
+      }
+      parser.endOfInput();
+
+      assertThat(values).containsExactly(expected);
+    }
+    Object primitive = feedWith(options[0], json);
+    assertThat(((Map<?, ?>) primitive).get("v")).isInstanceOf(IntArrayList.class);
+  }
+
+  @Test
+  @DisplayName("Mixed arrays keep the kind of each number with primitive arrays on")
+  void testMixedArrays() {
+    String json = "[[1, 2.5, \"a\"], [3000000000, 1.5, null], [1, 3000000000, false]]";
+
+    Object result = feedWith(ParserOptions.builder().withPrimitiveArrays(true).build(), json);
+
+    assertThat(result).isEqualTo(new RecursiveJsonParser().parse(json));
+    assertThat((List<?>) ((List<?>) result).get(0)).containsExactly(1, 2.5, "a");
+
+    StringBuilder numbers = new StringBuilder("[");
+    for (int i = 0; i < 100; i++) {
+      numbers.append(i == 40 ? "3000000000" : i == 70 ? "0.5" : Integer.toString(i)).append(", ");
+    }
+    String grown = numbers + "1]";
+    String mixed = numbers + "\"end\"]";
+    ParserOptions primitive = ParserOptions.builder().withPrimitiveArrays(true).build();
+    assertThat(feedWith(primitive, grown)).isInstanceOf(DoubleArrayList.class);
+    assertThat(feedWith(primitive, grown)).isEqualTo(new RecursiveJsonParser(primitive).parse(grown));
+    assertThat(feedWith(primitive, mixed)).isEqualTo(new RecursiveJsonParser().parse(mixed));
+  }
+
+  private static Object feedWith(ParserOptions options, String json) {
+    List<Object> values = new ArrayList<>();
+    JsonFeedParser parser = new JsonFeedParser(options, values::add);
+    parser.feed(json.getBytes(StandardCharsets.UTF_8));
+    parser.endOfInput();
+    return values.get(0);
+  }
+}
@@ -0,0 +1,144 @@
+package jsonparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonLinesParserTest {
+
+  private static String lines(int count) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      sb.append("{\"index\": ").append(i).append(", \"value\": \"Test ").append(i).append("\"}\n");
+    }
+    return sb.toString();
+  }
+
+  private static int index(Object document) {
+    return (Integer) ((Map<String, Object>) document).get("index");
+  }
+
+  @Test
+  @DisplayName("Parse String, byte[] and file input in order")
+  void testOrderedInputs() throws IOException {
+    String input = lines(5000);
+    JsonLinesParser parser = JsonLinesParser.builder().withChunkSize(1000).build();
+
+    Path path = Files.createTempFile("lines", ".ndjson");
+    path.toFile().deleteOnExit();
+    Files.write(path, input.getBytes(StandardCharsets.UTF_8));
+
+    for (List<Object> documents : List.of(
+        parser.parse(input),
+        parser.parse(input.getBytes(StandardCharsets.UTF_8)),
+        parser.parseFile(path))) {
+      assertThat(documents).hasSize(5000);
+      for (int i = 0; i < documents.size(); i++) {
+        assertThat(index(documents.get(i))).isEqualTo(i);
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Unordered output contains every document")
+  void testUnordered() {
+    JsonLinesParser parser = JsonLinesParser.builder()
+        .withChunkSize(500)
+        .withOrdered(false)
+        .build();
+
+    List<Object> documents = parser.parse(lines(3000));
+
+    assertThat(documents).hasSize(3000);
+    boolean[] seen = new boolean[3000];
+    for (Object document : documents) {
+      seen[index(document)] = true;
+    }
+    for (boolean s : seen) {
+      assertTrue(s);
+    }
+  }
+
+  @Test
+  @DisplayName("Virtual threads and custom executor")
+  void testExecutors() {
+    String input = lines(2000);
+    List<Object> expected = JsonLinesParser.builder().build().parse(input);
+
+    assertThat(JsonLinesParser.builder().withVirtualThreads().withChunkSize(300).build().parse(input))
+        .isEqualTo(expected);
+
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      JsonLinesParser parser = JsonLinesParser.builder()
+          .withExecutor(executor)
+          .withChunkSize(300)
+          .withMaxPendingChunks(2)
+          .build();
+      assertThat(parser.parse(input)).isEqualTo(expected);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  @DisplayName("Per-worker statistics")
+  void testStats() {
+    String input = lines(4000);
+    List<Object> documents = new ArrayList<>();
+
+    JsonLinesParser.Stats stats = JsonLinesParser.builder()
+        .withChunkSize(1000)
+        .build()
+        .parse(input, documents::add);
+
+    assertThat(stats.lines()).isEqualTo(4000L);
+    assertThat(stats.bytes()).isEqualTo((long) input.length());
+    assertThat(stats.workers()).isNotEmpty();
+    long lines = 0;
+    long bytes = 0;
+    for (JsonLinesParser.WorkerStats worker : stats.workers().values()) {
+      lines += worker.lines();
+      bytes += worker.bytes();
+      assertThat(worker.chunks()).isGreaterThan(0);
+    }
+    assertThat(lines).isEqualTo(4000L);
+    assertThat(bytes).isEqualTo((long) input.length());
+    assertThat(stats.linesPerSecond()).isGreaterThan(0.0);
+  }
+
+  @Test
+  @DisplayName("Blank lines and CRLF line endings")
+  void testBlankLines() {
+    String input = "{\"a\": 1}\r\n\r\n   \n[2]\r\n\"three\"";
+
+    List<Object> documents = JsonLinesParser.builder().withChunkSize(1).build().parse(input);
+
+    assertThat(documents).hasSize(3);
+    assertThat((Map<String, Object>) documents.get(0)).containsEntry("a", 1);
+    assertThat((List<Object>) documents.get(1)).containsExactly(2);
+    assertThat(documents.get(2)).isEqualTo("three");
+  }
+
+  @Test
+  @DisplayName("Invalid JSON - Error reports the line offset")
+  void testInvalidLine() {
+    String input = "{\"a\": 1}\n{\"b\": }\n{\"c\": 3}\n";
+
+    Exception exception = assertThrows(RuntimeException.class,
+        () -> JsonLinesParser.builder().build().parse(input.getBytes(StandardCharsets.UTF_8)));
+    assertThat(exception.getMessage()).isEqualTo("Invalid JSON in line starting at offset 9: Unexpected character: }");
+  }
+}
@@ -0,0 +1,164 @@
+package jsonparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonParseCacheTest {
+
+  private static final String FLAGS = "{\"checkout\": {\"enabled\": true, \"rollout\": 0.25, \"regions\": [\"eu\", \"us\"]},"
+      + " \"search\": {\"enabled\": false, \"limits\": [10, 20, 30]}, \"version\": 42}";
+
+  @Test
+  @DisplayName("Hashes match the reference XXH64 test vectors")
+  void testXxHash64() {
+    String[] inputs = {"", "a", "abc", "Nobody inspects the spammish repetition"};
+    long[] expected = {0xEF46DB3751D8E999L, 0xD24EC4F1A98C6E5BL, 0x44BC2CF5AD770999L, 0xFBCEA83C8A378BF1L};
+
+    for (int i = 0; i < inputs.length; i++) {
+      byte[] bytes = inputs[i].getBytes(StandardCharsets.UTF_8);
+      assertThat(XxHash64.hash(bytes, 0, bytes.length, 0)).isEqualTo(expected[i]);
+    }
+    byte[] padded = "xxabcxx".getBytes(StandardCharsets.UTF_8);
+    assertThat(XxHash64.hash(padded, 2, 3, 0)).isEqualTo(expected[2]);
+  }
+
+  @Test
+  @DisplayName("Repeated documents return the same tree, whichever form they arrive in")
+  void testHits() {
+    JsonParseCache cache = JsonParseCache.builder().build();
+
+    Object first = cache.parse(FLAGS);
+    Object second = cache.parse(FLAGS.getBytes(StandardCharsets.UTF_8));
+    byte[] framed = ("##" + FLAGS + "##").getBytes(StandardCharsets.UTF_8);
+    Object third = cache.parse(framed, 2, framed.length - 4);
+
+    assertThat(first).isEqualTo(new RecursiveJsonParser().parse(FLAGS));
+    assertThat(second).isSameAs(first);
+    assertThat(third).isSameAs(first);
+    assertThat(cache.parse("{\"version\": 43}")).isNotSameAs(first);
+
+    JsonParseCache.Stats stats = cache.stats();
+    assertThat(stats.hits()).isEqualTo(2L);
+    assertThat(stats.misses()).isEqualTo(2L);
+    assertThat(stats.entries()).isEqualTo(2);
+    assertThat(stats.retainedBytes()).isGreaterThan((long) FLAGS.length());
+    assertThat(stats.hitRate()).isEqualTo(0.5);
+  }
+
+  @Test
+  @DisplayName("Cached trees cannot be modified at any depth")
+  void testImmutable() {
+    JsonParseCache cache = JsonParseCache.builder()
+        .withOptions(ParserOptions.builder().withPrimitiveArrays(true).build())
+        .build();
+
+    Map<String, Object> root = (Map<String, Object>) cache.parse(FLAGS);
+    Map<String, Object> checkout = (Map<String, Object>) root.get("checkout");
+    List<Object> regions = (List<Object>) checkout.get("regions");
+    List<Object> limits = (List<Object>) ((Map<String, Object>) root.get("search")).get("limits");
+
+    assertThrows(UnsupportedOperationException.class, () -> root.put("x", 1));
+    assertThrows(UnsupportedOperationException.class, () -> root.entrySet().iterator().next().setValue(1));
+    assertThrows(UnsupportedOperationException.class, () -> checkout.remove("enabled"));
+    assertThrows(UnsupportedOperationException.class, () -> regions.set(0, "apac"));
+    assertThrows(UnsupportedOperationException.class, () -> limits.add(40));
+    assertThat(limits).isInstanceOf(IntArrayList.class);
+    assertThat(((List<?>) cache.parse("[[1, {\"a\": [2]}]]")).get(0)).isInstanceOf(List.class);
+  }
+
+  @Test
+  @DisplayName("Evicts the least recently used documents beyond the entry and byte bounds")
+  void testEviction() {
+    JsonParseCache cache = JsonParseCache.builder().withMaxEntries(2).build();
+    Object a = cache.parse("[\"a\"]");
+    Object b = cache.parse("[\"b\"]");
+    assertThat(cache.parse("[\"a\"]")).isSameAs(a);
+    cache.parse("[\"c\"]");
+
+    assertThat(cache.stats().evictions()).isEqualTo(1L);
+    assertThat(cache.parse("[\"a\"]")).isSameAs(a);
+    assertThat(cache.parse("[\"b\"]")).isNotSameAs(b);
+
+    JsonParseCache small = JsonParseCache.builder().withMaxBytes(2000).build();
+    for (int i = 0; i < 50; i++) {
+      small.parse("{\"id\": " + i + ", \"name\": \"document " + i + "\"}");
+    }
+    assertThat(small.stats().retainedBytes()).isLessThanOrEqualTo(2000L);
+    assertThat(small.stats().entries()).isBetween(1, 49);
+
+    StringBuilder large = new StringBuilder("[");
+    for (int i = 0; i < 1000; i++) {
+      large.append(i == 0 ? "" : ",").append('"').append(i).append('"');
+    }
+    Object tree = small.parse(large.append(']').toString());
+    assertThat(((List<?>) tree)).hasSize(1000);
+    assertThat(small.parse(large.toString())).isNotSameAs(tree);
+
+    small.clear();
+    assertThat(small.stats().entries()).isZero();
+    assertThat(small.stats().retainedBytes()).isZero();
+  }
+
+  @Test
+  @DisplayName("Invalid documents are reported on every call and never cached")
+  void testErrors() {
+    JsonParseCache cache = JsonParseCache.builder().build();
+
+    for (int i = 0; i < 2; i++) {
+      RuntimeException error = assertThrows(RuntimeException.class, () -> cache.parse("{\"a\": [1,]}"));
+      assertThat(error.getMessage()).isEqualTo("Trailing comma not allowed at position 8");
+    }
+    assertThat(cache.stats().entries()).isZero();
+    assertThat(cache.stats().misses()).isEqualTo(2L);
+    assertThrows(IllegalArgumentException.class, () -> cache.parse((String) null));
+    assertThrows(IllegalArgumentException.class, () -> JsonParseCache.builder().withMaxEntries(0));
+    assertThrows(IllegalArgumentException.class, () -> JsonParseCache.builder().withMaxBytes(-1));
+  }
+
+  @Test
+  @DisplayName("Threads parsing the same documents share the cached trees")
+  void testConcurrentParsing() throws Exception {
+    JsonParseCache cache = JsonParseCache.builder().withMaxEntries(4).build();
+    String[] documents = new String[8];
+    Object[] expected = new Object[documents.length];
+    for (int i = 0; i < documents.length; i++) {
+      documents[i] = FLAGS.replace("42", Integer.toString(i));
+      expected[i] = new RecursiveJsonParser().parse(documents[i]);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        results.add(executor.submit(() -> {
+          for (int i = 0; i < 2000; i++) {
+            int d = i % documents.length;
+            if (!cache.parse(documents[d]).equals(expected[d])) {
+              return false;
+            }
+          }
+          return true;
+        }));
+      }
+      for (Future<Boolean> result : results) {
+        assertThat(result.get()).isTrue();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    JsonParseCache.Stats stats = cache.stats();
+    assertThat(stats.hits() + stats.misses()).isEqualTo(16000L);
+    assertThat(stats.entries()).isLessThanOrEqualTo(4);
+  }
+}
@@ -0,0 +1,96 @@
+package jsonparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonParsersTest {
+
+  private static final String DOCUMENT = "{\"name\": \"Test\", \"tags\": [\"a\", \"b\\n\"], \"age\": 25, \"nested\": {\"ok\": true}}";
+
+  private static String document(int i) {
+    return "{\"index\": " + i + ", \"name\": \"" + "x".repeat(i % 50) + "\", \"values\": [" + i + ", " + (i * 0.5) + "]}";
+  }
+
+  @Test
+  @DisplayName("Shared instance matches RecursiveJsonParser for every input kind")
+  void testInputKinds() {
+    Object expected = new RecursiveJsonParser().parse(DOCUMENT);
+    JsonParsers parsers = JsonParsers.shared();
+    byte[] bytes = DOCUMENT.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+
+    assertThat(JsonParsers.shared()).isSameAs(parsers);
+    assertThat(parsers.parse(DOCUMENT)).isEqualTo(expected);
+    assertThat(parsers.parse(bytes)).isEqualTo(expected);
+    assertThat(parsers.parse(ByteBuffer.wrap(bytes))).isEqualTo(expected);
+    assertThat(parsers.parse(direct)).isEqualTo(expected);
+    assertThat(parsers.parse(new StringReader(DOCUMENT))).isEqualTo(expected);
+    assertThat(parsers.parse(new ByteArrayInputStream(bytes))).isEqualTo(expected);
+  }
+
+  @Test
+  @DisplayName("Reused contexts start from a clean state")
+  void testReuseAfterError() {
+    JsonParsers parsers = JsonParsers.shared();
+
+    assertThrows(RuntimeException.class, () -> parsers.parse("{\"a\": [1, 2"));
+    assertThrows(RuntimeException.class, () -> parsers.parse("[[[[\"unterminated"));
+    assertThat(parsers.parse("[\"" + "long".repeat(100000) + "\"]")).isEqualTo(List.of("long".repeat(100000)));
+    assertThat(parsers.parse("{\"a\": 1}")).isEqualTo(Map.of("a", 1));
+  }
+
+  @Test
+  @DisplayName("Pool hands a released context back to the same thread")
+  void testPoolReuse() {
+    ParseContext.Pool pool = new ParseContext.Pool(4);
+
+    ParseContext first = pool.acquire();
+    pool.release(first);
+    assertThat(pool.acquire()).isSameAs(first);
+    assertThat(pool.acquire()).isNotSameAs(first);
+  }
+
+  @Test
+  @DisplayName("Concurrent parsing on platform and virtual threads")
+  void testConcurrentParsing() throws Exception {
+    RecursiveJsonParser reference = new RecursiveJsonParser();
+    for (ExecutorService executor : List.of(Executors.newFixedThreadPool(8), Executors.newVirtualThreadPerTaskExecutor())) {
+      try {
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < 64; t++) {
+          int seed = t;
+          results.add(executor.submit(() -> {
+            for (int i = seed; i < seed + 500; i++) {
+              String json = document(i);
+              Object expected = reference.parse(json);
+              if (!expected.equals(JsonParsers.shared().parse(json))
+                  || !expected.equals(JsonParsers.shared().parse(json.getBytes(StandardCharsets.UTF_8)))) {
+                return false;
+              }
+            }
+            return true;
+          }));
+        }
+        for (Future<Boolean> result : results) {
+          assertTrue(result.get());
+        }
+      } finally {
+        executor.shutdown();
+      }
+    }
+  }
+}
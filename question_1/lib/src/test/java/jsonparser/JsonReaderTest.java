@@ -0,0 +1,169 @@
+package jsonparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonReaderTest {
+
+  private static List<JsonToken> tokens(JsonReader reader) {
+    List<JsonToken> tokens = new ArrayList<>();
+    JsonToken token;
+    while ((token = reader.nextToken()) != null) {
+      tokens.add(token);
+    }
+    return tokens;
+  }
+
+  @Test
+  @DisplayName("Token sequence for nested document")
+  void testTokenSequence() {
+    JsonReader reader = new JsonReader("{\"a\": [1, 2.5, \"x\"], \"b\": {\"c\": true, \"d\": false}, \"e\": null}");
+
+    assertThat(tokens(reader)).containsExactly(
+        JsonToken.START_OBJECT,
+        JsonToken.FIELD_NAME, JsonToken.START_ARRAY,
+        JsonToken.VALUE_NUMBER, JsonToken.VALUE_NUMBER, JsonToken.VALUE_STRING,
+        JsonToken.END_ARRAY,
+        JsonToken.FIELD_NAME, JsonToken.START_OBJECT,
+        JsonToken.FIELD_NAME, JsonToken.VALUE_TRUE,
+        JsonToken.FIELD_NAME, JsonToken.VALUE_FALSE,
+        JsonToken.END_OBJECT,
+        JsonToken.FIELD_NAME, JsonToken.VALUE_NULL,
+        JsonToken.END_OBJECT);
+    assertThat(reader.currentToken()).isNull();
+  }
+
+  @Test
+  @DisplayName("Scalar values and field names")
+  void testValues() {
+    JsonReader reader = new JsonReader("{\"name\": \"Test\", \"age\": 25, \"big\": 9223372036854775807, \"ok\": true}");
+
+    assertThat(reader.nextToken()).isEqualTo(JsonToken.START_OBJECT);
+    assertThat(reader.nextToken()).isEqualTo(JsonToken.FIELD_NAME);
+    assertThat(reader.getString()).isEqualTo("name");
+    assertThat(reader.nextToken()).isEqualTo(JsonToken.VALUE_STRING);
+    assertThat(reader.getString()).isEqualTo("Test");
+    assertThat(reader.nextToken()).isEqualTo(JsonToken.FIELD_NAME);
+    assertThat(reader.getString()).isEqualTo("age");
+    assertThat(reader.nextToken()).isEqualTo(JsonToken.VALUE_NUMBER);
+    assertThat(reader.getNumber()).isEqualTo(25);
+    reader.nextToken();
+    reader.nextToken();
+    assertThat(reader.getNumber()).isEqualTo(9223372036854775807L);
+    reader.nextToken();
+    reader.nextToken();
+    assertThat(reader.getBoolean()).isTrue();
+    assertThat(reader.nextToken()).isEqualTo(JsonToken.END_OBJECT);
+    assertThat(reader.nextToken()).isNull();
+  }
+
+  @Test
+  @DisplayName("Primitive number accessors")
+  void testPrimitiveNumbers() {
+    JsonReader reader = new JsonReader("[7, 9223372036854775807, -2.75, 1e400]");
+    reader.nextToken();
+
+    reader.nextToken();
+    assertThat(reader.getInt()).isEqualTo(7);
+    assertThat(reader.getLong()).isEqualTo(7L);
+    assertThat(reader.getNumber()).isEqualTo(7);
+    reader.nextToken();
+    assertThat(reader.getLong()).isEqualTo(Long.MAX_VALUE);
+    assertThat(reader.getDouble()).isEqualTo(9.223372036854775807E18);
+    assertThat(reader.getNumber()).isEqualTo(Long.MAX_VALUE);
+    reader.nextToken();
+    assertThat(reader.getDouble()).isEqualTo(-2.75);
+    assertThat(reader.getInt()).isEqualTo(-2);
+    reader.nextToken();
+    assertThat(reader.getNumber()).isEqualTo(Double.POSITIVE_INFINITY);
+  }
+
+  @Test
+  @DisplayName("Skip children of objects and arrays")
+  void testSkipChildren() {
+    JsonReader reader = new JsonReader("{\"skip\": {\"a\": [1, {\"b\": []}], \"c\": \"}\"}, \"list\": [[1], [2]], \"id\": 7}");
+
+    reader.nextToken();
+    assertThat(reader.nextToken()).isEqualTo(JsonToken.FIELD_NAME);
+    assertThat(reader.nextToken()).isEqualTo(JsonToken.START_OBJECT);
+    reader.skipChildren();
+    assertThat(reader.currentToken()).isEqualTo(JsonToken.END_OBJECT);
+    assertThat(reader.getDepth()).isEqualTo(1);
+
+    assertThat(reader.nextToken()).isEqualTo(JsonToken.FIELD_NAME);
+    assertThat(reader.getString()).isEqualTo("list");
+    assertThat(reader.nextToken()).isEqualTo(JsonToken.START_ARRAY);
+    reader.skipChildren();
+    assertThat(reader.currentToken()).isEqualTo(JsonToken.END_ARRAY);
+
+    assertThat(reader.nextToken()).isEqualTo(JsonToken.FIELD_NAME);
+    assertThat(reader.getString()).isEqualTo("id");
+    assertThat(reader.nextToken()).isEqualTo(JsonToken.VALUE_NUMBER);
+    reader.skipChildren();
+    assertThat(reader.getNumber()).isEqualTo(7);
+    assertThat(reader.nextToken()).isEqualTo(JsonToken.END_OBJECT);
+  }
+
+  @Test
+  @DisplayName("Scalar root value")
+  void testScalarRoot() {
+    JsonReader reader = new JsonReader("  \"hello\"  ");
+
+    assertThat(reader.nextToken()).isEqualTo(JsonToken.VALUE_STRING);
+    assertThat(reader.getString()).isEqualTo("hello");
+    assertThat(reader.getDepth()).isEqualTo(0);
+    assertThat(reader.nextToken()).isNull();
+  }
+
+  @Test
+  @DisplayName("Accessor called on wrong token")
+  void testWrongAccessor() {
+    JsonReader reader = new JsonReader("[1]");
+    reader.nextToken();
+    assertThrows(IllegalStateException.class, reader::getString);
+    assertThrows(IllegalStateException.class, reader::getNumber);
+  }
+
+  @Test
+  @DisplayName("Invalid JSON - Errors match the tree parser")
+  void testErrorsMatchParser() {
+    String[] invalid = {
+        "{\"key\": \"value\"",
+        "{key: \"value\"}",
+        "{\"key\": tru}",
+        "{\"key\": \"value\",}",
+        "[1, 2, 3,]",
+        "{\"key\" \"value\"}",
+        "{\"key\":}",
+        "{\"key\": \"value}",
+        "{\"key\": \"value\"} extra",
+        "[1, , 3]",
+        "[1 2]",
+        "{",
+        "["
+    };
+
+    for (String json : invalid) {
+      Exception expected = assertThrows(RuntimeException.class, () -> new RecursiveJsonParser().parse(json));
+      Exception actual = assertThrows(RuntimeException.class, () -> tokens(new JsonReader(json)));
+      assertThat(actual.getMessage()).isEqualTo(expected.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Invalid JSON - Error position")
+  void testErrorPosition() {
+    JsonReader reader = new JsonReader("  {\"a\": 1 \"b\": 2}");
+    reader.nextToken();
+    reader.nextToken();
+    reader.nextToken();
+    Exception exception = assertThrows(RuntimeException.class, reader::nextToken);
+    assertThat(exception.getMessage()).isEqualTo("Expected ',' or '}' at position 8");
+  }
+}
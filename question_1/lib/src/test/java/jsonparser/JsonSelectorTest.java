@@ -0,0 +1,110 @@
+package jsonparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonSelectorTest {
+
+  private static final String ORDER = "{\"user\": {\"id\": 42, \"name\": \"Ann\", \"roles\": [\"admin\", \"dev\"]},"
+      + " \"items\": [{\"sku\": \"a\", \"price\": 9.5}, {\"sku\": \"b\", \"price\": 12}, {\"sku\": \"c\"}],"
+      + " \"notes\": \"ignored \\\"text\\\"\", \"meta\": {\"tags\": [1, 2, 3]}}";
+
+  @Test
+  @DisplayName("Selects members, elements and wildcards")
+  void testSelect() {
+    JsonSelector selector = JsonSelector.compile("$.user.id", "$.items[*].price", "$.user.roles[1]", "$.missing");
+
+    Map<String, List<Object>> selected = selector.select(ORDER);
+
+    assertThat(selected.keySet()).containsExactly("$.user.id", "$.items[*].price", "$.user.roles[1]", "$.missing");
+    assertThat(selected.get("$.user.id")).containsExactly(42);
+    assertThat(selected.get("$.items[*].price")).containsExactly(9.5, 12);
+    assertThat(selected.get("$.user.roles[1]")).containsExactly("dev");
+    assertThat(selected.get("$.missing")).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Matched containers are built like the tree parser builds them")
+  void testContainers() {
+    JsonSelector selector = JsonSelector.compile("$", "$.user", "$['meta'][\"tags\"]");
+
+    Map<String, List<Object>> selected = selector.select(ORDER.getBytes(StandardCharsets.UTF_8));
+
+    RecursiveJsonParser parser = new RecursiveJsonParser();
+    Map<?, ?> whole = (Map<?, ?>) parser.parse(ORDER);
+    assertThat(selected.get("$")).containsExactly(whole);
+    assertThat(selected.get("$.user")).containsExactly(whole.get("user"));
+    assertThat(selected.get("$['meta'][\"tags\"]")).containsExactly(List.of(1, 2, 3));
+  }
+
+  @Test
+  @DisplayName("Overlapping named and wildcard paths are all satisfied")
+  void testOverlappingPaths() {
+    JsonSelector selector = JsonSelector.compile("$.*.id", "$.user.name", "$.user", "$.user.roles[*]", "$.items[0].sku",
+        "$.items[*].sku");
+
+    Map<String, List<Object>> selected = selector.select(ORDER);
+
+    assertThat(selected.get("$.*.id")).containsExactly(42);
+    assertThat(selected.get("$.user.name")).containsExactly("Ann");
+    assertThat(selected.get("$.user")).hasSize(1);
+    assertThat(selected.get("$.user.roles[*]")).containsExactly("admin", "dev");
+    assertThat(selected.get("$.items[0].sku")).containsExactly("a");
+    assertThat(selected.get("$.items[*].sku")).containsExactly("a", "b", "c");
+  }
+
+  @Test
+  @DisplayName("Keys with escapes and non-ASCII characters are matched after decoding")
+  void testDecodedKeys() {
+    String json = "{\"caf\\u00e9\": 1, \"naïve\": 2, \"a\\\"b\": 3}";
+    JsonSelector selector = JsonSelector.compile("$.café", "$.naïve", "$['a\"b']");
+
+    for (Map<String, List<Object>> selected : List.of(selector.select(json),
+        selector.select(json.getBytes(StandardCharsets.UTF_8)),
+        selector.select(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))))) {
+      assertThat(selected.get("$.café")).containsExactly(1);
+      assertThat(selected.get("$.naïve")).containsExactly(2);
+      assertThat(selected.get("$['a\"b']")).containsExactly(3);
+    }
+  }
+
+  @Test
+  @DisplayName("Skipped containers are checked for strings, brackets and depth")
+  void testInvalidDocuments() {
+    JsonSelector selector = JsonSelector.compile("$.a");
+
+    RuntimeException mismatched = assertThrows(RuntimeException.class,
+        () -> selector.select("{\"a\": 1, \"b\": [1, {\"c\": \"]\"]}"));
+    assertThat(mismatched.getMessage()).isEqualTo("Unexpected ']' at position 27");
+    RuntimeException unterminated = assertThrows(RuntimeException.class,
+        () -> selector.select("{\"b\": {\"c\": [1, \"}]}"));
+    assertThat(unterminated.getMessage()).isEqualTo("Unterminated string");
+    assertThrows(RuntimeException.class, () -> selector.select("{\"b\": [[1]"));
+    assertThrows(RuntimeException.class, () -> selector.select("{\"a\": 1} x"));
+    assertThrows(RuntimeException.class, () -> selector.select("{\"a\": 1, \"b\" 2}"));
+    RuntimeException e = assertThrows(RuntimeException.class,
+        () -> JsonSelector.compile(ParserOptions.builder().withMaxDepth(2).build(), "$.a").select("{\"b\": [[1]]}"));
+    assertThat(e.getMessage()).isEqualTo("Maximum nesting depth of 2 exceeded at position 7");
+  }
+
+  @Test
+  @DisplayName("Invalid paths are rejected with their position")
+  void testInvalidPaths() {
+    String[] invalid = {"user.id", "$.", "$..a", "$[", "$[x]", "$['a]", "$[1", "$a", "$[*"};
+
+    for (String path : invalid) {
+      assertThrows(IllegalArgumentException.class, () -> JsonSelector.compile(path));
+    }
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> JsonSelector.compile("$.a[b]"));
+    assertThat(e.getMessage()).isEqualTo("Invalid path '$.a[b]' at position 4");
+    assertThrows(IllegalArgumentException.class, () -> JsonSelector.compile());
+  }
+}
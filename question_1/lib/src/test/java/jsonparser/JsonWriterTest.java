@@ -0,0 +1,162 @@
+package jsonparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonWriterTest {
+
+  enum Role { ADMIN, USER }
+
+  record Address(String city, int zip) {}
+
+  record User(String name, int age, long id, double score, float ratio, boolean active, Integer rank,
+      Role role, Address address, List<String> tags, int[] points) {}
+
+  static class Base {
+    private long created = 7;
+  }
+
+  static class Account extends Base {
+    private String owner = "Ann";
+    private double balance = 12.5;
+    private boolean open = true;
+    private transient int ignored = -1;
+
+    public String getOwner() {
+      return owner.toUpperCase();
+    }
+  }
+
+  @Test
+  @DisplayName("Writes parser trees so that parsing them again gives equal trees")
+  void testRoundTrip() {
+    String[] documents = {
+        "{\"name\": \"Test\", \"age\": 25, \"tags\": [\"a\", [], {}, [1, [2, {\"x\": null}]]], \"ok\": true, \"no\": false}",
+        "{\"text\": \"tab\\tquote\\\" slash\\/ \\u00e9\\u20AC end\\u0001\", \"caf\\u00e9\": \"naïve € 😀\"}",
+        "[0, -0, 12, -7, 2147483648, -9223372036854775808, 12345678901234567890, 1.5, -2.5e-3, 1E+2, 6.02e23]",
+        "\"scalar\"",
+    };
+    RecursiveJsonParser parser = new RecursiveJsonParser();
+
+    for (String document : documents) {
+      Object tree = parser.parse(document);
+      assertThat(parser.parse(JsonWriter.toJson(tree))).isEqualTo(tree);
+      assertThat(parser.parse(JsonWriter.toJsonBytes(tree))).isEqualTo(tree);
+    }
+    Object primitive = new RecursiveJsonParser(ParserOptions.builder().withPrimitiveArrays(true).build())
+        .parse("[[1, 2], [3000000000, 4], [0.5, 1]]");
+    assertThat(JsonWriter.toJson(primitive)).isEqualTo("[[1,2],[3000000000,4],[0.5,1.0]]");
+  }
+
+  @Test
+  @DisplayName("Escapes control characters, quotes and unpaired surrogates")
+  void testEscapes() {
+    assertThat(JsonWriter.toJson("a\"b\\c\n\r\t\b\f\u0000\u001f/")).isEqualTo("\"a\\\"b\\\\c\\n\\r\\t\\b\\f\\u0000\\u001f/\"");
+    assertArrayEquals("\"é€😀\"".getBytes(StandardCharsets.UTF_8), JsonWriter.toJsonBytes("é€😀"));
+    assertThat(JsonWriter.toJson("\ud83d")).isEqualTo("\"\\ud83d\"");
+    assertThat(JsonWriter.toJson("x\ude00\ud83dy")).isEqualTo("\"x\\ude00\\ud83dy\"");
+    assertThat(new RecursiveJsonParser().parse(JsonWriter.toJson("a\ud83d"))).isEqualTo("a\ud83d");
+  }
+
+  @Test
+  @DisplayName("Writes numbers that parse back to the same values")
+  void testNumbers() {
+    assertThat(JsonWriter.toJson(List.of(Long.MIN_VALUE, Long.MAX_VALUE, 0, -1, 10, (short) 3, (byte) -4)))
+        .isEqualTo("[-9223372036854775808,9223372036854775807,0,-1,10,3,-4]");
+    assertThat(JsonWriter.toJson(List.of(1.0, -2.0, 0.1, 1e300, -0.0, 1e15, 123456.789, 4.9e-324)))
+        .isEqualTo("[1.0,-2.0,0.1,1.0E300,-0.0,1.0E15,123456.789,4.9E-324]");
+    assertThat(JsonWriter.toJson(List.of(0.1f, new BigDecimal("1.10"), new BigInteger("123456789012345678901"),
+        new LazyNumber("1.5e3")))).isEqualTo("[0.1,1.10,123456789012345678901,1.5e3]");
+
+    RecursiveJsonParser parser = new RecursiveJsonParser();
+    for (double d : new double[] {0.1, 1e300, -0.0, 1e15, 2.5e-7, Double.MIN_VALUE, Double.MAX_VALUE, 1.0 / 3}) {
+      assertThat(parser.parse(JsonWriter.toJson(d))).isEqualTo(d);
+    }
+    assertThrows(IllegalArgumentException.class, () -> JsonWriter.toJson(Double.NaN));
+    assertThrows(IllegalArgumentException.class, () -> JsonWriter.toJson(Float.POSITIVE_INFINITY));
+  }
+
+  @Test
+  @DisplayName("Streams objects and arrays and rejects calls that would produce invalid JSON")
+  void testStreaming() {
+    JsonWriter writer = new JsonWriter();
+    writer.beginObject().name("id").value(1).name("tags").beginArray().value("a").nullValue().value(true)
+        .endArray().name("point").beginObject().name("x").value(0.5).endObject().endObject();
+    writer.beginArray().endArray();
+    writer.value(3);
+
+    assertThat(writer.toString()).isEqualTo("{\"id\":1,\"tags\":[\"a\",null,true],\"point\":{\"x\":0.5}}\n[]\n3");
+    writer.reset();
+    assertThat(writer.value("b").toString()).isEqualTo("\"b\"");
+
+    assertThrows(IllegalStateException.class, () -> new JsonWriter().beginObject().value(1));
+    assertThrows(IllegalStateException.class, () -> new JsonWriter().beginObject().name("a").name("b"));
+    assertThrows(IllegalStateException.class, () -> new JsonWriter().beginObject().name("a").endObject());
+    assertThrows(IllegalStateException.class, () -> new JsonWriter().beginArray().endObject());
+    assertThrows(IllegalStateException.class, () -> new JsonWriter().name("a"));
+    assertThrows(IllegalStateException.class, () -> new JsonWriter().endArray());
+    assertThrows(IllegalStateException.class, () -> new JsonWriter().beginArray().close());
+    assertThrows(IllegalArgumentException.class, () -> new JsonWriter().beginObject().name(null));
+  }
+
+  @Test
+  @DisplayName("Writes through a small buffer into an output stream")
+  void testOutputStream() {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      text.append("é\n😀x");
+    }
+    List<Object> values = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      values.add(Map.of("n", i, "s", text.toString()));
+    }
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (JsonWriter writer = new JsonWriter(out, 64)) {
+      writer.value(values);
+    }
+
+    assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(JsonWriter.toJson(values));
+    assertThat(new RecursiveJsonParser().parse(out.toByteArray())).isEqualTo(values);
+    assertThrows(IllegalStateException.class, () -> new JsonWriter(new ByteArrayOutputStream()).toByteArray());
+    assertThrows(IllegalArgumentException.class, () -> new JsonWriter(null));
+    assertThrows(IllegalArgumentException.class, () -> new JsonWriter(new ByteArrayOutputStream(), 16));
+  }
+
+  @Test
+  @DisplayName("Writes records, POJOs, arrays and enums that bind back to equal values")
+  void testObjects() {
+    User user = new User("Ann", 31, Long.MAX_VALUE, 9.5, 0.25f, true, null, Role.ADMIN, new Address("Oslo", 150),
+        List.of("a", "b"), new int[] {1, 2, 3});
+    RecursiveJsonParser parser = new RecursiveJsonParser();
+
+    String json = JsonWriter.toJson(user);
+    assertThat(json).isEqualTo("{\"name\":\"Ann\",\"age\":31,\"id\":9223372036854775807,\"score\":9.5,\"ratio\":0.25,"
+        + "\"active\":true,\"rank\":null,\"role\":\"ADMIN\",\"address\":{\"city\":\"Oslo\",\"zip\":150},"
+        + "\"tags\":[\"a\",\"b\"],\"points\":[1,2,3]}");
+    User bound = parser.parse(json, User.class);
+    assertThat(bound.address()).isEqualTo(user.address());
+    assertArrayEquals(user.points(), bound.points());
+
+    Map<String, Object> account = new LinkedHashMap<>();
+    account.put("owner", "ANN");
+    account.put("balance", 12.5);
+    account.put("open", true);
+    account.put("created", 7);
+    assertThat(parser.parse(JsonWriter.toJson(new Account()))).isEqualTo(account);
+    assertThat(JsonWriter.toJson(new Object[] {'c', new long[] {1}, new boolean[] {true}, Role.USER}))
+        .isEqualTo("[\"c\",[1],[true],\"USER\"]");
+  }
+}
@@ -0,0 +1,133 @@
+package jsonparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedFileInputTest {
+
+  private static final String DOCUMENT = "{\n" +
+      "  \"name\": \"Test \\\"quoted\\\" \\u4F60\\u597D\",\n" +
+      "  \"city\": \"台北 😀 héllo\",\n" +
+      "  \"scores\": [85, -90.5, 1.5e3, 9223372036854775807],\n" +
+      "  \"flags\": [true, false, null],\n" +
+      "  \"nested\": {\"a\": {\"b\": []}}\n" +
+      "}";
+
+  private final RecursiveJsonParser parser = new RecursiveJsonParser();
+
+  private static Path write(String json) throws IOException {
+    Path path = Files.createTempFile("mapped", ".json");
+    path.toFile().deleteOnExit();
+    Files.write(path, json.getBytes(StandardCharsets.UTF_8));
+    return path;
+  }
+
+  private static List<String> events(JsonReader reader) {
+    List<String> events = new ArrayList<>();
+    JsonToken token;
+    while ((token = reader.nextToken()) != null) {
+      switch (token) {
+        case FIELD_NAME:
+        case VALUE_STRING:
+          events.add(token + " " + reader.getString());
+          break;
+        case VALUE_NUMBER:
+          events.add(token + " " + reader.getNumber());
+          break;
+        default:
+          events.add(token.toString());
+      }
+    }
+    return events;
+  }
+
+  @Test
+  @DisplayName("Mapped file matches String input")
+  void testParseFile() throws IOException {
+    Path path = write(DOCUMENT);
+
+    assertThat(parser.parseFile(path)).isEqualTo(parser.parse(DOCUMENT));
+  }
+
+  @Test
+  @DisplayName("Tokens split across mapped segments")
+  void testSmallSegments() throws IOException {
+    Path path = write(DOCUMENT);
+    List<String> expected = events(new JsonReader(DOCUMENT));
+
+    for (int size = 1; size <= 16; size++) {
+      try (JsonReader reader = new JsonReader(new MappedFileInput(path, size))) {
+        assertThat(events(reader)).isEqualTo(expected);
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Streaming over a mapped file")
+  void testStreaming() throws IOException {
+    Path path = write("{\"skip\": {\"a\": [1, 2, 3]}, \"id\": 42}");
+
+    try (JsonReader reader = new JsonReader(path)) {
+      reader.nextToken();
+      reader.nextToken();
+      reader.nextToken();
+      reader.skipChildren();
+      assertThat(reader.nextToken()).isEqualTo(JsonToken.FIELD_NAME);
+      assertThat(reader.getString()).isEqualTo("id");
+      reader.nextToken();
+      assertThat(reader.getNumber()).isEqualTo(42);
+    }
+  }
+
+  @Test
+  @DisplayName("Large mapped file")
+  void testLargeFile() throws IOException {
+    StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < 100000; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"index\": ").append(i).append(", \"value\": \"Test\"}");
+    }
+    json.append(']');
+    Path path = write(json.toString());
+
+    List<Object> list = (List<Object>) parser.parseFile(path);
+
+    assertThat(list).hasSize(100000);
+    assertThat((Map<String, Object>) list.get(99999)).containsEntry("index", 99999);
+  }
+
+  @Test
+  @DisplayName("Invalid JSON - Errors report absolute file positions")
+  void testErrorPosition() throws IOException {
+    Path path = write("[1, 2, 3 4]");
+
+    try (JsonReader reader = new JsonReader(new MappedFileInput(path, 3))) {
+      Exception exception = assertThrows(RuntimeException.class, () -> events(reader));
+      assertThat(exception.getMessage()).isEqualTo("Expected ',' or ']' at position 9");
+    }
+  }
+
+  @Test
+  @DisplayName("Empty and missing files")
+  void testEmptyAndMissingFiles() throws IOException {
+    Path empty = write("");
+
+    Exception exception = assertThrows(RuntimeException.class, () -> parser.parseFile(empty));
+    assertThat(exception.getMessage()).startsWith("Unexpected character");
+    assertThrows(UncheckedIOException.class, () -> parser.parseFile(empty.resolveSibling("missing-" + System.nanoTime())));
+  }
+}
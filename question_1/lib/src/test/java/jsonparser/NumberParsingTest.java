@@ -0,0 +1,128 @@
+package jsonparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NumberParsingTest {
+
+  private static final String[] EDGE_CASES = {
+      "0", "-0", "0.0", "-0.0", "1", "-1", "2147483647", "2147483648", "-2147483648", "-2147483649",
+      "9223372036854775807", "9223372036854775808", "-9223372036854775808", "-9223372036854775809",
+      "18446744073709551615", "123456789012345678901234567890", "007", "1.", "1.5E+3", "1e-3",
+      "9007199254740993", "9007199254740993.0", "1e23", "8.98846567431158e307", "1.7976931348623157e308",
+      "1.7976931348623159e308", "4.9e-324", "2.4703282292062328e-324", "2.2250738585072011e-308",
+      "2.2250738585072014e-308", "0.1", "0.30000000000000004", "1e400", "-1e400", "1e-400",
+      "0.000000000000000000000000000001", "1e0000000000000000000000000000001", "123.456e-5"
+  };
+
+  private static Object first(Object list) {
+    return ((List<Object>) list).get(0);
+  }
+
+  private static Object expected(String text) {
+    boolean isFloat = text.contains(".") || text.contains("e") || text.contains("E");
+    if (!isFloat) {
+      try {
+        return Integer.parseInt(text);
+      } catch (NumberFormatException e) {
+        try {
+          return Long.parseLong(text);
+        } catch (NumberFormatException e2) {
+          // Falls through to double
+        }
+      }
+    }
+    return Double.parseDouble(text);
+  }
+
+  @Test
+  @DisplayName("Edge cases match Integer, Long and Double parsing")
+  void testEdgeCases() {
+    RecursiveJsonParser parser = new RecursiveJsonParser();
+    for (String text : EDGE_CASES) {
+      assertThat(first(parser.parse("[" + text + "]"))).isEqualTo(expected(text));
+      assertThat(first(parser.parse(("[" + text + "]").getBytes(StandardCharsets.UTF_8)))).isEqualTo(expected(text));
+    }
+  }
+
+  @Test
+  @DisplayName("Doubles are correctly rounded")
+  void testRandomDoubles() {
+    Random random = new Random(42);
+    RecursiveJsonParser parser = new RecursiveJsonParser();
+    for (int i = 0; i < 100000; i++) {
+      double value = Double.longBitsToDouble(random.nextLong());
+      if (Double.isNaN(value) || Double.isInfinite(value)) {
+        continue;
+      }
+      String text = i % 2 == 0 ? Double.toString(value) : new BigDecimal(value).round(new MathContext(1 + random.nextInt(19))).toString();
+      assertThat(first(parser.parse("[" + text + "]"))).isEqualTo(expected(text));
+    }
+  }
+
+  @Test
+  @DisplayName("Primitive accessors for every kind of number")
+  void testPrimitiveAccessors() {
+    JsonReader reader = new JsonReader("[12345678901, 1.25e2, 123456789012345678901234]");
+    reader.nextToken();
+
+    reader.nextToken();
+    assertThat(reader.getLong()).isEqualTo(12345678901L);
+    reader.nextToken();
+    assertThat(reader.getInt()).isEqualTo(125);
+    reader.nextToken();
+    assertThat(reader.getDouble()).isEqualTo(1.2345678901234568E23);
+  }
+
+  @Test
+  @DisplayName("Lazy numbers keep their text")
+  void testLazyMode() {
+    RecursiveJsonParser parser = new RecursiveJsonParser(ParserOptions.builder().withNumberMode(NumberMode.LAZY).build());
+
+    Map<String, Object> result = (Map<String, Object>) parser.parse("{\"a\": 1.50, \"b\": -7, \"c\": 123456789012345678901}");
+
+    LazyNumber a = (LazyNumber) result.get("a");
+    assertThat(a.toString()).isEqualTo("1.50");
+    assertThat(a.doubleValue()).isEqualTo(1.5);
+    assertThat(a.bigDecimalValue()).isEqualTo(new BigDecimal("1.50"));
+    assertThat(((Number) result.get("b")).intValue()).isEqualTo(-7);
+    assertThat(((Number) result.get("c")).toString()).isEqualTo("123456789012345678901");
+    assertThat(result.get("b")).isEqualTo(first(parser.parse("[-7]")));
+  }
+
+  @Test
+  @DisplayName("BigDecimal mode keeps full precision")
+  void testBigDecimalMode() {
+    RecursiveJsonParser parser = new RecursiveJsonParser(ParserOptions.builder().withNumberMode(NumberMode.BIG_DECIMAL).build());
+
+    List<Object> result = (List<Object>) parser.parse("[1, 123456789012345678901234567890, 0.1, 1e2, -2.50]");
+
+    assertThat(result).containsExactly(BigInteger.ONE, new BigInteger("123456789012345678901234567890"),
+        new BigDecimal("0.1"), new BigDecimal("1e2"), new BigDecimal("-2.50"));
+  }
+
+  @Test
+  @DisplayName("Invalid JSON - Malformed numbers fail the same way in every mode")
+  void testMalformedNumbers() {
+    for (NumberMode mode : NumberMode.values()) {
+      RecursiveJsonParser parser = new RecursiveJsonParser(ParserOptions.builder().withNumberMode(mode).build());
+      for (String text : new String[] {"-", "1e", "-e5", "1.5e+"}) {
+        Exception expected = assertThrows(NumberFormatException.class, () -> Double.parseDouble(text));
+        Exception actual = assertThrows(NumberFormatException.class, () -> parser.parse("[" + text + "]"));
+        assertThat(actual.getMessage()).isEqualTo(expected.getMessage());
+      }
+    }
+    assertThrows(IllegalArgumentException.class, () -> ParserOptions.builder().withNumberMode(null));
+  }
+}
@@ -0,0 +1,145 @@
+package jsonparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParserMetricsTest {
+
+  private static final String ORDER = "{\"id\": 7, \"items\": [{\"sku\": \"a-1\", \"price\": 9.5}, {\"sku\": \"b-2\"}],"
+      + " \"note\": null}";
+
+  record Order(int id, List<Item> items, String note) {
+  }
+
+  record Item(String sku, double price) {
+  }
+
+  /**
+   * Keeps the arguments of every call.
+   */
+  static final class Recorder implements ParserMetrics {
+    final List<long[]> documents = new ArrayList<>();
+    final List<RuntimeException> errors = new ArrayList<>();
+
+    @Override
+    public void documentParsed(long length, long nanos, int maxDepth, long strings, long numbers, long containers) {
+      documents.add(new long[] {length, nanos, maxDepth, strings, numbers, containers});
+    }
+
+    @Override
+    public void documentFailed(long nanos, RuntimeException error) {
+      errors.add(error);
+    }
+  }
+
+  @Test
+  @DisplayName("Reports the size, depth and value counts of each document")
+  void testDocumentParsed() {
+    Recorder recorder = new Recorder();
+    RecursiveJsonParser parser = new RecursiveJsonParser(ParserOptions.builder().withMetrics(recorder).build());
+
+    parser.parse(ORDER);
+    parser.parse(("  " + ORDER + "\n").getBytes(StandardCharsets.UTF_8));
+    parser.parse("\"café\"".getBytes(StandardCharsets.UTF_8));
+
+    assertThat(recorder.documents).hasSize(3);
+    long[] first = recorder.documents.get(0);
+    assertThat(first[0]).isEqualTo((long) ORDER.length());
+    assertThat(first[1]).isGreaterThan(0L);
+    assertArrayEquals(new long[] {3, 2, 2, 4}, new long[] {first[2], first[3], first[4], first[5]});
+    assertThat(recorder.documents.get(1)[0]).isEqualTo(ORDER.length() + 3L);
+    assertArrayEquals(new long[] {7, 0, 1, 0, 0}, new long[] {recorder.documents.get(2)[0],
+        recorder.documents.get(2)[2], recorder.documents.get(2)[3], recorder.documents.get(2)[4],
+        recorder.documents.get(2)[5]});
+    assertThat(recorder.errors).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Counts start over for every document read through pooled readers and binders")
+  void testPooledAndBound() {
+    Recorder recorder = new Recorder();
+    JsonParsers parsers = JsonParsers.create(ParserOptions.builder().withMetrics(recorder).build());
+
+    for (int i = 0; i < 3; i++) {
+      parsers.parse(ORDER);
+    }
+    Order order = parsers.parse(ORDER, Order.class);
+
+    assertThat(order.items()).hasSize(2);
+    assertThat(recorder.documents).hasSize(4);
+    for (long[] document : recorder.documents) {
+      assertArrayEquals(new long[] {ORDER.length(), 3, 2, 2, 4},
+          new long[] {document[0], document[2], document[3], document[4], document[5]});
+    }
+  }
+
+  @Test
+  @DisplayName("Failed documents are reported and the error still reaches the caller")
+  void testDocumentFailed() {
+    Recorder recorder = new Recorder();
+    RecursiveJsonParser parser = new RecursiveJsonParser(ParserOptions.builder().withMetrics(recorder).build());
+
+    RuntimeException error = assertThrows(RuntimeException.class, () -> parser.parse("{\"a\": [1,]}"));
+    assertThat(error.getMessage()).isEqualTo("Trailing comma not allowed at position 8");
+    assertThrows(RuntimeException.class, () -> parser.parse("{\"id\": \"x\"}", Order.class));
+
+    assertThat(recorder.errors).hasSize(2);
+    assertThat(recorder.errors.get(0)).isSameAs(error);
+    assertThat(recorder.documents).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Collects totals across parsers and exports them as Prometheus text")
+  void testPrometheusExport() {
+    ParserMetricsCollector metrics = ParserMetricsCollector.builder()
+        .withNamespace("ingest")
+        .withLatencyBuckets(Duration.ofNanos(1), Duration.ofMillis(2), Duration.ofMinutes(1))
+        .build();
+    ParserOptions options = ParserOptions.builder().withMetrics(metrics).build();
+    new RecursiveJsonParser(options).parse(ORDER);
+    JsonParsers.create(options).parse("[[[]]]");
+    assertThrows(RuntimeException.class, () -> JsonParsers.create(options).parse("[1"));
+
+    ParserMetricsCollector.Stats stats = metrics.stats();
+    assertThat(stats.documents()).isEqualTo(2L);
+    assertThat(stats.errors()).isEqualTo(1L);
+    assertThat(stats.bytes()).isEqualTo(ORDER.length() + 6L);
+    assertThat(stats.containers()).isEqualTo(7L);
+    assertThat(stats.maxDepth()).isEqualTo(3);
+    assertThat(stats.bytesPerSecond()).isGreaterThan(0.0);
+
+    String text = metrics.toPrometheus();
+    assertThat(text).contains("# TYPE ingest_documents_total counter\ningest_documents_total 2\n");
+    assertThat(text).contains("ingest_errors_total 1\n");
+    assertThat(text).contains("ingest_input_bytes_total " + (ORDER.length() + 6) + "\n");
+    assertThat(text).contains("ingest_values_total{type=\"string\"} 2\n");
+    assertThat(text).contains("ingest_values_total{type=\"number\"} 2\n");
+    assertThat(text).contains("ingest_values_total{type=\"container\"} 7\n");
+    assertThat(text).contains("# TYPE ingest_max_depth gauge\ningest_max_depth 3\n");
+    assertThat(text).contains("# TYPE ingest_parse_duration_seconds histogram\n"
+        + "ingest_parse_duration_seconds_bucket{le=\"0.000000001\"} 0\n");
+    assertThat(text).contains("ingest_parse_duration_seconds_bucket{le=\"60\"} 2\n"
+        + "ingest_parse_duration_seconds_bucket{le=\"+Inf\"} 2\n");
+    assertThat(text).contains("ingest_parse_duration_seconds_count 2\n");
+    assertThat(text).endsWith("\n");
+  }
+
+  @Test
+  @DisplayName("Metrics default to the no-op listener and reject invalid settings")
+  void testDefaultsAndValidation() {
+    assertThat(ParserOptions.defaults().metrics()).isSameAs(ParserMetrics.NONE);
+    assertThrows(IllegalArgumentException.class, () -> ParserOptions.builder().withMetrics(null));
+    assertThrows(IllegalArgumentException.class, () -> ParserMetricsCollector.builder().withNamespace("json-parser"));
+    assertThrows(IllegalArgumentException.class, () -> ParserMetricsCollector.builder().withLatencyBuckets());
+    assertThrows(IllegalArgumentException.class,
+        () -> ParserMetricsCollector.builder().withLatencyBuckets(Duration.ofMillis(5), Duration.ofMillis(1)));
+  }
+}
@@ -0,0 +1,124 @@
+package jsonparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrimitiveArraysTest {
+
+  private final RecursiveJsonParser parser = new RecursiveJsonParser(
+      ParserOptions.builder().withPrimitiveArrays(true).build());
+  private final RecursiveJsonParser boxed = new RecursiveJsonParser();
+
+  @Test
+  @DisplayName("Integer arrays become int[] and long[] views equal to boxed lists")
+  void testIntegerArrays() {
+    String ints = "[1, -2, 3, 2147483647]";
+    String longs = "[1, 2, 9223372036854775807, -5]";
+
+    Object intList = parser.parse(ints);
+    Object longList = parser.parse(longs);
+
+    assertThat(intList).isInstanceOf(IntArrayList.class);
+    assertThat(intList).isEqualTo(boxed.parse(ints));
+    assertArrayEquals(new int[] {1, -2, 3, Integer.MAX_VALUE}, ((IntArrayList) intList).toIntArray());
+    assertThat(longList).isInstanceOf(LongArrayList.class);
+    assertThat(longList).isEqualTo(boxed.parse(longs));
+    assertThat(((LongArrayList) longList).get(0)).isEqualTo(1);
+    assertThat(((LongArrayList) longList).getLong(2)).isEqualTo(Long.MAX_VALUE);
+  }
+
+  @Test
+  @DisplayName("Decimal arrays become double[] views")
+  void testDoubleArrays() {
+    DoubleArrayList list = (DoubleArrayList) parser.parse("[0, 0.5, 1e3, -2, 9007199254740992]");
+
+    assertThat(list).hasSize(5);
+    assertThat(list.get(0)).isEqualTo(0.0);
+    assertThat(list.getDouble(2)).isEqualTo(1000.0);
+    assertArrayEquals(new double[] {0, 0.5, 1000, -2, 9007199254740992.0}, list.toDoubleArray());
+  }
+
+  @Test
+  @DisplayName("Long arrays widen to double[] when a decimal follows, in either order")
+  void testLongThenDouble() {
+    DoubleArrayList longFirst = (DoubleArrayList) parser.parse("[1, 10000000000, 1.5]");
+    DoubleArrayList doubleFirst = (DoubleArrayList) parser.parse("[1.5, 10000000000, 1]");
+
+    assertArrayEquals(new double[] {1, 1e10, 1.5}, longFirst.toDoubleArray());
+    assertArrayEquals(new double[] {1.5, 1e10, 1}, doubleFirst.toDoubleArray());
+    assertThat(parser.parse("[9007199254740992, -9007199254740992, 0.5]")).isInstanceOf(DoubleArrayList.class);
+  }
+
+  @Test
+  @DisplayName("Large arrays grow past the initial capacity")
+  void testLargeArray() {
+    StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < 1000; i++) {
+      json.append(i == 0 ? "" : ",").append(i == 500 ? "3000000000" : String.valueOf(i));
+    }
+    json.append(']');
+
+    LongArrayList list = (LongArrayList) parser.parse(json.toString());
+
+    assertThat(list).hasSize(1000);
+    assertThat(list.getLong(500)).isEqualTo(3000000000L);
+    assertThat(list.get(999)).isEqualTo(999);
+    assertThat(list).isEqualTo(boxed.parse(json.toString()));
+  }
+
+  @Test
+  @DisplayName("Mixed arrays fall back to ordinary lists")
+  void testFallback() {
+    for (String json : new String[] {"[1, 2, \"three\"]", "[1, null]", "[9007199254740993, 1.5]", "[1.5, 9007199254740993]", "[1, [2]]",
+        "[1, 2.5, \"a\"]", "[3000000000, 1.5, null]", "[1, 3000000000, false]"}) {
+      Object result = parser.parse(json);
+
+      assertThat(result).isInstanceOf(ArrayList.class);
+      assertThat(result).isEqualTo(boxed.parse(json));
+    }
+    assertThat((List<Object>) parser.parse("[1, 2.5, \"a\"]")).containsExactly(1, 2.5, "a");
+    assertThat((List<Object>) parser.parse("[3000000000, 1.5, null]")).containsExactly(3000000000L, 1.5, null);
+    assertThat(parser.parse("[]")).isInstanceOf(ArrayList.class);
+    assertThat(parser.parse("[\"a\", 1]")).isInstanceOf(ArrayList.class);
+  }
+
+  @Test
+  @DisplayName("Nested numeric arrays inside objects and other input kinds")
+  void testNested() {
+    String json = "{\"matrix\": [[1, 2], [3.5, 4]], \"ids\": [7, 8]}";
+
+    Map<String, Object> result = (Map<String, Object>) parser.parse(json.getBytes(StandardCharsets.UTF_8));
+
+    List<Object> matrix = (List<Object>) result.get("matrix");
+    assertThat(matrix).isInstanceOf(ArrayList.class);
+    assertThat(matrix.get(0)).isInstanceOf(IntArrayList.class);
+    assertThat(matrix.get(1)).isInstanceOf(DoubleArrayList.class);
+    assertThat(result.get("ids")).isEqualTo(List.of(7, 8));
+    assertThat(JsonParsers.create(ParserOptions.builder().withPrimitiveArrays(true).build()).parse(json))
+        .isEqualTo(result);
+  }
+
+  @Test
+  @DisplayName("Views are read-only and other number modes are unaffected")
+  void testReadOnlyAndModes() {
+    IntArrayList list = (IntArrayList) parser.parse("[1, 2]");
+
+    assertThrows(UnsupportedOperationException.class, () -> list.add(3));
+    assertThrows(IndexOutOfBoundsException.class, () -> list.getInt(2));
+    assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1));
+
+    RecursiveJsonParser lazy = new RecursiveJsonParser(ParserOptions.builder()
+        .withPrimitiveArrays(true)
+        .withNumberMode(NumberMode.LAZY)
+        .build());
+    assertThat(lazy.parse("[1, 2]")).isInstanceOf(ArrayList.class);
+  }
+}
@@ -0,0 +1,136 @@
+package jsonparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReaderInputTest {
+
+  private static final String DOCUMENT = "{\n" +
+      "  \"name\": \"Test \\\"quoted\\\" \\u4F60\\u597D\",\n" +
+      "  \"city\": \"台北\",\n" +
+      "  \"scores\": [85, -90.5, 1.5e3, 9223372036854775807],\n" +
+      "  \"flags\": [true, false, null],\n" +
+      "  \"nested\": {\"a\": {\"b\": []}}\n" +
+      "}";
+
+  private final RecursiveJsonParser parser = new RecursiveJsonParser();
+
+  private static List<String> events(JsonReader reader) {
+    List<String> events = new ArrayList<>();
+    JsonToken token;
+    while ((token = reader.nextToken()) != null) {
+      switch (token) {
+        case FIELD_NAME:
+        case VALUE_STRING:
+          events.add(token + " " + reader.getString());
+          break;
+        case VALUE_NUMBER:
+          events.add(token + " " + reader.getNumber());
+          break;
+        default:
+          events.add(token.toString());
+      }
+    }
+    return events;
+  }
+
+  private static InputStream utf8(String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  @DisplayName("Reader input matches String input")
+  void testReaderMatchesString() {
+    Object expected = parser.parse(DOCUMENT);
+
+    assertThat(parser.parse(new StringReader(DOCUMENT))).isEqualTo(expected);
+    assertThat(parser.parse(utf8(DOCUMENT))).isEqualTo(expected);
+    assertThat(parser.parse(Channels.newChannel(utf8(DOCUMENT)))).isEqualTo(expected);
+  }
+
+  @Test
+  @DisplayName("Tokens split across buffer refills")
+  void testSmallBuffers() {
+    List<String> expected = events(new JsonReader(DOCUMENT));
+
+    for (int size = 1; size <= 16; size++) {
+      JsonReader reader = new JsonReader(new ReaderInput(new StringReader(DOCUMENT), size));
+      assertThat(events(reader)).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  @DisplayName("Multi-byte UTF-8 characters")
+  void testUtf8Decoding() {
+    Object result = parser.parse(utf8("{\"greeting\": \"héllo wörld 你好 😀\"}"));
+
+    assertThat((Map<String, Object>) result).containsEntry("greeting", "héllo wörld 你好 😀");
+  }
+
+  @Test
+  @DisplayName("Large streamed document")
+  void testLargeDocument() {
+    StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < 100000; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"index\": ").append(i).append(", \"value\": \"Test\"}");
+    }
+    json.append(']');
+
+    List<Object> list = (List<Object>) parser.parse(utf8(json.toString()));
+
+    assertThat(list).hasSize(100000);
+    assertThat((Map<String, Object>) list.get(99999)).containsEntry("index", 99999);
+  }
+
+  @Test
+  @DisplayName("Reader is left open after parsing")
+  void testReaderLeftOpen() throws Exception {
+    StringReader reader = new StringReader("[1] ");
+    parser.parse(reader);
+
+    assertDoesNotThrow(reader::ready);
+  }
+
+  @Test
+  @DisplayName("Invalid JSON - Errors match String input")
+  void testErrors() {
+    String[] invalid = {
+        "{\"key\": \"value\"",
+        "{\"key\": \"value\",}",
+        "[1, 2, 3,]",
+        "{\"key\": \"value}",
+        "{\"key\": \"value\"} extra",
+        "[1, , 3]"
+    };
+
+    for (String json : invalid) {
+      Exception expected = assertThrows(RuntimeException.class, () -> parser.parse(json));
+      Exception actual = assertThrows(RuntimeException.class, () -> parser.parse(new StringReader(json)));
+      assertThat(actual.getMessage()).isEqualTo(expected.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Invalid UTF-8 input")
+  void testMalformedUtf8() {
+    byte[] bytes = {'[', '"', (byte) 0xC3, (byte) 0x28, '"', ']'};
+
+    assertThrows(UncheckedIOException.class, () -> parser.parse(new ByteArrayInputStream(bytes)));
+  }
+}
@@ -3,6 +3,8 @@ package jsonparser;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -169,6 +171,41 @@ class RecursiveJsonParserTest {
     assertThat(map.get("unicode")).isEqualTo("你好");
   }
 
+  @Test
+  @DisplayName("Surrogate pairs, unpaired surrogates and mixed-case hex escapes")
+  void testUnicodeEscapes() {
+    String json = "[\"\\uD83D\\uDE00\", \"a\\ud83d\", \"\\u00E9\\u00e9\", \"x\\u0000y\", \"😀\"]";
+
+    for (Object result : new Object[] {parser.parse(json), parser.parse(json.getBytes(StandardCharsets.UTF_8)),
+        parser.parse(new StringReader(json))}) {
+      assertThat(result).isEqualTo(List.of("😀", "a\ud83d", "éé", "x\u0000y", "😀"));
+    }
+  }
+
+  @Test
+  @DisplayName("Invalid escapes and unescaped control characters are rejected with their position")
+  void testInvalidStrings() {
+    String[][] cases = {
+        {"[\"ab\\x\"]", "Invalid escape sequence at position 4"},
+        {"[\"\\u12\"]", "Invalid unicode escape at position 2"},
+        {"[\"\\u12G4\"]", "Invalid unicode escape at position 2"},
+        {"{\"k\\U0041\": 1}", "Invalid escape sequence at position 3"},
+        {"[\"a\tb\"]", "Unescaped control character in string at position 3"},
+        {"{\"a\nb\": 1}", "Unescaped control character in string at position 3"},
+        {"[\"\\u00", "Unterminated string"},
+    };
+
+    for (String[] c : cases) {
+      RuntimeException fromString = assertThrows(RuntimeException.class, () -> parser.parse(c[0]));
+      RuntimeException fromBytes = assertThrows(RuntimeException.class,
+          () -> parser.parse(c[0].getBytes(StandardCharsets.UTF_8)));
+      RuntimeException fromReader = assertThrows(RuntimeException.class, () -> parser.parse(new StringReader(c[0])));
+      assertThat(fromString.getMessage()).isEqualTo(c[1]);
+      assertThat(fromBytes.getMessage()).isEqualTo(c[1]);
+      assertThat(fromReader.getMessage()).isEqualTo(c[1]);
+    }
+  }
+
   @Test
   @DisplayName("Empty objects and arrays")
   void testEmptyObjectsAndArrays() {
@@ -0,0 +1,110 @@
+package jsonparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StructuralIndexTest {
+
+  private final RecursiveJsonParser parser = new RecursiveJsonParser();
+  private final RecursiveJsonParser indexed = new RecursiveJsonParser(
+      ParserOptions.builder().withStructuralIndex(true).build());
+
+  private static int[] positions(StructuralIndex.Classifier classifier, String json) {
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    StructuralIndex index = new StructuralIndex(classifier).build(bytes, 0, bytes.length);
+    return Arrays.copyOf(index.positions(), index.count());
+  }
+
+  @Test
+  @DisplayName("Indexes operators, quotes and literal starts outside strings")
+  void testPositions() {
+    String json = "{\"a\": [1, true], \"b\\\"{\": null}";
+
+    int[] expected = {0, 1, 3, 4, 6, 7, 8, 10, 14, 15, 17, 22, 23, 25, 29};
+
+    assertArrayEquals(expected, positions(StructuralIndex.scalarClassifier(), json));
+    assertArrayEquals(expected, positions(StructuralIndex.defaultClassifier(), json));
+  }
+
+  @Test
+  @DisplayName("Strings and escapes that span 64-byte blocks are tracked across blocks")
+  void testBlockBoundaries() {
+    for (int pad = 0; pad < 70; pad++) {
+      String json = "[" + " ".repeat(pad) + "\"" + "x".repeat(pad) + "\\\\\\\"" + "y,{" + "\", " + pad + "]";
+      byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+      assertThat(indexed.parse(bytes)).isEqualTo(parser.parse(json));
+    }
+  }
+
+  @Test
+  @DisplayName("The vector and scalar classifiers produce the same index")
+  void testClassifiersAgree() {
+    Random random = new Random(12);
+    String alphabet = "{}[]:,\" \t\n\r\\abtrue0123456789-.é";
+    for (int i = 0; i < 2000; i++) {
+      StringBuilder json = new StringBuilder();
+      int length = random.nextInt(300);
+      for (int j = 0; j < length; j++) {
+        json.append(alphabet.charAt(random.nextInt(alphabet.length())));
+      }
+
+      assertArrayEquals(positions(StructuralIndex.scalarClassifier(), json.toString()),
+          positions(StructuralIndex.defaultClassifier(), json.toString()));
+    }
+  }
+
+  @Test
+  @DisplayName("Indexed parsing returns the same trees and errors as plain parsing")
+  void testSameResults() {
+    String[] documents = {
+        "{\"name\": \"Test\", \"tags\": [\"a\", \"b\\\"c\"], \"n\": -1.5e3, \"ok\": true, \"none\": null}",
+        "  [ 1 ,\n\t2 ,\r\n 3 ]  ",
+        "\"é\\u0041\"",
+        "[]",
+        "[1, 2",
+        "{\"a\" 1}",
+        "[truex]",
+        "[\"open",
+        "[1] 2",
+        "{\"a\": \"b\\",
+    };
+
+    for (String json : documents) {
+      byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+      Object expected;
+      try {
+        expected = parser.parse(bytes);
+      } catch (RuntimeException e) {
+        RuntimeException actual = assertThrows(RuntimeException.class, () -> indexed.parse(bytes));
+        assertThat(actual.getMessage()).isEqualTo(e.getMessage());
+        continue;
+      }
+      assertThat(indexed.parse(bytes)).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  @DisplayName("skipChildren() jumps over strings through the index")
+  void testSkipChildren() {
+    byte[] bytes = "{\"skip\": {\"s\": \"a,b]\\\"}\", \"t\": [\"x\"]}, \"keep\": 7}".getBytes(StandardCharsets.UTF_8);
+    JsonReader reader = new JsonReader(bytes).withOptions(ParserOptions.builder().withStructuralIndex(true).build());
+
+    reader.nextToken();
+    reader.nextToken();
+    reader.nextToken();
+    reader.skipChildren();
+
+    assertThat(reader.nextToken()).isEqualTo(JsonToken.FIELD_NAME);
+    assertThat(reader.getString()).isEqualTo("keep");
+    assertThat(reader.nextToken()).isEqualTo(JsonToken.VALUE_NUMBER);
+    assertThat(reader.getInt()).isEqualTo(7);
+  }
+}
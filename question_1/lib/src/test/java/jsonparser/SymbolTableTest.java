@@ -0,0 +1,102 @@
+package jsonparser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SymbolTableTest {
+
+  private static final String DOCUMENT = "[{\"id\": 1, \"na\\u006de\": \"a\", \"città\": true}, "
+      + "{\"id\": 2, \"name\": \"b\", \"città\": false}]";
+
+  private static List<String> keys(Object document) {
+    List<String> keys = new ArrayList<>();
+    for (Object element : (List<Object>) document) {
+      keys.addAll(((Map<String, Object>) element).keySet());
+    }
+    return keys;
+  }
+
+  private static String key(List<String> keys, String name, int occurrence) {
+    for (String key : keys) {
+      if (key.equals(name) && occurrence-- == 0) {
+        return key;
+      }
+    }
+    throw new AssertionError("Missing key " + name);
+  }
+
+  @Test
+  @DisplayName("Repeated keys share one instance on every input kind")
+  void testCanonicalKeys() {
+    RecursiveJsonParser parser = new RecursiveJsonParser(ParserOptions.builder().withKeyCache(64, 16).build());
+    byte[] bytes = DOCUMENT.getBytes(StandardCharsets.UTF_8);
+
+    for (Object document : List.of(parser.parse(DOCUMENT), parser.parse(bytes), parser.parse(new java.io.StringReader(DOCUMENT)))) {
+      List<String> keys = keys(document);
+      assertSame(key(keys, "id", 0), key(keys, "id", 1));
+      assertSame(key(keys, "name", 0), key(keys, "name", 1));
+      assertSame(key(keys, "città", 0), key(keys, "città", 1));
+    }
+    assertSame(key(keys(parser.parse(DOCUMENT)), "id", 0), key(keys(parser.parse(bytes)), "id", 0));
+  }
+
+  @Test
+  @DisplayName("Disabled cache decodes every key")
+  void testDisabled() {
+    RecursiveJsonParser parser = new RecursiveJsonParser(ParserOptions.builder().withoutKeyCache().build());
+
+    List<String> keys = keys(parser.parse(DOCUMENT));
+
+    assertNotSame(key(keys, "id", 0), key(keys, "id", 1));
+    assertThat(parser.parse(DOCUMENT)).isEqualTo(new RecursiveJsonParser().parse(DOCUMENT));
+  }
+
+  @Test
+  @DisplayName("Long keys are never cached")
+  void testMaxKeyLength() {
+    RecursiveJsonParser parser = new RecursiveJsonParser(ParserOptions.builder().withKeyCache(64, 4).build());
+
+    List<String> keys = keys(parser.parse("[{\"short\": 1, \"tiny\": 2}, {\"short\": 3, \"tiny\": 4}]"));
+
+    assertNotSame(key(keys, "short", 0), key(keys, "short", 1));
+    assertSame(key(keys, "tiny", 0), key(keys, "tiny", 1));
+  }
+
+  @Test
+  @DisplayName("Table stays bounded under many distinct keys")
+  void testBounded() {
+    SymbolTable table = new SymbolTable(100, 64);
+    assertThat(table.capacity()).isEqualTo(128);
+
+    for (int i = 0; i < 100000; i++) {
+      String key = "key" + i;
+      assertThat(table.lookup(key, 0, key.length(), key.hashCode())).isEqualTo(key);
+    }
+    String last = table.intern("key99999");
+    assertSame(last, table.intern(new String("key99999")));
+    assertThat(table.capacity()).isEqualTo(128);
+  }
+
+  @Test
+  @DisplayName("Invalid options and unterminated keys")
+  void testErrors() {
+    assertThrows(IllegalArgumentException.class, () -> ParserOptions.builder().withKeyCache(0, 8));
+    assertThrows(IllegalArgumentException.class, () -> ParserOptions.builder().withKeyCache(8, -1));
+    assertThrows(IllegalArgumentException.class, () -> ParserOptions.builder().withKeyCache((1 << 30) + 1, 8));
+    assertThrows(IllegalArgumentException.class, () -> ParserOptions.builder().withKeyCache(Integer.MAX_VALUE, 8));
+
+    Exception exception = assertThrows(RuntimeException.class, () -> new RecursiveJsonParser().parse("{\"abc"));
+    assertThat(exception.getMessage()).isEqualTo("Unterminated string");
+    exception = assertThrows(RuntimeException.class,
+        () -> new RecursiveJsonParser().parse("{\"abc".getBytes(StandardCharsets.UTF_8)));
+    assertThat(exception.getMessage()).isEqualTo("Unterminated string");
+  }
+}
@@ -0,0 +1,60 @@
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Local cache that loads missing values through a user-provided loader.
+ * Instances are created with {@link CacheManager#createCache()} and are
+ * thread-safe. Keys and values must not be null.
+ */
+public interface AutoLoadCache<K, V> {
+
+  /**
+   * Returns the cached value of {@code key}, loading it on a miss. Returns
+   * null if there is no loader or the loader returned null.
+   */
+  V get(K key);
+
+  /**
+   * Returns the values of {@code keys} that are cached or could be loaded.
+   */
+  Map<K, V> getAll(Collection<K> keys);
+
+  void put(K key, V value);
+
+  void putAll(Map<K, V> entries);
+
+  void invalidate(K key);
+
+  void invalidateAll(Collection<K> keys);
+
+  void invalidateAll();
+
+  /**
+   * Returns whether {@code key} has an unexpired value, without loading it.
+   */
+  boolean containsKey(K key);
+
+  /**
+   * Returns the number of entries, which may briefly include entries that
+   * have expired or are about to be evicted.
+   */
+  int size();
+
+  CacheStats stats();
+
+  /**
+   * Removes the entries that have expired and applies pending evictions now,
+   * rather than as part of later reads and writes.
+   */
+  void cleanUp();
+
+  /**
+   * Loads {@code key} again and replaces the cached value with the result.
+   */
+  void refresh(K key);
+
+  /**
+   * Returns an unmodifiable snapshot of the unexpired entries.
+   */
+  Map<K, V> asMap();
+}
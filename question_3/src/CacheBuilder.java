@@ -0,0 +1,169 @@
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Configures an {@link AutoLoadCache}. Obtained from
+ * {@link CacheManager#createCache()}; every setting is optional.
+ */
+public final class CacheBuilder<K, V> {
+  long maxSize = Long.MAX_VALUE;
+  EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+  long expireAfterWriteNanos;
+  long expireAfterAccessNanos;
+  Expiry<? super K, ? super V> expiry;
+  ScheduledExecutorService scheduler;
+  Function<? super K, ? extends V> loader;
+  Function<Set<K>, Map<K, V>> bulkLoader;
+  int maxBatchSize = 1000;
+  long batchWindowNanos;
+  BiConsumer<? super K, ? super V> writer;
+
+  CacheBuilder() {
+  }
+
+  /**
+   * Bounds the number of entries. Once exceeded, the least recently used
+   * entries are evicted. Unbounded by default.
+   */
+  public CacheBuilder<K, V> withMaxSize(long maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("Max size must be positive: " + maxSize);
+    }
+    this.maxSize = maxSize;
+    return this;
+  }
+
+  /**
+   * Selects how entries are chosen for eviction once the maximum size is
+   * reached. Defaults to {@link EvictionPolicy#LRU}.
+   */
+  public CacheBuilder<K, V> withEvictionPolicy(EvictionPolicy evictionPolicy) {
+    if (evictionPolicy == null) {
+      throw new IllegalArgumentException("Eviction policy must not be null");
+    }
+    this.evictionPolicy = evictionPolicy;
+    return this;
+  }
+
+  /**
+   * Expires entries {@code duration} after they were loaded or put.
+   */
+  public CacheBuilder<K, V> withExpiration(long duration, TimeUnit unit) {
+    this.expireAfterWriteNanos = toNanos(duration, unit);
+    return this;
+  }
+
+  /**
+   * Expires entries that have not been read or written for {@code duration}.
+   */
+  public CacheBuilder<K, V> withIdleExpiration(long duration, TimeUnit unit) {
+    this.expireAfterAccessNanos = toNanos(duration, unit);
+    return this;
+  }
+
+  /**
+   * Lets {@code expiry} decide how long each entry lives, on top of any
+   * fixed expiration.
+   */
+  public CacheBuilder<K, V> withExpiry(Expiry<? super K, ? super V> expiry) {
+    if (expiry == null) {
+      throw new IllegalArgumentException("Expiry must not be null");
+    }
+    this.expiry = expiry;
+    return this;
+  }
+
+  /**
+   * Removes expired entries every second on {@code scheduler}, even when the
+   * cache is not used. Otherwise they are removed as part of later reads and
+   * writes. The scheduler keeps a reference to the cache while it runs.
+   */
+  public CacheBuilder<K, V> withScheduler(ScheduledExecutorService scheduler) {
+    if (scheduler == null) {
+      throw new IllegalArgumentException("Scheduler must not be null");
+    }
+    this.scheduler = scheduler;
+    return this;
+  }
+
+  /**
+   * Sets the function that loads a value on a miss. It may return null when
+   * there is no value, which is not cached.
+   */
+  public CacheBuilder<K, V> withLoader(Function<? super K, ? extends V> loader) {
+    if (loader == null) {
+      throw new IllegalArgumentException("Loader must not be null");
+    }
+    this.loader = loader;
+    return this;
+  }
+
+  /**
+   * Sets the function that loads several keys in one call. {@code getAll}
+   * passes it all of its misses, split into sets of at most
+   * {@link #withMaxBatchSize(int)} keys; keys missing from the returned map
+   * have no value. {@code get} uses it too when there is no single-key
+   * loader, or when {@link #withBatchWindow(long, TimeUnit)} is set.
+   */
+  public CacheBuilder<K, V> withBulkLoader(Function<Set<K>, Map<K, V>> bulkLoader) {
+    if (bulkLoader == null) {
+      throw new IllegalArgumentException("Bulk loader must not be null");
+    }
+    this.bulkLoader = bulkLoader;
+    return this;
+  }
+
+  /**
+   * Limits how many keys are passed to one bulk loader call. Defaults to 1000.
+   */
+  public CacheBuilder<K, V> withMaxBatchSize(int maxBatchSize) {
+    if (maxBatchSize <= 0) {
+      throw new IllegalArgumentException("Max batch size must be positive: " + maxBatchSize);
+    }
+    this.maxBatchSize = maxBatchSize;
+    return this;
+  }
+
+  /**
+   * Collects {@code get} misses for up to {@code duration} and loads them with
+   * one bulk loader call, or sooner once a full batch has been collected.
+   * Requires a bulk loader.
+   */
+  public CacheBuilder<K, V> withBatchWindow(long duration, TimeUnit unit) {
+    this.batchWindowNanos = toNanos(duration, unit);
+    return this;
+  }
+
+  /**
+   * Sets a function that saves every {@code put} to the backing store before
+   * it is cached. If it throws, the value is not cached.
+   */
+  public CacheBuilder<K, V> withWriteThrough(BiConsumer<? super K, ? super V> writer) {
+    if (writer == null) {
+      throw new IllegalArgumentException("Writer must not be null");
+    }
+    this.writer = writer;
+    return this;
+  }
+
+  public AutoLoadCache<K, V> build() {
+    if (batchWindowNanos > 0 && bulkLoader == null) {
+      throw new IllegalStateException("A batch window requires a bulk loader");
+    }
+    return new LocalAutoLoadCache<>(this);
+  }
+
+  private static long toNanos(long duration, TimeUnit unit) {
+    if (unit == null) {
+      throw new IllegalArgumentException("Time unit must not be null");
+    }
+    if (duration <= 0) {
+      throw new IllegalArgumentException("Duration must be positive: " + duration);
+    }
+    return unit.toNanos(duration);
+  }
+}
@@ -0,0 +1,20 @@
+/**
+ * Entry point for building caches.
+ *
+ * <pre>{@code
+ * AutoLoadCache<Long, User> users = CacheManager.<Long, User>createCache()
+ *     .withMaxSize(1000)
+ *     .withExpiration(30, TimeUnit.MINUTES)
+ *     .withLoader(id -> database.fetchUser(id))
+ *     .build();
+ * }</pre>
+ */
+public final class CacheManager {
+
+  private CacheManager() {
+  }
+
+  public static <K, V> CacheBuilder<K, V> createCache() {
+    return new CacheBuilder<>();
+  }
+}
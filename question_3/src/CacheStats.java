@@ -0,0 +1,44 @@
+/**
+ * Counters since a cache was built. Load times are in nanoseconds.
+ * Loads are counted per key, also when a bulk loader loads several keys in
+ * one call: a key the loader returned no value for, or whose call threw,
+ * counts as a failure.
+ * {@code coalescedLoadCount} counts the misses that waited for a load already
+ * running on another thread instead of calling the loader.
+ * {@code evictionCount} counts entries evicted to stay within the maximum
+ * size, and {@code expirationCount} the expired entries removed before
+ * anyone read them again; an expired entry that is read is replaced by a new
+ * load instead.
+ *
+ * <p>Under {@link EvictionPolicy#W_TINY_LFU}, {@code windowSize} is the
+ * current target size of the admission window, and {@code hitRateChange} is
+ * the difference between the hit rates of the last two samples the window
+ * size was tuned on; a positive value means the last resize paid off. Both
+ * are 0 under {@link EvictionPolicy#LRU}.
+ */
+public record CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount,
+    long totalLoadTime, long coalescedLoadCount, long evictionCount, long expirationCount, long windowSize,
+    double hitRateChange) {
+
+  public long requestCount() {
+    return hitCount + missCount;
+  }
+
+  public double hitRate() {
+    long requests = requestCount();
+    return requests == 0 ? 1.0 : (double) hitCount / requests;
+  }
+
+  public double missRate() {
+    long requests = requestCount();
+    return requests == 0 ? 0.0 : (double) missCount / requests;
+  }
+
+  /**
+   * Returns the average time spent loading a value, successful or not.
+   */
+  public double averageLoadPenalty() {
+    long loads = loadSuccessCount + loadFailureCount;
+    return loads == 0 ? 0.0 : (double) totalLoadTime / loads;
+  }
+}
@@ -0,0 +1,18 @@
+/**
+ * How a size-bounded {@link AutoLoadCache} chooses the entries to evict.
+ */
+public enum EvictionPolicy {
+  /**
+   * Evicts the least recently used entry.
+   */
+  LRU,
+
+  /**
+   * Window TinyLFU: new entries enter a small LRU admission window, and an
+   * entry leaving the window only displaces the eldest entry of the main
+   * segmented LRU region if it has been used more often, as estimated by a
+   * frequency sketch. The window size is tuned while the cache runs. Keeps
+   * frequently used entries through scans that would flush an LRU cache.
+   */
+  W_TINY_LFU
+}
@@ -0,0 +1,30 @@
+/**
+ * Decides how long each entry lives, for caches whose entries need different
+ * lifetimes. Durations are in nanoseconds, counted from the moment the entry
+ * is written or read; zero or less expires it at once. An entry also expires
+ * when any of the cache's fixed expirations is reached first.
+ */
+public interface Expiry<K, V> {
+
+  /**
+   * Returns how long a newly loaded or put entry lives.
+   */
+  long expireAfterCreate(K key, V value);
+
+  /**
+   * Returns how long an entry lives after it replaces an unexpired value,
+   * given the time {@code currentDuration} that value had left. Defaults to
+   * {@link #expireAfterCreate}.
+   */
+  default long expireAfterUpdate(K key, V value, long currentDuration) {
+    return expireAfterCreate(key, value);
+  }
+
+  /**
+   * Returns how long an entry lives after it is read, given the time
+   * {@code currentDuration} it had left. Defaults to leaving it unchanged.
+   */
+  default long expireAfterRead(K key, V value, long currentDuration) {
+    return currentDuration;
+  }
+}
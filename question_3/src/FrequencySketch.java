@@ -0,0 +1,99 @@
+/**
+ * Count-Min sketch estimating how often each key was used, for the
+ * {@link EvictionPolicy#W_TINY_LFU} admission decision. Counters are 4 bits
+ * wide, sixteen to a {@code long}, and each key maps to one counter in each
+ * of four rows; its estimate is the smallest of the four. The table is sized
+ * once from the maximum size of the cache, so recording a key never
+ * allocates. Once ten times as many increments as the table has words have
+ * been recorded, every counter is halved, so that keys which were popular a
+ * while ago fade. Not thread-safe; the cache only uses it under its
+ * eviction lock.
+ */
+final class FrequencySketch {
+  private static final long[] SEEDS = {
+      0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L
+  };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final long ONE_MASK = 0x1111111111111111L;
+  private static final int MAX_TABLE_SIZE = 1 << 24;
+
+  private final long[] table;
+  private final int tableMask;
+  private final int sampleSize;
+  private int size;
+
+  FrequencySketch(long maxSize) {
+    int length = 1;
+    while (length < maxSize && length < MAX_TABLE_SIZE) {
+      length <<= 1;
+    }
+    table = new long[length];
+    tableMask = length - 1;
+    sampleSize = 10 * length;
+  }
+
+  /**
+   * Returns the estimated number of uses of {@code key}, at most 15.
+   */
+  int frequency(Object key) {
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      int count = (int) ((table[indexOf(hash, i)] >>> ((start + i) << 2)) & 0xF);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  void increment(Object key) {
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(hash, i), start + i);
+    }
+    if (added && ++size == sampleSize) {
+      reset();
+    }
+  }
+
+  /**
+   * Increments counter {@code counter} of word {@code index} unless it is
+   * saturated.
+   */
+  private boolean incrementAt(int index, int counter) {
+    int offset = counter << 2;
+    long mask = 0xFL << offset;
+    if ((table[index] & mask) != mask) {
+      table[index] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Halves every counter. Odd counters lose their remainder, which is
+   * subtracted from the sample count too.
+   */
+  private void reset() {
+    int odd = 0;
+    for (int i = 0; i < table.length; i++) {
+      odd += Long.bitCount(table[i] & ONE_MASK);
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size = (size - (odd >>> 2)) >>> 1;
+  }
+
+  private int indexOf(int hash, int row) {
+    long h = (hash + SEEDS[row]) * SEEDS[row];
+    h += h >>> 32;
+    return (int) h & tableMask;
+  }
+
+  private static int spread(int x) {
+    x = ((x >>> 16) ^ x) * 0x45D9F3B;
+    x = ((x >>> 16) ^ x) * 0x45D9F3B;
+    return (x >>> 16) ^ x;
+  }
+}
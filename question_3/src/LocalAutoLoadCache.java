@@ -0,0 +1,983 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * The {@link AutoLoadCache} engine. Entries live in a {@link ConcurrentHashMap},
+ * and a hit is served from it without taking any lock. The LRU order used
+ * for size-based eviction is kept in a linked list that only the thread
+ * holding {@code evictionLock} touches: reads are recorded in a
+ * {@link StripedReadBuffer}, writes queue a task, and whichever thread
+ * manages to take the lock replays both in a batch. A reader never waits for
+ * that lock; it only tries it when its stripe is full.
+ *
+ * <p>Loads are single-flight: the first thread to miss on a key registers a
+ * {@link CompletableFuture} for it and calls the loader, and threads that
+ * miss on the key while the load is running wait on that future instead of
+ * calling the loader again. They all receive the same value, or the same
+ * exception. No lock is held while loading, and waiting parks the thread
+ * rather than blocking in a monitor, so virtual threads that wait for a load
+ * do not pin their carrier thread.
+ *
+ * <p>With a bulk loader, {@link #getAll} hands all of its misses that no
+ * other thread is loading to the bulk loader, in batches of at most
+ * {@code maxBatchSize} keys, and joins the loads already running for the
+ * rest. With a batch window as well, single {@link #get} misses are collected
+ * for up to that window and loaded together: the thread that opens a batch
+ * waits out the window and then loads it, unless the batch fills up first,
+ * in which case the thread that fills it loads it at once.
+ *
+ * <p>Under {@link EvictionPolicy#W_TINY_LFU} the eviction order is split
+ * into three LRU lists: the admission window that new entries enter, and the
+ * probation and protected segments of the main region. An entry read while
+ * on probation is promoted to protected, which holds 80% of the main region.
+ * An entry pushed out of the window competes with the eldest entry on
+ * probation, and the one with the lower {@link FrequencySketch} estimate is
+ * evicted. Every {@code 10 * maxSize} requests the hit rate is sampled and
+ * the window is grown or shrunk by hill climbing: the step continues in the
+ * direction that last improved the hit rate, decays as the hit rate settles,
+ * and restarts when it moves by 5% or more. Under {@link EvictionPolicy#LRU}
+ * every entry stays in the window, which then spans the whole cache.
+ *
+ * <p>Each entry gets a deadline, the earliest of its fixed expirations and
+ * the one its {@link Expiry} gives it, and is placed in a {@link TimerWheel}
+ * by that deadline when its write is replayed; a replayed read moves it to
+ * the bucket of its new deadline when reads can change it. Each maintenance
+ * run advances the wheel and removes the entries in the buckets whose time
+ * has passed, so its cost depends on how many entries expired, not on how
+ * many are cached. A read still checks the deadline itself, since the
+ * wheel's finest buckets are about a second wide and an entry can stay
+ * cached up to that long past its deadline.
+ */
+final class LocalAutoLoadCache<K, V> implements AutoLoadCache<K, V> {
+  private static final byte UNLINKED = 0;
+  private static final byte WINDOW = 1;
+  private static final byte PROBATION = 2;
+  private static final byte PROTECTED = 3;
+
+  private static final double HILL_CLIMBER_RESTART_STEP = 0.0625;
+  private static final double HILL_CLIMBER_RESTART_THRESHOLD = 0.05;
+  private static final double HILL_CLIMBER_STEP_DECAY = 0.98;
+
+  private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+  private final long maxSize;
+  private final long expireAfterWriteNanos;
+  private final long expireAfterAccessNanos;
+  private final Expiry<? super K, ? super V> expiry;
+  private final boolean expires;
+  private final boolean readsExtendExpiry;
+  // Times are measured from here, so they are never negative
+  private final long origin = System.nanoTime();
+  private final Function<? super K, ? extends V> loader;
+  private final Function<Set<K>, Map<K, V>> bulkLoader;
+  private final int maxBatchSize;
+  private final long batchWindowNanos;
+  private final BiConsumer<? super K, ? super V> writer;
+
+  private final StripedReadBuffer<Node<K, V>> readBuffer = new StripedReadBuffer<>();
+  private final ConcurrentLinkedQueue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final ConcurrentHashMap<K, Load<K, V>> loads = new ConcurrentHashMap<>();
+  private final ReentrantLock batchLock = new ReentrantLock();
+  // The batch of get() misses being collected, guarded by batchLock
+  private Map<K, Load<K, V>> batch;
+
+  // Eviction order, guarded by evictionLock
+  private final NodeList<K, V> window = new NodeList<>();
+  private final NodeList<K, V> probation = new NodeList<>();
+  private final NodeList<K, V> protectedRegion = new NodeList<>();
+  private final FrequencySketch sketch;
+  private final TimerWheel<K, V> timerWheel;
+  private volatile long windowMax;
+  private long protectedMax;
+
+  // Hill climber state, guarded by evictionLock
+  private double stepSize;
+  private double previousHitRate = Double.NaN;
+  private long sampleHits;
+  private long sampleRequests;
+  private volatile double hitRateChange;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder loadSuccesses = new LongAdder();
+  private final LongAdder loadFailures = new LongAdder();
+  private final LongAdder loadTime = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder expirations = new LongAdder();
+
+  LocalAutoLoadCache(CacheBuilder<K, V> builder) {
+    this.maxSize = builder.maxSize;
+    this.expireAfterWriteNanos = builder.expireAfterWriteNanos;
+    this.expireAfterAccessNanos = builder.expireAfterAccessNanos;
+    this.expiry = builder.expiry;
+    this.expires = expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0 || expiry != null;
+    this.readsExtendExpiry = expireAfterAccessNanos > 0 || expiry != null;
+    this.timerWheel = expires ? new TimerWheel<>() : null;
+    this.loader = builder.loader;
+    this.bulkLoader = builder.bulkLoader;
+    this.maxBatchSize = builder.maxBatchSize;
+    this.batchWindowNanos = builder.batchWindowNanos;
+    this.writer = builder.writer;
+
+    if (builder.evictionPolicy == EvictionPolicy.W_TINY_LFU && maxSize < Long.MAX_VALUE) {
+      this.sketch = new FrequencySketch(maxSize);
+      resizeWindow(Math.max(1, maxSize / 100));
+      this.stepSize = HILL_CLIMBER_RESTART_STEP * maxSize;
+    } else {
+      this.sketch = null;
+      this.windowMax = maxSize;
+    }
+    if (builder.scheduler != null && expires) {
+      builder.scheduler.scheduleWithFixedDelay(this::cleanUp, 1, 1, TimeUnit.SECONDS);
+    }
+  }
+
+  @Override
+  public V get(K key) {
+    requireKey(key);
+    long now = now();
+    Node<K, V> node = data.get(key);
+    if (node != null && !isExpired(node, now)) {
+      hits.increment();
+      afterRead(node, now);
+      return node.value;
+    }
+    misses.increment();
+    return loader == null && bulkLoader == null ? null : load(key, false);
+  }
+
+  @Override
+  public Map<K, V> getAll(Collection<K> keys) {
+    for (K key : keys) {
+      requireKey(key);
+    }
+    long now = now();
+    Map<K, V> found = new HashMap<>();
+    Map<K, Load<K, V>> owned = new LinkedHashMap<>();
+    Map<K, Load<K, V>> joined = new HashMap<>();
+    boolean loading = loader != null || bulkLoader != null;
+    try {
+      for (K key : keys) {
+        if (found.containsKey(key) || owned.containsKey(key) || joined.containsKey(key)) {
+          continue;
+        }
+        Node<K, V> node = data.get(key);
+        if (node != null && !isExpired(node, now)) {
+          hits.increment();
+          afterRead(node, now);
+          found.put(key, node.value);
+          continue;
+        }
+        misses.increment();
+        if (!loading) {
+          continue;
+        }
+        Load<K, V> load = new Load<>(Thread.currentThread());
+        Load<K, V> running = register(key, load);
+        if (running != null) {
+          joined.put(key, running);
+          continue;
+        }
+        // Another thread may have cached the key since the miss
+        node = data.get(key);
+        if (node != null && !isExpired(node, now)) {
+          settle(key, load, node.value, null);
+          found.put(key, node.value);
+        } else {
+          load.expected = node;
+          owned.put(key, load);
+        }
+      }
+    } catch (RuntimeException | Error e) {
+      // Fail the loads registered so far, or later misses on their keys would wait forever
+      for (Map.Entry<K, Load<K, V>> entry : owned.entrySet()) {
+        settle(entry.getKey(), entry.getValue(), null, e);
+      }
+      throw e;
+    }
+
+    if (!owned.isEmpty()) {
+      if (bulkLoader != null) {
+        loadAll(owned);
+      } else {
+        loadEach(owned);
+      }
+    }
+
+    Map<K, V> result = new LinkedHashMap<>();
+    for (K key : keys) {
+      V value = found.get(key);
+      if (value == null) {
+        Load<K, V> load = owned.containsKey(key) ? owned.get(key) : joined.get(key);
+        value = load == null ? null : join(load.future);
+      }
+      if (value != null) {
+        result.put(key, value);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public void put(K key, V value) {
+    requireKey(key);
+    requireValue(value);
+    if (writer != null) {
+      writer.accept(key, value);
+    }
+    discardLoad(key);
+    store(key, value);
+  }
+
+  @Override
+  public void putAll(Map<K, V> entries) {
+    for (Map.Entry<K, V> entry : entries.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  @Override
+  public void invalidate(K key) {
+    requireKey(key);
+    discardLoad(key);
+    Node<K, V> node = data.remove(key);
+    if (node != null) {
+      retire(node);
+    }
+  }
+
+  @Override
+  public void invalidateAll(Collection<K> keys) {
+    for (K key : keys) {
+      invalidate(key);
+    }
+  }
+
+  @Override
+  public void invalidateAll() {
+    for (Load<K, V> load : loads.values()) {
+      load.discarded = true;
+    }
+    for (Node<K, V> node : data.values()) {
+      if (data.remove(node.key, node)) {
+        retire(node);
+      }
+    }
+  }
+
+  @Override
+  public boolean containsKey(K key) {
+    requireKey(key);
+    Node<K, V> node = data.get(key);
+    return node != null && !isExpired(node, now());
+  }
+
+  @Override
+  public int size() {
+    return data.size();
+  }
+
+  @Override
+  public CacheStats stats() {
+    return new CacheStats(hits.sum(), misses.sum(), loadSuccesses.sum(), loadFailures.sum(), loadTime.sum(),
+        coalesced.sum(), evictions.sum(), expirations.sum(), sketch == null ? 0 : windowMax, hitRateChange);
+  }
+
+  @Override
+  public void cleanUp() {
+    drain();
+  }
+
+  @Override
+  public void refresh(K key) {
+    requireKey(key);
+    if (loader == null && bulkLoader == null) {
+      throw new IllegalStateException("Cannot refresh without a loader");
+    }
+    load(key, true);
+  }
+
+  @Override
+  public Map<K, V> asMap() {
+    long now = now();
+    Map<K, V> snapshot = new HashMap<>();
+    for (Node<K, V> node : data.values()) {
+      if (!isExpired(node, now)) {
+        snapshot.put(node.key, node.value);
+      }
+    }
+    return Collections.unmodifiableMap(snapshot);
+  }
+
+  /**
+   * Loads {@code key}, or joins the load of it that is already running. Unless
+   * {@code reload} is set, a value cached by a load that finished between the
+   * caller's miss and this call is returned instead.
+   */
+  private V load(K key, boolean reload) {
+    Load<K, V> load = new Load<>(Thread.currentThread());
+    Load<K, V> running = register(key, load);
+    if (running != null) {
+      return join(running.future);
+    }
+
+    long now = now();
+    Node<K, V> node = data.get(key);
+    if (!reload && node != null && !isExpired(node, now)) {
+      afterRead(node, now);
+      settle(key, load, node.value, null);
+      return node.value;
+    }
+    load.expected = node;
+    if (bulkLoader != null && (loader == null || batchWindowNanos > 0)) {
+      if (batchWindowNanos > 0) {
+        enqueue(key, load);
+      } else {
+        loadAll(Map.of(key, load));
+      }
+    } else {
+      loadEach(Map.of(key, load));
+    }
+    return join(load.future);
+  }
+
+  /**
+   * Registers {@code load} as the load of {@code key} and returns null, or
+   * returns the load another thread is already running for it.
+   */
+  private Load<K, V> register(K key, Load<K, V> load) {
+    Load<K, V> running = loads.putIfAbsent(key, load);
+    if (running != null) {
+      if (running.owner == Thread.currentThread()) {
+        throw new IllegalStateException("Recursive load of key " + key);
+      }
+      coalesced.increment();
+    }
+    return running;
+  }
+
+  /**
+   * Caches the outcome of a registered load, completes it and unregisters
+   * it. The value is cached before the load is unregistered, so a later miss
+   * finds one or the other; a load that found no value removes the key. If
+   * the value cannot be cached because the expiry throws, the load fails
+   * with that exception.
+   *
+   * <p>The outcome is not cached if a put or invalidate discarded the load
+   * meanwhile, so a slow load never overwrites newer state. Otherwise it
+   * replaces the node the load started from, or takes the place of one that
+   * expiry or eviction removed during the load. Its waiters get the value
+   * either way.
+   */
+  private void finish(K key, Load<K, V> load, V value, Throwable error) {
+    if (error == null) {
+      try {
+        Node<K, V> expected = load.expected;
+        Node<K, V> node = value == null ? null : newNode(key, value, expected);
+        // Whether the outcome was stored, and whether it replaced the expected node
+        boolean[] replaced = new boolean[2];
+        data.compute(key, (k, current) -> {
+          if (load.discarded || (current != expected && current != null)) {
+            return current;
+          }
+          replaced[0] = true;
+          replaced[1] = current != null;
+          return node;
+        });
+        if (replaced[0]) {
+          if (replaced[1]) {
+            retire(expected);
+          }
+          if (node != null) {
+            afterWrite(() -> link(node));
+          }
+        }
+      } catch (RuntimeException | Error e) {
+        error = e;
+      }
+    }
+    settle(key, load, value, error);
+  }
+
+  /**
+   * Completes a registered load and unregisters it.
+   */
+  private void settle(K key, Load<K, V> load, V value, Throwable error) {
+    if (error != null) {
+      load.future.completeExceptionally(error);
+    } else {
+      load.future.complete(value);
+    }
+    loads.remove(key, load);
+  }
+
+  /**
+   * Keeps a load that is running for {@code key} from caching its outcome,
+   * because a put or invalidate has made it stale. Called before the map is
+   * changed, so a load that caches its value first has it replaced or
+   * removed by the change.
+   */
+  private void discardLoad(K key) {
+    Load<K, V> load = loads.get(key);
+    if (load != null) {
+      load.discarded = true;
+    }
+  }
+
+  /**
+   * Loads the keys one at a time with the single-key loader.
+   */
+  private void loadEach(Map<K, Load<K, V>> owned) {
+    for (Map.Entry<K, Load<K, V>> entry : owned.entrySet()) {
+      V value;
+      try {
+        value = callLoader(entry.getKey());
+      } catch (RuntimeException | Error e) {
+        finish(entry.getKey(), entry.getValue(), null, e);
+        continue;
+      }
+      finish(entry.getKey(), entry.getValue(), value, null);
+    }
+  }
+
+  /**
+   * Loads the keys with the bulk loader, {@code maxBatchSize} at a time. A
+   * failed call fails the loads of its keys only; keys missing from a result
+   * are loaded as null.
+   */
+  private void loadAll(Map<K, Load<K, V>> owned) {
+    List<K> keys = new ArrayList<>(owned.keySet());
+    for (int from = 0; from < keys.size(); from += maxBatchSize) {
+      List<K> chunk = keys.subList(from, Math.min(from + maxBatchSize, keys.size()));
+      Map<K, V> values;
+      try {
+        values = callBulkLoader(new LinkedHashSet<>(chunk));
+      } catch (RuntimeException | Error e) {
+        for (K key : chunk) {
+          finish(key, owned.get(key), null, e);
+        }
+        continue;
+      }
+      for (K key : chunk) {
+        finish(key, owned.get(key), values.get(key), null);
+      }
+    }
+  }
+
+  /**
+   * Adds a registered load to the batch being collected. The thread that
+   * opens a batch waits for the window and then loads it; a thread whose key
+   * fills the batch loads it immediately instead.
+   */
+  private void enqueue(K key, Load<K, V> load) {
+    Map<K, Load<K, V>> opened = null;
+    Map<K, Load<K, V>> full = null;
+    batchLock.lock();
+    try {
+      if (batch == null) {
+        batch = new LinkedHashMap<>();
+        opened = batch;
+      }
+      batch.put(key, load);
+      if (batch.size() >= maxBatchSize) {
+        full = batch;
+        batch = null;
+      }
+    } finally {
+      batchLock.unlock();
+    }
+    if (full != null) {
+      loadAll(full);
+      return;
+    }
+    if (opened == null) {
+      return;
+    }
+
+    // Wakes as soon as a thread that fills the batch has loaded it
+    try {
+      load.future.get(batchWindowNanos, TimeUnit.NANOSECONDS);
+    } catch (TimeoutException | ExecutionException e) {
+      // The window is over, or the batch was loaded and failed
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    batchLock.lock();
+    try {
+      if (batch != opened) {
+        // Already loaded by the thread that filled it
+        return;
+      }
+      batch = null;
+    } finally {
+      batchLock.unlock();
+    }
+    loadAll(opened);
+  }
+
+  /**
+   * Waits for another thread's load and rethrows its exception unwrapped.
+   */
+  private static <V> V join(CompletableFuture<V> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private V callLoader(K key) {
+    long start = System.nanoTime();
+    V value;
+    try {
+      value = loader.apply(key);
+    } catch (RuntimeException | Error e) {
+      loadFailures.increment();
+      loadTime.add(System.nanoTime() - start);
+      throw e;
+    }
+    loadTime.add(System.nanoTime() - start);
+    if (value == null) {
+      loadFailures.increment();
+    } else {
+      loadSuccesses.increment();
+    }
+    return value;
+  }
+
+  private Map<K, V> callBulkLoader(Set<K> keys) {
+    long start = System.nanoTime();
+    Map<K, V> values;
+    try {
+      values = bulkLoader.apply(keys);
+    } catch (RuntimeException | Error e) {
+      loadFailures.add(keys.size());
+      loadTime.add(System.nanoTime() - start);
+      throw e;
+    }
+    loadTime.add(System.nanoTime() - start);
+    if (values == null) {
+      values = Map.of();
+    }
+    int loaded = 0;
+    for (K key : keys) {
+      if (values.get(key) != null) {
+        loaded++;
+      }
+    }
+    loadSuccesses.add(loaded);
+    loadFailures.add(keys.size() - loaded);
+    return values;
+  }
+
+  private void store(K key, V value) {
+    Node<K, V> node = newNode(key, value, data.get(key));
+    Node<K, V> prior = data.put(key, node);
+    if (prior != null) {
+      retire(prior);
+    }
+    afterWrite(() -> link(node));
+  }
+
+  /**
+   * Creates the node for a value written over {@code current}, the node the
+   * key maps to or null, and sets its deadlines.
+   */
+  private Node<K, V> newNode(K key, V value, Node<K, V> current) {
+    long now = now();
+    Node<K, V> node = new Node<>(key, value, now);
+    if (expires) {
+      if (expiry != null) {
+        node.variableTime = saturatedAdd(now, current == null || isExpired(current, now)
+            ? expiry.expireAfterCreate(key, value)
+            : expiry.expireAfterUpdate(key, value, current.variableTime - now));
+      }
+      node.expiresAt = deadline(node, now);
+    }
+    return node;
+  }
+
+  /**
+   * Marks a node that has just been removed from the map, and queues its
+   * removal from the LRU list. A node retired before its link task ran is
+   * never linked.
+   */
+  private void retire(Node<K, V> node) {
+    node.retired = true;
+    afterWrite(() -> unlink(node));
+  }
+
+  private void afterRead(Node<K, V> node, long now) {
+    if (readsExtendExpiry) {
+      if (expiry != null) {
+        node.variableTime = saturatedAdd(now,
+            expiry.expireAfterRead(node.key, node.value, node.variableTime - now));
+      }
+      node.expiresAt = deadline(node, now);
+    }
+    if (readBuffer.offer(node) == StripedReadBuffer.FULL) {
+      drain();
+    }
+  }
+
+  private void afterWrite(Runnable task) {
+    writeBuffer.add(task);
+    drain();
+  }
+
+  /**
+   * Replays the buffered reads and writes, removes expired entries and evicts
+   * down to the maximum size, unless another thread is already doing so. The queue is checked
+   * again after unlocking, because a task added while the lock was held may
+   * have been missed by the thread holding it.
+   */
+  private void drain() {
+    do {
+      if (!evictionLock.tryLock()) {
+        return;
+      }
+      try {
+        readBuffer.drainTo(this::touch);
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null) {
+          task.run();
+        }
+        if (timerWheel != null) {
+          long now = now();
+          timerWheel.advance(now, node -> expire(node, now));
+        }
+        evict();
+      } finally {
+        evictionLock.unlock();
+      }
+    } while (!writeBuffer.isEmpty());
+  }
+
+  /**
+   * Moves entries pushed out of the window to probation, settling admission
+   * for each while the cache is over its maximum size, then evicts until it
+   * no longer is.
+   */
+  private void evict() {
+    if (sketch != null) {
+      climb();
+      while (window.size > windowMax) {
+        Node<K, V> candidate = window.head;
+        move(candidate, probation, PROBATION);
+        if (linkedSize() > maxSize) {
+          admit(candidate);
+        }
+      }
+    }
+    while (linkedSize() > maxSize) {
+      Node<K, V> victim = probation.head != null ? probation.head
+          : protectedRegion.head != null ? protectedRegion.head : window.head;
+      evict(victim);
+    }
+  }
+
+  /**
+   * Evicts either {@code candidate}, just moved out of the window, or the
+   * eldest entry of the main region, whichever has been used less often.
+   */
+  private void admit(Node<K, V> candidate) {
+    Node<K, V> victim = probation.head != candidate ? probation.head : protectedRegion.head;
+    if (victim == null || sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+      evict(candidate);
+    } else {
+      evict(victim);
+    }
+  }
+
+  private void evict(Node<K, V> node) {
+    unlink(node);
+    if (data.remove(node.key, node)) {
+      node.retired = true;
+      evictions.increment();
+    }
+  }
+
+  /**
+   * Removes a node the timer wheel fired for, if it has expired. Returns
+   * false if its deadline moved since it was scheduled.
+   */
+  private boolean expire(Node<K, V> node, long now) {
+    if (!isExpired(node, now)) {
+      return false;
+    }
+    unlink(node);
+    if (data.remove(node.key, node)) {
+      node.retired = true;
+      expirations.increment();
+    }
+    return true;
+  }
+
+  /**
+   * Once enough requests have been made since the last sample, moves the
+   * window size one step in the direction that last improved the hit rate.
+   */
+  private void climb() {
+    long hitCount = hits.sum();
+    long requestCount = hitCount + misses.sum();
+    long requests = requestCount - sampleRequests;
+    if (requests < 10 * maxSize) {
+      return;
+    }
+    double hitRate = (double) (hitCount - sampleHits) / requests;
+    sampleHits = hitCount;
+    sampleRequests = requestCount;
+    if (Double.isNaN(previousHitRate)) {
+      previousHitRate = hitRate;
+      return;
+    }
+
+    double change = hitRate - previousHitRate;
+    double amount = change >= 0 ? stepSize : -stepSize;
+    stepSize = Math.abs(change) >= HILL_CLIMBER_RESTART_THRESHOLD
+        ? HILL_CLIMBER_RESTART_STEP * maxSize * Math.signum(amount)
+        : HILL_CLIMBER_STEP_DECAY * amount;
+    resizeWindow(windowMax + Math.round(amount));
+    previousHitRate = hitRate;
+    hitRateChange = change;
+  }
+
+  private long linkedSize() {
+    return window.size + probation.size + protectedRegion.size;
+  }
+
+  private void resizeWindow(long size) {
+    windowMax = Math.max(1, Math.min(size, maxSize - 1));
+    protectedMax = (maxSize - windowMax) * 4 / 5;
+  }
+
+  private void link(Node<K, V> node) {
+    if (node.retired || node.region != UNLINKED) {
+      return;
+    }
+    if (sketch != null) {
+      sketch.increment(node.key);
+    }
+    window.addLast(node);
+    node.region = WINDOW;
+    if (timerWheel != null) {
+      timerWheel.schedule(node);
+    }
+  }
+
+  private void unlink(Node<K, V> node) {
+    if (timerWheel != null) {
+      timerWheel.deschedule(node);
+    }
+    if (node.region != UNLINKED) {
+      list(node.region).remove(node);
+      node.region = UNLINKED;
+    }
+  }
+
+  /**
+   * Moves a node to another region. It stays scheduled in the timer wheel.
+   */
+  private void move(Node<K, V> node, NodeList<K, V> to, byte region) {
+    list(node.region).remove(node);
+    to.addLast(node);
+    node.region = region;
+  }
+
+  private NodeList<K, V> list(byte region) {
+    return switch (region) {
+      case WINDOW -> window;
+      case PROBATION -> probation;
+      default -> protectedRegion;
+    };
+  }
+
+  /**
+   * Moves a node that was read to the most recently used end of its region,
+   * promoting it out of probation.
+   */
+  private void touch(Node<K, V> node) {
+    if (node.region == UNLINKED) {
+      return;
+    }
+    if (sketch != null) {
+      sketch.increment(node.key);
+    }
+    if (readsExtendExpiry) {
+      timerWheel.reschedule(node);
+    }
+    switch (node.region) {
+      case WINDOW -> window.moveToLast(node);
+      case PROTECTED -> protectedRegion.moveToLast(node);
+      default -> {
+        move(node, protectedRegion, PROTECTED);
+        if (protectedRegion.size > protectedMax) {
+          move(protectedRegion.head, probation, PROBATION);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the time since the cache was created, or 0 if nothing expires and
+   * the clock is never needed.
+   */
+  private long now() {
+    return expires ? System.nanoTime() - origin : 0;
+  }
+
+  private boolean isExpired(Node<K, V> node, long now) {
+    return now >= node.expiresAt;
+  }
+
+  /**
+   * Returns the earliest of the node's expirations, for a node written or
+   * read at {@code now}.
+   */
+  private long deadline(Node<K, V> node, long now) {
+    long deadline = node.variableTime;
+    if (expireAfterWriteNanos > 0) {
+      deadline = Math.min(deadline, saturatedAdd(node.writeTime, expireAfterWriteNanos));
+    }
+    if (expireAfterAccessNanos > 0) {
+      deadline = Math.min(deadline, saturatedAdd(now, expireAfterAccessNanos));
+    }
+    return deadline;
+  }
+
+  /**
+   * Adds a duration to a time, saturating instead of overflowing. A negative
+   * duration counts as 0.
+   */
+  private static long saturatedAdd(long time, long duration) {
+    long sum = time + Math.max(0, duration);
+    return sum < time ? Long.MAX_VALUE : sum;
+  }
+
+  private static void requireKey(Object key) {
+    if (key == null) {
+      throw new IllegalArgumentException("Key must not be null");
+    }
+  }
+
+  private static void requireValue(Object value) {
+    if (value == null) {
+      throw new IllegalArgumentException("Value must not be null");
+    }
+  }
+
+  /**
+   * A load in progress, and the thread running it. {@code expected} is the
+   * node the key mapped to when the load started, which its value may
+   * replace; {@code discarded} is set when a put or invalidate makes the
+   * load stale.
+   */
+  private static final class Load<K, V> {
+    final Thread owner;
+    final CompletableFuture<V> future = new CompletableFuture<>();
+    volatile Node<K, V> expected;
+    volatile boolean discarded;
+
+    Load(Thread owner) {
+      this.owner = owner;
+    }
+  }
+
+  /**
+   * A cached entry. A new node replaces it when the key is written again,
+   * so the value and write time never change. {@code variableTime} is the
+   * deadline its {@link Expiry} gave it, and {@code expiresAt} the earliest
+   * of all its deadlines.
+   */
+  static final class Node<K, V> {
+    final K key;
+    final V value;
+    final long writeTime;
+    volatile long variableTime = Long.MAX_VALUE;
+    volatile long expiresAt = Long.MAX_VALUE;
+    volatile boolean retired;
+
+    // Guarded by evictionLock
+    Node<K, V> prev;
+    Node<K, V> next;
+    byte region;
+    Node<K, V> prevInTimer;
+    Node<K, V> nextInTimer;
+
+    Node(K key, V value, long now) {
+      this.key = key;
+      this.value = value;
+      this.writeTime = now;
+    }
+  }
+
+  /**
+   * Doubly linked list of the nodes in one region, from the least recently
+   * used one. Guarded by evictionLock.
+   */
+  static final class NodeList<K, V> {
+    Node<K, V> head;
+    Node<K, V> tail;
+    long size;
+
+    void addLast(Node<K, V> node) {
+      node.prev = tail;
+      node.next = null;
+      if (tail == null) {
+        head = node;
+      } else {
+        tail.next = node;
+      }
+      tail = node;
+      size++;
+    }
+
+    void remove(Node<K, V> node) {
+      if (node.prev == null) {
+        head = node.next;
+      } else {
+        node.prev.next = node.next;
+      }
+      if (node.next == null) {
+        tail = node.prev;
+      } else {
+        node.next.prev = node.prev;
+      }
+      node.prev = null;
+      node.next = null;
+      size--;
+    }
+
+    void moveToLast(Node<K, V> node) {
+      if (node != tail) {
+        remove(node);
+        addLast(node);
+      }
+    }
+  }
+}
@@ -0,0 +1,343 @@
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+public class Main {
+  public static void main(String[] args) throws Exception {
+    System.out.println("===== AutoLoadCache functionality test =====\n");
+
+    // === Test 1: Automatic Loading ===
+    System.out.println("Test 1: Automatic Loading");
+    AtomicInteger loads = new AtomicInteger();
+    AutoLoadCache<Integer, String> cache = CacheManager.<Integer, String>createCache()
+        .withMaxSize(100)
+        .withLoader(id -> {
+          loads.incrementAndGet();
+          return "user-" + id;
+        })
+        .build();
+    System.out.println("get(1): " + cache.get(1));
+    System.out.println("get(1) again: " + cache.get(1));
+    System.out.println("Loader calls (expected 1): " + loads.get());
+    System.out.println("getAll([1, 2, 3]): " + cache.getAll(List.of(1, 2, 3)));
+    System.out.println("containsKey(4) without loading: " + cache.containsKey(4));
+    System.out.println("Stats: " + cache.stats());
+    System.out.println();
+
+    // === Test 2: Size-Based LRU Eviction ===
+    System.out.println("Test 2: Size-Based LRU Eviction");
+    AutoLoadCache<Integer, String> small = CacheManager.<Integer, String>createCache()
+        .withMaxSize(3)
+        .withLoader(id -> "value-" + id)
+        .build();
+    small.get(1);
+    small.get(2);
+    small.get(3);
+    small.get(1); // 2 is now the least recently used entry
+    small.get(4);
+    System.out.println("Size (expected 3): " + small.size());
+    System.out.println("Contains 2 (expected false): " + small.containsKey(2));
+    System.out.println("Contains 1 (expected true): " + small.containsKey(1));
+    System.out.println("Evictions (expected 1): " + small.stats().evictionCount());
+    System.out.println();
+
+    // === Test 3: Expiration ===
+    System.out.println("Test 3: Expiration");
+    AutoLoadCache<String, Long> expiring = CacheManager.<String, Long>createCache()
+        .withExpiration(50, TimeUnit.MILLISECONDS)
+        .withLoader(key -> System.nanoTime())
+        .build();
+    long first = expiring.get("now");
+    Thread.sleep(100);
+    System.out.println("Reloaded after expiry (expected true): " + (expiring.get("now") != first));
+
+    // A drain during the reload removes the expired entry; the reloaded value must still be cached
+    AtomicInteger reloads = new AtomicInteger();
+    AutoLoadCache<String, String> stale = CacheManager.<String, String>createCache()
+        .withExpiration(100, TimeUnit.MILLISECONDS)
+        .withLoader(key -> {
+          reloads.incrementAndGet();
+          sleep(1500);
+          return "v2";
+        })
+        .build();
+    stale.put("k", "v1");
+    sleep(200);
+    Thread reloading = Thread.startVirtualThread(() -> stale.get("k"));
+    sleep(1200); // past the expired entry's timer wheel bucket, so the drain removes it
+    stale.cleanUp();
+    reloading.join();
+    System.out.println("Cached after a drain during the reload (expected true): " + stale.containsKey("k"));
+    System.out.println("Value after the reload (expected v2): " + stale.get("k"));
+    System.out.println("Loader calls for the expired key (expected 1): " + reloads.get());
+
+    // Even ids live 50 ms and odd ids an hour; the expired ones are removed without being read
+    AutoLoadCache<Integer, String> sessions = CacheManager.<Integer, String>createCache()
+        .withExpiry((id, session) -> TimeUnit.MILLISECONDS.toNanos(id % 2 == 0 ? 50 : 3_600_000))
+        .build();
+    for (int i = 0; i < 10_000; i++) {
+      sessions.put(i, "session-" + i);
+    }
+    sleep(1200); // the timer wheel's finest buckets are 1.07 s wide
+    sessions.put(-1, "session-new");
+    System.out.println("Size after one more put (expected 5001): " + sessions.size());
+    System.out.println("Expirations (expected 5000): " + sessions.stats().expirationCount());
+    System.out.println();
+
+    // === Test 4: Write-Through, Refresh and Invalidation ===
+    System.out.println("Test 4: Write-Through, Refresh and Invalidation");
+    Map<String, String> store = new LinkedHashMap<>();
+    AutoLoadCache<String, String> backed = CacheManager.<String, String>createCache()
+        .withLoader(store::get)
+        .withWriteThrough(store::put)
+        .build();
+    backed.put("a", "1");
+    System.out.println("Backing store after put: " + store);
+    store.put("a", "2");
+    backed.refresh("a");
+    System.out.println("After refresh (expected 2): " + backed.get("a"));
+    backed.invalidate("a");
+    System.out.println("Contains a after invalidate (expected false): " + backed.containsKey("a"));
+    System.out.println("Missing key loads null (expected null): " + backed.get("missing"));
+    System.out.println("asMap: " + backed.asMap());
+    System.out.println();
+
+    // === Test 5: Request Coalescing ===
+    System.out.println("Test 5: Request Coalescing");
+    AtomicInteger queries = new AtomicInteger();
+    AutoLoadCache<String, Object> slow = CacheManager.<String, Object>createCache()
+        .withLoader(key -> {
+          queries.incrementAndGet();
+          sleep(200);
+          if (key.equals("broken")) {
+            throw new IllegalStateException("database unavailable");
+          }
+          return new Object();
+        })
+        .build();
+    Set<Object> results = ConcurrentHashMap.newKeySet();
+    Set<Throwable> errors = ConcurrentHashMap.newKeySet();
+    try (ExecutorService herd = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < 1000; i++) {
+        herd.submit(() -> results.add(slow.get("hot")));
+        herd.submit(() -> {
+          try {
+            slow.get("broken");
+          } catch (IllegalStateException e) {
+            errors.add(e);
+          }
+        });
+      }
+    }
+    System.out.println("Loader calls for 2000 concurrent misses on 2 keys (expected 2): " + queries.get());
+    System.out.println("Distinct values returned (expected 1): " + results.size());
+    System.out.println("Distinct exceptions thrown (expected 1): " + errors.size());
+    System.out.println("Coalesced loads: " + slow.stats().coalescedLoadCount());
+
+    // A put made while a slow load of the same key runs is newer than the load's result
+    AutoLoadCache<String, String> racing = CacheManager.<String, String>createCache()
+        .withLoader(key -> {
+          sleep(200);
+          return "loaded";
+        })
+        .build();
+    Thread reader = Thread.startVirtualThread(() -> racing.get("k"));
+    sleep(50);
+    racing.put("k", "put");
+    reader.join();
+    System.out.println("Value after a put during a slow load (expected put): " + racing.get("k"));
+    System.out.println();
+
+    // === Test 6: Bulk Loading ===
+    System.out.println("Test 6: Bulk Loading");
+    List<Set<Integer>> calls = Collections.synchronizedList(new ArrayList<>());
+    AutoLoadCache<Integer, String> bulk = CacheManager.<Integer, String>createCache()
+        .withBulkLoader(ids -> {
+          calls.add(new TreeSet<>(ids));
+          sleep(100);
+          Map<Integer, String> rows = new HashMap<>();
+          for (int id : ids) {
+            rows.put(id, "row-" + id);
+          }
+          return rows;
+        })
+        .withMaxBatchSize(2)
+        .build();
+    bulk.put(1, "row-1");
+    bulk.put(2, "row-2");
+    Thread loading = Thread.startVirtualThread(() -> bulk.get(6));
+    sleep(20);
+    System.out.println("getAll([1..6]): " + bulk.getAll(List.of(1, 2, 3, 4, 5, 6)));
+    loading.join();
+    System.out.println("Bulk loader calls (expected [[6], [3, 4], [5]]): " + calls);
+    System.out.println("Coalesced loads (expected 1): " + bulk.stats().coalescedLoadCount());
+    System.out.println("Loads counted per key (expected 4): " + bulk.stats().loadSuccessCount());
+
+    // The second pass over the keys throws after 7 was registered; 7 must not stay registered
+    AtomicInteger passes = new AtomicInteger();
+    Collection<Integer> failing = new AbstractCollection<>() {
+      @Override
+      public Iterator<Integer> iterator() {
+        return passes.getAndIncrement() == 0 ? List.of(7, 8).iterator()
+            : Stream.concat(Stream.of(7), Stream.<Integer>generate(() -> {
+              throw new ConcurrentModificationException();
+            })).iterator();
+      }
+
+      @Override
+      public int size() {
+        return 2;
+      }
+    };
+    try {
+      bulk.getAll(failing);
+    } catch (ConcurrentModificationException e) {
+      System.out.println("getAll rethrows the iteration error: " + e);
+    }
+    CompletableFuture<String> seven = new CompletableFuture<>();
+    Thread.startVirtualThread(() -> seven.complete(bulk.get(7)));
+    System.out.println("get(7) after the failed getAll (expected row-7): "
+        + seven.completeOnTimeout("still waiting after 2 s", 2, TimeUnit.SECONDS).join());
+
+    calls.clear();
+    AtomicInteger batches = new AtomicInteger();
+    AutoLoadCache<Integer, String> windowed = CacheManager.<Integer, String>createCache()
+        .withBulkLoader(ids -> {
+          batches.incrementAndGet();
+          Map<Integer, String> rows = new HashMap<>();
+          for (int id : ids) {
+            rows.put(id, "row-" + id);
+          }
+          return rows;
+        })
+        .withBatchWindow(50, TimeUnit.MILLISECONDS)
+        .build();
+    try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < 100; i++) {
+        int id = i;
+        clients.submit(() -> windowed.get(id));
+      }
+    }
+    System.out.println("Bulk loader calls for 100 concurrent gets in a 50 ms window: " + batches.get());
+
+    // The thread that opens a batch returns as soon as the batch is full, not when the window ends
+    AutoLoadCache<Integer, String> full = CacheManager.<Integer, String>createCache()
+        .withBulkLoader(ids -> {
+          Map<Integer, String> rows = new HashMap<>();
+          for (int id : ids) {
+            rows.put(id, "row-" + id);
+          }
+          return rows;
+        })
+        .withMaxBatchSize(10)
+        .withBatchWindow(2, TimeUnit.SECONDS)
+        .build();
+    long opened = System.nanoTime();
+    Thread opener = Thread.startVirtualThread(() -> full.get(0));
+    sleep(20);
+    try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 1; i < 10; i++) {
+        int id = i;
+        clients.submit(() -> full.get(id));
+      }
+    }
+    opener.join();
+    long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - opened);
+    System.out.println("Opener of a full batch returned well within a 2 s window (expected true): " + (waited < 500));
+    System.out.println();
+
+    // === Test 7: Eviction Policies Under Scans ===
+    System.out.println("Test 7: Eviction Policies Under Scans");
+    for (EvictionPolicy policy : EvictionPolicy.values()) {
+      AutoLoadCache<Integer, Integer> scanned = CacheManager.<Integer, Integer>createCache()
+          .withMaxSize(1000)
+          .withEvictionPolicy(policy)
+          .withLoader(key -> key)
+          .build();
+      // Half the requests go to 800 hot keys, the other half scan keys that are never requested again
+      Random random = new Random(42);
+      int scan = 1_000_000;
+      for (int i = 0; i < 500_000; i++) {
+        scanned.get(random.nextBoolean() ? random.nextInt(800) : scan++);
+      }
+      CacheStats stats = scanned.stats();
+      System.out.printf("%s hit rate: %.1f%% (window size %d, last hit rate change %+.4f)%n", policy,
+          stats.hitRate() * 100, stats.windowSize(), stats.hitRateChange());
+    }
+    System.out.println();
+
+    // === Test 8: Concurrent Read Throughput ===
+    System.out.println("Test 8: Concurrent Read Throughput");
+    int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+    AutoLoadCache<Integer, Integer> hot = CacheManager.<Integer, Integer>createCache()
+        .withMaxSize(10_000)
+        .withLoader(key -> key)
+        .build();
+    Map<Integer, Integer> locked = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+        return size() > 10_000;
+      }
+    });
+    System.out.printf("AutoLoadCache.get, %d threads: %.1f M ops/s%n", threads,
+        throughput(threads, hot::get));
+    System.out.printf("Synchronized LRU map, %d threads: %.1f M ops/s%n", threads,
+        throughput(threads, key -> locked.computeIfAbsent(key, k -> k)));
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Runs gets over 1000 keys on {@code threads} threads for one second and
+   * returns the combined rate.
+   */
+  private static double throughput(int threads, Function<Integer, Integer> get) throws InterruptedException {
+    long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+    long[] counts = new long[threads];
+    Thread[] workers = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      int id = t;
+      workers[t] = new Thread(() -> {
+        long ops = 0;
+        int key = id;
+        while ((ops & 1023) != 0 || System.nanoTime() < end) {
+          get.apply(key);
+          key = (key + 7) % 1000;
+          ops++;
+        }
+        counts[id] = ops;
+      });
+      workers[t].start();
+    }
+    long total = 0;
+    for (int t = 0; t < threads; t++) {
+      workers[t].join();
+      total += counts[t];
+    }
+    return total / 1e6;
+  }
+}
@@ -0,0 +1,119 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.Consumer;
+
+/**
+ * Lossy log of reads, striped by thread so that readers on different cores
+ * rarely touch the same counters. Each stripe is a small ring buffer that
+ * readers append to with one CAS; a record that would overflow a stripe, or
+ * that loses a race for a slot, is dropped, since the eviction order only
+ * needs to be approximately LRU. Draining is done by one thread at a time,
+ * under the cache's eviction lock.
+ */
+final class StripedReadBuffer<E> {
+  static final int SUCCESS = 0;
+  static final int FULL = 1;
+  static final int FAILED = 2;
+
+  private static final int STRIPE_SIZE = 16;
+  private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+
+  private final Stripe[] stripes;
+  private final int mask;
+
+  StripedReadBuffer() {
+    int count = 1;
+    while (count < 4 * Runtime.getRuntime().availableProcessors()) {
+      count <<= 1;
+    }
+    stripes = new Stripe[count];
+    for (int i = 0; i < count; i++) {
+      stripes[i] = new Stripe();
+    }
+    mask = count - 1;
+  }
+
+  /**
+   * Records {@code e} in the calling thread's stripe and returns
+   * {@link #SUCCESS}, {@link #FULL} if the stripe should be drained first, or
+   * {@link #FAILED} if another thread took the slot.
+   */
+  int offer(E e) {
+    long h = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+    return stripes[(int) (h >>> 32) & mask].offer(e);
+  }
+
+  /**
+   * Hands every recorded element to {@code consumer}. Must only be called by
+   * one thread at a time.
+   */
+  @SuppressWarnings("unchecked")
+  void drainTo(Consumer<E> consumer) {
+    for (Stripe stripe : stripes) {
+      stripe.drainTo((Consumer<Object>) consumer);
+    }
+  }
+
+  // The counters of neighbouring stripes are kept on separate cache lines
+
+  static class LeftPadding {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+  }
+
+  static class Counters extends LeftPadding {
+    volatile long writeCounter;
+    volatile long readCounter;
+  }
+
+  static class RightPadding extends Counters {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+  }
+
+  static final class Stripe extends RightPadding {
+    private static final VarHandle WRITE_COUNTER;
+    private static final VarHandle READ_COUNTER;
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    static {
+      try {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        WRITE_COUNTER = lookup.findVarHandle(Counters.class, "writeCounter", long.class);
+        READ_COUNTER = lookup.findVarHandle(Counters.class, "readCounter", long.class);
+      } catch (ReflectiveOperationException e) {
+        throw new ExceptionInInitializerError(e);
+      }
+    }
+
+    private final Object[] slots = new Object[STRIPE_SIZE];
+
+    int offer(Object e) {
+      long head = (long) READ_COUNTER.getAcquire(this);
+      long tail = (long) WRITE_COUNTER.getOpaque(this);
+      if (tail - head >= STRIPE_SIZE) {
+        return FULL;
+      }
+      if (!WRITE_COUNTER.compareAndSet(this, tail, tail + 1)) {
+        return FAILED;
+      }
+      SLOTS.setRelease(slots, (int) tail & STRIPE_MASK, e);
+      return SUCCESS;
+    }
+
+    void drainTo(Consumer<Object> consumer) {
+      long head = readCounter;
+      long tail = writeCounter;
+      while (head < tail) {
+        int index = (int) head & STRIPE_MASK;
+        Object e = SLOTS.getAcquire(slots, index);
+        if (e == null) {
+          // The writer claimed the slot but has not published into it yet
+          break;
+        }
+        SLOTS.setRelease(slots, index, null);
+        consumer.accept(e);
+        head++;
+      }
+      READ_COUNTER.setRelease(this, head);
+    }
+  }
+}
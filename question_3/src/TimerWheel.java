@@ -0,0 +1,141 @@
+import java.util.function.Predicate;
+
+/**
+ * Hierarchical timing wheel that schedules cache entries by expiration time.
+ * The first four levels are rings of buckets, each bucket a circular list of
+ * nodes, whose buckets cover about 1.07 seconds, 1.14 minutes, 1.22 hours and
+ * 1.63 days respectively; the fifth level is a single overflow bucket, about
+ * 6.5 days wide, for entries further out.
+ * Scheduling, rescheduling and descheduling a node are O(1). Advancing the
+ * wheel only visits the buckets whose time has passed: their nodes are
+ * offered to the expiration callback, and those it declines, because they
+ * were scheduled in a coarser bucket or their deadline moved since, are
+ * rescheduled at a finer level. Not thread-safe; the cache only uses it
+ * under its eviction lock.
+ *
+ * <p>Times are nanoseconds since the cache was created, so never negative.
+ */
+final class TimerWheel<K, V> {
+  private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+  // Bucket widths per level, powers of two just above a second, minute, hour and day, then the overflow
+  private static final long[] SPANS = {
+      1L << 30, // 1.07 s
+      1L << 36, // 1.14 min
+      1L << 42, // 1.22 h
+      1L << 47, // 1.63 d
+      1L << 49, // 6.5 d
+  };
+  private static final int[] SHIFT = {30, 36, 42, 47, 49};
+
+  private final LocalAutoLoadCache.Node<K, V>[][] wheel;
+  private long nanos;
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  TimerWheel() {
+    wheel = new LocalAutoLoadCache.Node[BUCKETS.length][];
+    for (int i = 0; i < BUCKETS.length; i++) {
+      wheel[i] = new LocalAutoLoadCache.Node[BUCKETS[i]];
+      for (int j = 0; j < BUCKETS[i]; j++) {
+        LocalAutoLoadCache.Node<K, V> sentinel = new LocalAutoLoadCache.Node<>(null, null, 0);
+        sentinel.prevInTimer = sentinel;
+        sentinel.nextInTimer = sentinel;
+        wheel[i][j] = sentinel;
+      }
+    }
+  }
+
+  /**
+   * Adds {@code node} to the bucket of its expiration time.
+   */
+  void schedule(LocalAutoLoadCache.Node<K, V> node) {
+    LocalAutoLoadCache.Node<K, V> sentinel = bucket(node.expiresAt);
+    LocalAutoLoadCache.Node<K, V> last = sentinel.prevInTimer;
+    node.prevInTimer = last;
+    node.nextInTimer = sentinel;
+    last.nextInTimer = node;
+    sentinel.prevInTimer = node;
+  }
+
+  /**
+   * Moves {@code node} to the bucket of its current expiration time.
+   */
+  void reschedule(LocalAutoLoadCache.Node<K, V> node) {
+    if (node.nextInTimer != null) {
+      unlink(node);
+      schedule(node);
+    }
+  }
+
+  void deschedule(LocalAutoLoadCache.Node<K, V> node) {
+    if (node.nextInTimer != null) {
+      unlink(node);
+    }
+  }
+
+  /**
+   * Moves the wheel to {@code now} and hands every node in a bucket whose
+   * time has passed to {@code expire}. Nodes for which it returns false are
+   * scheduled again.
+   */
+  void advance(long now, Predicate<LocalAutoLoadCache.Node<K, V>> expire) {
+    long previous = nanos;
+    nanos = now;
+    for (int level = 0; level < SHIFT.length; level++) {
+      long previousTicks = previous >>> SHIFT[level];
+      long delta = (now >>> SHIFT[level]) - previousTicks;
+      if (delta <= 0) {
+        break;
+      }
+      expire(level, previousTicks, delta, expire);
+    }
+  }
+
+  private void expire(int level, long previousTicks, long delta,
+      Predicate<LocalAutoLoadCache.Node<K, V>> expire) {
+    LocalAutoLoadCache.Node<K, V>[] buckets = wheel[level];
+    int mask = buckets.length - 1;
+    int steps = (int) Math.min(1 + delta, buckets.length);
+    int start = (int) (previousTicks & mask);
+    for (int i = start; i < start + steps; i++) {
+      // Detach the whole bucket first, since declined nodes may be scheduled back into it
+      LocalAutoLoadCache.Node<K, V> sentinel = buckets[i & mask];
+      LocalAutoLoadCache.Node<K, V> node = sentinel.nextInTimer;
+      sentinel.prevInTimer = sentinel;
+      sentinel.nextInTimer = sentinel;
+      while (node != sentinel) {
+        LocalAutoLoadCache.Node<K, V> next = node.nextInTimer;
+        node.prevInTimer = null;
+        node.nextInTimer = null;
+        if (!expire.test(node)) {
+          schedule(node);
+        }
+        node = next;
+      }
+    }
+  }
+
+  /**
+   * Returns the sentinel of the finest-grained bucket whose level spans
+   * {@code time}. A time that has already passed gets the current bucket,
+   * which the next tick visits again, rather than one a whole turn away.
+   */
+  private LocalAutoLoadCache.Node<K, V> bucket(long time) {
+    time = Math.max(time, nanos);
+    long duration = time - nanos;
+    int last = wheel.length - 1;
+    for (int level = 0; level < last; level++) {
+      if (duration < SPANS[level + 1]) {
+        long ticks = time >>> SHIFT[level];
+        return wheel[level][(int) (ticks & (wheel[level].length - 1))];
+      }
+    }
+    return wheel[last][0];
+  }
+
+  private static <K, V> void unlink(LocalAutoLoadCache.Node<K, V> node) {
+    node.prevInTimer.nextInTimer = node.nextInTimer;
+    node.nextInTimer.prevInTimer = node.prevInTimer;
+    node.prevInTimer = null;
+    node.nextInTimer = null;
+  }
+}